@@ -39,6 +39,9 @@ public interface CeConfiguration {
   /**
    * The delay in millisecond before a {@link org.sonar.ce.taskprocessor.CeWorker} shall try and find a task
    * to process when it's previous execution had nothing to do.
+   * <p>
+   * Idle workers are woken up as soon as tasks are submitted, so this delay only bounds the latency of tasks whose
+   * submission could not be notified.
    */
   long getQueuePollingDelay();
 
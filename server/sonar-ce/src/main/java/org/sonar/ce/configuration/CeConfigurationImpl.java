@@ -35,8 +35,8 @@ public class CeConfigurationImpl implements CeConfiguration, Startable {
   private static final int DEFAULT_WORKER_THREAD_COUNT = 1;
   private static final int MAX_WORKER_THREAD_COUNT = 10;
   private static final int DEFAULT_WORKER_COUNT = 1;
-  // 2 seconds
-  private static final long DEFAULT_QUEUE_POLLING_DELAY = 2 * 1000L;
+  // 10 seconds, workers are woken up when tasks are submitted
+  private static final long DEFAULT_QUEUE_POLLING_DELAY = 10 * 1000L;
   // 1 minute
   private static final long CANCEL_WORN_OUTS_INITIAL_DELAY = 1;
   // 10 minutes
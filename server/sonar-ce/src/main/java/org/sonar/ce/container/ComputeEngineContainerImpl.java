@@ -56,6 +56,7 @@ import org.sonar.ce.queue.PurgeCeActivities;
 import org.sonar.ce.settings.ProjectConfigurationFactory;
 import org.sonar.ce.taskprocessor.CeProcessingScheduler;
 import org.sonar.ce.taskprocessor.CeTaskProcessorModule;
+import org.sonar.ce.taskprocessor.WakeUpWorkersTopicListener;
 import org.sonar.ce.user.CeUserSession;
 import org.sonar.core.component.DefaultResourceTypes;
 import org.sonar.core.config.ConfigurationProvider;
@@ -431,6 +432,9 @@ public class ComputeEngineContainerImpl implements ComputeEngineContainer {
         // system health
         CeDistributedInformationImpl.class,
 
+        // queue
+        WakeUpWorkersTopicListener.class,
+
         // system info
         DbSection.class,
         ProcessInfoProvider.class);
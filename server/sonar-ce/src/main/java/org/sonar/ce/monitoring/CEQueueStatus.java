@@ -31,6 +31,17 @@ public interface CEQueueStatus {
    */
   long addInProgress();
 
+  /**
+   * Adds the specified time to the waiting time counter. Called when a task is taken out of the queue for processing.
+   *
+   * @param waitingTime duration between the submission of the task and the start of its processing, in ms
+   *
+   * @see #getWaitingTime()
+   *
+   * @throws IllegalArgumentException if waitingTime is < 0
+   */
+  void addWaitingTime(long waitingTime);
+
   /**
    * Adds 1 to the count of batch reports which processing ended successfully and removes 1 from the count of batch
    * reports under processing. Adds the specified time to the processing time counter.
@@ -85,4 +96,10 @@ public interface CEQueueStatus {
    * Time spent processing batch reports since startup, in milliseconds.
    */
   long getProcessingTime();
+
+  /**
+   * Time spent in the queue by the tasks started since instance startup, between their submission and the start of
+   * their processing, in milliseconds.
+   */
+  long getWaitingTime();
 }
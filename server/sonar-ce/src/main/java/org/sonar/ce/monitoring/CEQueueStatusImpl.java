@@ -33,6 +33,7 @@ public class CEQueueStatusImpl implements CEQueueStatus {
   private final AtomicLong error = new AtomicLong(0);
   private final AtomicLong success = new AtomicLong(0);
   private final AtomicLong processingTime = new AtomicLong(0);
+  private final AtomicLong waitingTime = new AtomicLong(0);
 
   public CEQueueStatusImpl(DbClient dbClient) {
     this.dbClient = dbClient;
@@ -43,6 +44,12 @@ public class CEQueueStatusImpl implements CEQueueStatus {
     return inProgress.incrementAndGet();
   }
 
+  @Override
+  public void addWaitingTime(long waitingTimeInMs) {
+    checkArgument(waitingTimeInMs >= 0, "Waiting time can not be < 0");
+    waitingTime.addAndGet(waitingTimeInMs);
+  }
+
   @Override
   public long addError(long processingTimeInMs) {
     addProcessingTime(processingTimeInMs);
@@ -88,4 +95,9 @@ public class CEQueueStatusImpl implements CEQueueStatus {
   public long getProcessingTime() {
     return processingTime.get();
   }
+
+  @Override
+  public long getWaitingTime() {
+    return waitingTime.get();
+  }
 }
@@ -48,6 +48,12 @@ public interface CeTasksMBean {
    */
   long getProcessingTime();
 
+  /**
+   * Time spent in the queue by the tasks started since startup, from their submission to the start of their
+   * processing, in milliseconds.
+   */
+  long getWaitingTime();
+
   /**
    * Configured maximum number of workers.
    */
@@ -86,11 +86,24 @@ public class InternalCeQueueImpl extends CeQueueImpl implements InternalCeQueue
       if (dto.isPresent()) {
         task = loadTask(dbSession, dto.get());
         queueStatus.addInProgress();
+        queueStatus.addWaitingTime(waitingTimeOf(dto.get()));
       }
       return Optional.ofNullable(task);
     }
   }
 
+  /**
+   * Tasks are created by the Web Server and started by the Compute Engine, which may not share the same clock in
+   * cluster mode.
+   */
+  private static long waitingTimeOf(CeQueueDto dto) {
+    Long startedAt = dto.getStartedAt();
+    if (startedAt == null) {
+      return 0L;
+    }
+    return Math.max(0L, startedAt - dto.getCreatedAt());
+  }
+
   @Override
   public int clear() {
     return cancelAll(true);
@@ -24,4 +24,10 @@ public interface CeProcessingScheduler {
   void startScheduling();
 
   void stopScheduling();
+
+  /**
+   * Makes the workers which are waiting for the next polling of the queue look for a task right away. Workers which
+   * are processing a task or which are disabled are not affected.
+   */
+  void wakeUpIdleWorkers();
 }
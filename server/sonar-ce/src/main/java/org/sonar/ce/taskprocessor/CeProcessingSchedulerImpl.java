@@ -22,7 +22,8 @@ package org.sonar.ce.taskprocessor;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListenableScheduledFuture;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.CheckForNull;
@@ -31,7 +32,6 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.ce.configuration.CeConfiguration;
 
-import static com.google.common.util.concurrent.Futures.addCallback;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class CeProcessingSchedulerImpl implements CeProcessingScheduler {
@@ -64,8 +64,14 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler {
   @Override
   public void startScheduling() {
     for (ChainingCallback chainingCallback : chainingCallbacks) {
-      ListenableScheduledFuture<CeWorker.Result> future = executorService.schedule(chainingCallback.worker, delayBetweenEnabledTasks, timeUnit);
-      addCallback(future, chainingCallback, executorService);
+      chainingCallback.chainWithEnabledTaskDelay();
+    }
+  }
+
+  @Override
+  public void wakeUpIdleWorkers() {
+    for (ChainingCallback chainingCallback : chainingCallbacks) {
+      chainingCallback.wakeUp();
     }
   }
 
@@ -108,7 +114,9 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler {
     private final CeWorker worker;
 
     @CheckForNull
-    private ListenableFuture<CeWorker.Result> workerFuture;
+    private volatile ListenableFuture<CeWorker.Result> workerFuture;
+    @CheckForNull
+    private volatile IdleWorker idleWorker;
 
     public ChainingCallback(CeWorker worker) {
       this.worker = worker;
@@ -151,7 +159,10 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler {
 
     private void chainWithEnabledTaskDelay() {
       if (keepRunning()) {
-        workerFuture = executorService.schedule(worker, delayBetweenEnabledTasks, timeUnit);
+        IdleWorker idle = new IdleWorker(worker);
+        workerFuture = executorService.schedule(idle, delayBetweenEnabledTasks, timeUnit);
+        idle.future = workerFuture;
+        idleWorker = idle;
       }
       addCallback();
     }
@@ -173,6 +184,13 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler {
       return keepRunning.get();
     }
 
+    public void wakeUp() {
+      IdleWorker idle = this.idleWorker;
+      if (idle != null) {
+        idle.wakeUp();
+      }
+    }
+
     public void stop(boolean interrupt) {
       this.keepRunning.set(false);
       if (workerFuture != null) {
@@ -180,4 +198,43 @@ public class CeProcessingSchedulerImpl implements CeProcessingScheduler {
       }
     }
   }
+
+  /**
+   * Runs the {@link CeWorker} once its polling delay has elapsed, unless it has been woken up in the meantime.
+   * <p>
+   * The future of a task which has already started can still be cancelled, so the wake up must be decided before the
+   * worker is called to ensure it is never run twice concurrently.
+   */
+  static final class IdleWorker implements Callable<CeWorker.Result> {
+    private final CeWorker worker;
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    @CheckForNull
+    private ListenableFuture<CeWorker.Result> future;
+
+    IdleWorker(CeWorker worker) {
+      this.worker = worker;
+    }
+
+    CeWorker getWorker() {
+      return worker;
+    }
+
+    /**
+     * Cancels the pending polling of the queue if the worker is still waiting for it. The callback of the cancelled
+     * future then runs the worker without delay.
+     */
+    void wakeUp() {
+      if (started.compareAndSet(false, true) && future != null) {
+        future.cancel(false);
+      }
+    }
+
+    @Override
+    public CeWorker.Result call() throws Exception {
+      if (!started.compareAndSet(false, true)) {
+        throw new CancellationException("Worker " + worker.getUUID() + " has been woken up");
+      }
+      return worker.call();
+    }
+  }
 }
@@ -0,0 +1,62 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.taskprocessor;
+
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import javax.annotation.CheckForNull;
+import org.picocontainer.Startable;
+import org.sonar.process.cluster.hz.HazelcastMember;
+
+import static org.sonar.process.cluster.hz.HazelcastObjects.CE_TASK_SUBMITTED;
+
+/**
+ * Wakes up the idle workers of this Compute Engine when any Web Server of the cluster notifies the submission of tasks.
+ */
+public class WakeUpWorkersTopicListener implements MessageListener<String>, Startable {
+  private final HazelcastMember hazelcastMember;
+  private final CeProcessingScheduler ceProcessingScheduler;
+
+  @CheckForNull
+  private String registrationId;
+
+  public WakeUpWorkersTopicListener(HazelcastMember hazelcastMember, CeProcessingScheduler ceProcessingScheduler) {
+    this.hazelcastMember = hazelcastMember;
+    this.ceProcessingScheduler = ceProcessingScheduler;
+  }
+
+  @Override
+  public void start() {
+    this.registrationId = hazelcastMember.<String>getTopic(CE_TASK_SUBMITTED).addMessageListener(this);
+  }
+
+  @Override
+  public void stop() {
+    if (registrationId != null) {
+      hazelcastMember.getTopic(CE_TASK_SUBMITTED).removeMessageListener(registrationId);
+      registrationId = null;
+    }
+  }
+
+  @Override
+  public void onMessage(Message<String> message) {
+    ceProcessingScheduler.wakeUpIdleWorkers();
+  }
+}
@@ -132,7 +132,7 @@ public class ComputeEngineContainerImplTest {
           + 75 // level 4
           + 6 // content of CeConfigurationModule
           + 4 // content of CeQueueModule
-          + 4 // content of CeHttpModule
+          + 5 // content of CeHttpModule
           + 3 // content of CeTaskCommonsModule
           + 4 // content of ProjectAnalysisTaskModule
           + 7 // content of CeTaskProcessorModule
@@ -153,7 +153,7 @@ public class ComputeEngineContainerImplTest {
       COMPONENTS_IN_LEVEL_1_AT_CONSTRUCTION
         + 26 // level 1
         + 51 // content of DaoModule
-        + 3 // content of EsSearchModule
+        + 4 // content of EsSearchModule
         + 66 // content of CorePropertyDefinitions
         + 1 // StopFlagContainer
     );
@@ -50,6 +50,7 @@ public class CEQueueStatusImplTest {
     assertThat(underTest.getErrorCount()).isEqualTo(0);
     assertThat(underTest.getSuccessCount()).isEqualTo(0);
     assertThat(underTest.getProcessingTime()).isEqualTo(0);
+    assertThat(underTest.getWaitingTime()).isEqualTo(0);
   }
 
   @Test
@@ -133,6 +134,24 @@ public class CEQueueStatusImplTest {
     assertThat(underTest.getProcessingTime()).isEqualTo(calls);
   }
 
+  @Test
+  public void addWaitingTime_throws_IAE_if_time_is_less_than_0() {
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Waiting time can not be < 0");
+
+    underTest.addWaitingTime(-1);
+  }
+
+  @Test
+  public void addWaitingTime_sums_waiting_times_without_changing_counts() {
+    underTest.addWaitingTime(SOME_PROCESSING_TIME);
+    underTest.addWaitingTime(1);
+
+    assertThat(underTest.getWaitingTime()).isEqualTo(SOME_PROCESSING_TIME + 1);
+    assertThat(underTest.getInProgressCount()).isEqualTo(0);
+    assertThat(underTest.getProcessingTime()).isEqualTo(0);
+  }
+
   @Test
   public void count_Pending_from_database() {
     when(dbClient.ceQueueDao().countByStatus(any(DbSession.class), eq(CeQueueDto.Status.PENDING))).thenReturn(42);
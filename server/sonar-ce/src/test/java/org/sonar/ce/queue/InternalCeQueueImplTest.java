@@ -338,6 +338,19 @@ public class InternalCeQueueImplTest {
     assertThat(peek.isPresent()).isFalse();
   }
 
+  @Test
+  public void peek_adds_time_elapsed_since_submission_to_waiting_time() {
+    CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
+    CeQueueDto submitted = dbTester.getDbClient().ceQueueDao().selectByUuid(session, task.getUuid()).get();
+
+    underTest.peek(WORKER_UUID_1);
+
+    CeQueueDto started = dbTester.getDbClient().ceQueueDao().selectByUuid(session, task.getUuid()).get();
+    assertThat(queueStatus.getWaitingTime())
+      .isPositive()
+      .isEqualTo(started.getStartedAt() - submitted.getCreatedAt());
+  }
+
   @Test
   public void peek_peeks_pending_tasks_with_executionCount_equal_to_0_and_increases_it() {
     dbTester.getDbClient().ceQueueDao().insert(session, new CeQueueDto()
@@ -32,6 +32,7 @@ import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutionException;
@@ -40,13 +41,16 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.DisableOnDebug;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.TestRule;
 import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
 import org.sonar.ce.configuration.CeConfigurationRule;
 
 import static com.google.common.collect.ImmutableList.copyOf;
@@ -56,6 +60,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -67,6 +72,8 @@ import static org.sonar.ce.taskprocessor.CeWorker.Result.TASK_PROCESSED;
 public class CeProcessingSchedulerImplTest {
   private static final Error ERROR_TO_INTERRUPT_CHAINING = new Error("Error should stop scheduling");
 
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
   // due to risks of infinite chaining of tasks/futures, a timeout is required for safety
   @Rule
   public TestRule safeguardTimeout = new DisableOnDebug(Timeout.seconds(60));
@@ -216,26 +223,70 @@ public class CeProcessingSchedulerImplTest {
 
     ListenableScheduledFuture listenableScheduledFuture = mock(ListenableScheduledFuture.class);
     CeProcessingSchedulerExecutorService processingExecutorService = mock(CeProcessingSchedulerExecutorService.class);
-    when(processingExecutorService.schedule(any(CeWorker.class), any(Long.class), any(TimeUnit.class))).thenReturn(listenableScheduledFuture);
+    when(processingExecutorService.schedule(any(Callable.class), any(Long.class), any(TimeUnit.class))).thenReturn(listenableScheduledFuture);
 
     CeWorkerFactory ceWorkerFactory = spy(new TestCeWorkerFactory(workers));
     CeProcessingSchedulerImpl underTest = new CeProcessingSchedulerImpl(ceConfiguration, processingExecutorService, ceWorkerFactory, ceWorkerController);
-    when(processingExecutorService.schedule(ceWorker, ceConfiguration.getQueuePollingDelay(), MILLISECONDS))
-      .thenReturn(listenableScheduledFuture);
 
     underTest.startScheduling();
     // No exception from TestCeWorkerFactory must be thrown
 
     // Verify that schedule has been called on all workers
-    for (int i = 0; i < workerCount; i++) {
-      verify(processingExecutorService).schedule(workers[i], ceConfiguration.getQueuePollingDelay(), MILLISECONDS);
-    }
+    ArgumentCaptor<Callable> scheduledCallables = ArgumentCaptor.forClass(Callable.class);
+    verify(processingExecutorService, times(workerCount)).schedule(scheduledCallables.capture(), eq(ceConfiguration.getQueuePollingDelay()), eq(MILLISECONDS));
+    assertThat(scheduledCallables.getAllValues().stream().map(CeProcessingSchedulerImplTest::unwrap).collect(Collectors.toList()))
+      .containsExactly((Object[]) workers);
     verify(listenableScheduledFuture, times(workerCount)).addListener(any(Runnable.class), eq(processingExecutorService));
     for (int i = 0; i < workerCount; i++) {
       verify(ceWorkerFactory).create(i);
     }
   }
 
+  @Test
+  public void wakeUpIdleWorkers_polls_without_delay_when_worker_is_waiting_for_next_polling() throws Exception {
+    when(ceWorker.call())
+      .thenThrow(ERROR_TO_INTERRUPT_CHAINING);
+
+    underTest.startScheduling();
+    underTest.wakeUpIdleWorkers();
+    processingExecutorService.runFutures();
+
+    assertThat(processingExecutorService.getSchedulerCalls()).containsExactly(
+      regularDelayedPoll,
+      notDelayedPoll);
+    verify(ceWorker, times(1)).call();
+  }
+
+  @Test
+  public void wakeUpIdleWorkers_has_no_effect_when_worker_is_disabled() throws Exception {
+    when(ceWorker.call())
+      .thenReturn(DISABLED)
+      .thenThrow(ERROR_TO_INTERRUPT_CHAINING);
+
+    underTest.startScheduling();
+    processingExecutorService.futures.poll().get();
+    underTest.wakeUpIdleWorkers();
+    processingExecutorService.runFutures();
+
+    assertThat(processingExecutorService.getSchedulerCalls()).containsExactly(
+      regularDelayedPoll,
+      extendedDelayedPoll);
+  }
+
+  @Test
+  public void idle_worker_is_not_called_once_woken_up() throws Exception {
+    CeProcessingSchedulerImpl.IdleWorker idleWorker = new CeProcessingSchedulerImpl.IdleWorker(ceWorker);
+
+    idleWorker.wakeUp();
+
+    expectedException.expect(CancellationException.class);
+    try {
+      idleWorker.call();
+    } finally {
+      verify(ceWorker, never()).call();
+    }
+  }
+
   private void startSchedulingAndRun() throws ExecutionException, InterruptedException {
     underTest.startScheduling();
 
@@ -290,7 +341,7 @@ public class CeProcessingSchedulerImplTest {
 
     @Override
     public <V> ListenableScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
-      this.schedulerCalls.add(new SchedulerCall(callable, delay, unit));
+      this.schedulerCalls.add(new SchedulerCall(unwrap(callable), delay, unit));
       return delegate.schedule(callable, delay, unit);
     }
 
@@ -547,6 +598,13 @@ public class CeProcessingSchedulerImplTest {
     }
   }
 
+  private static Callable<?> unwrap(Callable<?> callable) {
+    if (callable instanceof CeProcessingSchedulerImpl.IdleWorker) {
+      return ((CeProcessingSchedulerImpl.IdleWorker) callable).getWorker();
+    }
+    return callable;
+  }
+
   /**
    * Used to log parameters of calls to {@link CeProcessingSchedulerExecutorService#schedule(Callable, long, TimeUnit)}
    */
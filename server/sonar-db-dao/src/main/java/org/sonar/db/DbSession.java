@@ -23,4 +23,11 @@ import org.apache.ibatis.session.SqlSession;
 
 public interface DbSession extends SqlSession {
   SqlSession getSqlSession();
+
+  /**
+   * Registers an action to be executed once the current transaction is committed. The action is discarded if
+   * the transaction is rolled back or if the session is closed. An action registered several times in the same
+   * transaction is executed once.
+   */
+  void afterCommit(Runnable action);
 }
@@ -20,8 +20,11 @@
 package org.sonar.db;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.session.Configuration;
@@ -32,6 +35,7 @@ import org.apache.ibatis.session.SqlSession;
 public class DbSessionImpl implements DbSession {
 
   private SqlSession session;
+  private final Set<Runnable> afterCommitActions = new LinkedHashSet<>();
 
   public DbSessionImpl(SqlSession session) {
     this.session = session;
@@ -40,11 +44,27 @@ public class DbSessionImpl implements DbSession {
   @Override
   public void commit() {
     session.commit();
+    executeAfterCommitActions();
   }
 
   @Override
   public void commit(boolean force) {
     session.commit(force);
+    executeAfterCommitActions();
+  }
+
+  @Override
+  public void afterCommit(Runnable action) {
+    afterCommitActions.add(action);
+  }
+
+  private void executeAfterCommitActions() {
+    if (afterCommitActions.isEmpty()) {
+      return;
+    }
+    List<Runnable> actions = new ArrayList<>(afterCommitActions);
+    afterCommitActions.clear();
+    actions.forEach(Runnable::run);
   }
 
   /**
@@ -155,11 +175,13 @@ public class DbSessionImpl implements DbSession {
   @Override
   public void rollback() {
     session.rollback();
+    afterCommitActions.clear();
   }
 
   @Override
   public void rollback(boolean force) {
     session.rollback(force);
+    afterCommitActions.clear();
   }
 
   @Override
@@ -170,6 +192,7 @@ public class DbSessionImpl implements DbSession {
   @Override
   public void close() {
     session.close();
+    afterCommitActions.clear();
   }
 
   @Override
@@ -0,0 +1,46 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of committed transactions of this process which modified some data. It can be used by caches to detect
+ * that they are outdated. Note that the modifications made by other processes are not counted.
+ * <p>
+ * The counter is incremented after commit, so that a cache loaded before the commit does not keep stale values,
+ * and only once per transaction, whatever the number of modifications.
+ */
+public class ModificationCounter {
+
+  private final AtomicLong counter = new AtomicLong();
+  private final Runnable increment = counter::incrementAndGet;
+
+  /**
+   * Counts the current transaction of {@code dbSession} as a modification once it is committed.
+   */
+  public void markModified(DbSession dbSession) {
+    dbSession.afterCommit(increment);
+  }
+
+  public long get() {
+    return counter.get();
+  }
+}
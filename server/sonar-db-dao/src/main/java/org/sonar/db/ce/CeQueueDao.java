@@ -19,12 +19,14 @@
  */
 package org.sonar.db.ce;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.ibatis.session.RowBounds;
 import org.sonar.api.utils.System2;
+import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.Pagination;
@@ -36,7 +38,12 @@ import static org.sonar.db.ce.CeQueueDto.Status.PENDING;
 
 public class CeQueueDao implements Dao {
 
-  private static final Pagination ONE_RESULT_PAGINATION = Pagination.forPage(1).andSize(1);
+  /**
+   * Number of eligible tasks among which {@link #peek(DbSession, String, int)} tries and claim one, so that workers
+   * peeking at the same time don't all compete for the oldest task.
+   */
+  private static final int PEEK_WINDOW_SIZE = 10;
+  private static final Pagination PEEK_WINDOW_PAGINATION = Pagination.forPage(1).andSize(PEEK_WINDOW_SIZE);
 
   private final System2 system2;
 
@@ -135,14 +142,35 @@ public class CeQueueDao implements Dao {
     return mapper(dbSession).countByStatusAndComponentUuid(status, componentUuid);
   }
 
+  /**
+   * Claims the oldest eligible task for the specified worker. If another worker claims it first, the other eligible
+   * tasks are tried, starting from an offset specific to the worker so that concurrent workers don't keep competing
+   * for the same tasks.
+   */
   public Optional<CeQueueDto> peek(DbSession session, String workerUuid, int maxExecutionCount) {
-    List<EligibleTaskDto> eligibles = mapper(session).selectEligibleForPeek(maxExecutionCount, ONE_RESULT_PAGINATION);
+    List<EligibleTaskDto> eligibles = oldestOfEachComponent(mapper(session).selectEligibleForPeek(maxExecutionCount, PEEK_WINDOW_PAGINATION));
     if (eligibles.isEmpty()) {
       return Optional.empty();
     }
 
-    EligibleTaskDto eligible = eligibles.get(0);
-    return tryToPeek(session, eligible, workerUuid);
+    Optional<CeQueueDto> peeked = tryToPeek(session, eligibles.get(0), workerUuid);
+    int otherCount = eligibles.size() - 1;
+    int offset = otherCount == 0 ? 0 : Math.floorMod(workerUuid.hashCode(), otherCount);
+    for (int i = 0; !peeked.isPresent() && i < otherCount; i++) {
+      peeked = tryToPeek(session, eligibles.get(1 + (offset + i) % otherCount), workerUuid);
+    }
+    return peeked;
+  }
+
+  /**
+   * Tasks of a component must be processed one at a time and in order, so only the oldest eligible task of each
+   * component can be claimed.
+   */
+  private static List<EligibleTaskDto> oldestOfEachComponent(List<EligibleTaskDto> eligibles) {
+    Set<String> componentUuids = new HashSet<>();
+    return eligibles.stream()
+      .filter(eligible -> eligible.getComponentUuid() == null || componentUuids.add(eligible.getComponentUuid()))
+      .collect(MoreCollectors.toList(eligibles.size()));
   }
 
   private Optional<CeQueueDto> tryToPeek(DbSession session, EligibleTaskDto eligible, String workerUuid) {
@@ -19,8 +19,13 @@
  */
 package org.sonar.db.ce;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
 public class EligibleTaskDto {
   private String uuid;
+  @Nullable
+  private String componentUuid;
   private int executionCount;
 
   public String getUuid() {
@@ -32,6 +37,16 @@ public class EligibleTaskDto {
     return this;
   }
 
+  @CheckForNull
+  public String getComponentUuid() {
+    return componentUuid;
+  }
+
+  public EligibleTaskDto setComponentUuid(@Nullable String componentUuid) {
+    this.componentUuid = componentUuid;
+    return this;
+  }
+
   public int getExecutionCount() {
     return executionCount;
   }
@@ -45,6 +60,7 @@ public class EligibleTaskDto {
   public String toString() {
     return "EligibleTaskDto{" +
         "uuid='" + uuid + '\'' +
+        ", componentUuid='" + componentUuid + '\'' +
         ", executionCount=" + executionCount +
         '}';
   }
@@ -38,6 +38,7 @@ import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.resources.Scopes;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 import org.sonar.db.RowNotFoundException;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -53,6 +54,8 @@ import static org.sonar.db.component.ComponentDto.generateBranchKey;
 
 public class ComponentDao implements Dao {
 
+  private final ModificationCounter visibilityModificationCounter = new ModificationCounter();
+
   private static List<ComponentDto> selectByQueryImpl(DbSession session, @Nullable String organizationUuid, ComponentQuery query, int offset, int limit) {
     if (query.hasEmptySetOfComponents()) {
       return emptyList();
@@ -251,6 +254,16 @@ public class ComponentDao implements Dao {
     return mapper(session).selectProjects();
   }
 
+  /**
+   * Returns the distinct values of column project_uuid of all components, including disabled ones. That
+   * covers projects, branches and views.
+   *
+   * Used to split the indexing of all issues by project.
+   */
+  public List<String> selectAllProjectUuids(DbSession session) {
+    return mapper(session).selectAllProjectUuids();
+  }
+
   /**
    * Select all root components (projects and views), including disabled ones, for a given organization.
    *
@@ -337,9 +350,14 @@ public class ComponentDao implements Dao {
   }
 
   public void setPrivateForRootComponentUuid(DbSession session, String projectUuid, boolean isPrivate) {
+    visibilityModificationCounter.markModified(session);
     mapper(session).setPrivateForRootComponentUuid(projectUuid, isPrivate);
   }
 
+  public long getVisibilityModificationCounter() {
+    return visibilityModificationCounter.get();
+  }
+
   public void delete(DbSession session, long componentId) {
     mapper(session).delete(componentId);
   }
@@ -85,13 +85,11 @@ public class MeasureDao implements Dao {
     mapper(dbSession).selectTreeByQuery(query, baseComponent.uuid(), query.getUuidPath(baseComponent), resultHandler);
   }
 
-  public List<PastMeasureDto> selectPastMeasures(DbSession dbSession, String componentUuid, String analysisUuid, Collection<Integer> metricIds) {
-    if (metricIds.isEmpty()) {
-      return emptyList();
-    }
-    return executeLargeInputs(
-      metricIds,
-      ids -> mapper(dbSession).selectPastMeasuresOnSingleAnalysis(componentUuid, analysisUuid, ids));
+  /**
+   * Select all the measures of an analysis, whatever the component. Measures of developers are ignored.
+   */
+  public void selectPastMeasuresOfAnalysis(DbSession dbSession, String analysisUuid, ResultHandler<PastMeasureDto> resultHandler) {
+    mapper(dbSession).selectPastMeasuresOfAnalysis(analysisUuid, resultHandler);
   }
 
   /**
@@ -36,8 +36,7 @@ public interface MeasureMapper {
                          ResultHandler<MeasureDto> resultHandler);
 
 
-  List<PastMeasureDto> selectPastMeasuresOnSingleAnalysis(@Param("componentUuid") String componentUuid, @Param("analysisUuid") String analysisUuid,
-    @Param("metricIds") List<Integer> metricIds);
+  void selectPastMeasuresOfAnalysis(@Param("analysisUuid") String analysisUuid, ResultHandler<PastMeasureDto> resultHandler);
 
   List<MeasureDto> selectPastMeasuresOnSeveralAnalyses(@Param("query") PastMeasureQuery query);
 
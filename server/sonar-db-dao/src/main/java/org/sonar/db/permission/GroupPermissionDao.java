@@ -29,6 +29,7 @@ import org.apache.ibatis.session.RowBounds;
 import org.sonar.api.security.DefaultGroups;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 import org.sonar.db.component.ComponentMapper;
 import org.sonar.db.user.GroupMapper;
 
@@ -39,6 +40,7 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
 public class GroupPermissionDao implements Dao {
 
   private static final String ANYONE_GROUP_PARAMETER = "anyoneGroup";
+  private final ModificationCounter modificationCounter = new ModificationCounter();
 
   /**
    * Returns the names of the groups that match the given query, for the given organization.
@@ -116,6 +118,7 @@ public class GroupPermissionDao implements Dao {
   public void insert(DbSession dbSession, GroupPermissionDto dto) {
     ensureComponentPermissionConsistency(dbSession, dto);
     ensureGroupPermissionConsistency(dbSession, dto);
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).insert(dto);
   }
 
@@ -145,6 +148,7 @@ public class GroupPermissionDao implements Dao {
    * Delete all the permissions associated to a root component (project)
    */
   public void deleteByRootComponentId(DbSession dbSession, long rootComponentId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByRootComponentId(rootComponentId);
   }
 
@@ -153,6 +157,7 @@ public class GroupPermissionDao implements Dao {
    * component.
    */
   public int deleteByRootComponentIdAndGroupId(DbSession dbSession, long rootComponentId, @Nullable Integer groupId) {
+    modificationCounter.markModified(dbSession);
     return mapper(dbSession).deleteByRootComponentIdAndGroupId(rootComponentId, groupId);
   }
 
@@ -160,6 +165,7 @@ public class GroupPermissionDao implements Dao {
    * Delete the specified permission for the specified component for any group (including group AnyOne).
    */
   public int deleteByRootComponentIdAndPermission(DbSession dbSession, long rootComponentId, String permission) {
+    modificationCounter.markModified(dbSession);
     return mapper(dbSession).deleteByRootComponentIdAndPermission(rootComponentId, permission);
   }
 
@@ -178,13 +184,19 @@ public class GroupPermissionDao implements Dao {
    * @param rootComponentId if null, then global permission, else id of root component (project)
    */
   public void delete(DbSession dbSession, String permission, String organizationUuid, @Nullable Integer groupId, @Nullable Long rootComponentId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).delete(permission, organizationUuid, groupId, rootComponentId);
   }
 
   public void deleteByOrganization(DbSession dbSession, String organizationUuid) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByOrganization(organizationUuid);
   }
 
+  public long getModificationCounter() {
+    return modificationCounter.get();
+  }
+
   private static GroupPermissionMapper mapper(DbSession session) {
     return session.getMapper(GroupPermissionMapper.class);
   }
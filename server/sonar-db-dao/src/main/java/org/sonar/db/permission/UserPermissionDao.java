@@ -26,6 +26,7 @@ import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.Dao;
 import org.sonar.db.DatabaseUtils;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 import org.sonar.db.component.ComponentMapper;
 
 import static com.google.common.base.Preconditions.checkArgument;
@@ -34,6 +35,8 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 
 public class UserPermissionDao implements Dao {
 
+  private final ModificationCounter modificationCounter = new ModificationCounter();
+
   /**
    * List of user permissions ordered by alphabetical order of user names.
    * Pagination is NOT applied.
@@ -96,6 +99,7 @@ public class UserPermissionDao implements Dao {
 
   public void insert(DbSession dbSession, UserPermissionDto dto) {
     ensureComponentPermissionConsistency(dbSession, dto);
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).insert(dto);
   }
 
@@ -114,6 +118,7 @@ public class UserPermissionDao implements Dao {
    * Removes a single global permission from user
    */
   public void deleteGlobalPermission(DbSession dbSession, int userId, String permission, String organizationUuid) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteGlobalPermission(userId, permission, organizationUuid);
   }
 
@@ -121,6 +126,7 @@ public class UserPermissionDao implements Dao {
    * Removes a single project permission from user
    */
   public void deleteProjectPermission(DbSession dbSession, int userId, String permission, long projectId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteProjectPermission(userId, permission, projectId);
   }
 
@@ -128,6 +134,7 @@ public class UserPermissionDao implements Dao {
    * Deletes all the permissions defined on a project
    */
   public void deleteProjectPermissions(DbSession dbSession, long projectId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteProjectPermissions(projectId);
   }
 
@@ -135,21 +142,29 @@ public class UserPermissionDao implements Dao {
    * Deletes the specified permission on the specified project for any user.
    */
   public int deleteProjectPermissionOfAnyUser(DbSession dbSession, long projectId, String permission) {
+    modificationCounter.markModified(dbSession);
     return mapper(dbSession).deleteProjectPermissionOfAnyUser(projectId, permission);
   }
 
   public void deleteByOrganization(DbSession dbSession, String organizationUuid) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByOrganization(organizationUuid);
   }
 
   public void deleteOrganizationMemberPermissions(DbSession dbSession, String organizationUuid, int userId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteOrganizationMemberPermissions(organizationUuid, userId);
   }
 
   public void deleteByUserId(DbSession dbSession, int userId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByUserId(userId);
   }
 
+  public long getModificationCounter() {
+    return modificationCounter.get();
+  }
+
   private static UserPermissionMapper mapper(DbSession dbSession) {
     return dbSession.getMapper(UserPermissionMapper.class);
   }
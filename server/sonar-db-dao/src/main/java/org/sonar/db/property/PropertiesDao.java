@@ -35,6 +35,7 @@ import org.sonar.api.utils.System2;
 import org.sonar.api.web.UserRole;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 import org.sonar.db.MyBatis;
 import org.sonar.db.WildcardPosition;
 
@@ -51,6 +52,7 @@ public class PropertiesDao implements Dao {
 
   private final MyBatis mybatis;
   private final System2 system2;
+  private final ModificationCounter modificationCounter = new ModificationCounter();
 
   public PropertiesDao(MyBatis mybatis, System2 system2) {
     this.mybatis = mybatis;
@@ -176,6 +178,7 @@ public class PropertiesDao implements Dao {
    * @throws IllegalArgumentException if {@link PropertyDto#getKey()} is {@code null} or empty
    */
   public void saveProperty(DbSession session, PropertyDto property) {
+    modificationCounter.markModified(session);
     save(getMapper(session), property.getKey(), property.getUserId(), property.getResourceId(), property.getValue());
   }
 
@@ -222,10 +225,12 @@ public class PropertiesDao implements Dao {
    * Used by Governance.
    */
   public int deleteByQuery(DbSession dbSession, PropertyQuery query) {
+    modificationCounter.markModified(dbSession);
     return getMapper(dbSession).deleteByQuery(query);
   }
 
   public int delete(DbSession dbSession, PropertyDto dto) {
+    modificationCounter.markModified(dbSession);
     return getMapper(dbSession).delete(dto.getKey(), dto.getUserId(), dto.getResourceId());
   }
 
@@ -237,10 +242,12 @@ public class PropertiesDao implements Dao {
   }
 
   public void deleteProjectProperty(String key, Long projectId, DbSession session) {
+    modificationCounter.markModified(session);
     getMapper(session).deleteProjectProperty(key, projectId);
   }
 
   public void deleteProjectProperties(String key, String value, DbSession session) {
+    modificationCounter.markModified(session);
     getMapper(session).deleteProjectProperties(key, value);
   }
 
@@ -252,6 +259,7 @@ public class PropertiesDao implements Dao {
   }
 
   public void deleteGlobalProperty(String key, DbSession session) {
+    modificationCounter.markModified(session);
     getMapper(session).deleteGlobalProperty(key);
   }
 
@@ -264,20 +272,24 @@ public class PropertiesDao implements Dao {
 
   public void deleteByOrganizationAndUser(DbSession dbSession, String organizationUuid, int userId) {
     List<Long> ids = getMapper(dbSession).selectIdsByOrganizationAndUser(organizationUuid, userId);
+    modificationCounter.markModified(dbSession);
     executeLargeInputsWithoutOutput(ids, subList -> getMapper(dbSession).deleteByIds(subList));
   }
 
   public void deleteByOrganizationAndMatchingLogin(DbSession dbSession, String organizationUuid, String login, List<String> propertyKeys) {
     List<Long> ids = getMapper(dbSession).selectIdsByOrganizationAndMatchingLogin(organizationUuid, login, propertyKeys);
+    modificationCounter.markModified(dbSession);
     executeLargeInputsWithoutOutput(ids, list -> getMapper(dbSession).deleteByIds(list));
   }
 
   public void deleteByKeyAndValue(DbSession dbSession, String key, String value) {
+    modificationCounter.markModified(dbSession);
     getMapper(dbSession).deleteByKeyAndValue(key, value);
   }
 
   public void saveGlobalProperties(Map<String, String> properties) {
     try (DbSession session = mybatis.openSession(false)) {
+      modificationCounter.markModified(session);
       PropertiesMapper mapper = getMapper(session);
       properties.entrySet().forEach(entry -> {
         mapper.deleteGlobalProperty(entry.getKey());
@@ -293,12 +305,17 @@ public class PropertiesDao implements Dao {
 
     if (!newKey.equals(oldKey)) {
       try (DbSession session = mybatis.openSession(false)) {
+        modificationCounter.markModified(session);
         getMapper(session).renamePropertyKey(oldKey, newKey);
         session.commit();
       }
     }
   }
 
+  public long getModificationCounter() {
+    return modificationCounter.get();
+  }
+
   private static PropertiesMapper getMapper(DbSession session) {
     return session.getMapper(PropertiesMapper.class);
   }
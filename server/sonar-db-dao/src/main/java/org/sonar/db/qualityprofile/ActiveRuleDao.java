@@ -29,7 +29,6 @@ import org.sonar.db.Dao;
 import org.sonar.db.DatabaseUtils;
 import org.sonar.db.DbSession;
 import org.sonar.db.organization.OrganizationDto;
-import org.sonar.db.rule.RuleParamDto;
 
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
@@ -57,6 +56,10 @@ public class ActiveRuleDao implements Dao {
     return mapper(dbSession).selectByRuleIdOfAllOrganizations(ruleId);
   }
 
+  public List<ActiveRuleDto> selectByRuleIdsOfAllOrganizations(DbSession dbSession, Collection<Integer> ruleIds) {
+    return executeLargeInputs(ruleIds, mapper(dbSession)::selectByRuleIdsOfAllOrganizations);
+  }
+
   public List<OrgActiveRuleDto> selectByRuleIds(DbSession dbSession, OrganizationDto organization, List<Integer> ids) {
     return executeLargeInputs(ids, chunk -> mapper(dbSession).selectByRuleIds(organization.getUuid(), chunk));
   }
@@ -151,17 +154,6 @@ public class ActiveRuleDao implements Dao {
     mapper(dbSession).deleteParameter(id);
   }
 
-  public void deleteParamsByRuleParamOfAllOrganizations(DbSession dbSession, RuleParamDto param) {
-    List<ActiveRuleDto> activeRules = selectByRuleIdOfAllOrganizations(dbSession, param.getRuleId());
-    for (ActiveRuleDto activeRule : activeRules) {
-      for (ActiveRuleParamDto activeParam : selectParamsByActiveRuleId(dbSession, activeRule.getId())) {
-        if (activeParam.getKey().equals(param.getName())) {
-          deleteParam(dbSession, activeParam);
-        }
-      }
-    }
-  }
-
   public void deleteParamsByActiveRuleIds(DbSession dbSession, List<Integer> activeRuleIds) {
     ActiveRuleMapper mapper = mapper(dbSession);
     DatabaseUtils.executeLargeUpdates(activeRuleIds, mapper::deleteParamsByActiveRuleIds);
@@ -31,6 +31,7 @@ import java.util.function.Function;
 import javax.annotation.CheckForNull;
 import org.apache.commons.dbutils.DbUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.ibatis.session.ResultHandler;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
 import org.sonar.db.source.FileSourceDto.Type;
@@ -98,6 +99,21 @@ public class FileSourceDao implements Dao {
     }
   }
 
+  /**
+   * Streams all the rows of type {@link Type#SOURCE} of the given project, including line hashes but without binary
+   * data, in a single query. Rows are not kept in memory by this method.
+   */
+  public void scrollLineHashesByProjectUuid(DbSession dbSession, String projectUuid, ResultHandler<FileSourceDto> handler) {
+    mapper(dbSession).scrollLineHashesForProject(projectUuid, Type.SOURCE, handler);
+  }
+
+  /**
+   * Streams all the rows of type {@link Type#SOURCE} of the given project, without binary data nor line hashes.
+   */
+  public void scrollHashesByProjectUuid(DbSession dbSession, String projectUuid, ResultHandler<FileSourceDto> handler) {
+    mapper(dbSession).scrollHashesForProject(projectUuid, Type.SOURCE, handler);
+  }
+
   public void insert(DbSession session, FileSourceDto dto) {
     mapper(session).insert(dto);
   }
@@ -23,9 +23,13 @@ import com.google.protobuf.CodedInputStream;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -41,6 +45,13 @@ public class FileSourceDto {
   private static final String SIZE_LIMIT_EXCEEDED_EXCEPTION_MESSAGE = "Protocol message was too large.  May be malicious.  " +
     "Use CodedInputStream.setSizeLimit() to increase the size limit.";
 
+  /**
+   * Sources with more lines are stored in BINARY_DATA as chunks of this number of lines, which can be decoded
+   * independently. Smaller sources are stored as a single LZ4-compressed message.
+   */
+  public static final int LINES_PER_CHUNK = 1_000;
+  private static final byte[] CHUNKED_DATA_MAGIC = "SQChunks".getBytes(StandardCharsets.US_ASCII);
+
   private Long id;
   private String projectUuid;
   private String fileUuid;
@@ -94,7 +105,19 @@ public class FileSourceDto {
   }
 
   public DbFileSources.Data decodeSourceData(byte[] binaryData) {
+    return decodeSourceData(binaryData, 1, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Decodes the lines of BINARY_DATA between {@code from} and {@code toInclusive}. Only the chunks containing these lines
+   * are decompressed, so the returned object may also contain lines outside of the range. All lines are returned when
+   * data is not stored in chunks.
+   */
+  public DbFileSources.Data decodeSourceData(byte[] binaryData, int from, int toInclusive) {
     try {
+      if (isChunked(binaryData)) {
+        return decodeChunkedSourceData(binaryData, from, toInclusive);
+      }
       return decodeRegularSourceData(binaryData);
     } catch (IOException e) {
       throw new IllegalStateException(
@@ -103,6 +126,49 @@ public class FileSourceDto {
     }
   }
 
+  private static boolean isChunked(byte[] binaryData) {
+    if (binaryData.length < CHUNKED_DATA_MAGIC.length) {
+      return false;
+    }
+    for (int i = 0; i < CHUNKED_DATA_MAGIC.length; i++) {
+      if (binaryData[i] != CHUNKED_DATA_MAGIC[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Chunked data is made of a header, an index of chunks and the chunks. Each entry of the index gives the first and
+   * last line numbers of the chunk, and its size in bytes. Each chunk is an LZ4-compressed
+   * {@link org.sonar.db.protobuf.DbFileSources.Data} message which contains only the lines of the chunk.
+   */
+  private static DbFileSources.Data decodeChunkedSourceData(byte[] binaryData, int from, int toInclusive) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(binaryData, CHUNKED_DATA_MAGIC.length, binaryData.length - CHUNKED_DATA_MAGIC.length));
+    int chunkCount = input.readInt();
+    int[] firstLines = new int[chunkCount];
+    int[] lastLines = new int[chunkCount];
+    int[] sizes = new int[chunkCount];
+    for (int i = 0; i < chunkCount; i++) {
+      firstLines[i] = input.readInt();
+      lastLines[i] = input.readInt();
+      sizes[i] = input.readInt();
+    }
+
+    DbFileSources.Data.Builder data = DbFileSources.Data.newBuilder();
+    int offset = CHUNKED_DATA_MAGIC.length + 4 + 12 * chunkCount;
+    for (int i = 0; i < chunkCount; i++) {
+      if (lastLines[i] >= from && firstLines[i] <= toInclusive) {
+        if (offset + sizes[i] > binaryData.length) {
+          throw new IOException("Chunk " + i + " is truncated");
+        }
+        data.addAllLines(decodeRegularSourceData(Arrays.copyOfRange(binaryData, offset, offset + sizes[i])).getLinesList());
+      }
+      offset += sizes[i];
+    }
+    return data.build();
+  }
+
   private static DbFileSources.Data decodeRegularSourceData(byte[] binaryData) throws IOException {
     try (LZ4BlockInputStream lz4Input = new LZ4BlockInputStream(new ByteArrayInputStream(binaryData))) {
       return DbFileSources.Data.parseFrom(lz4Input);
@@ -127,6 +193,37 @@ public class FileSourceDto {
    * in the column BINARY_DATA.
    */
   public static byte[] encodeSourceData(DbFileSources.Data data) {
+    if (data.getLinesCount() <= LINES_PER_CHUNK) {
+      return encodeRegularSourceData(data);
+    }
+    return encodeChunkedSourceData(data);
+  }
+
+  private static byte[] encodeChunkedSourceData(DbFileSources.Data data) {
+    List<DbFileSources.Line> lines = data.getLinesList();
+    List<byte[]> chunks = new ArrayList<>();
+    ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(byteOutput)) {
+      output.write(CHUNKED_DATA_MAGIC);
+      output.writeInt((lines.size() + LINES_PER_CHUNK - 1) / LINES_PER_CHUNK);
+      for (int start = 0; start < lines.size(); start += LINES_PER_CHUNK) {
+        List<DbFileSources.Line> chunkLines = lines.subList(start, Math.min(lines.size(), start + LINES_PER_CHUNK));
+        byte[] chunk = encodeRegularSourceData(DbFileSources.Data.newBuilder().addAllLines(chunkLines).build());
+        chunks.add(chunk);
+        output.writeInt(chunkLines.stream().mapToInt(DbFileSources.Line::getLine).min().getAsInt());
+        output.writeInt(chunkLines.stream().mapToInt(DbFileSources.Line::getLine).max().getAsInt());
+        output.writeInt(chunk.length);
+      }
+      for (byte[] chunk : chunks) {
+        output.write(chunk);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to serialize and compress source data", e);
+    }
+    return byteOutput.toByteArray();
+  }
+
+  private static byte[] encodeRegularSourceData(DbFileSources.Data data) {
     ByteArrayOutputStream byteOutput = new ByteArrayOutputStream();
     LZ4BlockOutputStream compressedOutput = new LZ4BlockOutputStream(byteOutput);
     try {
@@ -212,6 +309,16 @@ public class FileSourceDto {
     return decodeSourceData(binaryData);
   }
 
+  /**
+   * Decompressed lines of BINARY_DATA between {@code from} and {@code toInclusive}. The returned object may also contain
+   * some lines outside of the range.
+   *
+   * @see #decodeSourceData(byte[], int, int)
+   */
+  public DbFileSources.Data getSourceData(int from, int toInclusive) {
+    return decodeSourceData(binaryData, from, toInclusive);
+  }
+
   public FileSourceDto setSourceData(DbFileSources.Data data) {
     this.dataType = Type.SOURCE;
     this.binaryData = encodeSourceData(data);
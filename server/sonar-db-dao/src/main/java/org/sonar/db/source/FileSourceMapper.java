@@ -22,11 +22,16 @@ package org.sonar.db.source;
 import java.util.List;
 import javax.annotation.CheckForNull;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 public interface FileSourceMapper {
 
   List<FileSourceDto> selectHashesForProject(@Param("projectUuid") String projectUuid, @Param("dataType") String dataType);
 
+  void scrollLineHashesForProject(@Param("projectUuid") String projectUuid, @Param("dataType") String dataType, ResultHandler<FileSourceDto> handler);
+
+  void scrollHashesForProject(@Param("projectUuid") String projectUuid, @Param("dataType") String dataType, ResultHandler<FileSourceDto> handler);
+
   @CheckForNull
   FileSourceDto select(@Param("fileUuid") String fileUuid, @Param("dataType") String dataType);
 
@@ -25,6 +25,7 @@ import java.util.Set;
 import org.sonar.api.web.UserRole;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.sonar.api.web.UserRole.CODEVIEWER;
@@ -32,6 +33,7 @@ import static org.sonar.api.web.UserRole.USER;
 
 public class RoleDao implements Dao {
   private static final Set<String> UNSUPPORTED_PROJECT_PERMISSIONS = ImmutableSet.of(USER, CODEVIEWER);
+  private final ModificationCounter modificationCounter = new ModificationCounter();
 
   /**
    * All the projects on which the user has {@code permission}, directly or through
@@ -48,9 +50,14 @@ public class RoleDao implements Dao {
   }
 
   public void deleteGroupRolesByGroupId(DbSession session, int groupId) {
+    modificationCounter.markModified(session);
     mapper(session).deleteGroupRolesByGroupId(groupId);
   }
 
+  public long getModificationCounter() {
+    return modificationCounter.get();
+  }
+
   private static RoleMapper mapper(DbSession session) {
     return session.getMapper(RoleMapper.class);
   }
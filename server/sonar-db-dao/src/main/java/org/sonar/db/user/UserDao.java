@@ -34,6 +34,7 @@ import org.sonar.api.user.UserQuery;
 import org.sonar.api.utils.System2;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 import org.sonar.db.RowNotFoundException;
 
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
@@ -42,6 +43,7 @@ import static org.sonar.db.DatabaseUtils.executeLargeInputsWithoutOutput;
 public class UserDao implements Dao {
 
   private final System2 system2;
+  private final ModificationCounter modificationCounter = new ModificationCounter();
 
   public UserDao(System2 system2) {
     this.system2 = system2;
@@ -100,6 +102,7 @@ public class UserDao implements Dao {
 
   public UserDto insert(DbSession session, UserDto dto) {
     long now = system2.now();
+    modificationCounter.markModified(session);
     mapper(session).insert(dto, now);
     dto.setCreatedAt(now);
     dto.setUpdatedAt(now);
@@ -108,16 +111,19 @@ public class UserDao implements Dao {
 
   public UserDto update(DbSession session, UserDto dto) {
     long now = system2.now();
+    modificationCounter.markModified(session);
     mapper(session).update(dto, now);
     dto.setUpdatedAt(now);
     return dto;
   }
 
   public void setRoot(DbSession session, String login, boolean root) {
+    modificationCounter.markModified(session);
     mapper(session).setRoot(login, root, system2.now());
   }
 
   public void deactivateUser(DbSession dbSession, UserDto user) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deactivateUser(user.getLogin(), system2.now());
   }
 
@@ -166,6 +172,10 @@ public class UserDao implements Dao {
     });
   }
 
+  public long getModificationCounter() {
+    return modificationCounter.get();
+  }
+
   private static UserMapper mapper(DbSession session) {
     return session.getMapper(UserMapper.class);
   }
@@ -228,6 +228,29 @@ public class UserDto {
     return this;
   }
 
+  /**
+   * Copy of all the fields, so that the returned instance can be updated without side-effects on this one.
+   */
+  public UserDto copy() {
+    UserDto copy = new UserDto();
+    copy.id = id;
+    copy.login = login;
+    copy.name = name;
+    copy.email = email;
+    copy.active = active;
+    copy.scmAccounts = scmAccounts;
+    copy.externalIdentity = externalIdentity;
+    copy.externalIdentityProvider = externalIdentityProvider;
+    copy.cryptedPassword = cryptedPassword;
+    copy.salt = salt;
+    copy.createdAt = createdAt;
+    copy.updatedAt = updatedAt;
+    copy.local = local;
+    copy.root = root;
+    copy.onboarded = onboarded;
+    return copy;
+  }
+
   public static String encryptPassword(String password, String salt) {
     requireNonNull(password, "Password cannot be empty");
     requireNonNull(salt, "Salt cannot be empty");
@@ -21,30 +21,42 @@ package org.sonar.db.user;
 
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 
 public class UserGroupDao implements Dao {
 
+  private final ModificationCounter modificationCounter = new ModificationCounter();
+
   public UserGroupDto insert(DbSession session, UserGroupDto dto) {
+    modificationCounter.markModified(session);
     mapper(session).insert(dto);
     return dto;
   }
 
   public void delete(DbSession session, int groupId, int userId) {
+    modificationCounter.markModified(session);
     mapper(session).delete(groupId, userId);
   }
 
   public void deleteByGroupId(DbSession session, int groupId) {
+    modificationCounter.markModified(session);
     mapper(session).deleteByGroupId(groupId);
   }
 
   public void deleteByOrganizationAndUser(DbSession dbSession, String organizationUuid, int userId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByOrganizationAndUser(organizationUuid, userId);
   }
 
   public void deleteByUserId(DbSession dbSession, int userId) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByUserId(userId);
   }
 
+  public long getModificationCounter() {
+    return modificationCounter.get();
+  }
+
   private static UserGroupMapper mapper(DbSession session) {
     return session.getMapper(UserGroupMapper.class);
   }
@@ -25,13 +25,17 @@ import java.util.List;
 import java.util.Map;
 import org.sonar.db.Dao;
 import org.sonar.db.DbSession;
+import org.sonar.db.ModificationCounter;
 import org.sonar.db.RowNotFoundException;
 
 import static java.lang.String.format;
 import static org.sonar.db.DatabaseUtils.executeLargeInputs;
 
 public class UserTokenDao implements Dao {
+  private final ModificationCounter modificationCounter = new ModificationCounter();
+
   public void insert(DbSession dbSession, UserTokenDto userTokenDto) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).insert(userTokenDto);
   }
 
@@ -72,13 +76,19 @@ public class UserTokenDao implements Dao {
   }
 
   public void deleteByLogin(DbSession dbSession, String login) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByLogin(login);
   }
 
   public void deleteByLoginAndName(DbSession dbSession, String login, String name) {
+    modificationCounter.markModified(dbSession);
     mapper(dbSession).deleteByLoginAndName(login, name);
   }
 
+  public long getModificationCounter() {
+    return modificationCounter.get();
+  }
+
   private static UserTokenMapper mapper(DbSession dbSession) {
     return dbSession.getMapper(UserTokenMapper.class);
   }
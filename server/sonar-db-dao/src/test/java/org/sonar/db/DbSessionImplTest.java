@@ -239,6 +239,33 @@ public class DbSessionImplTest {
     verifyDelegation(DbSessionImpl::getConnection, s -> verify(s).getConnection());
   }
 
+  @Test
+  public void afterCommit_actions_are_executed_once_after_commit() {
+    List<String> calls = new ArrayList<>();
+    Runnable action = () -> calls.add("action");
+    underTest.afterCommit(action);
+    underTest.afterCommit(action);
+    underTest.afterCommit(() -> calls.add("other action"));
+    assertThat(calls).isEmpty();
+
+    underTest.commit();
+    assertThat(calls).containsExactly("action", "other action");
+
+    underTest.commit(true);
+    assertThat(calls).containsExactly("action", "other action");
+  }
+
+  @Test
+  public void afterCommit_actions_are_discarded_by_rollback() {
+    List<String> calls = new ArrayList<>();
+    underTest.afterCommit(() -> calls.add("action"));
+
+    underTest.rollback();
+    underTest.commit();
+
+    assertThat(calls).isEmpty();
+  }
+
   @Test
   public void getSqlSession_returns_wrapped_SqlSession_object() {
     assertThat(underTest.getSqlSession()).isSameAs(sqlSessionMock);
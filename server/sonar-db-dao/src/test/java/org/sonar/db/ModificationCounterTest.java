@@ -0,0 +1,57 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db;
+
+import org.apache.ibatis.session.SqlSession;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class ModificationCounterTest {
+
+  private DbSessionImpl dbSession = new DbSessionImpl(mock(SqlSession.class));
+  private ModificationCounter underTest = new ModificationCounter();
+
+  @Test
+  public void counter_is_incremented_once_per_committed_transaction() {
+    assertThat(underTest.get()).isEqualTo(0);
+
+    underTest.markModified(dbSession);
+    underTest.markModified(dbSession);
+    assertThat(underTest.get()).isEqualTo(0);
+
+    dbSession.commit();
+    assertThat(underTest.get()).isEqualTo(1);
+
+    dbSession.commit();
+    assertThat(underTest.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void counter_is_not_incremented_when_transaction_is_rolled_back() {
+    underTest.markModified(dbSession);
+
+    dbSession.rollback();
+    dbSession.commit();
+
+    assertThat(underTest.get()).isEqualTo(0);
+  }
+}
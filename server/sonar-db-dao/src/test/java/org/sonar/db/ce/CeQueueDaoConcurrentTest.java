@@ -0,0 +1,208 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.db.ce;
+
+import com.google.common.collect.ImmutableSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.internal.AlwaysIncreasingSystem2;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.db.DbSession;
+import org.sonar.db.DbTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.db.ce.CeQueueDto.Status.PENDING;
+
+/**
+ * Simulates many Compute Engine workers peeking the queue at the same time.
+ */
+public class CeQueueDaoConcurrentTest {
+  private static final Logger LOG = Loggers.get(CeQueueDaoConcurrentTest.class);
+  private static final int WORKER_COUNT = 32;
+  private static final int MAX_EXECUTION_COUNT = 2;
+  private static final long TIMEOUT_MS = 60_000L;
+  /**
+   * SQL states of the lock conflicts that a worker can hit when another worker updates the same rows:
+   * deadlock or serialization failure, lock timeout of H2 and PostgreSQL, concurrent update of H2.
+   */
+  private static final Set<String> LOCK_CONFLICT_SQL_STATES = ImmutableSet.of("40001", "HYT00", "55P03", "90131");
+
+  private System2 system2 = new AlwaysIncreasingSystem2();
+
+  @Rule
+  public DbTester db = DbTester.create(system2);
+
+  private CeQueueDao underTest = new CeQueueDao(system2);
+  private ExecutorService executorService = Executors.newFixedThreadPool(WORKER_COUNT);
+  private AtomicInteger failedPeeks = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void concurrent_workers_claim_every_task_exactly_once() throws Exception {
+    int taskCount = 300;
+    for (int i = 0; i < taskCount; i++) {
+      insertPending("TASK_" + i, "PROJECT_" + i);
+    }
+    Map<String, String> workerByTask = new ConcurrentHashMap<>();
+    List<String> claimedTwice = Collections.synchronizedList(new ArrayList<>());
+
+    long durationMs = runWorkers(() -> workerByTask.size() < taskCount, (workerUuid, task) -> {
+      if (workerByTask.putIfAbsent(task.getUuid(), workerUuid) != null) {
+        claimedTwice.add(task.getUuid());
+      }
+    });
+
+    LOG.info("{} workers claimed {} tasks in {}ms ({} claims/s, {} failed peeks)",
+      WORKER_COUNT, workerByTask.size(), durationMs, workerByTask.size() * 1000L / Math.max(1L, durationMs), failedPeeks.get());
+    assertThat(claimedTwice).isEmpty();
+    assertThat(workerByTask).hasSize(taskCount);
+    assertThat(workerByTask.values().stream().distinct().count()).isGreaterThan(1);
+    assertThat(underTest.countByStatus(db.getSession(), PENDING)).isEqualTo(0);
+  }
+
+  @Test
+  public void concurrent_workers_process_tasks_of_a_component_one_at_a_time_and_in_order() throws Exception {
+    int componentCount = 20;
+    int tasksPerComponent = 5;
+    Map<String, List<String>> expectedOrder = new HashMap<>();
+    for (int t = 0; t < tasksPerComponent; t++) {
+      for (int c = 0; c < componentCount; c++) {
+        String componentUuid = "PROJECT_" + c;
+        String taskUuid = componentUuid + "_TASK_" + t;
+        insertPending(taskUuid, componentUuid);
+        expectedOrder.computeIfAbsent(componentUuid, k -> new ArrayList<>()).add(taskUuid);
+      }
+    }
+    Map<String, String> inProgressByComponent = new ConcurrentHashMap<>();
+    Map<String, List<String>> processedOrder = new ConcurrentHashMap<>();
+    List<String> concurrentlyProcessed = Collections.synchronizedList(new ArrayList<>());
+    AtomicInteger processed = new AtomicInteger();
+
+    runWorkers(() -> processed.get() < componentCount * tasksPerComponent, (workerUuid, task) -> {
+      String componentUuid = task.getComponentUuid();
+      if (inProgressByComponent.putIfAbsent(componentUuid, task.getUuid()) != null) {
+        concurrentlyProcessed.add(task.getUuid());
+      }
+      processedOrder.computeIfAbsent(componentUuid, k -> Collections.synchronizedList(new ArrayList<>())).add(task.getUuid());
+      // task must be marked as finished before the next task of the component can be peeked
+      inProgressByComponent.remove(componentUuid);
+      delete(task.getUuid());
+      processed.incrementAndGet();
+    });
+
+    assertThat(concurrentlyProcessed).isEmpty();
+    assertThat(processedOrder).isEqualTo(expectedOrder);
+  }
+
+  /**
+   * Runs {@link #WORKER_COUNT} workers which peek the queue as long as {@code keepRunning} returns {@code true}.
+   *
+   * @return the duration in ms
+   */
+  private long runWorkers(BooleanSupplier keepRunning, BiConsumer<String, CeQueueDto> onPeek) throws Exception {
+    long start = System.currentTimeMillis();
+    long deadline = start + TIMEOUT_MS;
+    List<Future<?>> workers = new ArrayList<>();
+    for (int i = 0; i < WORKER_COUNT; i++) {
+      String workerUuid = "worker_" + i;
+      workers.add(executorService.submit(() -> {
+        while (keepRunning.getAsBoolean() && System.currentTimeMillis() < deadline) {
+          peek(workerUuid).ifPresent(task -> onPeek.accept(workerUuid, task));
+        }
+      }));
+    }
+    executorService.shutdown();
+    assertThat(executorService.awaitTermination(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    for (Future<?> worker : workers) {
+      // fails if a worker failed
+      worker.get();
+    }
+    return System.currentTimeMillis() - start;
+  }
+
+  private Optional<CeQueueDto> peek(String workerUuid) {
+    try (DbSession dbSession = db.getDbClient().openSession(false)) {
+      return underTest.peek(dbSession, workerUuid, MAX_EXECUTION_COUNT);
+    } catch (RuntimeException e) {
+      if (!isLockConflict(e)) {
+        throw e;
+      }
+      // another worker holds the lock on the task, the worker will peek again
+      failedPeeks.incrementAndGet();
+      return Optional.empty();
+    }
+  }
+
+  private void delete(String taskUuid) {
+    while (true) {
+      try (DbSession dbSession = db.getDbClient().openSession(false)) {
+        underTest.deleteByUuid(dbSession, taskUuid);
+        dbSession.commit();
+        return;
+      } catch (RuntimeException e) {
+        if (!isLockConflict(e)) {
+          throw e;
+        }
+      }
+    }
+  }
+
+  private static boolean isLockConflict(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException && LOCK_CONFLICT_SQL_STATES.contains(((SQLException) cause).getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void insertPending(String uuid, String componentUuid) {
+    CeQueueDto dto = new CeQueueDto()
+      .setUuid(uuid)
+      .setTaskType(CeTaskTypes.REPORT)
+      .setComponentUuid(componentUuid)
+      .setStatus(PENDING);
+    underTest.insert(db.getSession(), dto);
+    db.getSession().commit();
+  }
+}
@@ -679,6 +679,19 @@ public class ComponentDaoTest {
       .containsOnly(provisionedProject.uuid(), projectUuid);
   }
 
+  @Test
+  public void select_all_project_uuids() {
+    OrganizationDto organization = db.organizations().insert();
+    ComponentDto project = db.components().insertMainBranch(organization);
+    db.components().insertComponent(newModuleDto(project));
+    ComponentDto branch = db.components().insertProjectBranch(project);
+    ComponentDto disabledProject = db.components().insertPrivateProject(organization, p -> p.setEnabled(false));
+    ComponentDto view = db.components().insertView(organization);
+
+    assertThat(underTest.selectAllProjectUuids(dbSession))
+      .containsOnly(project.uuid(), branch.uuid(), disabledProject.uuid(), view.uuid());
+  }
+
   @Test
   public void select_projects_does_not_return_branches() {
     OrganizationDto organization = db.organizations().insert();
@@ -1477,6 +1490,18 @@ public class ComponentDaoTest {
     assertThat(privateFlagOfUuid(uuids[4])).isFalse();
   }
 
+  @Test
+  public void visibility_modification_counter_is_incremented_once_setPrivateForRootComponentUuid_is_committed() {
+    ComponentDto project = db.components().insertPublicProject();
+    long initial = underTest.getVisibilityModificationCounter();
+
+    underTest.setPrivateForRootComponentUuid(db.getSession(), project.uuid(), true);
+    assertThat(underTest.getVisibilityModificationCounter()).isEqualTo(initial);
+
+    db.getSession().commit();
+    assertThat(underTest.getVisibilityModificationCounter()).isEqualTo(initial + 1);
+  }
+
   private boolean privateFlagOfUuid(String uuid) {
     return underTest.selectByUuid(db.getSession(), uuid).get().isPrivate();
   }
@@ -989,6 +989,22 @@ public class GroupPermissionDaoTest {
       .collect(MoreCollectors.toList());
   }
 
+  @Test
+  public void modification_counter_is_incremented_once_updates_are_committed() {
+    GroupDto group = db.users().insertGroup();
+    long initial = underTest.getModificationCounter();
+
+    underTest.insert(dbSession, new GroupPermissionDto()
+      .setOrganizationUuid(group.getOrganizationUuid())
+      .setGroupId(group.getId())
+      .setRole("perm1"));
+    underTest.delete(dbSession, "perm1", group.getOrganizationUuid(), group.getId(), null);
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial);
+
+    dbSession.commit();
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial + 1);
+  }
+
   private ComponentDto randomPublicOrPrivateProject(OrganizationDto organization) {
     return new Random().nextBoolean() ? db.components().insertPublicProject(organization) : db.components().insertPrivateProject(organization);
   }
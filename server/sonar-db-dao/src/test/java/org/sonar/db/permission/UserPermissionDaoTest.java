@@ -585,6 +585,33 @@ public class UserPermissionDaoTest {
     assertThat(underTest.selectProjectPermissionsOfUser(dbSession, user2.getId(), project2.getId())).containsOnly(PROVISION_PROJECTS.getKey());
   }
 
+  @Test
+  public void modification_counter_is_incremented_once_updates_are_committed() {
+    OrganizationDto organization = db.organizations().insert();
+    UserDto user = insertUser(organization);
+    long initial = underTest.getModificationCounter();
+
+    underTest.insert(dbSession, new UserPermissionDto(organization.getUuid(), SCAN.getKey(), user.getId(), null));
+    underTest.deleteGlobalPermission(dbSession, user.getId(), SCAN.getKey(), organization.getUuid());
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial);
+
+    dbSession.commit();
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial + 1);
+  }
+
+  @Test
+  public void modification_counter_is_not_incremented_by_rolled_back_updates() {
+    OrganizationDto organization = db.organizations().insert();
+    UserDto user = insertUser(organization);
+    long initial = underTest.getModificationCounter();
+
+    underTest.insert(dbSession, new UserPermissionDto(organization.getUuid(), SCAN.getKey(), user.getId(), null));
+    dbSession.rollback();
+    dbSession.commit();
+
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial);
+  }
+
   private ComponentDto randomPublicOrPrivateProject(OrganizationDto organization) {
     return new Random().nextBoolean() ? db.components().insertPrivateProject(organization) : db.components().insertPublicProject(organization);
   }
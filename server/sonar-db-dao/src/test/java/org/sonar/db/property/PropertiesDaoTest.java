@@ -926,6 +926,44 @@ public class PropertiesDaoTest {
     return res;
   }
 
+  @Test
+  public void modification_counter_is_incremented_by_updates() {
+    long initial = underTest.getModificationCounter();
+
+    underTest.selectGlobalProperties();
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial);
+
+    underTest.saveProperty(new PropertyDto().setKey("foo").setValue("bar"));
+    assertThat(underTest.getModificationCounter()).isGreaterThan(initial);
+
+    long afterSave = underTest.getModificationCounter();
+    underTest.deleteGlobalProperty("foo");
+    assertThat(underTest.getModificationCounter()).isGreaterThan(afterSave);
+  }
+
+  @Test
+  public void modification_counter_is_incremented_once_updates_are_committed() {
+    long initial = underTest.getModificationCounter();
+
+    underTest.saveProperty(session, new PropertyDto().setKey("foo").setValue("bar"));
+    underTest.saveProperty(session, new PropertyDto().setKey("bar").setValue("baz"));
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial);
+
+    session.commit();
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial + 1);
+  }
+
+  @Test
+  public void modification_counter_is_not_incremented_by_rolled_back_updates() {
+    long initial = underTest.getModificationCounter();
+
+    underTest.saveProperty(session, new PropertyDto().setKey("foo").setValue("bar"));
+    session.rollback();
+    session.commit();
+
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial);
+  }
+
   @Test
   public void renamePropertyKey_updates_global_component_and_user_properties() throws SQLException {
     long id1 = insertProperty("foo", "bar", null, null, DATE_1);
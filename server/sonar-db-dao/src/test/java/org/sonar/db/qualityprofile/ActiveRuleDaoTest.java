@@ -135,6 +135,23 @@ public class ActiveRuleDaoTest {
       .extracting("key").containsOnly(activeRule1.getKey(), activeRule2.getKey(), activeRule3.getKey());
   }
 
+  @Test
+  public void select_by_rule_ids_of_all_organizations() {
+    ActiveRuleDto activeRule1 = createFor(profile1, rule1).setSeverity(BLOCKER);
+    ActiveRuleDto activeRule2 = createFor(profile1, rule2).setSeverity(BLOCKER);
+    ActiveRuleDto activeRule3 = createFor(profile2, rule1).setSeverity(BLOCKER);
+    underTest.insert(dbSession, activeRule1);
+    underTest.insert(dbSession, activeRule2);
+    underTest.insert(dbSession, activeRule3);
+    dbSession.commit();
+
+    assertThat(underTest.selectByRuleIdsOfAllOrganizations(dbSession, singletonList(rule1.getId())))
+      .extracting("key").containsOnly(activeRule1.getKey(), activeRule3.getKey());
+    assertThat(underTest.selectByRuleIdsOfAllOrganizations(dbSession, newArrayList(rule1.getId(), rule2.getId(), rule3.getId())))
+      .extracting("key").containsOnly(activeRule1.getKey(), activeRule2.getKey(), activeRule3.getKey());
+    assertThat(underTest.selectByRuleIdsOfAllOrganizations(dbSession, singletonList(rule3.getId()))).isEmpty();
+  }
+
   @Test
   public void selectByProfile() {
     ActiveRuleDto activeRule1 = createFor(profile1, rule1).setSeverity(BLOCKER);
@@ -480,26 +497,6 @@ public class ActiveRuleDaoTest {
       .hasSize(1);
   }
 
-  @Test
-  public void deleteParamsByRuleParamOfAllOrganizations() {
-    ActiveRuleDto activeRule1 = createFor(profile1, rule1).setSeverity(BLOCKER);
-    underTest.insert(dbSession, activeRule1);
-    ActiveRuleParamDto activeRuleParam1 = ActiveRuleParamDto.createFor(rule1Param1).setValue("foo");
-    underTest.insertParam(dbSession, activeRule1, activeRuleParam1);
-
-    ActiveRuleDto activeRule2 = createFor(profile2, rule1).setSeverity(BLOCKER);
-    underTest.insert(dbSession, activeRule2);
-    ActiveRuleParamDto activeRuleParam2 = ActiveRuleParamDto.createFor(rule1Param1).setValue("bar");
-    underTest.insertParam(dbSession, activeRule2, activeRuleParam2);
-
-    List<Integer> activeRuleIds = asList(activeRule1.getId(), activeRule2.getId());
-    assertThat(underTest.selectParamsByActiveRuleIds(dbSession, activeRuleIds)).hasSize(2);
-
-    underTest.deleteParamsByRuleParamOfAllOrganizations(dbSession, rule1Param1);
-
-    assertThat(underTest.selectParamsByActiveRuleIds(dbSession, activeRuleIds)).isEmpty();
-  }
-
   @Test
   public void deleteParamsByActiveRuleIds() {
     ActiveRuleDto ar1 = underTest.insert(dbSession, newRow(profile1, rule1));
@@ -575,6 +575,15 @@ public class RuleDaoTest {
       singletonList(RuleKey.of("unknown", "Unknown")))).isEmpty();
   }
 
+  @Test
+  public void select_all_parameters() {
+    db.prepareDbUnit(getClass(), "select_parameters_by_rule_key.xml");
+
+    assertThat(underTest.selectAllRuleParams(db.getSession()))
+      .extracting(RuleParamDto::getId, RuleParamDto::getRuleId, RuleParamDto::getName)
+      .containsOnly(tuple(1, 1, "myParameter"), tuple(2, 2, "otherParam"));
+  }
+
   @Test
   public void insert_parameter() {
     db.prepareDbUnit(getClass(), "insert_parameter.xml");
@@ -21,6 +21,8 @@ package org.sonar.db.source;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.apache.commons.io.IOUtils;
@@ -89,6 +91,61 @@ public class FileSourceDaoTest {
     assertThat(fn.result).isNull();
   }
 
+  @Test
+  public void scrollLineHashesByProjectUuid_returns_only_sources_of_project_without_binary_data() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+    underTest.insert(session, new FileSourceDto()
+      .setProjectUuid("PRJ_UUID")
+      .setFileUuid("FILE2_UUID")
+      .setBinaryData("FILE2_BINARY_DATA".getBytes())
+      .setDataHash("FILE2_DATA_HASH")
+      .setLineHashes("LINE1_HASH\nLINE2_HASH")
+      .setSrcHash("FILE2_HASH")
+      .setDataType(Type.TEST)
+      .setCreatedAt(1500000000000L)
+      .setUpdatedAt(1500000000001L));
+    underTest.insert(session, new FileSourceDto()
+      .setProjectUuid("OTHER_PRJ_UUID")
+      .setFileUuid("FILE3_UUID")
+      .setBinaryData("FILE3_BINARY_DATA".getBytes())
+      .setDataHash("FILE3_DATA_HASH")
+      .setSrcHash("FILE3_HASH")
+      .setDataType(Type.SOURCE)
+      .setCreatedAt(1500000000000L)
+      .setUpdatedAt(1500000000001L));
+    session.commit();
+
+    List<FileSourceDto> dtos = new ArrayList<>();
+    underTest.scrollLineHashesByProjectUuid(session, "PRJ_UUID", context -> dtos.add(context.getResultObject()));
+
+    assertThat(dtos).hasSize(1);
+    FileSourceDto dto = dtos.get(0);
+    assertThat(dto.getFileUuid()).isEqualTo("FILE1_UUID");
+    assertThat(dto.getBinaryData()).isNull();
+    assertThat(dto.getLineHashes()).isEqualTo("ABC\\nDEF\\nGHI");
+    assertThat(dto.getDataHash()).isEqualTo("hash");
+    assertThat(dto.getSrcHash()).isEqualTo("FILE_HASH");
+    assertThat(dto.getRevision()).isEqualTo("123456789");
+  }
+
+  @Test
+  public void scrollHashesByProjectUuid_does_not_return_binary_data_nor_line_hashes() {
+    dbTester.prepareDbUnit(getClass(), "shared.xml");
+
+    List<FileSourceDto> dtos = new ArrayList<>();
+    underTest.scrollHashesByProjectUuid(session, "PRJ_UUID", context -> dtos.add(context.getResultObject()));
+
+    assertThat(dtos).hasSize(1);
+    FileSourceDto dto = dtos.get(0);
+    assertThat(dto.getFileUuid()).isEqualTo("FILE1_UUID");
+    assertThat(dto.getProjectUuid()).isEqualTo("PRJ_UUID");
+    assertThat(dto.getBinaryData()).isNull();
+    assertThat(dto.getLineHashes()).isNull();
+    assertThat(dto.getDataHash()).isEqualTo("hash");
+    assertThat(dto.getSrcHash()).isEqualTo("FILE_HASH");
+    assertThat(dto.getRevision()).isEqualTo("123456789");
+  }
+
   @Test
   public void insert() {
     dbTester.prepareDbUnit(getClass(), "shared.xml");
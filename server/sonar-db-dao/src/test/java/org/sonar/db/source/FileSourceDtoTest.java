@@ -19,6 +19,7 @@
  */
 package org.sonar.db.source;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.Rule;
@@ -80,6 +81,49 @@ public class FileSourceDtoTest {
     assertThat(data.getLinesCount()).isEqualTo(build.getLinesCount());
   }
 
+  @Test
+  public void small_source_is_stored_as_a_single_block() {
+    DbFileSources.Data data = createData(FileSourceDto.LINES_PER_CHUNK);
+    FileSourceDto underTest = new FileSourceDto().setSourceData(data);
+
+    assertThat(underTest.getBinaryData()).startsWith("LZ4Block".getBytes(StandardCharsets.US_ASCII));
+    assertThat(underTest.getSourceData()).isEqualTo(data);
+    assertThat(underTest.getSourceData(10, 20)).isEqualTo(data);
+  }
+
+  @Test
+  public void big_source_is_stored_in_chunks() {
+    DbFileSources.Data data = createData(2 * FileSourceDto.LINES_PER_CHUNK + 1);
+    FileSourceDto underTest = new FileSourceDto().setSourceData(data);
+
+    assertThat(underTest.getBinaryData()).startsWith("SQChunks".getBytes(StandardCharsets.US_ASCII));
+    assertThat(underTest.getSourceData()).isEqualTo(data);
+  }
+
+  @Test
+  public void getSourceData_decodes_only_the_chunks_of_the_range() {
+    int lineCount = 3 * FileSourceDto.LINES_PER_CHUNK;
+    FileSourceDto underTest = new FileSourceDto().setSourceData(createData(lineCount));
+
+    DbFileSources.Data secondChunk = underTest.getSourceData(FileSourceDto.LINES_PER_CHUNK + 10, FileSourceDto.LINES_PER_CHUNK + 20);
+    assertThat(secondChunk.getLinesCount()).isEqualTo(FileSourceDto.LINES_PER_CHUNK);
+    assertThat(secondChunk.getLines(0).getLine()).isEqualTo(FileSourceDto.LINES_PER_CHUNK + 1);
+
+    DbFileSources.Data overlap = underTest.getSourceData(FileSourceDto.LINES_PER_CHUNK, FileSourceDto.LINES_PER_CHUNK + 1);
+    assertThat(overlap.getLinesCount()).isEqualTo(2 * FileSourceDto.LINES_PER_CHUNK);
+    assertThat(overlap.getLines(0).getLine()).isEqualTo(1);
+
+    assertThat(underTest.getSourceData(lineCount + 1, lineCount + 10).getLinesCount()).isZero();
+  }
+
+  private static DbFileSources.Data createData(int lineCount) {
+    DbFileSources.Data.Builder dataBuilder = DbFileSources.Data.newBuilder();
+    for (int i = 1; i <= lineCount; i++) {
+      dataBuilder.addLinesBuilder().setLine(i).setSource("line " + i);
+    }
+    return dataBuilder.build();
+  }
+
   private static DbFileSources.Data createOver64MBDataStructure() {
     DbFileSources.Data.Builder dataBuilder = DbFileSources.Data.newBuilder();
     DbFileSources.Line.Builder lineBuilder = DbFileSources.Line.newBuilder();
@@ -47,6 +47,20 @@ public class UserDtoTest {
     assertThat(UserDto.decodeScmAccounts("\nfoo\nbar\n")).containsOnly("foo", "bar");
   }
 
+  @Test
+  public void copy_has_same_fields_but_is_a_different_instance() {
+    UserDto user = UserTesting.newUserDto();
+    user.setRoot(true);
+
+    UserDto copy = user.copy();
+
+    assertThat(copy).isNotSameAs(user);
+    assertThat(copy).isEqualToComparingFieldByField(user);
+
+    copy.setName("another name");
+    assertThat(user.getName()).isNotEqualTo("another name");
+  }
+
   @Test
   public void encrypt_password() throws Exception {
     assertThat(UserDto.encryptPassword("PASSWORD", "0242b0b4c0a93ddfe09dd886de50bc25ba000b51")).isEqualTo("540e4fc4be4e047db995bc76d18374a5b5db08cc");
@@ -50,6 +50,20 @@ public class UserGroupDaoTest {
     assertThat(dbTester.getDbClient().groupMembershipDao().selectGroupIdsByUserId(dbTester.getSession(), user.getId())).containsOnly(group.getId());
   }
 
+  @Test
+  public void modification_counter_is_incremented_once_updates_are_committed() {
+    UserDto user = dbTester.users().insertUser();
+    GroupDto group = dbTester.users().insertGroup();
+    long initial = underTest.getModificationCounter();
+
+    underTest.insert(dbSession, new UserGroupDto().setUserId(user.getId()).setGroupId(group.getId()));
+    underTest.delete(dbSession, group.getId(), user.getId());
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial);
+
+    dbSession.commit();
+    assertThat(underTest.getModificationCounter()).isEqualTo(initial + 1);
+  }
+
   @Test
   public void delete_members_by_group_id() {
     UserDto user1 = dbTester.users().insertUser();
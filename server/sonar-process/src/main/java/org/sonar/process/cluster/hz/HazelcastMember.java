@@ -21,6 +21,7 @@ package org.sonar.process.cluster.hz;
 
 import com.hazelcast.core.Cluster;
 import com.hazelcast.core.IAtomicReference;
+import com.hazelcast.core.ITopic;
 import com.hazelcast.core.MemberSelector;
 import java.util.List;
 import java.util.Map;
@@ -81,6 +82,11 @@ public interface HazelcastMember extends AutoCloseable {
    */
   <K, V> Map<K, V> getReplicatedMap(String name);
 
+  /**
+   * Gets the topic shared by the cluster and identified by name
+   */
+  <E> ITopic<E> getTopic(String name);
+
   String getUuid();
 
   /**
@@ -58,4 +58,12 @@ public final class HazelcastObjects {
    * THe key of the replicated map holding the health state information of all SQ nodes.
    */
   public static final String SQ_HEALTH_STATE = "sq_health_state";
+  /**
+   * The key of the topic on which the Web Servers notify the Compute Engines that tasks have been submitted.
+   */
+  public static final String CE_TASK_SUBMITTED = "CE_TASK_SUBMITTED";
+  /**
+   * The key of the topic on which the processes of the cluster notify each other that users, tokens or permissions have been updated.
+   */
+  public static final String USER_SESSION_CACHE_INVALIDATED = "USER_SESSION_CACHE_INVALIDATED";
 }
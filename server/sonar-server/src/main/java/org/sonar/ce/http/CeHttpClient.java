@@ -29,4 +29,6 @@ public interface CeHttpClient {
   void changeLogLevel(LoggerLevel level);
 
   void refreshCeWorkerCount();
+
+  void wakeUpCeWorkers();
 }
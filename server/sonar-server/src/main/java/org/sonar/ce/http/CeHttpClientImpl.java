@@ -42,6 +42,10 @@ public class CeHttpClientImpl implements CeHttpClient {
 
   private static final String PATH_CHANGE_LOG_LEVEL = "changeLogLevel";
   private static final String PATH_SYSTEM_INFO = "systemInfo";
+  /**
+   * Shared by the calls made on each submission of tasks, so that connections are reused
+   */
+  private static final OkHttpClient WAKE_UP_HTTP_CLIENT = new OkHttpClient();
 
   private final File ipcSharedDir;
 
@@ -161,6 +165,44 @@ public class CeHttpClientImpl implements CeHttpClient {
     }
   }
 
+  @Override
+  public void wakeUpCeWorkers() {
+    call(WakeUpCeWorkersActionClient.INSTANCE);
+  }
+
+  private enum WakeUpCeWorkersActionClient implements ActionClient<Void> {
+    INSTANCE;
+
+    @Override
+    public String getPath() {
+      return "wakeUpWorkers";
+    }
+
+    @Override
+    public Void getDefault() {
+      return null;
+    }
+
+    @Override
+    public Void call(String url) throws Exception {
+      okhttp3.Request request = new okhttp3.Request.Builder()
+        .post(RequestBody.create(null, new byte[0]))
+        .url(url)
+        .build();
+      try (okhttp3.Response response = WAKE_UP_HTTP_CLIENT.newCall(request).execute()) {
+        if (response.code() != 200) {
+          throw new IOException(
+            String.format(
+              "Failed to wake up CE Workers. Code was '%s' and response was '%s' for url '%s'",
+              response.code(),
+              response.body().string(),
+              url));
+        }
+        return null;
+      }
+    }
+  }
+
   private <T> T call(ActionClient<T> actionClient) {
     try (DefaultProcessCommands commands = DefaultProcessCommands.secondary(ipcSharedDir, COMPUTE_ENGINE.getIpcIndex())) {
       if (commands.isUp()) {
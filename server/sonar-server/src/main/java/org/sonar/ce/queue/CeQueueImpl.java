@@ -31,6 +31,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.sonar.api.ce.ComputeEngineSide;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.UuidFactory;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -47,18 +49,26 @@ import static java.util.Objects.requireNonNull;
 
 @ComputeEngineSide
 public class CeQueueImpl implements CeQueue {
+  private static final Logger LOG = Loggers.get(CeQueueImpl.class);
 
   private final DbClient dbClient;
   private final UuidFactory uuidFactory;
   private final DefaultOrganizationProvider defaultOrganizationProvider;
+  private final CeTaskSubmitListener[] submitListeners;
 
   // state
   private AtomicBoolean submitPaused = new AtomicBoolean(false);
 
   public CeQueueImpl(DbClient dbClient, UuidFactory uuidFactory, DefaultOrganizationProvider defaultOrganizationProvider) {
+    this(dbClient, uuidFactory, defaultOrganizationProvider, new CeTaskSubmitListener[0]);
+  }
+
+  public CeQueueImpl(DbClient dbClient, UuidFactory uuidFactory, DefaultOrganizationProvider defaultOrganizationProvider,
+    CeTaskSubmitListener[] submitListeners) {
     this.dbClient = dbClient;
     this.uuidFactory = uuidFactory;
     this.defaultOrganizationProvider = defaultOrganizationProvider;
+    this.submitListeners = submitListeners;
   }
 
   @Override
@@ -70,12 +80,15 @@ public class CeQueueImpl implements CeQueue {
   public CeTask submit(CeTaskSubmit submission) {
     checkState(!submitPaused.get(), "Compute Engine does not currently accept new tasks");
 
+    CeTask task;
     try (DbSession dbSession = dbClient.openSession(false)) {
       CeQueueDto dto = new CeTaskSubmitToInsertedCeQueueDto(dbSession, dbClient).apply(submission);
-      CeTask task = loadTask(dbSession, dto);
+      task = loadTask(dbSession, dto);
       dbSession.commit();
-      return task;
     }
+    // listeners are notified once the DB connection is released
+    notifySubmitListeners();
+    return task;
   }
 
   @Override
@@ -85,13 +98,25 @@ public class CeQueueImpl implements CeQueue {
       return Collections.emptyList();
     }
 
+    List<CeTask> tasks;
     try (DbSession dbSession = dbClient.openSession(true)) {
       List<CeQueueDto> ceQueueDtos = from(submissions)
         .transform(new CeTaskSubmitToInsertedCeQueueDto(dbSession, dbClient))
         .toList();
-      List<CeTask> tasks = loadTasks(dbSession, ceQueueDtos);
+      tasks = loadTasks(dbSession, ceQueueDtos);
       dbSession.commit();
-      return tasks;
+    }
+    notifySubmitListeners();
+    return tasks;
+  }
+
+  private void notifySubmitListeners() {
+    for (CeTaskSubmitListener submitListener : submitListeners) {
+      try {
+        submitListener.onSubmit();
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to notify the submission of tasks to the Compute Engine", e);
+      }
     }
   }
 
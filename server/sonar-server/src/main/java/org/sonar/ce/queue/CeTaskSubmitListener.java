@@ -0,0 +1,34 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+/**
+ * Notified by {@link CeQueueImpl} once tasks have been committed to the queue, so that the idle workers of the
+ * Compute Engine can process them without waiting for their next polling of the queue.
+ */
+public interface CeTaskSubmitListener {
+
+  /**
+   * Called after the transaction inserting the tasks has been committed and the DB session closed, in the thread
+   * of the submission. Implementations must not block it. An exception thrown by this method is logged and does
+   * not fail the submission.
+   */
+  void onSubmit();
+}
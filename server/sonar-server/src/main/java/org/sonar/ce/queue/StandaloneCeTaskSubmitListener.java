@@ -0,0 +1,75 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.picocontainer.Startable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.ce.http.CeHttpClient;
+
+/**
+ * Wakes up the workers of the local Compute Engine through its HTTP server, the Compute Engine running in its own
+ * process. The HTTP call is made by a background thread, so that submissions do not wait for the Compute Engine.
+ * Submissions made while a call is pending are notified by this call.
+ */
+public class StandaloneCeTaskSubmitListener implements CeTaskSubmitListener, Startable {
+  private static final Logger LOG = Loggers.get(StandaloneCeTaskSubmitListener.class);
+
+  private final CeHttpClient ceHttpClient;
+  private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+  private ExecutorService executorService;
+
+  public StandaloneCeTaskSubmitListener(CeHttpClient ceHttpClient) {
+    this.ceHttpClient = ceHttpClient;
+  }
+
+  @Override
+  public void start() {
+    executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("CeWorkersWakeUp-%d").setDaemon(true).build());
+  }
+
+  @Override
+  public void stop() {
+    if (executorService != null) {
+      executorService.shutdownNow();
+    }
+  }
+
+  @Override
+  public void onSubmit() {
+    if (wakeUpPending.compareAndSet(false, true)) {
+      executorService.execute(this::wakeUpCeWorkers);
+    }
+  }
+
+  private void wakeUpCeWorkers() {
+    // tasks submitted from now on need another call
+    wakeUpPending.set(false);
+    try {
+      ceHttpClient.wakeUpCeWorkers();
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to notify the submission of tasks to the Compute Engine", e);
+    }
+  }
+}
@@ -21,12 +21,14 @@ package org.sonar.server.authentication;
 
 import java.util.Base64;
 import java.util.Optional;
+import javax.annotation.CheckForNull;
 import javax.servlet.http.HttpServletRequest;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.user.UserDto;
 import org.sonar.server.authentication.event.AuthenticationEvent;
 import org.sonar.server.authentication.event.AuthenticationException;
+import org.sonar.server.user.UserSessionCache;
 import org.sonar.server.usertoken.UserTokenAuthenticator;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -46,13 +48,15 @@ public class BasicAuthenticator {
   private final CredentialsAuthenticator credentialsAuthenticator;
   private final UserTokenAuthenticator userTokenAuthenticator;
   private final AuthenticationEvent authenticationEvent;
+  private final UserSessionCache userSessionCache;
 
   public BasicAuthenticator(DbClient dbClient, CredentialsAuthenticator credentialsAuthenticator,
-    UserTokenAuthenticator userTokenAuthenticator, AuthenticationEvent authenticationEvent) {
+    UserTokenAuthenticator userTokenAuthenticator, AuthenticationEvent authenticationEvent, UserSessionCache userSessionCache) {
     this.dbClient = dbClient;
     this.credentialsAuthenticator = credentialsAuthenticator;
     this.userTokenAuthenticator = userTokenAuthenticator;
     this.authenticationEvent = authenticationEvent;
+    this.userSessionCache = userSessionCache;
   }
 
   public Optional<UserDto> authenticate(HttpServletRequest request) {
@@ -113,15 +117,20 @@ public class BasicAuthenticator {
         .setMessage("Token doesn't exist")
         .build();
     }
+    UserDto userDto = userSessionCache.getActiveUserByLogin(authenticatedLogin.get(), this::selectActiveUserByLogin);
+    if (userDto == null) {
+      throw AuthenticationException.newBuilder()
+        .setSource(Source.local(Method.BASIC_TOKEN))
+        .setMessage("User doesn't exist")
+        .build();
+    }
+    return userDto;
+  }
+
+  @CheckForNull
+  private UserDto selectActiveUserByLogin(String login) {
     try (DbSession dbSession = dbClient.openSession(false)) {
-      UserDto userDto = dbClient.userDao().selectActiveUserByLogin(dbSession, authenticatedLogin.get());
-      if (userDto == null) {
-        throw AuthenticationException.newBuilder()
-          .setSource(Source.local(Method.BASIC_TOKEN))
-          .setMessage("User doesn't exist")
-          .build();
-      }
-      return userDto;
+      return dbClient.userDao().selectActiveUserByLogin(dbSession, login);
     }
   }
 
@@ -21,6 +21,7 @@ package org.sonar.server.cluster;
 
 import com.hazelcast.core.Cluster;
 import com.hazelcast.core.IAtomicReference;
+import com.hazelcast.core.ITopic;
 import com.hazelcast.core.MemberSelector;
 import java.net.UnknownHostException;
 import java.util.List;
@@ -87,6 +88,11 @@ public class StartableHazelcastMember implements HazelcastMember, Startable {
     return nonNullMember().getReplicatedMap(name);
   }
 
+  @Override
+  public <E> ITopic<E> getTopic(String name) {
+    return nonNullMember().getTopic(name);
+  }
+
   @Override
   public String getUuid() {
     return nonNullMember().getUuid();
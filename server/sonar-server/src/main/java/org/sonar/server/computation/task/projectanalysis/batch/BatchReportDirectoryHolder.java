@@ -20,6 +20,7 @@
 package org.sonar.server.computation.task.projectanalysis.batch;
 
 import java.io.File;
+import java.util.Optional;
 import org.sonar.ce.queue.CeTask;
 
 public interface BatchReportDirectoryHolder {
@@ -30,4 +31,12 @@ public interface BatchReportDirectoryHolder {
    */
   File getDirectory();
 
+  /**
+   * The zip file of the Batch report for the current {@link CeTask}, when the report is read directly from it instead
+   * of being extracted to {@link #getDirectory()}.
+   */
+  default Optional<File> getZipFile() {
+    return Optional.empty();
+  }
+
 }
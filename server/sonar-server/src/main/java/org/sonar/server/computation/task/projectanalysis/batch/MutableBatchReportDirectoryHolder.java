@@ -31,4 +31,13 @@ public interface MutableBatchReportDirectoryHolder extends BatchReportDirectoryH
    * @throws NullPointerException if {@code newDirectory} is {@code null}
    */
   void setDirectory(File newDirectory);
+
+  /**
+   * Sets the zip file of the report, which is then read without being extracted.
+   *
+   * @param zipFile a {@link File}, can not be {@code null}
+   *
+   * @throws NullPointerException if {@code zipFile} is {@code null}
+   */
+  void setZipFile(File zipFile);
 }
@@ -0,0 +1,135 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.batch;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.CheckForNull;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Entries of the analysis report, named as in {@link org.sonar.scanner.protocol.output.FileStructure}. They are read
+ * either from the directory in which the report has been extracted or directly from the zip of the report.
+ */
+abstract class ReportEntries implements AutoCloseable {
+
+  static ReportEntries of(BatchReportDirectoryHolder holder) {
+    File zipFile = holder.getZipFile().orElse(null);
+    if (zipFile != null) {
+      return new ZipEntries(zipFile);
+    }
+    return new DirectoryEntries(holder.getDirectory());
+  }
+
+  /**
+   * Opens a buffered stream on the content of the entry, or returns {@code null} if the report has no such entry.
+   */
+  @CheckForNull
+  abstract InputStream open(String entryName);
+
+  /**
+   * Human-readable location of the entry, for error messages.
+   */
+  abstract String describe(String entryName);
+
+  @Override
+  public abstract void close();
+
+  private static class DirectoryEntries extends ReportEntries {
+    private final File directory;
+
+    private DirectoryEntries(File directory) {
+      this.directory = directory;
+    }
+
+    @Override
+    @CheckForNull
+    InputStream open(String entryName) {
+      File file = new File(directory, entryName);
+      if (!file.isFile()) {
+        return null;
+      }
+      try {
+        return new BufferedInputStream(FileUtils.openInputStream(file));
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to open file " + file, e);
+      }
+    }
+
+    @Override
+    String describe(String entryName) {
+      return new File(directory, entryName).toString();
+    }
+
+    @Override
+    public void close() {
+      // nothing to close
+    }
+  }
+
+  /**
+   * Entries are inflated on demand. {@link ZipFile} is thread-safe, so entries can be read concurrently.
+   */
+  private static class ZipEntries extends ReportEntries {
+    private final File file;
+    private final ZipFile zipFile;
+
+    private ZipEntries(File file) {
+      this.file = file;
+      try {
+        this.zipFile = new ZipFile(file);
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to open zip of analysis report " + file, e);
+      }
+    }
+
+    @Override
+    @CheckForNull
+    InputStream open(String entryName) {
+      ZipEntry entry = zipFile.getEntry(entryName);
+      if (entry == null || entry.isDirectory()) {
+        return null;
+      }
+      try {
+        return new BufferedInputStream(zipFile.getInputStream(entry));
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to read entry " + describe(entryName), e);
+      }
+    }
+
+    @Override
+    String describe(String entryName) {
+      return file + "!" + entryName;
+    }
+
+    @Override
+    public void close() {
+      try {
+        zipFile.close();
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to close zip of analysis report " + file, e);
+      }
+    }
+  }
+}
@@ -25,6 +25,14 @@ public interface ComponentVisitor {
 
   CrawlerDepthLimit getMaxDepth();
 
+  /**
+   * Whether this visitor supports visiting several components of type FILE at the same time, from different threads
+   * (see {@link VisitorsCrawler}). Only {@link TypeAwareVisitor}s are visited concurrently.
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
   enum Order {
     /**
      * Each component is visited BEFORE its children. Top-down traversal of
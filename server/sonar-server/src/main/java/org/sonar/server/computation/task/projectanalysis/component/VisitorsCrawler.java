@@ -23,9 +23,17 @@ import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Loggers;
@@ -37,6 +45,14 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * This crawler make any number of {@link TypeAwareVisitor} or {@link PathAwareVisitor} defined in a list visit a component tree, component per component, in the order of the list
+ * <p>
+ * When created with a parallelism greater than 1 and when some {@link TypeAwareVisitor}s visiting files declare themselves
+ * {@link ComponentVisitor#isThreadSafe() thread-safe}, the files of a directory are visited visitor per visitor: each
+ * visitor visits all the files before the next one in the list does. Consecutive thread-safe visitors visit the files
+ * concurrently, with a pool of threads bounded by the parallelism, while the other visitors visit them one after the
+ * other. A file is still visited by the visitors in the order of the list, and a directory is visited in post-order
+ * only once all its files have been visited.
+ * </p>
  */
 public class VisitorsCrawler implements ComponentCrawler {
 
@@ -44,17 +60,25 @@ public class VisitorsCrawler implements ComponentCrawler {
   private final Map<ComponentVisitor, VisitorDuration> visitorCumulativeDurations;
   private final List<VisitorWrapper> preOrderVisitorWrappers;
   private final List<VisitorWrapper> postOrderVisitorWrappers;
+  private final int parallelism;
+  @CheckForNull
+  private ExecutorService pool;
 
   public VisitorsCrawler(Iterable<ComponentVisitor> visitors) {
     this(visitors, false);
   }
 
   public VisitorsCrawler(Iterable<ComponentVisitor> visitors, boolean computeDuration) {
+    this(visitors, computeDuration, 1);
+  }
+
+  public VisitorsCrawler(Iterable<ComponentVisitor> visitors, boolean computeDuration, int parallelism) {
     List<VisitorWrapper> visitorWrappers = from(visitors).transform(ToVisitorWrapper.INSTANCE).toList();
     this.preOrderVisitorWrappers = from(visitorWrappers).filter(MathPreOrderVisitor.INSTANCE).toList();
     this.postOrderVisitorWrappers = from(visitorWrappers).filter(MatchPostOrderVisitor.INSTANCE).toList();
     this.computeDuration = computeDuration;
     this.visitorCumulativeDurations = computeDuration ? from(visitors).toMap(VisitorWrapperToInitialDuration.INSTANCE) : Collections.emptyMap();
+    this.parallelism = from(visitorWrappers).anyMatch(VisitsFilesConcurrently.INSTANCE) ? parallelism : 1;
   }
 
   public Map<ComponentVisitor, Long> getCumulativeDurations() {
@@ -68,6 +92,20 @@ public class VisitorsCrawler implements ComponentCrawler {
 
   @Override
   public void visit(final Component component) {
+    if (parallelism > 1 && pool == null) {
+      pool = Executors.newFixedThreadPool(parallelism, new ThreadFactoryBuilder().setNameFormat("ComponentVisitor-%d").setDaemon(true).build());
+      try {
+        visitComponent(component);
+      } finally {
+        pool.shutdownNow();
+        pool = null;
+      }
+    } else {
+      visitComponent(component);
+    }
+  }
+
+  private void visitComponent(Component component) {
     try {
       visitImpl(component);
     } catch (RuntimeException e) {
@@ -106,8 +144,96 @@ public class VisitorsCrawler implements ComponentCrawler {
   }
 
   private void visitChildren(Component component) {
-    for (Component child : component.getChildren()) {
-      visit(child);
+    List<Component> children = component.getChildren();
+    if (pool != null && children.size() > 1 && children.stream().allMatch(child -> child.getType() == Component.Type.FILE)) {
+      visitFiles(pool, children);
+      return;
+    }
+    for (Component child : children) {
+      visitComponent(child);
+    }
+  }
+
+  /**
+   * Visits the files visitor per visitor, so that consecutive thread-safe visitors can visit them concurrently. For
+   * each visitor and each file, calls to {@link VisitorWrapper#beforeComponent(Component)}, to the visit methods and
+   * to {@link VisitorWrapper#afterComponent(Component)} are the same as in {@link #visitImpl(Component)}.
+   */
+  private void visitFiles(ExecutorService executor, List<Component> files) {
+    MatchVisitorMaxDepth visitorMaxDepth = MatchVisitorMaxDepth.forComponent(files.get(0));
+    List<VisitorWrapper> visitorWrappersToExecute = from(concat(preOrderVisitorWrappers, postOrderVisitorWrappers)).filter(visitorMaxDepth).toList();
+    if (visitorWrappersToExecute.isEmpty()) {
+      return;
+    }
+
+    List<VisitorWrapper> otherVisitorWrappers = from(concat(preOrderVisitorWrappers, postOrderVisitorWrappers)).filter(w -> !visitorWrappersToExecute.contains(w)).toList();
+    for (Component file : files) {
+      for (VisitorWrapper visitorWrapper : otherVisitorWrappers) {
+        visitorWrapper.beforeComponent(file);
+      }
+    }
+
+    int start = 0;
+    while (start < visitorWrappersToExecute.size()) {
+      boolean threadSafe = VisitsFilesConcurrently.INSTANCE.apply(visitorWrappersToExecute.get(start));
+      int end = start + 1;
+      while (end < visitorWrappersToExecute.size() && VisitsFilesConcurrently.INSTANCE.apply(visitorWrappersToExecute.get(end)) == threadSafe) {
+        end++;
+      }
+      List<VisitorWrapper> visitorWrappers = visitorWrappersToExecute.subList(start, end);
+      if (threadSafe) {
+        visitFilesConcurrently(executor, files, visitorWrappers);
+      } else {
+        for (Component file : files) {
+          visitFile(file, visitorWrappers);
+        }
+      }
+      start = end;
+    }
+  }
+
+  private void visitFilesConcurrently(ExecutorService executor, List<Component> files, List<VisitorWrapper> visitorWrappers) {
+    List<Future<?>> futures = new ArrayList<>(files.size());
+    for (Component file : files) {
+      futures.add(executor.submit(() -> visitFile(file, visitorWrappers)));
+    }
+    try {
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while visiting files", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    } finally {
+      futures.forEach(future -> future.cancel(false));
+    }
+  }
+
+  private void visitFile(Component file, List<VisitorWrapper> visitorWrappers) {
+    try {
+      for (VisitorWrapper visitorWrapper : visitorWrappers) {
+        visitorWrapper.beforeComponent(file);
+      }
+      for (VisitorWrapper visitorWrapper : visitorWrappers) {
+        visitNode(file, visitorWrapper);
+      }
+      for (VisitorWrapper visitorWrapper : visitorWrappers) {
+        visitorWrapper.afterComponent(file);
+      }
+    } catch (RuntimeException e) {
+      VisitException.rethrowOrWrap(
+        e,
+        "Visit of Component {key=%s,type=%s} failed",
+        file.getKey(), file.getType());
     }
   }
 
@@ -192,6 +318,21 @@ public class VisitorsCrawler implements ComponentCrawler {
     }
   }
 
+  /**
+   * {@link PathAwareVisitor}s share their path between the components, so they can't visit files concurrently.
+   */
+  private enum VisitsFilesConcurrently implements Predicate<VisitorWrapper> {
+    INSTANCE;
+
+    @Override
+    public boolean apply(@Nonnull VisitorWrapper visitorWrapper) {
+      CrawlerDepthLimit maxDepth = visitorWrapper.getMaxDepth();
+      return visitorWrapper instanceof TypeAwareVisitorWrapper
+        && visitorWrapper.getWrappedVisitor().isThreadSafe()
+        && (maxDepth.isSameAs(Component.Type.FILE) || maxDepth.isDeeperThan(Component.Type.FILE));
+    }
+  }
+
   private enum MathPreOrderVisitor implements Predicate<VisitorWrapper> {
     INSTANCE;
 
@@ -211,14 +352,14 @@ public class VisitorsCrawler implements ComponentCrawler {
   }
 
   private static final class VisitorDuration {
-    private long duration = 0;
+    private final AtomicLong duration = new AtomicLong();
 
     public void increment(long duration) {
-      this.duration += duration;
+      this.duration.addAndGet(duration);
     }
 
     public long getDuration() {
-      return duration;
+      return duration.get();
     }
   }
 
@@ -26,6 +26,9 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -197,24 +200,24 @@ public class FileMoveDetectionStep implements ComputationStep {
   private ScoreMatrix computeScoreMatrix(Map<String, DbComponent> dtosByKey, Set<String> dbFileKeys, Map<String, File> reportFileSourcesByKey) {
     int[][] scoreMatrix = new int[dbFileKeys.size()][reportFileSourcesByKey.size()];
     int maxScore = 0;
+    ReportFilesBySize reportFilesBySize = new ReportFilesBySize(reportFileSourcesByKey.values());
 
     try (DbSession dbSession = dbClient.openSession(false)) {
       int dbFileIndex = 0;
       for (String removedFileKey : dbFileKeys) {
         File fileInDb = getFile(dbSession, dtosByKey.get(removedFileKey));
-        if (fileInDb == null) {
-          continue;
-        }
-
-        int reportFileIndex = 0;
-        for (Map.Entry<String, File> reportFileSourceAndKey : reportFileSourcesByKey.entrySet()) {
-          File unmatchedFile = reportFileSourceAndKey.getValue();
-          int score = fileSimilarity.score(fileInDb, unmatchedFile);
-          scoreMatrix[dbFileIndex][reportFileIndex] = score;
-          if (score > maxScore) {
-            maxScore = score;
+        if (fileInDb != null) {
+          int[] scores = scoreMatrix[dbFileIndex];
+          int dbFileSize = fileInDb.getLineHashes().size();
+          // only files with a close enough number of lines can reach MIN_REQUIRED_SCORE, other scores remain 0
+          int i = reportFilesBySize.indexOfMinSize(dbFileSize);
+          for (; i < reportFilesBySize.size() && reportFilesBySize.isCandidate(i, dbFileSize); i++) {
+            int score = fileSimilarity.score(fileInDb, reportFilesBySize.getFile(i), MIN_REQUIRED_SCORE);
+            scores[reportFilesBySize.getMatrixIndex(i)] = score;
+            if (score > maxScore) {
+              maxScore = score;
+            }
           }
-          reportFileIndex++;
         }
         dbFileIndex++;
       }
@@ -342,4 +345,64 @@ public class FileMoveDetectionStep implements ComputationStep {
       return matches.iterator();
     }
   }
+
+  /**
+   * Report files sorted by number of lines. As the distance between two files is at least the difference of their
+   * number of lines, the score of two files can't be greater than {@code 100 * smallest size / greatest size}.
+   */
+  private static final class ReportFilesBySize {
+    private final File[] files;
+    private final int[] sizes;
+    private final int[] matrixIndexes;
+
+    private ReportFilesBySize(Collection<File> reportFiles) {
+      List<File> filesInMatrixOrder = new ArrayList<>(reportFiles);
+      Integer[] order = new Integer[filesInMatrixOrder.size()];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, Comparator.comparingInt(i -> filesInMatrixOrder.get(i).getLineHashes().size()));
+      this.files = new File[order.length];
+      this.sizes = new int[order.length];
+      this.matrixIndexes = new int[order.length];
+      for (int i = 0; i < order.length; i++) {
+        files[i] = filesInMatrixOrder.get(order[i]);
+        sizes[i] = files[i].getLineHashes().size();
+        matrixIndexes[i] = order[i];
+      }
+    }
+
+    private int size() {
+      return files.length;
+    }
+
+    /**
+     * Index of the first file which has at least {@code MIN_REQUIRED_SCORE}% of the lines of a file of size {@code fileSize}
+     */
+    private int indexOfMinSize(int fileSize) {
+      // smallest size s such that 100 * s >= MIN_REQUIRED_SCORE * fileSize
+      int minSize = (int) (((long) fileSize * MIN_REQUIRED_SCORE + 99) / 100);
+      int index = Arrays.binarySearch(sizes, minSize);
+      if (index < 0) {
+        return -index - 1;
+      }
+      // binarySearch returns any of the files of the searched size
+      while (index > 0 && sizes[index - 1] == minSize) {
+        index--;
+      }
+      return index;
+    }
+
+    private boolean isCandidate(int index, int fileSize) {
+      return (long) sizes[index] * MIN_REQUIRED_SCORE <= (long) fileSize * 100;
+    }
+
+    private File getFile(int index) {
+      return files[index];
+    }
+
+    private int getMatrixIndex(int index) {
+      return matrixIndexes[index];
+    }
+  }
 }
@@ -48,4 +48,9 @@ public interface FileSimilarity {
   }
 
   int score(File file1, File file2);
+
+  /**
+   * Same as {@link #score(File, File)} when the score is greater than or equal to {@code minScore}, otherwise 0.
+   */
+  int score(File file1, File file2, int minScore);
 }
@@ -35,4 +35,9 @@ public class FileSimilarityImpl implements FileSimilarity {
 
     return sourceSimilarity.score(file1.getLineHashes(), file2.getLineHashes());
   }
+
+  @Override
+  public int score(File file1, File file2, int minScore) {
+    return sourceSimilarity.score(file1.getLineHashes(), file2.getLineHashes(), minScore);
+  }
 }
@@ -28,4 +28,10 @@ public interface SourceSimilarity {
    * Range: between 0 and 100
    */
   <T extends Object> int score(List<T> left, List<T> right);
+
+  /**
+   * Same as {@link #score(List, List)} when the score is greater than or equal to {@code minScore}, otherwise 0.
+   * Faster than {@link #score(List, List)} as computation stops as soon as the score is known to be too low.
+   */
+  <T extends Object> int score(List<T> left, List<T> right, int minScore);
 }
@@ -21,6 +21,7 @@ package org.sonar.server.computation.task.projectanalysis.filemove;
 
 import java.util.List;
 
+import static java.lang.Math.abs;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 
@@ -28,37 +29,64 @@ public class SourceSimilarityImpl implements SourceSimilarity {
 
   @Override
   public <T> int score(List<T> left, List<T> right) {
+    return score(left, right, 0);
+  }
+
+  @Override
+  public <T> int score(List<T> left, List<T> right, int minScore) {
     if (left.isEmpty() && right.isEmpty()) {
       return 0;
     }
-    int distance = levenshteinDistance(left, right);
-    return (int) (100 * (1.0 - ((double) distance) / (max(left.size(), right.size()))));
+    int maxSize = max(left.size(), right.size());
+    // score >= minScore <=> distance <= maxSize * (100 - minScore) / 100
+    int maxDistance = (int) ((long) maxSize * (100 - minScore) / 100);
+    int distance = levenshteinDistance(left, right, maxDistance);
+    if (distance > maxDistance) {
+      return 0;
+    }
+    int score = (int) (100 * (1.0 - ((double) distance) / maxSize));
+    return score < minScore ? 0 : score;
   }
 
-  private static <T> int levenshteinDistance(List<T> left, List<T> right) {
-    int len0 = left.size() + 1;
-    int len1 = right.size() + 1;
+  /**
+   * Levenshtein distance restricted to the diagonal band of width {@code maxDistance}: cells out of the band
+   * can only lead to a greater distance. Cost is O(n.maxDistance) instead of O(n.m).
+   *
+   * @return the distance if lower than or equal to {@code maxDistance}, otherwise {@code maxDistance + 1}
+   */
+  private static <T> int levenshteinDistance(List<T> left, List<T> right, int maxDistance) {
+    int leftSize = left.size();
+    int rightSize = right.size();
+    // any value greater than maxDistance
+    int outOfBand = maxDistance + 1;
+    if (abs(leftSize - rightSize) > maxDistance) {
+      return outOfBand;
+    }
 
     // the array of distances
-    int[] cost = new int[len0];
-    int[] newcost = new int[len0];
+    int[] cost = new int[leftSize + 1];
+    int[] newcost = new int[leftSize + 1];
 
-    // initial cost of skipping prefix in String s0
-    for (int i = 0; i < len0; i++) {
-      cost[i] = i;
+    // initial cost of skipping prefix in left
+    for (int i = 0; i <= leftSize; i++) {
+      cost[i] = i <= maxDistance ? i : outOfBand;
     }
 
-    // dynamically computing the array of distances
+    // transformation cost for each element of right
+    for (int j = 1; j <= rightSize; j++) {
+      int from = max(1, j - maxDistance);
+      int to = min(leftSize, j + maxDistance);
 
-    // transformation cost for each letter in s1
-    for (int j = 1; j < len1; j++) {
-      // initial cost of skipping prefix in String s1
-      newcost[0] = j;
+      // initial cost of skipping prefix in right
+      newcost[0] = j <= maxDistance ? j : outOfBand;
+      newcost[from - 1] = from == 1 ? newcost[0] : outOfBand;
+      int minCost = newcost[from - 1];
 
-      // transformation cost for each letter in s0
-      for (int i = 1; i < len0; i++) {
-        // matching current letters in both strings
-        int match = left.get(i - 1).equals(right.get(j - 1)) ? 0 : 1;
+      // transformation cost for each element of left in the band
+      T rightElement = right.get(j - 1);
+      for (int i = from; i <= to; i++) {
+        // matching current elements in both lists
+        int match = left.get(i - 1).equals(rightElement) ? 0 : 1;
 
         // computing cost for each transformation
         int costReplace = cost[i - 1] + match;
@@ -66,7 +94,16 @@ public class SourceSimilarityImpl implements SourceSimilarity {
         int costDelete = newcost[i - 1] + 1;
 
         // keep minimum cost
-        newcost[i] = min(min(costInsert, costDelete), costReplace);
+        newcost[i] = min(min(min(costInsert, costDelete), costReplace), outOfBand);
+        minCost = min(minCost, newcost[i]);
+      }
+      if (to < leftSize) {
+        newcost[to + 1] = outOfBand;
+      }
+
+      // distance can not decrease from a row to the next one
+      if (minCost > maxDistance) {
+        return outOfBand;
       }
 
       // swap cost/newcost arrays
@@ -75,7 +112,7 @@ public class SourceSimilarityImpl implements SourceSimilarity {
       newcost = swap;
     }
 
-    // the distance is the cost for transforming all letters in both strings
-    return cost[len0 - 1];
+    // the distance is the cost for transforming all elements of left
+    return cost[leftSize];
   }
 }
@@ -21,6 +21,8 @@ package org.sonar.server.computation.task.projectanalysis.issue;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rule.RuleStatus;
@@ -34,6 +36,7 @@ public class ComponentIssuesLoader {
   private final DbClient dbClient;
   private final RuleRepository ruleRepository;
   private final ActiveRulesHolder activeRulesHolder;
+  private final Map<String, List<DefaultIssue>> prefetchedIssuesByComponentUuid = new ConcurrentHashMap<>();
 
   public ComponentIssuesLoader(DbClient dbClient, RuleRepository ruleRepository, ActiveRulesHolder activeRulesHolder) {
     this.activeRulesHolder = activeRulesHolder;
@@ -41,7 +44,23 @@ public class ComponentIssuesLoader {
     this.ruleRepository = ruleRepository;
   }
 
+  /**
+   * Loads the non-closed issues of the component in advance, so that the next call to {@link #loadForComponentUuid(String)}
+   * for this component does not query the database. Can be called by several threads at the same time.
+   */
+  public void prefetch(String componentUuid) {
+    prefetchedIssuesByComponentUuid.put(componentUuid, load(componentUuid));
+  }
+
   public List<DefaultIssue> loadForComponentUuid(String componentUuid) {
+    List<DefaultIssue> prefetchedIssues = prefetchedIssuesByComponentUuid.remove(componentUuid);
+    if (prefetchedIssues != null) {
+      return prefetchedIssues;
+    }
+    return load(componentUuid);
+  }
+
+  private List<DefaultIssue> load(String componentUuid) {
     try (DbSession dbSession = dbClient.openSession(false)) {
       List<DefaultIssue> result = new ArrayList<>();
       dbSession.getMapper(IssueMapper.class).scrollNonClosedByComponentUuid(componentUuid, resultContext -> {
@@ -0,0 +1,426 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.issue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.issue.IssueComment;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.utils.Duration;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonar.core.issue.DefaultIssueComment;
+import org.sonar.core.issue.FieldDiffs;
+import org.sonar.db.protobuf.DbIssues;
+import org.sonar.server.util.cache.BinaryDiskCacheCodec;
+
+/**
+ * Binary encoding of {@link DefaultIssue} for {@link IssueCache}, including changelog and comments.
+ * Much faster and smaller than Java serialization.
+ */
+public class DefaultIssueCodec extends BinaryDiskCacheCodec<DefaultIssue> {
+
+  private static final int FLAG_MANUAL_SEVERITY = 1;
+  private static final int FLAG_NEW = 1 << 1;
+  private static final int FLAG_COPIED = 1 << 2;
+  private static final int FLAG_BEING_CLOSED = 1 << 3;
+  private static final int FLAG_ON_DISABLED_RULE = 1 << 4;
+  private static final int FLAG_CHANGED = 1 << 5;
+  private static final int FLAG_SEND_NOTIFICATIONS = 1 << 6;
+
+  private static final byte VALUE_NULL = 0;
+  private static final byte VALUE_STRING = 1;
+  private static final byte VALUE_LONG = 2;
+  private static final byte VALUE_INTEGER = 3;
+  private static final byte VALUE_DOUBLE = 4;
+  private static final byte VALUE_BOOLEAN = 5;
+  private static final byte VALUE_DATE = 6;
+  private static final byte VALUE_SERIALIZED = 7;
+
+  private static final byte LOCATIONS_NULL = 0;
+  private static final byte LOCATIONS_PROTOBUF = 1;
+  private static final byte LOCATIONS_SERIALIZED = 2;
+
+  private static final int NO_CHANGE = -2;
+  private static final int INLINE_CHANGE = -1;
+
+  public DefaultIssueCodec(boolean compressed) {
+    super(compressed);
+  }
+
+  @Override
+  protected void writeObject(DefaultIssue issue, DataOutput output) throws IOException {
+    writeString(output, issue.key());
+    RuleType type = issue.type();
+    output.writeByte(type == null ? -1 : type.ordinal());
+    writeString(output, issue.componentUuid());
+    writeString(output, issue.componentKey());
+    writeString(output, issue.moduleUuid());
+    writeString(output, issue.moduleUuidPath());
+    writeString(output, issue.projectUuid());
+    writeString(output, issue.projectKey());
+    RuleKey ruleKey = issue.ruleKey();
+    writeString(output, ruleKey == null ? null : ruleKey.repository());
+    writeString(output, ruleKey == null ? null : ruleKey.rule());
+    writeString(output, issue.language());
+    writeString(output, issue.severity());
+    writeString(output, issue.message());
+    Integer line = issue.line();
+    writeLong(output, line == null ? null : line.longValue());
+    Double gap = issue.gap();
+    output.writeBoolean(gap != null);
+    if (gap != null) {
+      output.writeDouble(gap);
+    }
+    writeLong(output, issue.effortInMinutes());
+    writeString(output, issue.status());
+    writeString(output, issue.resolution());
+    writeString(output, issue.assignee());
+    writeString(output, issue.checksum());
+    writeString(output, issue.authorLogin());
+    writeDate(output, issue.creationDate());
+    writeDate(output, issue.updateDate());
+    writeDate(output, issue.closeDate());
+    writeLong(output, issue.selectedAt());
+    output.writeByte(flags(issue));
+
+    Map<String, String> attributes = issue.attributes();
+    output.writeInt(attributes.size());
+    for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+      writeString(output, attribute.getKey());
+      writeString(output, attribute.getValue());
+    }
+
+    Set<String> tags = issue.tags();
+    output.writeInt(tags.size());
+    for (String tag : tags) {
+      writeString(output, tag);
+    }
+
+    List<IssueComment> comments = issue.comments();
+    output.writeInt(comments.size());
+    for (IssueComment comment : comments) {
+      writeComment(output, (DefaultIssueComment) comment);
+    }
+
+    writeChanges(output, issue.changes(), issue.currentChange());
+    writeLocations(output, issue.getLocations());
+  }
+
+  @Override
+  protected DefaultIssue readObject(DataInput input) throws IOException {
+    DefaultIssue issue = new DefaultIssue();
+    issue.setKey(readString(input));
+    byte type = input.readByte();
+    issue.setType(type < 0 ? null : RuleType.values()[type]);
+    issue.setComponentUuid(readString(input));
+    issue.setComponentKey(readString(input));
+    issue.setModuleUuid(readString(input));
+    issue.setModuleUuidPath(readString(input));
+    issue.setProjectUuid(readString(input));
+    issue.setProjectKey(readString(input));
+    String ruleRepository = readString(input);
+    String rule = readString(input);
+    if (ruleRepository != null && rule != null) {
+      issue.setRuleKey(RuleKey.of(ruleRepository, rule));
+    }
+    issue.setLanguage(readString(input));
+    issue.setSeverity(readString(input));
+    issue.setMessage(readString(input));
+    Long line = readLong(input);
+    issue.setLine(line == null ? null : line.intValue());
+    issue.setGap(input.readBoolean() ? input.readDouble() : null);
+    Long effort = readLong(input);
+    issue.setEffort(effort == null ? null : Duration.create(effort));
+    String status = readString(input);
+    if (status != null) {
+      issue.setStatus(status);
+    }
+    issue.setResolution(readString(input));
+    issue.setAssignee(readString(input));
+    issue.setChecksum(readString(input));
+    issue.setAuthorLogin(readString(input));
+    Date creationDate = readDate(input);
+    if (creationDate != null) {
+      issue.setCreationDate(creationDate);
+    }
+    issue.setUpdateDate(readDate(input));
+    issue.setCloseDate(readDate(input));
+    issue.setSelectedAt(readLong(input));
+    setFlags(issue, input.readByte());
+
+    int attributeCount = input.readInt();
+    if (attributeCount > 0) {
+      Map<String, String> attributes = new LinkedHashMap<>(attributeCount);
+      for (int i = 0; i < attributeCount; i++) {
+        attributes.put(readString(input), readString(input));
+      }
+      issue.setAttributes(attributes);
+    }
+
+    int tagCount = input.readInt();
+    if (tagCount > 0) {
+      Set<String> tags = new LinkedHashSet<>(tagCount);
+      for (int i = 0; i < tagCount; i++) {
+        tags.add(readString(input));
+      }
+      issue.setTags(tags);
+    }
+
+    int commentCount = input.readInt();
+    for (int i = 0; i < commentCount; i++) {
+      issue.addComment(readComment(input));
+    }
+
+    readChanges(input, issue);
+    issue.setLocations(readLocations(input));
+    return issue;
+  }
+
+  private static int flags(DefaultIssue issue) {
+    int flags = 0;
+    flags |= issue.manualSeverity() ? FLAG_MANUAL_SEVERITY : 0;
+    flags |= issue.isNew() ? FLAG_NEW : 0;
+    flags |= issue.isCopied() ? FLAG_COPIED : 0;
+    flags |= issue.isBeingClosed() ? FLAG_BEING_CLOSED : 0;
+    flags |= issue.isOnDisabledRule() ? FLAG_ON_DISABLED_RULE : 0;
+    flags |= issue.isChanged() ? FLAG_CHANGED : 0;
+    flags |= issue.mustSendNotifications() ? FLAG_SEND_NOTIFICATIONS : 0;
+    return flags;
+  }
+
+  private static void setFlags(DefaultIssue issue, int flags) {
+    issue.setManualSeverity((flags & FLAG_MANUAL_SEVERITY) != 0);
+    issue.setNew((flags & FLAG_NEW) != 0);
+    issue.setCopied((flags & FLAG_COPIED) != 0);
+    issue.setBeingClosed((flags & FLAG_BEING_CLOSED) != 0);
+    issue.setOnDisabledRule((flags & FLAG_ON_DISABLED_RULE) != 0);
+    issue.setChanged((flags & FLAG_CHANGED) != 0);
+    issue.setSendNotifications((flags & FLAG_SEND_NOTIFICATIONS) != 0);
+  }
+
+  private static void writeComment(DataOutput output, DefaultIssueComment comment) throws IOException {
+    writeString(output, comment.issueKey());
+    writeString(output, comment.key());
+    writeString(output, comment.userLogin());
+    writeString(output, comment.markdownText());
+    writeDate(output, comment.createdAt());
+    writeDate(output, comment.updatedAt());
+    output.writeBoolean(comment.isNew());
+  }
+
+  private static DefaultIssueComment readComment(DataInput input) throws IOException {
+    return new DefaultIssueComment()
+      .setIssueKey(readString(input))
+      .setKey(readString(input))
+      .setUserLogin(readString(input))
+      .setMarkdownText(readString(input))
+      .setCreatedAt(readDate(input))
+      .setUpdatedAt(readDate(input))
+      .setNew(input.readBoolean());
+  }
+
+  /**
+   * The same {@link FieldDiffs} instance can be referenced several times by the changelog, and
+   * the current change is also part of the changelog. Instances are written once, then referenced
+   * by their index, so that identity is kept when reading.
+   */
+  private static void writeChanges(DataOutput output, List<FieldDiffs> changes, @Nullable FieldDiffs currentChange) throws IOException {
+    Map<FieldDiffs, Integer> indices = new IdentityHashMap<>();
+    output.writeInt(changes.size());
+    for (FieldDiffs change : changes) {
+      writeChange(output, change, indices);
+    }
+    if (currentChange == null) {
+      output.writeInt(NO_CHANGE);
+    } else {
+      writeChange(output, currentChange, indices);
+    }
+  }
+
+  private static void writeChange(DataOutput output, FieldDiffs change, Map<FieldDiffs, Integer> indices) throws IOException {
+    Integer index = indices.get(change);
+    if (index != null) {
+      output.writeInt(index);
+      return;
+    }
+    indices.put(change, indices.size());
+    output.writeInt(INLINE_CHANGE);
+    writeString(output, change.issueKey());
+    writeString(output, change.userLogin());
+    writeDate(output, change.creationDate());
+    Map<String, FieldDiffs.Diff> diffs = change.diffs();
+    output.writeInt(diffs.size());
+    for (Map.Entry<String, FieldDiffs.Diff> diff : diffs.entrySet()) {
+      writeString(output, diff.getKey());
+      writeValue(output, diff.getValue().oldValue());
+      writeValue(output, diff.getValue().newValue());
+    }
+  }
+
+  private static void readChanges(DataInput input, DefaultIssue issue) throws IOException {
+    List<FieldDiffs> distinctChanges = new ArrayList<>();
+    int count = input.readInt();
+    List<FieldDiffs> changes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      changes.add(readChange(input, distinctChanges));
+    }
+    FieldDiffs currentChange = readChange(input, distinctChanges);
+    if (currentChange != null) {
+      // also adds the change to the changelog, which is replaced just below
+      issue.setCurrentChange(currentChange);
+    }
+    if (!changes.isEmpty()) {
+      issue.setChanges(changes);
+    }
+  }
+
+  @CheckForNull
+  private static FieldDiffs readChange(DataInput input, List<FieldDiffs> distinctChanges) throws IOException {
+    int index = input.readInt();
+    if (index == NO_CHANGE) {
+      return null;
+    }
+    if (index != INLINE_CHANGE) {
+      return distinctChanges.get(index);
+    }
+    FieldDiffs change = new FieldDiffs()
+      .setIssueKey(readString(input))
+      .setUserLogin(readString(input))
+      .setCreationDate(readDate(input));
+    int diffCount = input.readInt();
+    for (int i = 0; i < diffCount; i++) {
+      change.setDiff(readString(input), readValue(input), readValue(input));
+    }
+    distinctChanges.add(change);
+    return change;
+  }
+
+  private static void writeValue(DataOutput output, @Nullable Object value) throws IOException {
+    if (value == null) {
+      output.writeByte(VALUE_NULL);
+    } else if (value instanceof String) {
+      output.writeByte(VALUE_STRING);
+      writeString(output, (String) value);
+    } else if (value instanceof Long) {
+      output.writeByte(VALUE_LONG);
+      output.writeLong((Long) value);
+    } else if (value instanceof Integer) {
+      output.writeByte(VALUE_INTEGER);
+      output.writeInt((Integer) value);
+    } else if (value instanceof Double) {
+      output.writeByte(VALUE_DOUBLE);
+      output.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      output.writeByte(VALUE_BOOLEAN);
+      output.writeBoolean((Boolean) value);
+    } else if (value instanceof Date) {
+      output.writeByte(VALUE_DATE);
+      output.writeLong(((Date) value).getTime());
+    } else {
+      output.writeByte(VALUE_SERIALIZED);
+      writeBytes(output, serialize(value));
+    }
+  }
+
+  @CheckForNull
+  private static Serializable readValue(DataInput input) throws IOException {
+    byte type = input.readByte();
+    switch (type) {
+      case VALUE_NULL:
+        return null;
+      case VALUE_STRING:
+        return readString(input);
+      case VALUE_LONG:
+        return input.readLong();
+      case VALUE_INTEGER:
+        return input.readInt();
+      case VALUE_DOUBLE:
+        return input.readDouble();
+      case VALUE_BOOLEAN:
+        return input.readBoolean();
+      case VALUE_DATE:
+        return new Date(input.readLong());
+      case VALUE_SERIALIZED:
+        return (Serializable) deserialize(readBytes(input));
+      default:
+        throw new IllegalStateException("Unsupported type of value: " + type);
+    }
+  }
+
+  private static void writeLocations(DataOutput output, @Nullable Object locations) throws IOException {
+    if (locations == null) {
+      output.writeByte(LOCATIONS_NULL);
+    } else if (locations instanceof DbIssues.Locations) {
+      output.writeByte(LOCATIONS_PROTOBUF);
+      writeBytes(output, ((DbIssues.Locations) locations).toByteArray());
+    } else {
+      output.writeByte(LOCATIONS_SERIALIZED);
+      writeBytes(output, serialize(locations));
+    }
+  }
+
+  @CheckForNull
+  private static Object readLocations(DataInput input) throws IOException {
+    byte type = input.readByte();
+    switch (type) {
+      case LOCATIONS_NULL:
+        return null;
+      case LOCATIONS_PROTOBUF:
+        return DbIssues.Locations.parseFrom(readBytes(input));
+      case LOCATIONS_SERIALIZED:
+        return deserialize(readBytes(input));
+      default:
+        throw new IllegalStateException("Unsupported type of locations: " + type);
+    }
+  }
+
+  private static byte[] serialize(Object o) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+      objectOutput.writeObject(o);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException {
+    try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return objectInput.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Fail to deserialize value", e);
+    }
+  }
+}
@@ -22,6 +22,8 @@ package org.sonar.server.computation.task.projectanalysis.issue;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.issue.DefaultIssue;
 import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolder;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
@@ -33,6 +35,8 @@ import static org.sonar.server.computation.task.projectanalysis.component.Compon
 
 public class IntegrateIssuesVisitor extends TypeAwareVisitorAdapter {
 
+  private static final Logger LOGGER = Loggers.get(IntegrateIssuesVisitor.class);
+
   private final IssueCache issueCache;
   private final IssueLifecycle issueLifecycle;
   private final IssueVisitors issueVisitors;
@@ -67,6 +71,12 @@ public class IntegrateIssuesVisitor extends TypeAwareVisitorAdapter {
     }
   }
 
+  @Override
+  public void visitProject(Component project) {
+    // root is the last component visited in post-order
+    LOGGER.info("Base issues reused for {} unchanged files", issueTracking.getUnchangedFilesCount());
+  }
+
   private void fillNewOpenIssues(Component component, Iterable<DefaultIssue> issues, DiskCache<DefaultIssue>.DiskAppender cacheAppender) {
     List<DefaultIssue> list = new ArrayList<>();
 
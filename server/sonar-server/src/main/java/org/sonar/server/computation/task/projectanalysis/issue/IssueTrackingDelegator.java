@@ -56,6 +56,14 @@ public class IssueTrackingDelegator {
     }
   }
 
+  /**
+   * Number of files whose source and rules did not change since the previous analysis, so that base issues have
+   * been reused without running the whole tracking.
+   */
+  public int getUnchangedFilesCount() {
+    return tracker.getUnchangedFilesCount();
+  }
+
   private static TrackingResult standardResult(Tracking<DefaultIssue, DefaultIssue> tracking) {
     return new TrackingResult(emptyMap(), tracking.getMatchedRaws(), tracking.getUnmatchedBases(), tracking.getUnmatchedRaws());
   }
@@ -0,0 +1,66 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.issue;
+
+import com.google.common.base.Optional;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.CrawlerDepthLimit;
+import org.sonar.server.computation.task.projectanalysis.component.TypeAwareVisitorAdapter;
+import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepository;
+
+import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
+
+/**
+ * Loads the base issues of the files having open issues, before {@link IntegrateIssuesVisitor} tracks them. As this
+ * visitor is thread-safe, base issues of the files of a directory are loaded concurrently when
+ * {@link org.sonar.server.computation.task.projectanalysis.step.ExecuteVisitorsStep#THREADS_PROPERTY} is greater than 1.
+ */
+public class PrefetchBaseIssuesVisitor extends TypeAwareVisitorAdapter {
+
+  private final ComponentIssuesLoader issuesLoader;
+  private final ComponentsWithUnprocessedIssues componentsWithUnprocessedIssues;
+  private final MovedFilesRepository movedFilesRepository;
+
+  public PrefetchBaseIssuesVisitor(ComponentIssuesLoader issuesLoader, ComponentsWithUnprocessedIssues componentsWithUnprocessedIssues,
+    MovedFilesRepository movedFilesRepository) {
+    super(CrawlerDepthLimit.FILE, PRE_ORDER);
+    this.issuesLoader = issuesLoader;
+    this.componentsWithUnprocessedIssues = componentsWithUnprocessedIssues;
+    this.movedFilesRepository = movedFilesRepository;
+  }
+
+  /**
+   * Uuids of components with unprocessed issues are only read here. They are updated by {@link RemoveProcessedComponentsVisitor}
+   * during the visit of {@link IntegrateIssuesVisitor}, which is not thread-safe and so is never executed at the same time.
+   */
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public void visitFile(Component file) {
+    Optional<MovedFilesRepository.OriginalFile> originalFile = movedFilesRepository.getOriginalFile(file);
+    String uuid = originalFile.isPresent() ? originalFile.get().getUuid() : file.getUuid();
+    if (componentsWithUnprocessedIssues.getUuids().contains(uuid)) {
+      issuesLoader.prefetch(uuid);
+    }
+  }
+}
@@ -27,11 +27,10 @@ import org.sonar.core.issue.DefaultIssue;
 import org.sonar.core.issue.tracking.Input;
 import org.sonar.core.issue.tracking.LazyInput;
 import org.sonar.core.issue.tracking.LineHashSequence;
-import org.sonar.db.DbClient;
-import org.sonar.db.DbSession;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepository;
 import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepository.OriginalFile;
+import org.sonar.server.computation.task.projectanalysis.source.PreviousFileSourcesRepository;
 
 /**
  * Factory of {@link Input} of base data for issue tracking. Data are lazy-loaded.
@@ -40,12 +39,13 @@ public class TrackerBaseInputFactory {
   private static final LineHashSequence EMPTY_LINE_HASH_SEQUENCE = new LineHashSequence(Collections.<String>emptyList());
 
   private final ComponentIssuesLoader issuesLoader;
-  private final DbClient dbClient;
+  private final PreviousFileSourcesRepository previousFileSourcesRepository;
   private final MovedFilesRepository movedFilesRepository;
 
-  public TrackerBaseInputFactory(ComponentIssuesLoader issuesLoader, DbClient dbClient, MovedFilesRepository movedFilesRepository) {
+  public TrackerBaseInputFactory(ComponentIssuesLoader issuesLoader, PreviousFileSourcesRepository previousFileSourcesRepository,
+    MovedFilesRepository movedFilesRepository) {
     this.issuesLoader = issuesLoader;
-    this.dbClient = dbClient;
+    this.previousFileSourcesRepository = previousFileSourcesRepository;
     this.movedFilesRepository = movedFilesRepository;
   }
 
@@ -69,13 +69,11 @@ public class TrackerBaseInputFactory {
         return EMPTY_LINE_HASH_SEQUENCE;
       }
 
-      try (DbSession session = dbClient.openSession(false)) {
-        List<String> hashes = dbClient.fileSourceDao().selectLineHashes(session, effectiveUuid);
-        if (hashes == null || hashes.isEmpty()) {
-          return EMPTY_LINE_HASH_SEQUENCE;
-        }
-        return new LineHashSequence(hashes);
+      List<String> hashes = previousFileSourcesRepository.getLineHashes(effectiveUuid);
+      if (hashes == null || hashes.isEmpty()) {
+        return EMPTY_LINE_HASH_SEQUENCE;
       }
+      return new LineHashSequence(hashes);
     }
 
     @Override
@@ -20,24 +20,60 @@
 package org.sonar.server.computation.task.projectanalysis.issue;
 
 import org.sonar.core.issue.DefaultIssue;
+import org.sonar.core.issue.tracking.Input;
 import org.sonar.core.issue.tracking.Tracker;
 import org.sonar.core.issue.tracking.Tracking;
 import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepository;
+import org.sonar.server.computation.task.projectanalysis.qualityprofile.QProfileStatusRepository;
 
 public class TrackerExecution {
 
   protected final TrackerBaseInputFactory baseInputFactory;
   protected final TrackerRawInputFactory rawInputFactory;
   protected final Tracker<DefaultIssue, DefaultIssue> tracker;
+  private final MovedFilesRepository movedFilesRepository;
+  private final QProfileStatusRepository qProfileStatusRepository;
+  private int unchangedFilesCount = 0;
 
   public TrackerExecution(TrackerBaseInputFactory baseInputFactory, TrackerRawInputFactory rawInputFactory,
-    Tracker<DefaultIssue, DefaultIssue> tracker) {
+    Tracker<DefaultIssue, DefaultIssue> tracker, MovedFilesRepository movedFilesRepository, QProfileStatusRepository qProfileStatusRepository) {
     this.baseInputFactory = baseInputFactory;
     this.rawInputFactory = rawInputFactory;
     this.tracker = tracker;
+    this.movedFilesRepository = movedFilesRepository;
+    this.qProfileStatusRepository = qProfileStatusRepository;
   }
 
   public Tracking<DefaultIssue, DefaultIssue> track(Component component) {
-    return tracker.track(rawInputFactory.create(component), baseInputFactory.create(component));
+    Input<DefaultIssue> rawInput = rawInputFactory.create(component);
+    Input<DefaultIssue> baseInput = baseInputFactory.create(component);
+    if (isUnchangedFile(component)) {
+      Tracking<DefaultIssue, DefaultIssue> tracking = tracker.reuseBase(rawInput, baseInput);
+      if (tracking != null) {
+        unchangedFilesCount++;
+        return tracking;
+      }
+    }
+    return tracker.track(rawInput, baseInput);
+  }
+
+  /**
+   * Number of files whose base issues have been reused since the beginning of the analysis.
+   */
+  public int getUnchangedFilesCount() {
+    return unchangedFilesCount;
+  }
+
+  /**
+   * Source of the file is the same as in the previous analysis: the scanner computed the same hash as the one
+   * stored in database for this very file (a moved file is compared to a file with another key). Rules applied
+   * to the file did not change either, so that raw issues are expected to be the same as base issues.
+   */
+  private boolean isUnchangedFile(Component component) {
+    return component.getType() == Component.Type.FILE
+      && component.getStatus() == Component.Status.SAME
+      && !movedFilesRepository.getOriginalFile(component).isPresent()
+      && qProfileStatusRepository.isUnchanged(component.getFileAttributes().getLanguageKey());
   }
 }
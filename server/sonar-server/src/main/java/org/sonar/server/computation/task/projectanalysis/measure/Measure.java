@@ -100,6 +100,25 @@ public final class Measure {
     return new UpdateMeasureBuilder(measure);
   }
 
+  /**
+   * Creates a Measure of type {@link ValueType#INT}, {@link ValueType#LONG}, {@link ValueType#DOUBLE},
+   * {@link ValueType#BOOLEAN} or {@link ValueType#NO_VALUE} from a value which has already been through a
+   * {@link NewMeasureBuilder}, hence without scaling it again.
+   */
+  static Measure createNumeric(ValueType valueType, double value, @Nullable Double variation) {
+    switch (valueType) {
+      case NO_VALUE:
+        return new Measure(valueType, null, null, null, null, null, variation);
+      case INT:
+      case LONG:
+      case DOUBLE:
+      case BOOLEAN:
+        return new Measure(valueType, null, value, null, null, null, variation);
+      default:
+        throw new IllegalArgumentException(String.format("Unsupported numeric Measure.ValueType %s", valueType));
+    }
+  }
+
   public static final class NewMeasureBuilder {
     private Developer developer;
     private QualityGateStatus qualityGateStatus;
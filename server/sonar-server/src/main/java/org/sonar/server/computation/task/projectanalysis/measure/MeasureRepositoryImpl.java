@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.sonar.api.config.Configuration;
 import org.sonar.core.util.CloseableIterator;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -46,7 +47,13 @@ import com.google.common.base.Optional;
 import com.google.common.collect.SetMultimap;
 
 public class MeasureRepositoryImpl implements MeasureRepository {
-  private final MapBasedRawMeasureRepository<Integer> delegate = new MapBasedRawMeasureRepository<>(toReportRef());
+  /**
+   * When {@code true}, raw numeric measures are stored in arrays of primitives (see {@link PrimitiveRawMeasureRepository}),
+   * which reduces memory consumption of the Compute Engine on large projects.
+   */
+  public static final String PRIMITIVE_STORAGE_PROPERTY = "sonar.ce.measures.primitiveStorage";
+
+  private final RawMeasureRepository delegate;
   private final DbClient dbClient;
   private final BatchReportReader reportReader;
   private final BatchMeasureToMeasure batchMeasureToMeasure;
@@ -58,6 +65,17 @@ public class MeasureRepositoryImpl implements MeasureRepository {
 
   public MeasureRepositoryImpl(DbClient dbClient, BatchReportReader reportReader, MetricRepository metricRepository,
     ReportMetricValidator reportMetricValidator) {
+    this(dbClient, reportReader, metricRepository, reportMetricValidator, new MapBasedRawMeasureRepository<>(toReportRef()));
+  }
+
+  public MeasureRepositoryImpl(DbClient dbClient, BatchReportReader reportReader, MetricRepository metricRepository,
+    ReportMetricValidator reportMetricValidator, Configuration configuration) {
+    this(dbClient, reportReader, metricRepository, reportMetricValidator, createDelegate(configuration));
+  }
+
+  private MeasureRepositoryImpl(DbClient dbClient, BatchReportReader reportReader, MetricRepository metricRepository,
+    ReportMetricValidator reportMetricValidator, RawMeasureRepository delegate) {
+    this.delegate = delegate;
     this.dbClient = dbClient;
     this.reportReader = reportReader;
     this.reportMetricValidator = reportMetricValidator;
@@ -65,6 +83,13 @@ public class MeasureRepositoryImpl implements MeasureRepository {
     this.metricRepository = metricRepository;
   }
 
+  private static RawMeasureRepository createDelegate(Configuration configuration) {
+    if (configuration.getBoolean(PRIMITIVE_STORAGE_PROPERTY).orElse(false)) {
+      return new PrimitiveRawMeasureRepository(component -> component.getReportAttributes().getRef());
+    }
+    return new MapBasedRawMeasureRepository<>(toReportRef());
+  }
+
   @Override
   public Optional<Measure> getBaseMeasure(Component component, Metric metric) {
     // fail fast
@@ -0,0 +1,344 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.measure;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.Developer;
+import org.sonar.server.computation.task.projectanalysis.measure.MapBasedRawMeasureRepository.OverridePolicy;
+import org.sonar.server.computation.task.projectanalysis.metric.Metric;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of MeasureRepository which supports only raw measures and which stores numeric measures in arrays of
+ * primitives rather than in {@link Measure} objects.
+ * <p>
+ * Components are identified by a positive int (eg. their report ref) and metrics by their id. Measures without
+ * developer, data nor QualityGate status and which value is an int, a long, a double, a boolean or no value are
+ * stored in one column per metric, indexed by component. {@link Measure} objects are created on demand when such
+ * measures are read. Other measures are stored as is.
+ * </p>
+ * Intended to be used as a delegate of other MeasureRepository implementations (hence the final keyword).
+ */
+public final class PrimitiveRawMeasureRepository implements RawMeasureRepository {
+  private final ToIntFunction<Component> componentToKey;
+  private MetricColumn[] columnsByMetricId = new MetricColumn[0];
+  private final Map<Integer, Map<MeasureKey, Measure>> otherMeasures = new HashMap<>();
+
+  public PrimitiveRawMeasureRepository(ToIntFunction<Component> componentToKey) {
+    this.componentToKey = requireNonNull(componentToKey);
+  }
+
+  /**
+   * @throws UnsupportedOperationException all the time, not supported
+   */
+  @Override
+  public Optional<Measure> getBaseMeasure(Component component, Metric metric) {
+    throw new UnsupportedOperationException("This implementation of MeasureRepository supports only raw measures");
+  }
+
+  @Override
+  public int loadAsRawMeasures(Collection<Component> components, Collection<Metric> metrics) {
+    throw new UnsupportedOperationException("This implementation of MeasureRepository supports only raw measures");
+  }
+
+  @Override
+  public Optional<Measure> getRawMeasure(Component component, Metric metric) {
+    // fail fast
+    requireNonNull(component);
+    requireNonNull(metric);
+
+    return find(toKey(component), metric, null);
+  }
+
+  @Override
+  public void add(Component component, Metric metric, Measure measure) {
+    requireNonNull(component);
+    checkValueTypeConsistency(metric, measure);
+
+    int componentKey = toKey(component);
+    if (find(componentKey, metric, measure.getDeveloper()).isPresent()) {
+      throw new UnsupportedOperationException(
+        format(
+          "a measure can be set only once for a specific Component (key=%s), Metric (key=%s). Use update method",
+          component.getKey(),
+          metric.getKey()));
+    }
+    put(componentKey, metric, measure);
+  }
+
+  @Override
+  public void update(Component component, Metric metric, Measure measure) {
+    requireNonNull(component);
+    checkValueTypeConsistency(metric, measure);
+
+    int componentKey = toKey(component);
+    if (!find(componentKey, metric, measure.getDeveloper()).isPresent()) {
+      throw new UnsupportedOperationException(
+        format(
+          "a measure can be updated only if one already exists for a specific Component (key=%s), Metric (key=%s). Use add method",
+          component.getKey(),
+          metric.getKey()));
+    }
+    put(componentKey, metric, measure);
+  }
+
+  @Override
+  public void add(Component component, Metric metric, Measure measure, OverridePolicy overridePolicy) {
+    requireNonNull(component);
+    requireNonNull(measure);
+    requireNonNull(overridePolicy);
+
+    int componentKey = toKey(component);
+    if (overridePolicy == OverridePolicy.OVERRIDE || !find(componentKey, metric, measure.getDeveloper()).isPresent()) {
+      put(componentKey, metric, measure);
+    }
+  }
+
+  private static void checkValueTypeConsistency(Metric metric, Measure measure) {
+    checkArgument(
+      measure.getValueType() == Measure.ValueType.NO_VALUE || measure.getValueType() == metric.getType().getValueType(),
+      "Measure's ValueType (%s) is not consistent with the Metric's ValueType (%s)",
+      measure.getValueType(), metric.getType().getValueType());
+  }
+
+  @Override
+  public Set<Measure> getRawMeasures(Component component, Metric metric) {
+    requireNonNull(metric);
+    requireNonNull(component);
+
+    int componentKey = toKey(component);
+    ImmutableSet.Builder<Measure> builder = ImmutableSet.builder();
+    MetricColumn column = getColumn(metric);
+    if (column != null && column.contains(componentKey)) {
+      builder.add(column.toMeasure(componentKey));
+    }
+    Map<MeasureKey, Measure> measures = otherMeasures.get(componentKey);
+    if (measures != null) {
+      measures.entrySet().stream()
+        .filter(entry -> entry.getKey().getMetricKey().equals(metric.getKey()))
+        .forEach(entry -> builder.add(entry.getValue()));
+    }
+    return builder.build();
+  }
+
+  @Override
+  public SetMultimap<String, Measure> getRawMeasures(Component component) {
+    int componentKey = toKey(component);
+    ImmutableSetMultimap.Builder<String, Measure> builder = ImmutableSetMultimap.builder();
+    for (MetricColumn column : columnsByMetricId) {
+      if (column != null && column.contains(componentKey)) {
+        builder.put(column.metricKey, column.toMeasure(componentKey));
+      }
+    }
+    Map<MeasureKey, Measure> measures = otherMeasures.get(componentKey);
+    if (measures != null) {
+      for (Map.Entry<MeasureKey, Measure> entry : measures.entrySet()) {
+        builder.put(entry.getKey().getMetricKey(), entry.getValue());
+      }
+    }
+    return builder.build();
+  }
+
+  private int toKey(Component component) {
+    int key = componentToKey.applyAsInt(component);
+    checkArgument(key >= 0, "Component key must be positive (got %s for component %s)", key, component.getKey());
+    return key;
+  }
+
+  private Optional<Measure> find(int componentKey, Metric metric, @Nullable Developer developer) {
+    if (developer == null) {
+      MetricColumn column = getColumn(metric);
+      if (column != null && column.contains(componentKey)) {
+        return Optional.of(column.toMeasure(componentKey));
+      }
+    }
+    Map<MeasureKey, Measure> measures = otherMeasures.get(componentKey);
+    if (measures == null) {
+      return Optional.absent();
+    }
+    return Optional.fromNullable(measures.get(new MeasureKey(metric.getKey(), developer)));
+  }
+
+  private void put(int componentKey, Metric metric, Measure measure) {
+    MetricColumn column = isStorableAsPrimitive(metric, measure) ? getOrCreateColumn(metric) : null;
+    if (column != null) {
+      Map<MeasureKey, Measure> measures = otherMeasures.get(componentKey);
+      if (measures != null) {
+        measures.remove(new MeasureKey(metric.getKey(), null));
+      }
+      column.set(componentKey, measure);
+    } else {
+      if (measure.getDeveloper() == null) {
+        MetricColumn existingColumn = getColumn(metric);
+        if (existingColumn != null) {
+          existingColumn.remove(componentKey);
+        }
+      }
+      otherMeasures.computeIfAbsent(componentKey, k -> new HashMap<>()).put(new MeasureKey(metric.getKey(), measure.getDeveloper()), measure);
+    }
+  }
+
+  private static boolean isStorableAsPrimitive(Metric metric, Measure measure) {
+    if (measure.getDeveloper() != null || measure.getData() != null || measure.hasQualityGateStatus() || metric.getId() < 0) {
+      return false;
+    }
+    Measure.ValueType valueType = measure.getValueType();
+    return valueType == Measure.ValueType.NO_VALUE || (MetricColumn.isNumeric(valueType) && valueType == metric.getType().getValueType());
+  }
+
+  @CheckForNull
+  private MetricColumn getColumn(Metric metric) {
+    int metricId = metric.getId();
+    if (metricId < 0 || metricId >= columnsByMetricId.length) {
+      return null;
+    }
+    return columnOf(columnsByMetricId[metricId], metric);
+  }
+
+  /**
+   * @return {@code null} if the column of the id of the metric is used by another metric, in which case measures
+   * are stored as objects
+   */
+  @CheckForNull
+  private MetricColumn getOrCreateColumn(Metric metric) {
+    int metricId = metric.getId();
+    if (metricId >= columnsByMetricId.length) {
+      columnsByMetricId = Arrays.copyOf(columnsByMetricId, Math.max(metricId + 1, columnsByMetricId.length * 2));
+    }
+    if (columnsByMetricId[metricId] == null) {
+      columnsByMetricId[metricId] = new MetricColumn(metric.getKey(), metric.getType().getValueType());
+    }
+    return columnOf(columnsByMetricId[metricId], metric);
+  }
+
+  @CheckForNull
+  private static MetricColumn columnOf(@Nullable MetricColumn column, Metric metric) {
+    // metric ids are unique by design, key is checked in case of inconsistent metrics
+    if (column == null || !column.metricKey.equals(metric.getKey())) {
+      return null;
+    }
+    return column;
+  }
+
+  /**
+   * Numeric measures of a metric without developer, indexed by component key.
+   */
+  private static final class MetricColumn {
+    private static final byte PRESENT = 1;
+    private static final byte NO_VALUE = 2;
+    private static final byte HAS_VARIATION = 4;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String metricKey;
+    private final Measure.ValueType valueType;
+    private byte[] flags = new byte[0];
+    private double[] values = new double[0];
+    private double[] variations;
+
+    private MetricColumn(String metricKey, Measure.ValueType valueType) {
+      this.metricKey = metricKey;
+      this.valueType = valueType;
+    }
+
+    private static boolean isNumeric(Measure.ValueType valueType) {
+      return valueType == Measure.ValueType.INT || valueType == Measure.ValueType.LONG
+        || valueType == Measure.ValueType.DOUBLE || valueType == Measure.ValueType.BOOLEAN;
+    }
+
+    private boolean contains(int componentKey) {
+      return componentKey < flags.length && (flags[componentKey] & PRESENT) != 0;
+    }
+
+    private void remove(int componentKey) {
+      if (componentKey < flags.length) {
+        flags[componentKey] = 0;
+      }
+    }
+
+    private void set(int componentKey, Measure measure) {
+      ensureCapacity(componentKey);
+      byte flag = PRESENT;
+      if (measure.getValueType() == Measure.ValueType.NO_VALUE) {
+        flag |= NO_VALUE;
+      } else {
+        values[componentKey] = toDouble(measure);
+      }
+      if (measure.hasVariation()) {
+        flag |= HAS_VARIATION;
+        if (variations == null) {
+          variations = new double[values.length];
+        }
+        variations[componentKey] = measure.getVariation();
+      }
+      flags[componentKey] = flag;
+    }
+
+    private Measure toMeasure(int componentKey) {
+      byte flag = flags[componentKey];
+      Double variation = (flag & HAS_VARIATION) != 0 ? variations[componentKey] : null;
+      if ((flag & NO_VALUE) != 0) {
+        return Measure.createNumeric(Measure.ValueType.NO_VALUE, 0d, variation);
+      }
+      return Measure.createNumeric(valueType, values[componentKey], variation);
+    }
+
+    private void ensureCapacity(int componentKey) {
+      if (componentKey < flags.length) {
+        return;
+      }
+      int capacity = Math.max(componentKey + 1, Math.max(INITIAL_CAPACITY, flags.length * 2));
+      flags = Arrays.copyOf(flags, capacity);
+      values = Arrays.copyOf(values, capacity);
+      if (variations != null) {
+        variations = Arrays.copyOf(variations, capacity);
+      }
+    }
+
+    private static double toDouble(Measure measure) {
+      switch (measure.getValueType()) {
+        case INT:
+          return measure.getIntValue();
+        case LONG:
+          return measure.getLongValue();
+        case DOUBLE:
+          return measure.getDoubleValue();
+        case BOOLEAN:
+          return measure.getBooleanValue() ? 1d : 0d;
+        default:
+          throw new IllegalArgumentException(format("Unsupported numeric Measure.ValueType %s", measure.getValueType()));
+      }
+    }
+  }
+}
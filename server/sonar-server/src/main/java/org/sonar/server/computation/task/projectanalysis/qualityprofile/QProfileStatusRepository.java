@@ -0,0 +1,80 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.qualityprofile;
+
+import com.google.common.base.Optional;
+import java.util.Collections;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolder;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
+import org.sonar.server.computation.task.projectanalysis.measure.Measure;
+import org.sonar.server.computation.task.projectanalysis.measure.MeasureRepository;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricRepository;
+import org.sonar.server.qualityprofile.QPMeasureData;
+import org.sonar.server.qualityprofile.QualityProfile;
+
+/**
+ * Compares the quality profiles of the analysis with the ones of the previous analysis of the project, as stored
+ * in the measure {@link CoreMetrics#QUALITY_PROFILES_KEY} of the project.
+ */
+public class QProfileStatusRepository {
+
+  private final TreeRootHolder treeRootHolder;
+  private final AnalysisMetadataHolder analysisMetadataHolder;
+  private final MetricRepository metricRepository;
+  private final MeasureRepository measureRepository;
+
+  private Map<String, QualityProfile> baseProfilesByKey = null;
+
+  public QProfileStatusRepository(TreeRootHolder treeRootHolder, AnalysisMetadataHolder analysisMetadataHolder,
+    MetricRepository metricRepository, MeasureRepository measureRepository) {
+    this.treeRootHolder = treeRootHolder;
+    this.analysisMetadataHolder = analysisMetadataHolder;
+    this.metricRepository = metricRepository;
+    this.measureRepository = measureRepository;
+  }
+
+  /**
+   * Whether the quality profile of the language is the one used by the previous analysis and no rule has been
+   * activated, deactivated or updated in it since then. Always {@code false} on the first analysis of the project.
+   */
+  public boolean isUnchanged(@Nullable String languageKey) {
+    if (languageKey == null) {
+      return false;
+    }
+    QualityProfile profile = analysisMetadataHolder.getQProfilesByLanguage().get(languageKey);
+    if (profile == null) {
+      return false;
+    }
+    QualityProfile baseProfile = getBaseProfilesByKey().get(profile.getQpKey());
+    return baseProfile != null && !profile.getRulesUpdatedAt().after(baseProfile.getRulesUpdatedAt());
+  }
+
+  private Map<String, QualityProfile> getBaseProfilesByKey() {
+    if (baseProfilesByKey == null) {
+      Optional<Measure> baseMeasure = measureRepository.getBaseMeasure(treeRootHolder.getRoot(), metricRepository.getByKey(CoreMetrics.QUALITY_PROFILES_KEY));
+      String data = baseMeasure.isPresent() ? baseMeasure.get().getStringValue() : null;
+      baseProfilesByKey = data == null ? Collections.emptyMap() : QPMeasureData.fromJson(data).getProfilesByKey();
+    }
+    return baseProfilesByKey;
+  }
+}
@@ -22,8 +22,6 @@ package org.sonar.server.computation.task.projectanalysis.scm;
 import java.util.Optional;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
-import org.sonar.db.DbClient;
-import org.sonar.db.DbSession;
 import org.sonar.db.source.FileSourceDto;
 import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolder;
 import org.sonar.server.computation.task.projectanalysis.analysis.Branch;
@@ -31,20 +29,21 @@ import org.sonar.server.computation.task.projectanalysis.component.Component;
 import org.sonar.server.computation.task.projectanalysis.component.Component.Status;
 import org.sonar.server.computation.task.projectanalysis.component.MergeBranchComponentUuids;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfoRepositoryImpl.NoScmInfo;
+import org.sonar.server.computation.task.projectanalysis.source.PreviousFileSourcesRepository;
 import org.sonar.server.computation.task.projectanalysis.source.SourceHashRepository;
 
 public class ScmInfoDbLoader {
   private static final Logger LOGGER = Loggers.get(ScmInfoDbLoader.class);
 
   private final AnalysisMetadataHolder analysisMetadataHolder;
-  private final DbClient dbClient;
+  private final PreviousFileSourcesRepository previousFileSourcesRepository;
   private final SourceHashRepository sourceHashRepository;
   private final MergeBranchComponentUuids mergeBranchComponentUuid;
 
-  public ScmInfoDbLoader(AnalysisMetadataHolder analysisMetadataHolder, DbClient dbClient,
+  public ScmInfoDbLoader(AnalysisMetadataHolder analysisMetadataHolder, PreviousFileSourcesRepository previousFileSourcesRepository,
     SourceHashRepository sourceHashRepository, MergeBranchComponentUuids mergeBranchComponentUuid) {
     this.analysisMetadataHolder = analysisMetadataHolder;
-    this.dbClient = dbClient;
+    this.previousFileSourcesRepository = previousFileSourcesRepository;
     this.sourceHashRepository = sourceHashRepository;
     this.mergeBranchComponentUuid = mergeBranchComponentUuid;
   }
@@ -57,13 +56,11 @@ public class ScmInfoDbLoader {
     }
 
     LOGGER.trace("Reading SCM info from db for file '{}'", uuid.get());
-    try (DbSession dbSession = dbClient.openSession(false)) {
-      FileSourceDto dto = dbClient.fileSourceDao().selectSourceByFileUuid(dbSession, uuid.get());
-      if (dto == null || !isDtoValid(file, dto)) {
-        return NoScmInfo.INSTANCE;
-      }
-      return DbScmInfo.create(file, dto.getSourceData().getLinesList()).or(NoScmInfo.INSTANCE);
+    FileSourceDto dto = previousFileSourcesRepository.getSource(uuid.get());
+    if (dto == null || !isDtoValid(file, dto)) {
+      return NoScmInfo.INSTANCE;
     }
+    return DbScmInfo.create(file, dto.getSourceData().getLinesList()).or(NoScmInfo.INSTANCE);
   }
 
   private Optional<String> getFileUUid(Component file) {
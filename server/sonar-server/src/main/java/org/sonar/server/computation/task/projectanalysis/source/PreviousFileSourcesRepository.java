@@ -0,0 +1,62 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.source;
+
+import java.util.List;
+import javax.annotation.CheckForNull;
+import org.sonar.db.source.FileSourceDto;
+
+/**
+ * Sources of the files persisted by the previous analysis of the project, as stored in table FILE_SOURCES.
+ * <p>
+ * Hashes and line hashes of all the sources of the project are read with a single query, the first time hashes or
+ * line hashes are requested. Hashes are kept for all the files, whereas line hashes are kept only up to a memory
+ * budget and are released once read. Binary data, line hashes which are not in memory and sources of another
+ * project (for example the merge branch) are read from database.
+ * </p>
+ */
+public interface PreviousFileSourcesRepository {
+
+  /**
+   * Hashes, revision and id of the source of the specified file of the project. Binary data and line hashes are
+   * not loaded. A new instance is returned on each call, so it can be modified safely.
+   *
+   * @return {@code null} if the file has no source in the project
+   */
+  @CheckForNull
+  FileSourceDto getHashes(String fileUuid);
+
+  /**
+   * Source of the specified file, with its binary data.
+   *
+   * @return {@code null} if the file has no source
+   */
+  @CheckForNull
+  FileSourceDto getSource(String fileUuid);
+
+  /**
+   * Line hashes of the specified file.
+   *
+   * @return {@code null} if the file has no source, an empty list if it has no line hashes
+   */
+  @CheckForNull
+  List<String> getLineHashes(String fileUuid);
+
+}
@@ -0,0 +1,156 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.source;
+
+import com.google.common.base.Splitter;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import org.apache.ibatis.session.ResultContext;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.db.DbClient;
+import org.sonar.db.DbSession;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
+
+public class PreviousFileSourcesRepositoryImpl implements PreviousFileSourcesRepository {
+
+  /**
+   * Maximum size, in MB, of the line hashes kept in memory. Zero disables the cache, in which case only hashes are
+   * loaded in bulk. Line hashes of the files which do not fit are read from database on demand.
+   */
+  public static final String CACHE_SIZE_PROPERTY = "sonar.ce.fileSources.cacheSizeMb";
+  private static final int DEFAULT_CACHE_SIZE_MB = 64;
+
+  private static final Logger LOGGER = Loggers.get(PreviousFileSourcesRepositoryImpl.class);
+  private static final Splitter END_OF_LINE_SPLITTER = Splitter.on('\n');
+
+  private final DbClient dbClient;
+  private final TreeRootHolder treeRootHolder;
+  private final long maxCachedBytes;
+
+  private Map<String, FileSourceDto> hashesByFileUuid;
+  private final Map<String, String> lineHashesByFileUuid = new HashMap<>();
+  private long cachedBytes = 0L;
+
+  public PreviousFileSourcesRepositoryImpl(DbClient dbClient, TreeRootHolder treeRootHolder, Configuration configuration) {
+    this.dbClient = dbClient;
+    this.treeRootHolder = treeRootHolder;
+    this.maxCachedBytes = Math.max(0, configuration.getInt(CACHE_SIZE_PROPERTY).orElse(DEFAULT_CACHE_SIZE_MB)) * 1024L * 1024L;
+  }
+
+  @Override
+  @CheckForNull
+  public FileSourceDto getHashes(String fileUuid) {
+    FileSourceDto hashes = loadedHashes().get(fileUuid);
+    if (hashes == null) {
+      return null;
+    }
+    return new FileSourceDto()
+      .setId(hashes.getId())
+      .setProjectUuid(hashes.getProjectUuid())
+      .setFileUuid(hashes.getFileUuid())
+      .setDataType(hashes.getDataType())
+      .setDataHash(hashes.getDataHash())
+      .setSrcHash(hashes.getSrcHash())
+      .setRevision(hashes.getRevision())
+      .setCreatedAt(hashes.getCreatedAt())
+      .setUpdatedAt(hashes.getUpdatedAt());
+  }
+
+  /**
+   * Binary data is never loaded in bulk, as it is needed only for the files which have no SCM data in the report.
+   */
+  @Override
+  @CheckForNull
+  public FileSourceDto getSource(String fileUuid) {
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      return dbClient.fileSourceDao().selectSourceByFileUuid(dbSession, fileUuid);
+    }
+  }
+
+  @Override
+  @CheckForNull
+  public List<String> getLineHashes(String fileUuid) {
+    String lineHashes = removeCachedLineHashes(fileUuid);
+    if (lineHashes == null) {
+      // read without holding the lock, so that the threads reading other files are not blocked
+      try (DbSession dbSession = dbClient.openSession(false)) {
+        return dbClient.fileSourceDao().selectLineHashes(dbSession, fileUuid);
+      }
+    }
+    if (lineHashes.isEmpty()) {
+      return Collections.emptyList();
+    }
+    return END_OF_LINE_SPLITTER.splitToList(lineHashes);
+  }
+
+  @CheckForNull
+  private synchronized String removeCachedLineHashes(String fileUuid) {
+    loadedHashes();
+    String lineHashes = lineHashesByFileUuid.remove(fileUuid);
+    if (lineHashes != null) {
+      cachedBytes -= sizeOf(lineHashes);
+    }
+    return lineHashes;
+  }
+
+  /**
+   * The returned map is not modified once loaded, so it can be read without holding the lock.
+   */
+  private synchronized Map<String, FileSourceDto> loadedHashes() {
+    if (hashesByFileUuid == null) {
+      hashesByFileUuid = new HashMap<>();
+      String projectUuid = treeRootHolder.getRoot().getUuid();
+      try (DbSession dbSession = dbClient.openSession(false)) {
+        if (maxCachedBytes > 0) {
+          dbClient.fileSourceDao().scrollLineHashesByProjectUuid(dbSession, projectUuid, this::loadLineHashes);
+        }
+        // files which line hashes have not been loaded because the budget is reached
+        dbClient.fileSourceDao().scrollHashesByProjectUuid(dbSession, projectUuid,
+          context -> hashesByFileUuid.putIfAbsent(context.getResultObject().getFileUuid(), context.getResultObject()));
+      }
+      LOGGER.debug("{} previous file sources loaded, {} bytes of line hashes kept in memory", hashesByFileUuid.size(), cachedBytes);
+    }
+    return hashesByFileUuid;
+  }
+
+  private void loadLineHashes(ResultContext<? extends FileSourceDto> context) {
+    FileSourceDto dto = context.getResultObject();
+    String lineHashes = dto.getLineHashes() == null ? "" : dto.getLineHashes();
+    long size = sizeOf(lineHashes);
+    if (cachedBytes + size > maxCachedBytes) {
+      // stop fetching line hashes, hashes of this file and of the remaining ones are loaded without them
+      context.stop();
+      return;
+    }
+    lineHashesByFileUuid.put(dto.getFileUuid(), lineHashes);
+    cachedBytes += size;
+    hashesByFileUuid.put(dto.getFileUuid(), dto.setLineHashes(null));
+  }
+
+  private static long sizeOf(String s) {
+    return 2L * s.length();
+  }
+}
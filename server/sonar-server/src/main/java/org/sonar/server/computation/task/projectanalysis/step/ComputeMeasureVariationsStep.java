@@ -22,6 +22,7 @@ package org.sonar.server.computation.task.projectanalysis.step;
 import com.google.common.base.Optional;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,6 +30,9 @@ import java.util.function.Predicate;
 import java.util.stream.StreamSupport;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.logs.Profiler;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -43,14 +47,12 @@ import org.sonar.server.computation.task.projectanalysis.measure.MeasureKey;
 import org.sonar.server.computation.task.projectanalysis.measure.MeasureRepository;
 import org.sonar.server.computation.task.projectanalysis.metric.Metric;
 import org.sonar.server.computation.task.projectanalysis.metric.MetricRepository;
-import org.sonar.server.computation.task.projectanalysis.period.Period;
 import org.sonar.server.computation.task.projectanalysis.period.PeriodHolder;
 import org.sonar.server.computation.task.step.ComputationStep;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.String.format;
-import static java.util.function.Function.identity;
-import static org.sonar.core.util.stream.MoreCollectors.uniqueIndex;
+import static java.util.Collections.emptySet;
 import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.DIRECTORY;
 import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.SUBVIEW;
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
@@ -63,6 +65,10 @@ import static org.sonar.server.computation.task.projectanalysis.component.Compon
  */
 public class ComputeMeasureVariationsStep implements ComputationStep {
 
+  private static final Logger LOGGER = Loggers.get(ComputeMeasureVariationsStep.class);
+  // measures on files are currently purged, so past measures are not available on files
+  private static final CrawlerDepthLimit VISITOR_DEPTH = CrawlerDepthLimit.reportMaxDepth(DIRECTORY).withViewsMaxDepth(SUBVIEW);
+
   private final DbClient dbClient;
   private final TreeRootHolder treeRootHolder;
   private final PeriodHolder periodHolder;
@@ -80,25 +86,47 @@ public class ComputeMeasureVariationsStep implements ComputationStep {
 
   @Override
   public void execute() {
+    List<Metric> metrics = StreamSupport.stream(metricRepository.getAll().spliterator(), false).filter(isNumeric()).collect(MoreCollectors.toList());
+    PastMeasures pastMeasures = loadPastMeasures(metrics);
+    Profiler profiler = Profiler.create(LOGGER).start();
+    new DepthTraversalTypeAwareCrawler(new VariationMeasuresVisitor(metrics, pastMeasures))
+      .visit(treeRootHolder.getRoot());
+    profiler.stopDebug("Variations computed from past measures");
+  }
+
+  /**
+   * Past measures of all the visited components are loaded by a single query on the analysis of the period
+   */
+  private PastMeasures loadPastMeasures(List<Metric> metrics) {
+    if (!periodHolder.hasPeriod()) {
+      return new PastMeasures(metrics, emptySet());
+    }
+    Set<String> componentUuids = new HashSet<>();
+    new DepthTraversalTypeAwareCrawler(new TypeAwareVisitorAdapter(VISITOR_DEPTH, PRE_ORDER) {
+      @Override
+      public void visitAny(Component component) {
+        componentUuids.add(component.getUuid());
+      }
+    }).visit(treeRootHolder.getRoot());
+
+    PastMeasures pastMeasures = new PastMeasures(metrics, componentUuids);
+    Profiler profiler = Profiler.create(LOGGER).start();
     try (DbSession dbSession = dbClient.openSession(false)) {
-      List<Metric> metrics = StreamSupport.stream(metricRepository.getAll().spliterator(), false).filter(isNumeric()).collect(MoreCollectors.toList());
-      new DepthTraversalTypeAwareCrawler(new VariationMeasuresVisitor(dbSession, metrics))
-        .visit(treeRootHolder.getRoot());
+      dbClient.measureDao().selectPastMeasuresOfAnalysis(dbSession, periodHolder.getPeriod().getAnalysisUuid(), context -> pastMeasures.add(context.getResultObject()));
     }
+    profiler.stopDebug("{} past measures loaded for {} components", pastMeasures.size(), componentUuids.size());
+    return pastMeasures;
   }
 
   private class VariationMeasuresVisitor extends TypeAwareVisitorAdapter {
 
-    private final DbSession session;
-    private final Set<Integer> metricIds;
     private final List<Metric> metrics;
+    private final PastMeasures pastMeasures;
 
-    VariationMeasuresVisitor(DbSession session, List<Metric> metrics) {
-      // measures on files are currently purged, so past measures are not available on files
-      super(CrawlerDepthLimit.reportMaxDepth(DIRECTORY).withViewsMaxDepth(SUBVIEW), PRE_ORDER);
-      this.session = session;
-      this.metricIds = metrics.stream().map(Metric::getId).collect(MoreCollectors.toSet());
+    VariationMeasuresVisitor(List<Metric> metrics, PastMeasures pastMeasures) {
+      super(VISITOR_DEPTH, PRE_ORDER);
       this.metrics = metrics;
+      this.pastMeasures = pastMeasures;
     }
 
     @Override
@@ -110,23 +138,17 @@ public class ComputeMeasureVariationsStep implements ComputationStep {
     private MeasuresWithVariationRepository computeMeasuresWithVariations(Component component) {
       MeasuresWithVariationRepository measuresWithVariationRepository = new MeasuresWithVariationRepository();
       if (periodHolder.hasPeriod()) {
-        Period period = periodHolder.getPeriod();
-        List<PastMeasureDto> pastMeasures = dbClient.measureDao()
-          .selectPastMeasures(session, component.getUuid(), period.getAnalysisUuid(), metricIds);
-        setVariationMeasures(component, pastMeasures, measuresWithVariationRepository);
+        setVariationMeasures(component, pastMeasures.getValues(component.getUuid()), measuresWithVariationRepository);
       }
       return measuresWithVariationRepository;
     }
 
-    private void setVariationMeasures(Component component, List<PastMeasureDto> pastMeasures, MeasuresWithVariationRepository measuresWithVariationRepository) {
-      Map<MeasureKey, PastMeasureDto> pastMeasuresByMeasureKey = pastMeasures
-        .stream()
-        .collect(uniqueIndex(m -> new MeasureKey(metricRepository.getById((long) m.getMetricId()).getKey(), null), identity()));
-      for (Metric metric : metrics) {
+    private void setVariationMeasures(Component component, @Nullable double[] pastValues, MeasuresWithVariationRepository measuresWithVariationRepository) {
+      for (int i = 0; i < metrics.size(); i++) {
+        Metric metric = metrics.get(i);
         Optional<Measure> measure = measureRepository.getRawMeasure(component, metric);
         if (measure.isPresent() && !measure.get().hasVariation()) {
-          PastMeasureDto pastMeasure = pastMeasuresByMeasureKey.get(new MeasureKey(metric.getKey(), null));
-          double pastValue = (pastMeasure != null && pastMeasure.hasValue()) ? pastMeasure.getValue() : 0d;
+          double pastValue = pastValues == null ? 0d : pastValues[i];
           measuresWithVariationRepository.add(metric, measure.get(), computeVariation(measure.get(), pastValue));
         }
       }
@@ -174,6 +196,45 @@ public class ComputeMeasureVariationsStep implements ComputationStep {
     }
   }
 
+  /**
+   * Past values of numeric metrics, by component. Values are stored in the order of the list of metrics,
+   * a missing measure or a measure without value being stored as 0.
+   */
+  private static final class PastMeasures {
+    private final Map<Integer, Integer> metricIndexesById;
+    private final Set<String> componentUuids;
+    private final Map<String, double[]> valuesByComponentUuid;
+    private int size = 0;
+
+    PastMeasures(List<Metric> metrics, Set<String> componentUuids) {
+      this.metricIndexesById = new HashMap<>(metrics.size());
+      for (int i = 0; i < metrics.size(); i++) {
+        metricIndexesById.put(metrics.get(i).getId(), i);
+      }
+      this.componentUuids = componentUuids;
+      this.valuesByComponentUuid = new HashMap<>(componentUuids.size());
+    }
+
+    void add(PastMeasureDto pastMeasure) {
+      Integer metricIndex = metricIndexesById.get(pastMeasure.getMetricId());
+      if (metricIndex == null || !pastMeasure.hasValue() || !componentUuids.contains(pastMeasure.getComponentUuid())) {
+        return;
+      }
+      double[] values = valuesByComponentUuid.computeIfAbsent(pastMeasure.getComponentUuid(), k -> new double[metricIndexesById.size()]);
+      values[metricIndex] = pastMeasure.getValue();
+      size++;
+    }
+
+    @CheckForNull
+    double[] getValues(String componentUuid) {
+      return valuesByComponentUuid.get(componentUuid);
+    }
+
+    int size() {
+      return size;
+    }
+  }
+
   private static final class MeasureWithVariation {
     private final Metric metric;
     private final Measure measure;
@@ -21,6 +21,7 @@ package org.sonar.server.computation.task.projectanalysis.step;
 
 import java.util.List;
 import java.util.Map;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor;
@@ -30,14 +31,28 @@ import org.sonar.server.computation.task.step.ComputationStep;
 
 public class ExecuteVisitorsStep implements ComputationStep {
 
+  /**
+   * Number of threads visiting the files of a directory with thread-safe visitors. Default is 1, which means that
+   * all the components are visited by the step thread.
+   */
+  public static final String THREADS_PROPERTY = "sonar.ce.visitors.threads";
+
   private static final Logger LOGGER = Loggers.get(ExecuteVisitorsStep.class);
 
   private final TreeRootHolder treeRootHolder;
   private final List<ComponentVisitor> visitors;
+  private final int threads;
 
   public ExecuteVisitorsStep(TreeRootHolder treeRootHolder, List<ComponentVisitor> visitors) {
     this.treeRootHolder = treeRootHolder;
     this.visitors = visitors;
+    this.threads = 1;
+  }
+
+  public ExecuteVisitorsStep(TreeRootHolder treeRootHolder, List<ComponentVisitor> visitors, Configuration configuration) {
+    this.treeRootHolder = treeRootHolder;
+    this.visitors = visitors;
+    this.threads = Math.max(1, configuration.getInt(THREADS_PROPERTY).orElse(1));
   }
 
   @Override
@@ -47,7 +62,7 @@ public class ExecuteVisitorsStep implements ComputationStep {
 
   @Override
   public void execute() {
-    VisitorsCrawler visitorsCrawler = new VisitorsCrawler(visitors, LOGGER.isDebugEnabled());
+    VisitorsCrawler visitorsCrawler = new VisitorsCrawler(visitors, LOGGER.isDebugEnabled(), threads);
     visitorsCrawler.visit(treeRootHolder.getRoot());
     logVisitorExecutionDurations(visitors, visitorsCrawler);
   }
@@ -24,6 +24,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Optional;
+import org.apache.commons.io.FileUtils;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.MessageException;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.ZipUtils;
@@ -37,39 +39,74 @@ import org.sonar.server.computation.task.step.ComputationStep;
 /**
  * Extracts the content zip file of the {@link CeTask} to a temp directory and adds a {@link File}
  * representing that temp directory to the {@link MutableBatchReportDirectoryHolder}.
+ * <p>
+ * When {@link #READ_FROM_ZIP_PROPERTY} is enabled, the zip file is only copied to a temp file, which is added to the
+ * {@link MutableBatchReportDirectoryHolder}. Entries of the report are then inflated on demand.
+ * </p>
  */
 public class ExtractReportStep implements ComputationStep {
+  public static final String READ_FROM_ZIP_PROPERTY = "sonar.ce.report.readFromZip";
 
   private final DbClient dbClient;
   private final CeTask task;
   private final TempFolder tempFolder;
   private final MutableBatchReportDirectoryHolder reportDirectoryHolder;
+  private final boolean readFromZip;
 
   public ExtractReportStep(DbClient dbClient, CeTask task, TempFolder tempFolder,
     MutableBatchReportDirectoryHolder reportDirectoryHolder) {
+    this(dbClient, task, tempFolder, reportDirectoryHolder, false);
+  }
+
+  public ExtractReportStep(DbClient dbClient, CeTask task, TempFolder tempFolder,
+    MutableBatchReportDirectoryHolder reportDirectoryHolder, Configuration configuration) {
+    this(dbClient, task, tempFolder, reportDirectoryHolder, configuration.getBoolean(READ_FROM_ZIP_PROPERTY).orElse(false));
+  }
+
+  private ExtractReportStep(DbClient dbClient, CeTask task, TempFolder tempFolder,
+    MutableBatchReportDirectoryHolder reportDirectoryHolder, boolean readFromZip) {
     this.dbClient = dbClient;
     this.task = task;
     this.tempFolder = tempFolder;
     this.reportDirectoryHolder = reportDirectoryHolder;
+    this.readFromZip = readFromZip;
   }
 
   @Override
   public void execute() {
     try (DbSession dbSession = dbClient.openSession(false)) {
       Optional<CeTaskInputDao.DataStream> opt = dbClient.ceTaskInputDao().selectData(dbSession, task.getUuid());
-      if (opt.isPresent()) {
-        File unzippedDir = tempFolder.newDir();
-        try (CeTaskInputDao.DataStream reportStream = opt.get();
-             InputStream zipStream = new BufferedInputStream(reportStream.getInputStream())) {
-          ZipUtils.unzip(zipStream, unzippedDir);
-        } catch (IOException e) {
-          throw new IllegalStateException("Fail to extract report " + task.getUuid() + " from database", e);
-        }
-        reportDirectoryHolder.setDirectory(unzippedDir);
-      } else {
+      if (!opt.isPresent()) {
         throw MessageException.of("Analysis report " + task.getUuid() + " is missing in database");
       }
+      try (CeTaskInputDao.DataStream reportStream = opt.get()) {
+        if (readFromZip) {
+          copyZip(reportStream);
+        } else {
+          extractZip(reportStream);
+        }
+      }
+    }
+  }
+
+  private void copyZip(CeTaskInputDao.DataStream reportStream) {
+    File zipFile = tempFolder.newFile("report", ".zip");
+    try {
+      FileUtils.copyInputStreamToFile(reportStream.getInputStream(), zipFile);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to copy report " + task.getUuid() + " from database", e);
+    }
+    reportDirectoryHolder.setZipFile(zipFile);
+  }
+
+  private void extractZip(CeTaskInputDao.DataStream reportStream) {
+    File unzippedDir = tempFolder.newDir();
+    try (InputStream zipStream = new BufferedInputStream(reportStream.getInputStream())) {
+      ZipUtils.unzip(zipStream, unzippedDir);
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to extract report " + task.getUuid() + " from database", e);
     }
+    reportDirectoryHolder.setDirectory(unzippedDir);
   }
 
   @Override
@@ -20,9 +20,18 @@
 package org.sonar.server.computation.task.projectanalysis.step;
 
 import com.google.common.base.Function;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.core.util.CloseableIterator;
@@ -46,6 +55,7 @@ import org.sonar.server.computation.task.step.ComputationStep;
 
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.collect.Lists.newArrayList;
+import static org.sonar.db.DatabaseUtils.PARTITION_SIZE_FOR_ORACLE;
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
 
 /**
@@ -58,6 +68,7 @@ import static org.sonar.server.computation.task.projectanalysis.component.Compon
 public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationStep {
 
   private static final Logger LOGGER = Loggers.get(LoadCrossProjectDuplicationsRepositoryStep.class);
+  private static final int MAX_HASHES_PER_BATCH = 20 * PARTITION_SIZE_FOR_ORACLE;
 
   private final TreeRootHolder treeRootHolder;
   private final BatchReportReader reportReader;
@@ -80,7 +91,12 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
   @Override
   public void execute() {
     if (crossProjectDuplicationStatusHolder.isEnabled()) {
-      new DepthTraversalTypeAwareCrawler(new CrossProjectDuplicationVisitor()).visit(treeRootHolder.getRoot());
+      long start = System.currentTimeMillis();
+      CrossProjectDuplicationVisitor visitor = new CrossProjectDuplicationVisitor();
+      new DepthTraversalTypeAwareCrawler(visitor).visit(treeRootHolder.getRoot());
+      visitor.flushAll();
+      LOGGER.info("{} cross project duplication candidates loaded for {} files with {} queries | time={}ms",
+        visitor.candidateCount, visitor.fileCount, visitor.queryCount, System.currentTimeMillis() - start);
     }
   }
 
@@ -89,7 +105,16 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
     return "Compute cross project duplications";
   }
 
+  /**
+   * Candidates are not loaded file by file. Files are grouped by language in batches of at most
+   * {@link #MAX_HASHES_PER_BATCH} distinct hashes, and the candidates of each batch are loaded with a few large
+   * queries, each covering a range of the sorted hashes.
+   */
   private class CrossProjectDuplicationVisitor extends TypeAwareVisitorAdapter {
+    private final Map<String, FileBatch> batchesByLanguage = new HashMap<>();
+    private int fileCount = 0;
+    private int queryCount = 0;
+    private int candidateCount = 0;
 
     private CrossProjectDuplicationVisitor() {
       super(CrawlerDepthLimit.FILE, PRE_ORDER);
@@ -106,8 +131,49 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
         }
       }
 
-      Collection<String> hashes = from(cpdTextBlocks).transform(CpdTextBlockToHash.INSTANCE).toList();
-      List<DuplicationUnitDto> dtos = selectDuplicates(file, hashes);
+      fileCount++;
+      String language = file.getFileAttributes().getLanguageKey();
+      FileBatch batch = batchesByLanguage.computeIfAbsent(language, FileBatch::new);
+      batch.add(file, cpdTextBlocks);
+      if (batch.hashes.size() >= MAX_HASHES_PER_BATCH) {
+        batchesByLanguage.remove(language);
+        flush(batch);
+      }
+    }
+
+    private void flushAll() {
+      batchesByLanguage.values().forEach(this::flush);
+      batchesByLanguage.clear();
+    }
+
+    private void flush(FileBatch batch) {
+      Map<String, List<DuplicationUnitDto>> candidatesByHash = selectCandidatesByHash(batch);
+      for (Map.Entry<Component, List<CpdTextBlock>> entry : batch.blocksByFile.entrySet()) {
+        computeCpd(entry.getKey(), entry.getValue(), candidatesByHash);
+      }
+    }
+
+    private Map<String, List<DuplicationUnitDto>> selectCandidatesByHash(FileBatch batch) {
+      List<DuplicationUnitDto> dtos;
+      try (DbSession dbSession = dbClient.openSession(false)) {
+        Analysis projectAnalysis = analysisMetadataHolder.getBaseAnalysis();
+        String analysisUuid = projectAnalysis == null ? null : projectAnalysis.getUuid();
+        dtos = dbClient.duplicationDao().selectCandidates(dbSession, analysisUuid, batch.language, batch.hashes);
+      }
+      queryCount += (batch.hashes.size() + PARTITION_SIZE_FOR_ORACLE - 1) / PARTITION_SIZE_FOR_ORACLE;
+      candidateCount += dtos.size();
+      Map<String, List<DuplicationUnitDto>> candidatesByHash = new HashMap<>();
+      for (DuplicationUnitDto dto : dtos) {
+        candidatesByHash.computeIfAbsent(dto.getHash(), h -> new ArrayList<>()).add(dto);
+      }
+      return candidatesByHash;
+    }
+
+    private void computeCpd(Component file, List<CpdTextBlock> cpdTextBlocks, Map<String, List<DuplicationUnitDto>> candidatesByHash) {
+      List<DuplicationUnitDto> dtos = new ArrayList<>();
+      for (String hash : from(cpdTextBlocks).transform(CpdTextBlockToHash.INSTANCE).toSet()) {
+        dtos.addAll(candidatesByHash.getOrDefault(hash, Collections.emptyList()));
+      }
       if (dtos.isEmpty()) {
         return;
       }
@@ -118,13 +184,21 @@ public class LoadCrossProjectDuplicationsRepositoryStep implements ComputationSt
 
       integrateCrossProjectDuplications.computeCpd(file, originBlocks, duplicatedBlocks);
     }
+  }
 
-    private List<DuplicationUnitDto> selectDuplicates(Component file, Collection<String> hashes) {
-      try (DbSession dbSession = dbClient.openSession(false)) {
-        Analysis projectAnalysis = analysisMetadataHolder.getBaseAnalysis();
-        String analysisUuid = projectAnalysis == null ? null : projectAnalysis.getUuid();
-        return dbClient.duplicationDao().selectCandidates(dbSession, analysisUuid, file.getFileAttributes().getLanguageKey(), hashes);
-      }
+  private static class FileBatch {
+    @CheckForNull
+    private final String language;
+    private final Map<Component, List<CpdTextBlock>> blocksByFile = new LinkedHashMap<>();
+    private final Set<String> hashes = new HashSet<>();
+
+    private FileBatch(@Nullable String language) {
+      this.language = language;
+    }
+
+    private void add(Component file, List<CpdTextBlock> cpdTextBlocks) {
+      blocksByFile.put(file, cpdTextBlocks);
+      cpdTextBlocks.forEach(block -> hashes.add(block.getHash()));
     }
   }
 
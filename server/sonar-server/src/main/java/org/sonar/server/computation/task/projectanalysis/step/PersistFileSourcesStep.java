@@ -20,20 +20,24 @@
 package org.sonar.server.computation.task.projectanalysis.step;
 
 import com.google.common.base.Optional;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.ObjectUtils;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.System2;
 import org.sonar.core.util.CloseableIterator;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
-import org.sonar.db.protobuf.DbFileSources;
 import org.sonar.db.source.FileSourceDto;
 import org.sonar.db.source.FileSourceDto.Type;
 import org.sonar.scanner.protocol.output.ScannerReport;
@@ -43,6 +47,7 @@ import org.sonar.server.computation.task.projectanalysis.component.CrawlerDepthL
 import org.sonar.server.computation.task.projectanalysis.component.DepthTraversalTypeAwareCrawler;
 import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolder;
 import org.sonar.server.computation.task.projectanalysis.component.TypeAwareVisitorAdapter;
+import org.sonar.server.computation.task.projectanalysis.duplication.Duplication;
 import org.sonar.server.computation.task.projectanalysis.duplication.DuplicationRepository;
 import org.sonar.server.computation.task.projectanalysis.scm.Changeset;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfo;
@@ -52,6 +57,7 @@ import org.sonar.server.computation.task.projectanalysis.source.CoverageLineRead
 import org.sonar.server.computation.task.projectanalysis.source.DuplicationLineReader;
 import org.sonar.server.computation.task.projectanalysis.source.HighlightingLineReader;
 import org.sonar.server.computation.task.projectanalysis.source.LineReader;
+import org.sonar.server.computation.task.projectanalysis.source.PreviousFileSourcesRepository;
 import org.sonar.server.computation.task.projectanalysis.source.RangeOffsetConverter;
 import org.sonar.server.computation.task.projectanalysis.source.ScmLineReader;
 import org.sonar.server.computation.task.projectanalysis.source.SourceLinesRepository;
@@ -60,8 +66,24 @@ import org.sonar.server.computation.task.step.ComputationStep;
 
 import static org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor.Order.PRE_ORDER;
 
+/**
+ * Sources of files are computed and encoded concurrently by a bounded pool of threads, then persisted
+ * in the order of the component tree by the step thread, with JDBC batches.
+ */
 public class PersistFileSourcesStep implements ComputationStep {
 
+  /**
+   * Number of threads computing and encoding the sources of files. Default is min(4, number of processors - 1).
+   */
+  public static final String THREADS_PROPERTY = "sonar.ce.fileSources.threads";
+
+  /**
+   * Maximum size of the binary data of the rows waiting in the JDBC batch. Keeping all data in memory
+   * until the end of the step can produce OOM for big files.
+   */
+  private static final long MAX_BATCH_BYTES = 20L * 1024 * 1024;
+  private static final int DEFAULT_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
   private final DbClient dbClient;
   private final System2 system2;
   private final TreeRootHolder treeRootHolder;
@@ -69,9 +91,17 @@ public class PersistFileSourcesStep implements ComputationStep {
   private final SourceLinesRepository sourceLinesRepository;
   private final ScmInfoRepository scmInfoRepository;
   private final DuplicationRepository duplicationRepository;
+  private final PreviousFileSourcesRepository previousFileSourcesRepository;
+  private final int threads;
+  /**
+   * Maximum number of files computed in advance, which bounds the memory used by the encoded sources
+   * waiting to be persisted.
+   */
+  private final int maxPendingFiles;
 
   public PersistFileSourcesStep(DbClient dbClient, System2 system2, TreeRootHolder treeRootHolder, BatchReportReader reportReader, SourceLinesRepository sourceLinesRepository,
-    ScmInfoRepository scmInfoRepository, DuplicationRepository duplicationRepository) {
+    ScmInfoRepository scmInfoRepository, DuplicationRepository duplicationRepository, PreviousFileSourcesRepository previousFileSourcesRepository,
+    Configuration configuration) {
     this.dbClient = dbClient;
     this.system2 = system2;
     this.treeRootHolder = treeRootHolder;
@@ -79,59 +109,81 @@ public class PersistFileSourcesStep implements ComputationStep {
     this.sourceLinesRepository = sourceLinesRepository;
     this.scmInfoRepository = scmInfoRepository;
     this.duplicationRepository = duplicationRepository;
+    this.previousFileSourcesRepository = previousFileSourcesRepository;
+    this.threads = Math.max(1, configuration.getInt(THREADS_PROPERTY).orElse(DEFAULT_THREADS));
+    this.maxPendingFiles = 2 * threads;
   }
 
   @Override
   public void execute() {
-    // Don't use batch insert for file_sources since keeping all data in memory can produce OOM for big files
-    try (DbSession dbSession = dbClient.openSession(false)) {
-      new DepthTraversalTypeAwareCrawler(new FileSourceVisitor(dbSession))
+    ExecutorService executorService = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("FileSourceEncoder-%d").setDaemon(true).build());
+    try (DbSession dbSession = dbClient.openSession(true)) {
+      FileSourceVisitor visitor = new FileSourceVisitor(dbSession, executorService);
+      new DepthTraversalTypeAwareCrawler(visitor)
         .visit(treeRootHolder.getRoot());
+      visitor.persistPendingFiles(0);
+      dbSession.commit();
+    } finally {
+      executorService.shutdownNow();
     }
   }
 
   private class FileSourceVisitor extends TypeAwareVisitorAdapter {
 
     private final DbSession session;
+    private final ExecutorService executorService;
+    private final Deque<PendingFile> pendingFiles = new ArrayDeque<>();
 
-    private Map<String, FileSourceDto> previousFileSourcesByUuid = new HashMap<>();
     private String projectUuid;
+    private long batchBytes = 0L;
 
-    private FileSourceVisitor(DbSession session) {
+    private FileSourceVisitor(DbSession session, ExecutorService executorService) {
       super(CrawlerDepthLimit.FILE, PRE_ORDER);
       this.session = session;
+      this.executorService = executorService;
     }
 
     @Override
     public void visitProject(Component project) {
       this.projectUuid = project.getUuid();
-      session.select("org.sonar.db.source.FileSourceMapper.selectHashesForProject", ImmutableMap.of("projectUuid", projectUuid, "dataType", Type.SOURCE),
-        context -> {
-          FileSourceDto dto = (FileSourceDto) context.getResultObject();
-          previousFileSourcesByUuid.put(dto.getFileUuid(), dto);
-        });
     }
 
     @Override
     public void visitFile(Component file) {
+      // repositories are not thread-safe, so they are read by the step thread
+      Optional<ScmInfo> scmInfo = scmInfoRepository.getScmInfo(file);
+      Iterable<Duplication> duplications = duplicationRepository.getDuplications(file);
+      Future<EncodedFileSource> future = executorService.submit(() -> encode(file, scmInfo, duplications));
+      pendingFiles.add(new PendingFile(file, future));
+      persistPendingFiles(maxPendingFiles);
+    }
+
+    private EncodedFileSource encode(Component file, Optional<ScmInfo> scmInfo, Iterable<Duplication> duplications) {
       try (CloseableIterator<String> linesIterator = sourceLinesRepository.readLines(file);
-        LineReaders lineReaders = new LineReaders(reportReader, scmInfoRepository, duplicationRepository, file)) {
+        LineReaders lineReaders = new LineReaders(reportReader, scmInfo, duplications, file)) {
         ComputeFileSourceData computeFileSourceData = new ComputeFileSourceData(linesIterator, lineReaders.readers(), file.getFileAttributes().getLines());
         ComputeFileSourceData.Data fileSourceData = computeFileSourceData.compute();
-        persistSource(fileSourceData, file.getUuid(), lineReaders.getLatestChange());
-      } catch (Exception e) {
-        throw new IllegalStateException(String.format("Cannot persist sources of %s", file.getKey()), e);
+        return new EncodedFileSource(fileSourceData, lineReaders.getLatestChange());
       }
     }
 
-    private void persistSource(ComputeFileSourceData.Data fileSourceData, String componentUuid, @Nullable Changeset latestChange) {
-      DbFileSources.Data fileData = fileSourceData.getFileSourceData();
+    /**
+     * Persists the oldest pending files, until at most {@code maxPendingFiles} remain
+     */
+    private void persistPendingFiles(int maxPendingFiles) {
+      while (pendingFiles.size() > maxPendingFiles) {
+        PendingFile pendingFile = pendingFiles.poll();
+        persistSource(pendingFile.getEncodedSource(), pendingFile.file.getUuid());
+      }
+    }
 
-      byte[] data = FileSourceDto.encodeSourceData(fileData);
-      String dataHash = DigestUtils.md5Hex(data);
-      String srcHash = fileSourceData.getSrcHash();
-      String lineHashes = fileSourceData.getLineHashes();
-      FileSourceDto previousDto = previousFileSourcesByUuid.get(componentUuid);
+    private void persistSource(EncodedFileSource encodedSource, String componentUuid) {
+      byte[] data = encodedSource.data;
+      String dataHash = encodedSource.dataHash;
+      String srcHash = encodedSource.srcHash;
+      String lineHashes = encodedSource.lineHashes;
+      String revision = encodedSource.revision;
+      FileSourceDto previousDto = previousFileSourcesRepository.getHashes(componentUuid);
 
       if (previousDto == null) {
         FileSourceDto dto = new FileSourceDto()
@@ -144,14 +196,13 @@ public class PersistFileSourcesStep implements ComputationStep {
           .setLineHashes(lineHashes)
           .setCreatedAt(system2.now())
           .setUpdatedAt(system2.now())
-          .setRevision(computeRevision(latestChange));
+          .setRevision(revision);
         dbClient.fileSourceDao().insert(session, dto);
-        session.commit();
+        addToBatch(data);
       } else {
         // Update only if data_hash has changed or if src_hash is missing or revision is missing (progressive migration)
         boolean binaryDataUpdated = !dataHash.equals(previousDto.getDataHash());
         boolean srcHashUpdated = !srcHash.equals(previousDto.getSrcHash());
-        String revision = computeRevision(latestChange);
         boolean revisionUpdated = !ObjectUtils.equals(revision, previousDto.getRevision());
         if (binaryDataUpdated || srcHashUpdated || revisionUpdated) {
           previousDto
@@ -162,17 +213,58 @@ public class PersistFileSourcesStep implements ComputationStep {
             .setRevision(revision)
             .setUpdatedAt(system2.now());
           dbClient.fileSourceDao().update(session, previousDto);
-          session.commit();
+          addToBatch(data);
         }
       }
     }
 
-    @CheckForNull
-    private String computeRevision(@Nullable Changeset latestChange) {
-      if (latestChange == null) {
-        return null;
+    private void addToBatch(byte[] data) {
+      batchBytes += data.length;
+      if (batchBytes >= MAX_BATCH_BYTES) {
+        session.commit();
+        batchBytes = 0L;
       }
-      return latestChange.getRevision();
+    }
+  }
+
+  private static class PendingFile {
+    private final Component file;
+    private final Future<EncodedFileSource> future;
+
+    private PendingFile(Component file, Future<EncodedFileSource> future) {
+      this.file = file;
+      this.future = future;
+    }
+
+    EncodedFileSource getEncodedSource() {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(String.format("Cannot persist sources of %s", file.getKey()), e);
+      } catch (ExecutionException e) {
+        throw new IllegalStateException(String.format("Cannot persist sources of %s", file.getKey()), e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Data of a file, as stored in table FILE_SOURCES
+   */
+  private static class EncodedFileSource {
+    private final byte[] data;
+    private final String dataHash;
+    private final String srcHash;
+    private final String lineHashes;
+    @Nullable
+    private final String revision;
+
+    private EncodedFileSource(ComputeFileSourceData.Data fileSourceData, @Nullable Changeset latestChange) {
+      this.data = FileSourceDto.encodeSourceData(fileSourceData.getFileSourceData());
+      this.dataHash = DigestUtils.md5Hex(data);
+      this.srcHash = fileSourceData.getSrcHash();
+      this.lineHashes = fileSourceData.getLineHashes();
+      this.revision = latestChange == null ? null : latestChange.getRevision();
     }
   }
 
@@ -182,13 +274,12 @@ public class PersistFileSourcesStep implements ComputationStep {
     @CheckForNull
     private final ScmLineReader scmLineReader;
 
-    LineReaders(BatchReportReader reportReader, ScmInfoRepository scmInfoRepository, DuplicationRepository duplicationRepository, Component component) {
+    LineReaders(BatchReportReader reportReader, Optional<ScmInfo> scmInfoOptional, Iterable<Duplication> duplications, Component component) {
       int componentRef = component.getReportAttributes().getRef();
       CloseableIterator<ScannerReport.LineCoverage> coverageIt = reportReader.readComponentCoverage(componentRef);
       closeables.add(coverageIt);
       readers.add(new CoverageLineReader(coverageIt));
 
-      Optional<ScmInfo> scmInfoOptional = scmInfoRepository.getScmInfo(component);
       if (scmInfoOptional.isPresent()) {
         this.scmLineReader = new ScmLineReader(scmInfoOptional.get());
         readers.add(scmLineReader);
@@ -204,7 +295,7 @@ public class PersistFileSourcesStep implements ComputationStep {
       CloseableIterator<ScannerReport.Symbol> symbolsIt = reportReader.readComponentSymbols(componentRef);
       closeables.add(symbolsIt);
       readers.add(new SymbolsLineReader(component, symbolsIt, rangeOffsetConverter));
-      readers.add(new DuplicationLineReader(duplicationRepository.getDuplications(component)));
+      readers.add(new DuplicationLineReader(duplications));
     }
 
     List<LineReader> readers() {
@@ -56,16 +56,24 @@ import static java.lang.String.format;
 /**
  * Helper to bulk requests in an efficient way :
  * <ul>
- *   <li>bulk request is sent on the wire when its size is higher than 5Mb</li>
- *   <li>on large table indexing, replicas and automatic refresh can be temporarily disabled</li>
+ *   <li>bulk request is sent on the wire when its size is higher than 1Mb</li>
+ *   <li>on large table indexing, replicas and automatic refresh can be temporarily disabled, and the size
+ *   of bulk requests adapts to the latency and rejections of Elasticsearch</li>
+ *   <li>callers of add methods are blocked while Elasticsearch can't accept more requests</li>
  * </ul>
+ * Throughput is exposed by {@link IndexingStatistics}.
  */
 public class BulkIndexer {
 
   private static final Logger LOGGER = Loggers.get(BulkIndexer.class);
   private static final ByteSizeValue FLUSH_BYTE_SIZE = new ByteSizeValue(1, ByteSizeUnit.MB);
+  private static final ByteSizeValue NO_FLUSH_BYTE_SIZE = new ByteSizeValue(-1);
   private static final int FLUSH_ACTIONS = -1;
   private static final String REFRESH_INTERVAL_SETTING = "index.refresh_interval";
+  /**
+   * Estimation of the bytes added to a bulk request by each action, in addition to the source of documents
+   */
+  private static final int REQUEST_OVERHEAD = 50;
   private static final int DEFAULT_NUMBER_OF_SHARDS = 5;
 
   private final EsClient client;
@@ -74,6 +82,9 @@ public class BulkIndexer {
   private final IndexingResult result = new IndexingResult();
   private final IndexingListener indexingListener;
   private final SizeHandler sizeHandler;
+  private final BulkSize bulkSize;
+  private final IndexingStatisticsMBeanImpl statistics;
+  private long pendingBytes = 0L;
 
   public BulkIndexer(EsClient client, IndexType indexType, Size size) {
     this(client, indexType, size, IndexingListener.FAIL_ON_ERROR);
@@ -84,10 +95,13 @@ public class BulkIndexer {
     this.indexType = indexType;
     this.sizeHandler = size.createHandler(Runtime2.INSTANCE);
     this.indexingListener = indexingListener;
+    this.bulkSize = sizeHandler.createBulkSize();
+    this.statistics = client.getIndexingStatistics().forIndex(indexType.getIndex());
     BulkProcessorListener bulkProcessorListener = new BulkProcessorListener();
     this.bulkProcessor = BulkProcessor.builder(client.nativeClient(), bulkProcessorListener)
-      .setBackoffPolicy(BackoffPolicy.exponentialBackoff())
-      .setBulkSize(FLUSH_BYTE_SIZE)
+      .setBackoffPolicy(BackoffPolicy.wrap(BackoffPolicy.exponentialBackoff(), this::onRetry))
+      // requests are flushed by BulkIndexer, depending on bulkSize
+      .setBulkSize(NO_FLUSH_BYTE_SIZE)
       .setBulkActions(FLUSH_ACTIONS)
       .setConcurrentRequests(sizeHandler.getConcurrentRequests())
       .build();
@@ -99,6 +113,7 @@ public class BulkIndexer {
 
   public void start() {
     result.clear();
+    statistics.onIndexerStarted();
     sizeHandler.beforeStart(this);
   }
 
@@ -111,6 +126,8 @@ public class BulkIndexer {
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new IllegalStateException("Elasticsearch bulk requests still being executed after 1 minute", e);
+    } finally {
+      statistics.onIndexerStopped();
     }
     client.prepareRefresh(indexType.getIndex()).get();
     sizeHandler.afterStop(this);
@@ -120,17 +137,39 @@ public class BulkIndexer {
 
   public void add(IndexRequest request) {
     result.incrementRequests();
-    bulkProcessor.add(request);
+    addToBulk(request);
   }
 
   public void add(DeleteRequest request) {
     result.incrementRequests();
-    bulkProcessor.add(request);
+    addToBulk(request);
   }
 
   public void add(DocWriteRequest request) {
     result.incrementRequests();
+    addToBulk(request);
+  }
+
+  /**
+   * When concurrent requests are disabled, the flush is executed in the calling thread. Otherwise
+   * it waits for one of the concurrent requests to complete. In both cases, the producer of
+   * documents is slowed down to the pace of Elasticsearch.
+   */
+  private synchronized void addToBulk(DocWriteRequest request) {
     bulkProcessor.add(request);
+    pendingBytes += REQUEST_OVERHEAD;
+    if (request instanceof IndexRequest && ((IndexRequest) request).source() != null) {
+      pendingBytes += ((IndexRequest) request).source().length();
+    }
+    if (pendingBytes >= bulkSize.getFlushBytes()) {
+      pendingBytes = 0L;
+      bulkProcessor.flush();
+    }
+  }
+
+  private void onRetry() {
+    statistics.onRetry();
+    bulkSize.onRejection();
   }
 
   public void addDeletion(SearchRequestBuilder searchRequest) {
@@ -198,14 +237,18 @@ public class BulkIndexer {
     @Override
     public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
       List<DocId> successDocIds = new ArrayList<>();
+      int failures = 0;
       for (BulkItemResponse item : response.getItems()) {
         if (item.isFailed()) {
+          failures++;
           LOGGER.error("index [{}], type [{}], id [{}], message [{}]", item.getIndex(), item.getType(), item.getId(), item.getFailureMessage());
         } else {
           result.incrementSuccess();
           successDocIds.add(new DocId(item.getIndex(), item.getType(), item.getId()));
         }
       }
+      statistics.onBulkCompleted(successDocIds.size(), failures, request.estimatedSizeInBytes());
+      bulkSize.onBulkCompleted(response.getTook().millis());
       indexingListener.onSuccess(successDocIds);
     }
 
@@ -264,6 +307,10 @@ public class BulkIndexer {
     void afterStop(BulkIndexer bulkIndexer) {
       // nothing to do, to be overridden if needed
     }
+
+    BulkSize createBulkSize() {
+      return BulkSize.fixed(FLUSH_BYTE_SIZE.getBytes());
+    }
   }
 
   static class LargeSizeHandler extends SizeHandler {
@@ -284,6 +331,11 @@ public class BulkIndexer {
       return Math.max(1, cores / DEFAULT_NUMBER_OF_SHARDS) - 1;
     }
 
+    @Override
+    BulkSize createBulkSize() {
+      return BulkSize.adaptive(FLUSH_BYTE_SIZE.getBytes());
+    }
+
     @Override
     void beforeStart(BulkIndexer bulkIndexer) {
       this.progress = new ProgressLogger(format("Progress[BulkIndexer[%s]]", bulkIndexer.indexType.getIndex()), bulkIndexer.result.total, LOGGER)
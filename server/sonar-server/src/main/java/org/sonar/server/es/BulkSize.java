@@ -0,0 +1,82 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Size in bytes of the bulk requests sent by {@link BulkIndexer}. In adaptive mode, the size
+ * is decreased when Elasticsearch is slow to answer or rejects requests, and increased
+ * again while requests are quickly processed.
+ */
+@ThreadSafe
+class BulkSize {
+
+  static final long MIN_BYTES = 512L * 1024;
+  static final long MAX_BYTES = 16L * 1024 * 1024;
+  /**
+   * Bulk requests taking longer than this duration are considered as too big
+   */
+  static final long TARGET_LATENCY_MS = 1_000L;
+
+  private final boolean adaptive;
+  private long flushBytes;
+
+  private BulkSize(boolean adaptive, long initialBytes) {
+    this.adaptive = adaptive;
+    this.flushBytes = initialBytes;
+  }
+
+  static BulkSize fixed(long bytes) {
+    return new BulkSize(false, bytes);
+  }
+
+  static BulkSize adaptive(long initialBytes) {
+    return new BulkSize(true, Math.min(MAX_BYTES, Math.max(MIN_BYTES, initialBytes)));
+  }
+
+  synchronized long getFlushBytes() {
+    return flushBytes;
+  }
+
+  synchronized void onBulkCompleted(long latencyMs) {
+    if (!adaptive) {
+      return;
+    }
+    if (latencyMs > TARGET_LATENCY_MS) {
+      decrease();
+    } else if (latencyMs < TARGET_LATENCY_MS / 2) {
+      flushBytes = Math.min(MAX_BYTES, flushBytes + flushBytes / 4);
+    }
+  }
+
+  /**
+   * Called when a bulk request is rejected by Elasticsearch because its queues are full
+   */
+  synchronized void onRejection() {
+    if (adaptive) {
+      decrease();
+    }
+  }
+
+  private void decrease() {
+    flushBytes = Math.max(MIN_BYTES, flushBytes / 2);
+  }
+}
@@ -77,13 +77,20 @@ public class EsClient implements Closeable {
   public static final Logger LOGGER = Loggers.get("es");
 
   private final Client nativeClient;
+  private final IndexingStatistics indexingStatistics;
 
   public EsClient(Client nativeClient) {
+    this(nativeClient, new IndexingStatistics());
+  }
+
+  public EsClient(Client nativeClient, IndexingStatistics indexingStatistics) {
     this.nativeClient = requireNonNull(nativeClient);
+    this.indexingStatistics = indexingStatistics;
   }
 
   public EsClient() {
     this.nativeClient = null;
+    this.indexingStatistics = new IndexingStatistics();
   }
 
   public RefreshRequestBuilder prepareRefresh(String... indices) {
@@ -196,6 +203,13 @@ public class EsClient implements Closeable {
     return nativeClient;
   }
 
+  /**
+   * Statistics of the {@link BulkIndexer}s using this client
+   */
+  public IndexingStatistics getIndexingStatistics() {
+    return indexingStatistics;
+  }
+
   /**
    * Checks whether there is any document in any mentioned type.
    */
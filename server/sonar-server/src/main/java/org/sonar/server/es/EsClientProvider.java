@@ -60,7 +60,7 @@ public class EsClientProvider extends ProviderAdapter {
 
   private EsClient cache;
 
-  public EsClient provide(Configuration config) {
+  public EsClient provide(Configuration config, IndexingStatistics indexingStatistics) {
     if (cache == null) {
       Settings.Builder esSettings = Settings.builder();
 
@@ -82,7 +82,7 @@ public class EsClientProvider extends ProviderAdapter {
         LOGGER.info("Connected to local Elasticsearch: [{}]", displayedAddresses(nativeClient));
       }
 
-      cache = new EsClient(nativeClient);
+      cache = new EsClient(nativeClient, indexingStatistics);
     }
     return cache;
   }
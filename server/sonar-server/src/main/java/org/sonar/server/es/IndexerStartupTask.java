@@ -19,6 +19,7 @@
  */
 package org.sonar.server.es;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthAction;
@@ -28,10 +29,13 @@ import org.sonar.api.config.Configuration;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.api.utils.log.Profiler;
+import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.server.es.metadata.MetadataIndex;
 
 import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.toSet;
+import static org.sonar.server.es.ParallelIndexing.DEFAULT_STARTUP_THREADS;
+import static org.sonar.server.es.ParallelIndexing.STARTUP_THREADS_PROPERTY;
 
 public class IndexerStartupTask {
 
@@ -51,8 +55,11 @@ public class IndexerStartupTask {
 
   public void execute() {
     if (indexesAreEnabled()) {
-      stream(indexers)
-        .forEach(this::indexUninitializedTypes);
+      int threads = config.getInt(STARTUP_THREADS_PROPERTY).orElse(DEFAULT_STARTUP_THREADS);
+      List<Runnable> tasks = stream(indexers)
+        .map(indexer -> (Runnable) () -> indexUninitializedTypes(indexer))
+        .collect(MoreCollectors.toList(indexers.length));
+      ParallelIndexing.execute("IndexerStartupTask-%d", threads, tasks);
     }
   }
 
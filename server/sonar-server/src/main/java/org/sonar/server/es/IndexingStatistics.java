@@ -0,0 +1,66 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.sonar.api.Startable;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.process.Jmx;
+
+/**
+ * Statistics of the bulk requests sent to the indices by this process. While the container is started, the
+ * statistics of each index are registered to the MBean server as "SonarQube:name=Indexing,index=[index]".
+ */
+public class IndexingStatistics implements Startable {
+
+  private final Map<String, IndexingStatisticsMBeanImpl> byIndex = new HashMap<>();
+  private boolean started = false;
+
+  synchronized IndexingStatisticsMBeanImpl forIndex(String index) {
+    return byIndex.computeIfAbsent(index, i -> {
+      IndexingStatisticsMBeanImpl statistics = new IndexingStatisticsMBeanImpl(i);
+      if (started) {
+        register(statistics);
+      }
+      return statistics;
+    });
+  }
+
+  @Override
+  public synchronized void start() {
+    started = true;
+    byIndex.values().forEach(IndexingStatistics::register);
+  }
+
+  @Override
+  public synchronized void stop() {
+    started = false;
+    byIndex.values().forEach(statistics -> Jmx.unregister(statistics.objectName()));
+  }
+
+  private static void register(IndexingStatisticsMBeanImpl statistics) {
+    try {
+      Jmx.register(statistics.objectName(), statistics);
+    } catch (RuntimeException e) {
+      Loggers.get(IndexingStatistics.class).warn("Fail to register MBean {}", statistics.objectName(), e);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+/**
+ * Throughput of the bulk requests sent to an index since startup
+ */
+public interface IndexingStatisticsMBean {
+
+  /**
+   * Number of documents successfully indexed or deleted
+   */
+  long getDocuments();
+
+  /**
+   * Estimated size of the bulk requests sent to Elasticsearch
+   */
+  long getBytes();
+
+  /**
+   * Number of bulk requests retried because they were rejected by Elasticsearch
+   */
+  long getRetries();
+
+  /**
+   * Number of documents that failed to be indexed or deleted
+   */
+  long getFailures();
+
+  /**
+   * Documents per second, computed over the time during which at least one {@link BulkIndexer} was open on the index
+   */
+  double getDocumentsPerSecond();
+
+  /**
+   * Bytes per second, computed over the time during which at least one {@link BulkIndexer} was open on the index
+   */
+  double getBytesPerSecond();
+
+  /**
+   * Size in bytes of the last bulk request sent
+   */
+  long getLastBulkBytes();
+}
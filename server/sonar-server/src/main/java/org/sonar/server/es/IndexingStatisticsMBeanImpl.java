@@ -0,0 +1,115 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the bulk requests sent to an index. There is a single instance per index, provided by
+ * {@link IndexingStatistics}.
+ */
+class IndexingStatisticsMBeanImpl implements IndexingStatisticsMBean {
+
+  private final String index;
+  private final AtomicLong documents = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong lastBulkBytes = new AtomicLong();
+  private int openIndexers = 0;
+  private long openSince = 0L;
+  private long openDurationMs = 0L;
+
+  IndexingStatisticsMBeanImpl(String index) {
+    this.index = index;
+  }
+
+  String objectName() {
+    return "SonarQube:name=Indexing,index=" + index;
+  }
+
+  synchronized void onIndexerStarted() {
+    if (openIndexers == 0) {
+      openSince = System.currentTimeMillis();
+    }
+    openIndexers++;
+  }
+
+  synchronized void onIndexerStopped() {
+    openIndexers--;
+    if (openIndexers == 0) {
+      openDurationMs += System.currentTimeMillis() - openSince;
+    }
+  }
+
+  void onBulkCompleted(int successes, int failedItems, long bulkBytes) {
+    documents.addAndGet(successes);
+    failures.addAndGet(failedItems);
+    bytes.addAndGet(bulkBytes);
+    lastBulkBytes.set(bulkBytes);
+  }
+
+  void onRetry() {
+    retries.incrementAndGet();
+  }
+
+  @Override
+  public long getDocuments() {
+    return documents.get();
+  }
+
+  @Override
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  @Override
+  public long getRetries() {
+    return retries.get();
+  }
+
+  @Override
+  public long getFailures() {
+    return failures.get();
+  }
+
+  @Override
+  public double getDocumentsPerSecond() {
+    return perSecond(documents.get());
+  }
+
+  @Override
+  public double getBytesPerSecond() {
+    return perSecond(bytes.get());
+  }
+
+  @Override
+  public long getLastBulkBytes() {
+    return lastBulkBytes.get();
+  }
+
+  private synchronized double perSecond(long value) {
+    long durationMs = openDurationMs;
+    if (openIndexers > 0) {
+      durationMs += System.currentTimeMillis() - openSince;
+    }
+    return durationMs == 0L ? 0.0 : (1_000.0 * value / durationMs);
+  }
+}
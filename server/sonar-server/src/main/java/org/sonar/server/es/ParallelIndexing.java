@@ -0,0 +1,88 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Executes indexing tasks in a pool of threads and waits for their completion. The
+ * first failure is propagated to the caller and pending tasks are cancelled.
+ */
+public class ParallelIndexing {
+
+  /**
+   * Number of threads used to index on startup. Default is 1, which keeps indexing sequential.
+   */
+  public static final String STARTUP_THREADS_PROPERTY = "sonar.search.startupIndexing.threads";
+  public static final int DEFAULT_STARTUP_THREADS = 1;
+
+  private ParallelIndexing() {
+    // only static methods
+  }
+
+  /**
+   * Tasks are executed in the calling thread when {@code threads} is lower than 2.
+   *
+   * @param threadNameFormat format of the names of threads, see {@link ThreadFactoryBuilder#setNameFormat(String)}
+   */
+  public static void execute(String threadNameFormat, int threads, Collection<Runnable> tasks) {
+    if (threads < 2 || tasks.size() < 2) {
+      tasks.forEach(Runnable::run);
+      return;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), new ThreadFactoryBuilder()
+      .setNameFormat(threadNameFormat)
+      .build());
+    try {
+      List<Future<?>> futures = new ArrayList<>(tasks.size());
+      tasks.forEach(task -> futures.add(executor.submit(task)));
+      for (Future<?> future : futures) {
+        waitFor(future);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void waitFor(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while indexing", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException("Fail to index", cause);
+    }
+  }
+}
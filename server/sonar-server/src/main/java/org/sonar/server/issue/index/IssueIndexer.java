@@ -27,11 +27,14 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.sonar.api.config.Configuration;
 import org.sonar.api.resources.Qualifiers;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.core.util.ProgressLogger;
 import org.sonar.core.util.stream.MoreCollectors;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -45,6 +48,7 @@ import org.sonar.server.es.IndexingListener;
 import org.sonar.server.es.IndexingResult;
 import org.sonar.server.es.OneToManyResilientIndexingListener;
 import org.sonar.server.es.OneToOneResilientIndexingListener;
+import org.sonar.server.es.ParallelIndexing;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.permission.index.AuthorizationScope;
 import org.sonar.server.permission.index.NeedAuthorizationIndexer;
@@ -52,6 +56,8 @@ import org.sonar.server.permission.index.NeedAuthorizationIndexer;
 import static java.util.Collections.emptyList;
 import static org.elasticsearch.index.query.QueryBuilders.boolQuery;
 import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.sonar.server.es.ParallelIndexing.DEFAULT_STARTUP_THREADS;
+import static org.sonar.server.es.ParallelIndexing.STARTUP_THREADS_PROPERTY;
 import static org.sonar.server.issue.index.IssueIndexDefinition.FIELD_ISSUE_PROJECT_UUID;
 import static org.sonar.server.issue.index.IssueIndexDefinition.INDEX_TYPE_ISSUE;
 
@@ -72,11 +78,21 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer {
   private final EsClient esClient;
   private final DbClient dbClient;
   private final IssueIteratorFactory issueIteratorFactory;
+  private final int startupThreads;
 
   public IssueIndexer(EsClient esClient, DbClient dbClient, IssueIteratorFactory issueIteratorFactory) {
+    this(esClient, dbClient, issueIteratorFactory, DEFAULT_STARTUP_THREADS);
+  }
+
+  public IssueIndexer(EsClient esClient, DbClient dbClient, IssueIteratorFactory issueIteratorFactory, Configuration config) {
+    this(esClient, dbClient, issueIteratorFactory, config.getInt(STARTUP_THREADS_PROPERTY).orElse(DEFAULT_STARTUP_THREADS));
+  }
+
+  private IssueIndexer(EsClient esClient, DbClient dbClient, IssueIteratorFactory issueIteratorFactory, int startupThreads) {
     this.esClient = esClient;
     this.dbClient = dbClient;
     this.issueIteratorFactory = issueIteratorFactory;
+    this.startupThreads = startupThreads;
   }
 
   @Override
@@ -91,9 +107,44 @@ public class IssueIndexer implements ProjectIndexer, NeedAuthorizationIndexer {
 
   @Override
   public void indexOnStartup(Set<IndexType> uninitializedIndexTypes) {
-    try (IssueIterator issues = issueIteratorFactory.createForAll()) {
-      doIndex(issues, Size.LARGE, IndexingListener.FAIL_ON_ERROR);
+    if (startupThreads <= 1) {
+      try (IssueIterator issues = issueIteratorFactory.createForAll()) {
+        doIndex(issues, Size.LARGE, IndexingListener.FAIL_ON_ERROR);
+      }
+      return;
+    }
+    indexOnStartupByProject();
+  }
+
+  /**
+   * The scan of table issues is split by project, so that the issues of different projects are
+   * loaded and converted in parallel. All the threads feed the same bulk indexer.
+   */
+  private void indexOnStartupByProject() {
+    List<String> projectUuids;
+    try (DbSession dbSession = dbClient.openSession(false)) {
+      projectUuids = dbClient.componentDao().selectAllProjectUuids(dbSession);
     }
+    AtomicLong indexedProjects = new AtomicLong();
+    ProgressLogger progress = new ProgressLogger("Progress[IssueIndexer]", indexedProjects, LOGGER)
+      .setPluralLabel("projects");
+    BulkIndexer bulk = createBulkIndexer(Size.LARGE, IndexingListener.FAIL_ON_ERROR);
+    bulk.start();
+    progress.start();
+    try {
+      List<Runnable> tasks = projectUuids.stream()
+        .map(projectUuid -> (Runnable) () -> {
+          try (IssueIterator issues = issueIteratorFactory.createForProject(projectUuid)) {
+            issues.forEachRemaining(issue -> bulk.add(newIndexRequest(issue)));
+          }
+          indexedProjects.incrementAndGet();
+        })
+        .collect(MoreCollectors.toList(projectUuids.size()));
+      ParallelIndexing.execute("IssueIndexer-%d", startupThreads, tasks);
+    } finally {
+      progress.stop();
+    }
+    bulk.stop();
   }
 
   @Override
@@ -31,6 +31,8 @@ import org.sonar.api.rules.XMLRuleParser;
 import org.sonar.api.server.rule.RulesDefinitionXmlLoader;
 import org.sonar.ce.CeModule;
 import org.sonar.ce.notification.ReportAnalysisFailureNotificationModule;
+import org.sonar.ce.queue.ClusterCeTaskSubmitListener;
+import org.sonar.ce.queue.StandaloneCeTaskSubmitListener;
 import org.sonar.ce.settings.ProjectConfigurationFactory;
 import org.sonar.core.component.DefaultResourceTypes;
 import org.sonar.core.timemachine.Periods;
@@ -201,10 +203,12 @@ import org.sonar.server.ui.PageDecorations;
 import org.sonar.server.ui.PageRepository;
 import org.sonar.server.ui.ws.NavigationWsModule;
 import org.sonar.server.updatecenter.UpdateCenterModule;
+import org.sonar.server.user.ClusterUserSessionCache;
 import org.sonar.server.user.DefaultUserFinder;
 import org.sonar.server.user.DeprecatedUserFinder;
 import org.sonar.server.user.NewUserNotifier;
 import org.sonar.server.user.SecurityRealmFactory;
+import org.sonar.server.user.UserSessionCache;
 import org.sonar.server.user.UserSessionFactoryImpl;
 import org.sonar.server.user.UserUpdater;
 import org.sonar.server.user.index.UserIndex;
@@ -246,9 +250,13 @@ public class PlatformLevel4 extends PlatformLevel {
     addIfCluster(
       StartableHazelcastMember.class,
       NodeHealthModule.class,
-      ChangeLogLevelClusterService.class);
+      ChangeLogLevelClusterService.class,
+      ClusterCeTaskSubmitListener.class,
+      ClusterUserSessionCache.class);
     addIfStandalone(
-      ChangeLogLevelStandaloneService.class);
+      ChangeLogLevelStandaloneService.class,
+      StandaloneCeTaskSubmitListener.class,
+      UserSessionCache.class);
 
     add(
       LogServerId.class,
@@ -28,7 +28,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
@@ -96,8 +99,11 @@ public class RegisterRules implements Startable {
   @Override
   public void start() {
     Profiler profiler = Profiler.create(LOG).startInfo("Register rules");
-    try (DbSession dbSession = dbClient.openSession(false)) {
+    try (DbSession dbSession = dbClient.openSession(false);
+      DbSession batchDbSession = dbClient.openSession(true)) {
       Map<RuleKey, RuleDefinitionDto> allRules = loadRules(dbSession);
+      Map<Integer, List<RuleParamDto>> allRuleParams = loadRuleParams(dbSession);
+      RegistrationChanges changes = new RegistrationChanges();
       List<RuleKey> keysToIndex = new ArrayList<>();
 
       RulesDefinition.Context context = defLoader.load();
@@ -116,23 +122,25 @@ public class RegisterRules implements Startable {
               }
               continue;
             }
-            boolean relevantForIndex = registerRule(ruleDef, allRules, dbSession);
+            boolean relevantForIndex = registerRule(ruleDef, allRules, allRuleParams, changes, dbSession);
             if (relevantForIndex) {
               keysToIndex.add(ruleKey);
             }
           }
+          propagateParamChanges(changes, dbSession);
           dbSession.commit();
+          changes.executeBatchedStatements(batchDbSession);
         }
       }
-      List<RuleDefinitionDto> removedRules = processRemainingDbRules(allRules.values(), dbSession);
-      List<ActiveRuleChange> changes = removeActiveRulesOnStillExistingRepositories(dbSession, removedRules, context);
+      List<RuleDefinitionDto> removedRules = processRemainingDbRules(allRules.values(), dbSession, batchDbSession);
+      List<ActiveRuleChange> activeRuleChanges = removeActiveRulesOnStillExistingRepositories(dbSession, removedRules, context);
       dbSession.commit();
       keysToIndex.addAll(removedRules.stream().map(RuleDefinitionDto::getKey).collect(Collectors.toList()));
 
       persistRepositories(dbSession, context.repositories());
       ruleIndexer.commitAndIndex(dbSession, keysToIndex);
-      activeRuleIndexer.commitAndIndex(dbSession, changes);
-      profiler.stopDebug();
+      activeRuleIndexer.commitAndIndex(dbSession, activeRuleChanges);
+      profiler.stopInfo();
 
       webServerRuleFinder.startCaching();
     }
@@ -153,7 +161,13 @@ public class RegisterRules implements Startable {
     // nothing
   }
 
-  private boolean registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDefinitionDto> allRules, DbSession session) {
+  /**
+   * Rules and params are inserted with {@code session} as their generated ids are needed right away. Updates and
+   * deletions of existing rows are recorded in {@code changes}, to be executed with JDBC batches once the inserts
+   * of the repository are committed.
+   */
+  private boolean registerRule(RulesDefinition.Rule ruleDef, Map<RuleKey, RuleDefinitionDto> allRules, Map<Integer, List<RuleParamDto>> allRuleParams,
+    RegistrationChanges changes, DbSession session) {
     RuleKey ruleKey = RuleKey.of(ruleDef.repository().key(), ruleDef.key());
 
     RuleDefinitionDto existingRule = allRules.remove(ruleKey);
@@ -180,11 +194,14 @@ public class RegisterRules implements Startable {
       executeUpdate = true;
     }
 
-    if (executeUpdate) {
+    if (executeUpdate && newRule) {
       update(session, rule);
+    } else if (executeUpdate) {
+      changes.batchedStatements.add(batchSession -> update(batchSession, existingRule));
     }
 
-    mergeParams(ruleDef, rule, session);
+    List<RuleParamDto> existingParams = newRule ? Collections.emptyList() : allRuleParams.getOrDefault(rule.getId(), Collections.emptyList());
+    mergeParams(ruleDef, rule, existingParams, changes, session);
     return newRule || executeUpdate;
   }
 
@@ -196,6 +213,12 @@ public class RegisterRules implements Startable {
     return rules;
   }
 
+  private Map<Integer, List<RuleParamDto>> loadRuleParams(DbSession session) {
+    return dbClient.ruleDao().selectAllRuleParams(session)
+      .stream()
+      .collect(Collectors.groupingBy(RuleParamDto::getRuleId));
+  }
+
   private List<RulesDefinition.ExtendedRepository> getRepositories(RulesDefinition.Context context) {
     List<RulesDefinition.ExtendedRepository> repositories = new ArrayList<>();
     for (RulesDefinition.Repository repoDef : context.repositories()) {
@@ -332,21 +355,17 @@ public class RegisterRules implements Startable {
     return changed;
   }
 
-  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDefinitionDto rule, DbSession session) {
-    List<RuleParamDto> paramDtos = dbClient.ruleDao().selectRuleParamsByRuleKey(session, rule.getKey());
+  private void mergeParams(RulesDefinition.Rule ruleDef, RuleDefinitionDto rule, List<RuleParamDto> paramDtos, RegistrationChanges changes,
+    DbSession session) {
     Map<String, RuleParamDto> existingParamsByName = Maps.newHashMap();
 
-    Profiler profiler = Profiler.create(Loggers.get(getClass()));
     for (RuleParamDto paramDto : paramDtos) {
       RulesDefinition.Param paramDef = ruleDef.param(paramDto.getName());
       if (paramDef == null) {
-        profiler.start();
-        dbClient.activeRuleDao().deleteParamsByRuleParamOfAllOrganizations(session, paramDto);
-        profiler.stopDebug(format("Propagate deleted param with name %s to active rules of rule %s", paramDto.getName(), rule.getKey()));
-        dbClient.ruleDao().deleteRuleParam(session, paramDto.getId());
+        changes.deletedParams.add(paramDto);
       } else {
         if (mergeParam(paramDto, paramDef)) {
-          dbClient.ruleDao().updateRuleParam(session, rule, paramDto);
+          changes.batchedStatements.add(batchSession -> dbClient.ruleDao().updateRuleParam(batchSession, rule, paramDto));
         }
         existingParamsByName.put(paramDto.getName(), paramDto);
       }
@@ -364,17 +383,56 @@ public class RegisterRules implements Startable {
         .setDefaultValue(param.defaultValue())
         .setType(param.type().toString());
       dbClient.ruleDao().insertRuleParam(session, rule, paramDto);
-      if (StringUtils.isEmpty(param.defaultValue())) {
-        continue;
+      if (!StringUtils.isEmpty(param.defaultValue())) {
+        changes.newParamsWithDefaultValue.add(paramDto);
       }
-      // Propagate the default value to existing active rule parameters
-      profiler.start();
-      for (ActiveRuleDto activeRule : dbClient.activeRuleDao().selectByRuleIdOfAllOrganizations(session, rule.getId())) {
-        ActiveRuleParamDto activeParam = ActiveRuleParamDto.createFor(paramDto).setValue(param.defaultValue());
+    }
+  }
+
+  /**
+   * Deleted params are removed from active rules and new params propagate their default value to existing
+   * active rules. Active rules of all the impacted rules are loaded at once instead of rule by rule.
+   */
+  private void propagateParamChanges(RegistrationChanges changes, DbSession session) {
+    if (changes.deletedParams.isEmpty() && changes.newParamsWithDefaultValue.isEmpty()) {
+      return;
+    }
+    Profiler profiler = Profiler.create(LOG).start();
+    Set<Integer> ruleIds = Stream.concat(changes.deletedParams.stream(), changes.newParamsWithDefaultValue.stream())
+      .map(RuleParamDto::getRuleId)
+      .collect(MoreCollectors.toSet());
+    Map<Integer, List<ActiveRuleDto>> activeRulesByRuleId = dbClient.activeRuleDao().selectByRuleIdsOfAllOrganizations(session, ruleIds)
+      .stream()
+      .collect(Collectors.groupingBy(ActiveRuleDto::getRuleId));
+
+    List<Integer> activeRuleIds = changes.deletedParams.stream()
+      .flatMap(param -> activeRulesByRuleId.getOrDefault(param.getRuleId(), Collections.emptyList()).stream())
+      .map(ActiveRuleDto::getId)
+      .distinct()
+      .collect(MoreCollectors.toList());
+    Map<Integer, List<ActiveRuleParamDto>> activeParamsByActiveRuleId = dbClient.activeRuleDao().selectParamsByActiveRuleIds(session, activeRuleIds)
+      .stream()
+      .collect(Collectors.groupingBy(ActiveRuleParamDto::getActiveRuleId));
+    for (RuleParamDto param : changes.deletedParams) {
+      for (ActiveRuleDto activeRule : activeRulesByRuleId.getOrDefault(param.getRuleId(), Collections.emptyList())) {
+        activeParamsByActiveRuleId.getOrDefault(activeRule.getId(), Collections.emptyList())
+          .stream()
+          .filter(activeParam -> activeParam.getKey().equals(param.getName()))
+          .forEach(activeParam -> changes.batchedStatements.add(batchSession -> dbClient.activeRuleDao().deleteParamById(batchSession, activeParam.getId())));
+      }
+      changes.batchedStatements.add(batchSession -> dbClient.ruleDao().deleteRuleParam(batchSession, param.getId()));
+    }
+
+    for (RuleParamDto param : changes.newParamsWithDefaultValue) {
+      for (ActiveRuleDto activeRule : activeRulesByRuleId.getOrDefault(param.getRuleId(), Collections.emptyList())) {
+        ActiveRuleParamDto activeParam = ActiveRuleParamDto.createFor(param).setValue(param.getDefaultValue());
         dbClient.activeRuleDao().insertParam(session, activeRule, activeParam);
       }
-      profiler.stopDebug(format("Propagate new param with name %s to active rules of rule %s", paramDto.getName(), rule.getKey()));
     }
+    profiler.stopDebug(format("Propagate %d deleted and %d new params to %d active rules", changes.deletedParams.size(),
+      changes.newParamsWithDefaultValue.size(), activeRulesByRuleId.values().stream().mapToInt(List::size).sum()));
+    changes.deletedParams.clear();
+    changes.newParamsWithDefaultValue.clear();
   }
 
   private boolean mergeParam(RuleParamDto paramDto, RulesDefinition.Param paramDef) {
@@ -410,7 +468,7 @@ public class RegisterRules implements Startable {
     return changed;
   }
 
-  private List<RuleDefinitionDto> processRemainingDbRules(Collection<RuleDefinitionDto> existingRules, DbSession session) {
+  private List<RuleDefinitionDto> processRemainingDbRules(Collection<RuleDefinitionDto> existingRules, DbSession session, DbSession batchSession) {
     // custom rules check status of template, so they must be processed at the end
     List<RuleDefinitionDto> customRules = newArrayList();
     List<RuleDefinitionDto> removedRules = newArrayList();
@@ -419,9 +477,11 @@ public class RegisterRules implements Startable {
       if (rule.isCustomRule()) {
         customRules.add(rule);
       } else if (rule.getStatus() != RuleStatus.REMOVED) {
-        removeRule(session, removedRules, rule);
+        removeRule(batchSession, removedRules, rule);
       }
     }
+    // status of templates is read from the other session
+    batchSession.commit();
 
     for (RuleDefinitionDto customRule : customRules) {
       Integer templateId = customRule.getTemplateId();
@@ -527,4 +587,18 @@ public class RegisterRules implements Startable {
     dbClient.ruleDao().update(session, rule);
   }
 
+  /**
+   * Changes of a repository which are applied once its new rules and params are inserted
+   */
+  private static class RegistrationChanges {
+    private final List<RuleParamDto> deletedParams = new ArrayList<>();
+    private final List<RuleParamDto> newParamsWithDefaultValue = new ArrayList<>();
+    private final List<Consumer<DbSession>> batchedStatements = new ArrayList<>();
+
+    void executeBatchedStatements(DbSession batchSession) {
+      batchedStatements.forEach(statement -> statement.accept(batchSession));
+      batchSession.commit();
+      batchedStatements.clear();
+    }
+  }
 }
@@ -20,35 +20,115 @@
 package org.sonar.server.setting;
 
 import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sonar.api.Startable;
+import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
-import org.sonar.db.property.PropertyDto;
+import org.sonar.process.Jmx;
 
 import static org.apache.commons.lang.StringUtils.defaultString;
 
-public class DatabaseSettingLoader implements SettingLoader {
+/**
+ * Loads the global settings from database. All the global settings are loaded by a single
+ * request and shared by all the threads of the process. They are reloaded when they are
+ * modified through {@link org.sonar.db.property.PropertiesDao} or, to take into account the changes
+ * done by the other processes of the cluster, when they are older than {@link #MAX_AGE_MS}.
+ */
+public class DatabaseSettingLoader implements SettingLoader, GlobalSettingsCacheMBean, Startable {
+
+  static final String OBJECT_NAME = "SonarQube:name=GlobalSettings";
+  static final long MAX_AGE_MS = 10_000L;
 
   private final DbClient dbClient;
+  private final System2 system2;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong reloads = new AtomicLong();
+  private volatile Snapshot snapshot = null;
 
-  public DatabaseSettingLoader(DbClient dbClient) {
+  public DatabaseSettingLoader(DbClient dbClient, System2 system2) {
     this.dbClient = dbClient;
+    this.system2 = system2;
+  }
+
+  @Override
+  public void start() {
+    Jmx.register(OBJECT_NAME, this);
+  }
+
+  @Override
+  public void stop() {
+    Jmx.unregister(OBJECT_NAME);
   }
 
   @Override
   public String load(String key) {
-    PropertyDto dto = dbClient.propertiesDao().selectGlobalProperty(key);
-    if (dto != null) {
-      return defaultString(dto.getValue());
-    }
-    return null;
+    return getSnapshot().properties.get(key);
   }
 
   @Override
   public void loadAll(ImmutableMap.Builder<String, String> appendTo) {
+    appendTo.putAll(getSnapshot().properties);
+  }
+
+  private Snapshot getSnapshot() {
+    long modificationCounter = dbClient.propertiesDao().getModificationCounter();
+    long now = system2.now();
+    Snapshot current = this.snapshot;
+    if (current != null && current.modificationCounter == modificationCounter && now - current.loadedAt < MAX_AGE_MS) {
+      hits.incrementAndGet();
+      return current;
+    }
+    // concurrent threads may reload at the same time. That's not an issue as they
+    // all get a consistent snapshot.
+    Snapshot loaded = new Snapshot(modificationCounter, now, loadFromDb());
+    this.snapshot = loaded;
+    reloads.incrementAndGet();
+    return loaded;
+  }
+
+  private Map<String, String> loadFromDb() {
+    ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
     try (DbSession dbSession = dbClient.openSession(false)) {
       dbClient.propertiesDao().selectGlobalProperties(dbSession)
-        .forEach(p -> appendTo.put(p.getKey(), defaultString(p.getValue())));
+        .forEach(p -> builder.put(p.getKey(), defaultString(p.getValue())));
     }
+    return builder.build();
   }
 
+  @Override
+  public long getHits() {
+    return hits.get();
+  }
+
+  @Override
+  public long getReloads() {
+    return reloads.get();
+  }
+
+  @Override
+  public double getHitRate() {
+    long h = hits.get();
+    long total = h + reloads.get();
+    return total == 0 ? 0.0 : ((double) h / total);
+  }
+
+  @Override
+  public int getSize() {
+    Snapshot current = this.snapshot;
+    return current == null ? 0 : current.properties.size();
+  }
+
+  private static class Snapshot {
+    private final long modificationCounter;
+    private final long loadedAt;
+    private final Map<String, String> properties;
+
+    private Snapshot(long modificationCounter, long loadedAt, Map<String, String> properties) {
+      this.modificationCounter = modificationCounter;
+      this.loadedAt = loadedAt;
+      this.properties = properties;
+    }
+  }
 }
@@ -0,0 +1,46 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.setting;
+
+/**
+ * Statistics of the cache of global settings, exposed as "SonarQube:name=GlobalSettings"
+ */
+public interface GlobalSettingsCacheMBean {
+
+  /**
+   * Number of settings read from the cache, without requests to database
+   */
+  long getHits();
+
+  /**
+   * Number of times the global settings have been loaded from database
+   */
+  long getReloads();
+
+  /**
+   * Ratio of reads served without reloading settings from database, between 0 and 1
+   */
+  double getHitRate();
+
+  /**
+   * Number of global settings in the cache
+   */
+  int getSize();
+}
@@ -0,0 +1,74 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import com.hazelcast.core.Message;
+import com.hazelcast.core.MessageListener;
+import javax.annotation.CheckForNull;
+import org.picocontainer.Startable;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.process.cluster.hz.HazelcastMember;
+
+import static org.sonar.process.cluster.hz.HazelcastObjects.USER_SESSION_CACHE_INVALIDATED;
+
+/**
+ * {@link UserSessionCache} of cluster mode. Invalidations are published to the other processes of the cluster, so that
+ * Web Servers do not keep outdated users and permissions.
+ */
+public class ClusterUserSessionCache extends UserSessionCache implements MessageListener<String>, Startable {
+
+  private final HazelcastMember hazelcastMember;
+
+  @CheckForNull
+  private String registrationId;
+
+  public ClusterUserSessionCache(Configuration config, System2 system2, DbClient dbClient, HazelcastMember hazelcastMember) {
+    super(config, system2, dbClient);
+    this.hazelcastMember = hazelcastMember;
+  }
+
+  @Override
+  public void start() {
+    this.registrationId = hazelcastMember.<String>getTopic(USER_SESSION_CACHE_INVALIDATED).addMessageListener(this);
+  }
+
+  @Override
+  public void stop() {
+    if (registrationId != null) {
+      hazelcastMember.getTopic(USER_SESSION_CACHE_INVALIDATED).removeMessageListener(registrationId);
+      registrationId = null;
+    }
+  }
+
+  @Override
+  void invalidate() {
+    super.invalidate();
+    hazelcastMember.<String>getTopic(USER_SESSION_CACHE_INVALIDATED).publish(hazelcastMember.getUuid());
+  }
+
+  @Override
+  public void onMessage(Message<String> message) {
+    if (!hazelcastMember.getUuid().equals(message.getMessageObject())) {
+      invalidateLocally();
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.server.ServerSide;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbClient;
+import org.sonar.db.permission.OrganizationPermission;
+import org.sonar.db.user.UserDto;
+
+/**
+ * Cache of the identities and permissions of users, shared by the HTTP requests of the web server.
+ * It avoids loading again and again the same data from database when the same users, for example
+ * Continuous Integration bots, call web services at a high rate.
+ *
+ * <p>
+ * Entries expire after {@link #TTL_IN_SECONDS_PROPERTY} seconds. The cache is cleared as soon as the DAOs report
+ * that users, tokens, group memberships, permissions or visibility of projects have been updated and committed, whatever
+ * the code path that changed them. Only the values found in database are cached, so that new users and new tokens are
+ * immediately available. Caching is disabled when TTL is zero.
+ * </p>
+ *
+ * <p>
+ * Each call to {@link #getActiveUserByLogin(String, Function)} returns a new copy of the cached {@link UserDto}, so
+ * that requests can not alter the instances shared with other threads.
+ * </p>
+ */
+@ServerSide
+public class UserSessionCache {
+
+  public static final String TTL_IN_SECONDS_PROPERTY = "sonar.web.userSessionCache.ttlInSeconds";
+  static final int DEFAULT_TTL_IN_SECONDS = 10;
+  /**
+   * Maximum number of entries of each kind. All entries of a kind are dropped when this limit is reached.
+   */
+  static final int MAX_ENTRIES = 10_000;
+
+  private final System2 system2;
+  private final DbClient dbClient;
+  private final long ttlMs;
+  private final AtomicLong generation = new AtomicLong();
+  private final AtomicLong databaseModifications = new AtomicLong();
+  private final Cache<String> loginsByTokenHash = new Cache<>();
+  private final Cache<UserDto> activeUsersByLogin = new Cache<>();
+  private final Cache<Set<OrganizationPermission>> organizationPermissions = new Cache<>();
+  private final Cache<Set<String>> projectPermissions = new Cache<>();
+
+  public UserSessionCache(Configuration config, System2 system2, DbClient dbClient) {
+    this.system2 = system2;
+    this.dbClient = dbClient;
+    this.ttlMs = 1_000L * config.getInt(TTL_IN_SECONDS_PROPERTY).orElse(DEFAULT_TTL_IN_SECONDS);
+  }
+
+  /**
+   * @param loader returns the login of the user owning the token, {@code null} if token does not exist
+   */
+  @CheckForNull
+  public String getLoginByTokenHash(String tokenHash, Function<String, String> loader) {
+    return loginsByTokenHash.get(tokenHash, loader);
+  }
+
+  /**
+   * @param loader returns the active user with the given login, {@code null} if not found
+   */
+  @CheckForNull
+  public UserDto getActiveUserByLogin(String login, Function<String, UserDto> loader) {
+    UserDto user = activeUsersByLogin.get(login, loader);
+    return user == null ? null : user.copy();
+  }
+
+  public Set<OrganizationPermission> getOrganizationPermissions(@Nullable Integer userId, String organizationUuid,
+    Function<String, Set<OrganizationPermission>> loader) {
+    return organizationPermissions.get(permissionKey(userId, organizationUuid), k -> loader.apply(organizationUuid));
+  }
+
+  public Set<String> getProjectPermissions(@Nullable Integer userId, String projectUuid, Function<String, Set<String>> loader) {
+    return projectPermissions.get(permissionKey(userId, projectUuid), k -> loader.apply(projectUuid));
+  }
+
+  private static String permissionKey(@Nullable Integer userId, String uuid) {
+    // anonymous is identified by an empty user id
+    return (userId == null ? "" : userId.toString()) + ":" + uuid;
+  }
+
+  /**
+   * Clears the cache when a table it depends on has been modified by this process since last call.
+   */
+  private void invalidateIfDatabaseModified() {
+    long known = databaseModifications.get();
+    long current = countDatabaseModifications();
+    if (current != known && databaseModifications.compareAndSet(known, current)) {
+      invalidate();
+    }
+  }
+
+  private long countDatabaseModifications() {
+    // the counters are monotonic, so their sum changes as soon as one of them changes
+    return dbClient.userDao().getModificationCounter()
+      + dbClient.userTokenDao().getModificationCounter()
+      + dbClient.userGroupDao().getModificationCounter()
+      + dbClient.userPermissionDao().getModificationCounter()
+      + dbClient.groupPermissionDao().getModificationCounter()
+      + dbClient.roleDao().getModificationCounter()
+      + dbClient.componentDao().getVisibilityModificationCounter();
+  }
+
+  /**
+   * Clears the cache.
+   */
+  void invalidate() {
+    invalidateLocally();
+  }
+
+  void invalidateLocally() {
+    generation.incrementAndGet();
+    loginsByTokenHash.clear();
+    activeUsersByLogin.clear();
+    organizationPermissions.clear();
+    projectPermissions.clear();
+  }
+
+  private class Cache<V> {
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    @CheckForNull
+    V get(String key, Function<String, V> loader) {
+      if (ttlMs <= 0) {
+        return loader.apply(key);
+      }
+      invalidateIfDatabaseModified();
+      long now = system2.now();
+      Entry<V> entry = entries.get(key);
+      if (entry != null && entry.expiresAt > now) {
+        return entry.value;
+      }
+      long loadedGeneration = generation.get();
+      V value = loader.apply(key);
+      if (value != null) {
+        if (entries.size() >= MAX_ENTRIES) {
+          entries.clear();
+        }
+        entries.put(key, new Entry<>(value, now + ttlMs));
+        if (generation.get() != loadedGeneration) {
+          // cache has been invalidated while loading, value may be outdated
+          entries.remove(key);
+        }
+      }
+      return value;
+    }
+
+    void clear() {
+      entries.clear();
+    }
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long expiresAt;
+
+    private Entry(V value, long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
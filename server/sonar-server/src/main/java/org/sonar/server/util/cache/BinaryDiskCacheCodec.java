@@ -0,0 +1,261 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.util.cache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.sonar.core.util.CloseableIterator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact binary encoding. Each object is stored as a record prefixed by its length in bytes. Records
+ * can optionally be compressed with LZ4. Subclasses define the fields to be written and read,
+ * in the same order.
+ */
+public abstract class BinaryDiskCacheCodec<O> implements DiskCacheCodec<O> {
+
+  private static final int NULL_LENGTH = -1;
+  private static final int LZ4_BLOCK_SIZE = 64 * 1024;
+
+  private final boolean compressed;
+
+  protected BinaryDiskCacheCodec(boolean compressed) {
+    this.compressed = compressed;
+  }
+
+  protected abstract void writeObject(O object, DataOutput output) throws IOException;
+
+  protected abstract O readObject(DataInput input) throws IOException;
+
+  @Override
+  public void writeHeader(OutputStream output) {
+    // no header, an empty file is a valid empty cache
+  }
+
+  @Override
+  public Encoder<O> newEncoder(OutputStream output) {
+    OutputStream recordsOutput = compressed ? new LZ4BlockOutputStream(output, LZ4_BLOCK_SIZE) : output;
+    return new RecordEncoder(new DataOutputStream(recordsOutput));
+  }
+
+  @Override
+  public CloseableIterator<O> newDecoder(InputStream input) {
+    InputStream recordsInput = compressed ? new Lz4FramesInputStream(input) : input;
+    return new RecordDecoder(new DataInputStream(recordsInput));
+  }
+
+  protected static void writeString(DataOutput output, @Nullable String s) throws IOException {
+    if (s == null) {
+      output.writeInt(NULL_LENGTH);
+    } else {
+      byte[] bytes = s.getBytes(UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  @CheckForNull
+  protected static String readString(DataInput input) throws IOException {
+    int length = input.readInt();
+    if (length == NULL_LENGTH) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  protected static void writeBytes(DataOutput output, byte[] bytes) throws IOException {
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  protected static byte[] readBytes(DataInput input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return bytes;
+  }
+
+  protected static void writeLong(DataOutput output, @Nullable Long l) throws IOException {
+    output.writeBoolean(l != null);
+    if (l != null) {
+      output.writeLong(l);
+    }
+  }
+
+  @CheckForNull
+  protected static Long readLong(DataInput input) throws IOException {
+    return input.readBoolean() ? input.readLong() : null;
+  }
+
+  protected static void writeDate(DataOutput output, @Nullable Date date) throws IOException {
+    writeLong(output, date == null ? null : date.getTime());
+  }
+
+  @CheckForNull
+  protected static Date readDate(DataInput input) throws IOException {
+    Long time = readLong(input);
+    return time == null ? null : new Date(time);
+  }
+
+  private class RecordEncoder implements Encoder<O> {
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+    private RecordEncoder(DataOutputStream output) {
+      this.output = output;
+    }
+
+    @Override
+    public void encode(O object) throws IOException {
+      recordBytes.reset();
+      writeObject(object, record);
+      output.writeInt(recordBytes.size());
+      recordBytes.writeTo(output);
+    }
+
+    @Override
+    public void close() throws IOException {
+      output.close();
+    }
+  }
+
+  private class RecordDecoder extends CloseableIterator<O> {
+    private final DataInputStream input;
+    private final RecordInputStream recordBytes = new RecordInputStream();
+    private final DataInputStream record = new DataInputStream(recordBytes);
+
+    private RecordDecoder(DataInputStream input) {
+      this.input = input;
+    }
+
+    @Override
+    protected O doNext() {
+      try {
+        int firstByte = input.read();
+        if (firstByte < 0) {
+          return null;
+        }
+        int length = (firstByte << 24) | (input.readUnsignedByte() << 16) | (input.readUnsignedByte() << 8) | input.readUnsignedByte();
+        recordBytes.fill(input, length);
+        return readObject(record);
+      } catch (EOFException e) {
+        throw new IllegalStateException("Truncated record", e);
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to read record", e);
+      }
+    }
+
+    @Override
+    protected void doClose() {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+  /**
+   * Buffer of the current record, reused from one record to another
+   */
+  private static class RecordInputStream extends ByteArrayInputStream {
+    private RecordInputStream() {
+      super(new byte[1024]);
+    }
+
+    void fill(DataInputStream input, int length) throws IOException {
+      if (buf.length < length) {
+        buf = new byte[Math.max(length, 2 * buf.length)];
+      }
+      input.readFully(buf, 0, length);
+      pos = 0;
+      mark = 0;
+      count = length;
+    }
+  }
+
+  /**
+   * Each appender writes its own LZ4 frame, which ends with an end mark. This stream
+   * reads the successive frames as a single stream.
+   */
+  private static class Lz4FramesInputStream extends InputStream {
+    private final BufferedInputStream source;
+    private InputStream frame = null;
+
+    private Lz4FramesInputStream(InputStream source) {
+      this.source = new BufferedInputStream(source);
+    }
+
+    @Override
+    public int read() throws IOException {
+      while (nextFrame()) {
+        int b = frame.read();
+        if (b >= 0) {
+          return b;
+        }
+        frame = null;
+      }
+      return -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      while (nextFrame()) {
+        int read = frame.read(b, off, len);
+        if (read >= 0) {
+          return read;
+        }
+        frame = null;
+      }
+      return -1;
+    }
+
+    private boolean nextFrame() throws IOException {
+      if (frame == null) {
+        source.mark(1);
+        if (source.read() < 0) {
+          return false;
+        }
+        source.reset();
+        frame = new LZ4BlockInputStream(source);
+      }
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      source.close();
+    }
+  }
+}
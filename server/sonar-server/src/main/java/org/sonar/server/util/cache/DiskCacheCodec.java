@@ -0,0 +1,52 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.util.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.sonar.core.util.CloseableIterator;
+
+/**
+ * Encoding of the objects stored by {@link DiskCache}.
+ */
+public interface DiskCacheCodec<O> {
+
+  /**
+   * Writes the data expected at the beginning of the file. Called once, when the cache is created.
+   */
+  void writeHeader(OutputStream output) throws IOException;
+
+  /**
+   * Encoder appending objects to the end of the file. The stream is closed by the caller.
+   */
+  Encoder<O> newEncoder(OutputStream output) throws IOException;
+
+  /**
+   * Iterates on all the objects of the file, including its header. The stream must be closed
+   * by the returned iterator.
+   */
+  CloseableIterator<O> newDecoder(InputStream input) throws IOException;
+
+  interface Encoder<O> extends Closeable {
+    void encode(O object) throws IOException;
+  }
+}
@@ -158,6 +158,40 @@ public class CeHttpClientTest {
     underTest.refreshCeWorkerCount();
   }
 
+  @Test
+  public void wakeUpCeWorkers_does_nothing_if_CE_is_not_up() {
+    underTest.wakeUpCeWorkers();
+
+    assertThat(server.getRequestCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void wakeUpCeWorkers_throws_ISE_if_http_error() {
+    String message = "blah";
+    server.enqueue(new MockResponse().setResponseCode(500).setBody(message));
+    // initialize registration of process
+    setUpWithHttpUrl(ProcessId.COMPUTE_ENGINE);
+
+    expectedException.expect(IllegalStateException.class);
+    expectedException.expectMessage("Failed to call HTTP server of process " + ProcessId.COMPUTE_ENGINE);
+    expectedException.expectCause(hasType(IOException.class)
+        .andMessage(format("Failed to wake up CE Workers. Code was '500' and response was 'blah' for url " +
+            "'http://%s:%s/wakeUpWorkers'", server.getHostName(), server.getPort())));
+
+    underTest.wakeUpCeWorkers();
+  }
+
+  @Test
+  public void wakeUpCeWorkers_does_not_fail_when_http_code_is_200() throws Exception {
+    server.enqueue(new MockResponse().setResponseCode(200));
+
+    setUpWithHttpUrl(ProcessId.COMPUTE_ENGINE);
+
+    underTest.wakeUpCeWorkers();
+
+    assertThat(server.takeRequest().getPath()).isEqualTo("/wakeUpWorkers");
+  }
+
   private void setUpWithHttpUrl(ProcessId processId) {
     try (DefaultProcessCommands processCommands = DefaultProcessCommands.secondary(ipcSharedDir, processId.getIpcIndex())) {
       processCommands.setUp();
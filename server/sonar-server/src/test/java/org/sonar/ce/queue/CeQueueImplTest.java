@@ -19,6 +19,7 @@
  */
 package org.sonar.ce.queue;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nullable;
@@ -42,6 +43,10 @@ import org.sonar.server.organization.TestDefaultOrganizationProvider;
 import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class CeQueueImplTest {
 
@@ -60,7 +65,9 @@ public class CeQueueImplTest {
   private UuidFactory uuidFactory = UuidFactoryImpl.INSTANCE;
   private DefaultOrganizationProvider defaultOrganizationProvider = TestDefaultOrganizationProvider.from(dbTester);
 
-  private CeQueue underTest = new CeQueueImpl(dbTester.getDbClient(), uuidFactory, defaultOrganizationProvider);
+  private CeTaskSubmitListener submitListener = mock(CeTaskSubmitListener.class);
+
+  private CeQueue underTest = new CeQueueImpl(dbTester.getDbClient(), uuidFactory, defaultOrganizationProvider, new CeTaskSubmitListener[] {submitListener});
 
   @Test
   public void submit_returns_task_populated_from_CeTaskSubmit_and_creates_CeQueue_row() {
@@ -100,6 +107,22 @@ public class CeQueueImplTest {
     submit(CeTaskTypes.REPORT, "PROJECT_1");
   }
 
+  @Test
+  public void submit_notifies_submit_listeners() {
+    submit(CeTaskTypes.REPORT, "PROJECT_1");
+
+    verify(submitListener).onSubmit();
+  }
+
+  @Test
+  public void submit_does_not_fail_when_a_submit_listener_fails() {
+    doThrow(new IllegalStateException("Compute Engine is not reachable")).when(submitListener).onSubmit();
+
+    CeTask task = submit(CeTaskTypes.REPORT, "PROJECT_1");
+
+    assertThat(dbTester.getDbClient().ceQueueDao().selectByUuid(session, task.getUuid())).isPresent();
+  }
+
   @Test
   public void massSubmit_returns_tasks_for_each_CeTaskSubmit_populated_from_CeTaskSubmit_and_creates_CeQueue_row_for_each() {
     CeTaskSubmit taskSubmit1 = createTaskSubmit(CeTaskTypes.REPORT, "PROJECT_1", "rob");
@@ -112,6 +135,14 @@ public class CeQueueImplTest {
     verifyCeTask(taskSubmit2, tasks.get(1), null);
     verifyCeQueueDtoForTaskSubmit(taskSubmit1);
     verifyCeQueueDtoForTaskSubmit(taskSubmit2);
+    verify(submitListener).onSubmit();
+  }
+
+  @Test
+  public void massSubmit_does_not_notify_submit_listeners_when_there_is_no_submission() {
+    underTest.massSubmit(Collections.emptyList());
+
+    verifyZeroInteractions(submitListener);
   }
 
   @Test
@@ -0,0 +1,95 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.ce.queue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.ce.http.CeHttpClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class StandaloneCeTaskSubmitListenerTest {
+
+  private CeHttpClient ceHttpClient = mock(CeHttpClient.class);
+  private StandaloneCeTaskSubmitListener underTest = new StandaloneCeTaskSubmitListener(ceHttpClient);
+
+  @Before
+  public void setUp() {
+    underTest.start();
+  }
+
+  @After
+  public void tearDown() {
+    underTest.stop();
+  }
+
+  @Test
+  public void onSubmit_does_not_wait_for_the_compute_engine() throws Exception {
+    CountDownLatch computeEngineResponds = new CountDownLatch(1);
+    doAnswer(invocation -> computeEngineResponds.await(10, TimeUnit.SECONDS)).when(ceHttpClient).wakeUpCeWorkers();
+
+    underTest.onSubmit();
+
+    computeEngineResponds.countDown();
+    verify(ceHttpClient, timeout(2_000)).wakeUpCeWorkers();
+  }
+
+  @Test
+  public void onSubmit_does_not_fail_when_compute_engine_can_not_be_called() {
+    doThrow(new IllegalStateException("Compute Engine is not reachable")).when(ceHttpClient).wakeUpCeWorkers();
+
+    underTest.onSubmit();
+    verify(ceHttpClient, timeout(2_000)).wakeUpCeWorkers();
+
+    underTest.onSubmit();
+    verify(ceHttpClient, timeout(2_000).times(2)).wakeUpCeWorkers();
+  }
+
+  @Test
+  public void submissions_made_while_a_call_is_waiting_are_notified_by_this_call() throws Exception {
+    CountDownLatch firstCallStarted = new CountDownLatch(1);
+    CountDownLatch computeEngineResponds = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      firstCallStarted.countDown();
+      return computeEngineResponds.await(10, TimeUnit.SECONDS);
+    }).when(ceHttpClient).wakeUpCeWorkers();
+
+    underTest.onSubmit();
+    assertThat(firstCallStarted.await(10, TimeUnit.SECONDS)).isTrue();
+    // first call is in progress, so the next submissions need a single other call
+    underTest.onSubmit();
+    underTest.onSubmit();
+    underTest.onSubmit();
+    computeEngineResponds.countDown();
+
+    verify(ceHttpClient, timeout(2_000).times(2)).wakeUpCeWorkers();
+    Thread.sleep(100);
+    verify(ceHttpClient, times(2)).wakeUpCeWorkers();
+  }
+}
@@ -25,8 +25,10 @@ import org.apache.commons.io.FileUtils;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.utils.ZipUtils;
 import org.sonar.api.utils.internal.JUnitTempFolder;
 import org.sonar.core.util.CloseableIterator;
+import org.sonar.scanner.protocol.output.FileStructure;
 import org.sonar.scanner.protocol.output.ScannerReport;
 import org.sonar.scanner.protocol.output.ScannerReportWriter;
 
@@ -314,4 +316,29 @@ public class BatchReportReaderImplTest {
     assertThat(res).containsExactly(COVERAGE_DETAIL_1, COVERAGE_DETAIL_2);
     res.close();
   }
+
+  @Test
+  public void read_report_from_zip_without_extracting_it() throws IOException {
+    writer.writeMetadata(ScannerReport.Metadata.newBuilder().setAnalysisDate(15000000L).build());
+    writer.writeComponent(COMPONENT);
+    writer.writeComponentIssues(COMPONENT_REF, of(ISSUE));
+    writer.writeTests(COMPONENT_REF, of(TEST_1, TEST_2));
+    FileUtils.writeLines(writer.getFileStructure().fileFor(FileStructure.Domain.SOURCE, COMPONENT_REF), of("A", "B"));
+    File zip = tempFolder.newFile();
+    ZipUtils.zipDir(writer.getFileStructure().root(), zip);
+    BatchReportDirectoryHolderImpl holder = new BatchReportDirectoryHolderImpl();
+    holder.setZipFile(zip);
+    BatchReportReaderImpl zipReader = new BatchReportReaderImpl(holder);
+
+    assertThat(zipReader.readMetadata().getAnalysisDate()).isEqualTo(15000000L);
+    assertThat(zipReader.readComponent(COMPONENT_REF)).isEqualTo(COMPONENT);
+    assertThat(zipReader.readComponentIssues(COMPONENT_REF)).containsExactly(ISSUE);
+    assertThat(zipReader.readComponentMeasures(COMPONENT_REF)).isEmpty();
+    assertThat(zipReader.readChangesets(COMPONENT_REF)).isNull();
+    assertThat(zipReader.readTests(COMPONENT_REF)).containsExactly(TEST_1, TEST_2);
+    assertThat(zipReader.readFileSource(COMPONENT_REF).get()).containsExactly("A", "B");
+    assertThat(zipReader.readFileSource(2)).isEmpty();
+
+    zipReader.stop();
+  }
 }
@@ -19,7 +19,13 @@
  */
 package org.sonar.server.computation.task.projectanalysis.component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -138,6 +144,74 @@ public class ReportVisitorsCrawlerTest {
     new VisitorsCrawler(Arrays.asList(componentVisitor));
   }
 
+  @Test
+  public void thread_safe_visitors_visit_files_concurrently() {
+    ThreadSafeVisitor threadSafeVisitor = new ThreadSafeVisitor(2);
+    Component tree = treeWithManyFiles();
+
+    new VisitorsCrawler(Arrays.asList(threadSafeVisitor, spyPostOrderTypeAwareVisitor), false, 4).visit(tree);
+
+    assertThat(threadSafeVisitor.visitedFiles).hasSize(100);
+    assertThat(threadSafeVisitor.fileThreads).isNotEmpty().doesNotContain(Thread.currentThread().getName());
+  }
+
+  @Test
+  public void other_visitors_visit_files_sequentially_after_thread_safe_visitors() {
+    ThreadSafeVisitor threadSafeVisitor = new ThreadSafeVisitor(1);
+    SequentialVisitor sequentialVisitor = new SequentialVisitor(threadSafeVisitor);
+    TestPathAwareVisitor pathAwareVisitor = new TestPathAwareVisitor(CrawlerDepthLimit.FILE, POST_ORDER) {
+      @Override
+      public void visitFile(Component file, Path<Integer> path) {
+        assertThat(path.current()).isEqualTo(file.getReportAttributes().getRef());
+        assertThat(path.parent()).isIn(10, 11);
+        assertThat(threadSafeVisitor.visitedFiles).contains(file);
+      }
+    };
+    Component tree = treeWithManyFiles();
+
+    new VisitorsCrawler(Arrays.asList(threadSafeVisitor, sequentialVisitor, pathAwareVisitor), false, 4).visit(tree);
+
+    assertThat(sequentialVisitor.visitedFiles).hasSize(100);
+    assertThat(sequentialVisitor.fileThreads).containsOnly(Thread.currentThread().getName());
+  }
+
+  @Test
+  public void files_are_visited_by_the_crawler_thread_when_no_visitor_is_thread_safe() {
+    SequentialVisitor sequentialVisitor = new SequentialVisitor(null);
+
+    new VisitorsCrawler(Arrays.asList(spyPreOrderTypeAwareVisitor, sequentialVisitor), false, 4).visit(treeWithManyFiles());
+
+    assertThat(sequentialVisitor.visitedFiles).hasSize(100);
+    assertThat(sequentialVisitor.fileThreads).containsOnly(Thread.currentThread().getName());
+  }
+
+  @Test
+  public void failure_of_concurrent_visit_of_file_is_propagated() {
+    ThreadSafeVisitor failingVisitor = new ThreadSafeVisitor(1) {
+      @Override
+      public void visitFile(Component file) {
+        throw new IllegalArgumentException("failure");
+      }
+    };
+
+    thrown.expect(VisitException.class);
+    thrown.expectMessage("Visit of Component {key=key_100,type=FILE} failed");
+
+    new VisitorsCrawler(Arrays.asList(failingVisitor), false, 4).visit(component(DIRECTORY, 2, component(FILE, 100), component(FILE, 101)));
+  }
+
+  private static Component treeWithManyFiles() {
+    Component[] directories = new Component[2];
+    for (int d = 0; d < directories.length; d++) {
+      Component[] files = new Component[50];
+      for (int f = 0; f < files.length; f++) {
+        files[f] = component(FILE, 100 + d * 50 + f);
+      }
+      directories[d] = component(DIRECTORY, 10 + d, files);
+    }
+    return component(PROJECT, 1, component(MODULE, 2, directories));
+  }
+
   private static Component component(final Component.Type type, final int ref, final Component... children) {
     return ReportComponent.builder(type, ref).addChildren(children).build();
   }
@@ -149,6 +223,58 @@ public class ReportVisitorsCrawlerTest {
     }
   }
 
+  private static class ThreadSafeVisitor extends TypeAwareVisitorAdapter {
+    private final Set<Component> visitedFiles = ConcurrentHashMap.newKeySet();
+    private final Set<String> fileThreads = ConcurrentHashMap.newKeySet();
+    /**
+     * Visits of files are blocked until the given number of files are being visited at the same time
+     */
+    private final CountDownLatch concurrentVisits;
+
+    ThreadSafeVisitor(int concurrentVisits) {
+      super(CrawlerDepthLimit.FILE, PRE_ORDER);
+      this.concurrentVisits = new CountDownLatch(concurrentVisits);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+      return true;
+    }
+
+    @Override
+    public void visitFile(Component file) {
+      visitedFiles.add(file);
+      fileThreads.add(Thread.currentThread().getName());
+      concurrentVisits.countDown();
+      try {
+        assertThat(concurrentVisits.await(10, TimeUnit.SECONDS)).isTrue();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static class SequentialVisitor extends TypeAwareVisitorAdapter {
+    private final ThreadSafeVisitor previousVisitor;
+    private final List<Component> visitedFiles = new ArrayList<>();
+    private final Set<String> fileThreads = ConcurrentHashMap.newKeySet();
+
+    SequentialVisitor(ThreadSafeVisitor previousVisitor) {
+      super(CrawlerDepthLimit.FILE, POST_ORDER);
+      this.previousVisitor = previousVisitor;
+    }
+
+    @Override
+    public void visitFile(Component file) {
+      if (previousVisitor != null) {
+        assertThat(previousVisitor.visitedFiles).contains(file);
+      }
+      visitedFiles.add(file);
+      fileThreads.add(Thread.currentThread().getName());
+    }
+  }
+
   private static class TestPathAwareVisitor extends PathAwareVisitorAdapter<Integer> {
 
     public TestPathAwareVisitor(CrawlerDepthLimit maxDepth, ComponentVisitor.Order order) {
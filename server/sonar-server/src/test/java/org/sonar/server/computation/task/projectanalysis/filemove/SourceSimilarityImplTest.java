@@ -19,6 +19,7 @@
  */
 package org.sonar.server.computation.task.projectanalysis.filemove;
 
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.Rule;
 import org.junit.Test;
@@ -59,4 +60,36 @@ public class SourceSimilarityImplTest {
   public void two_empty_lists_are_not_considered_as_equal() {
     assertThat(underTest.score(emptyList(), emptyList())).isEqualTo(0);
   }
+
+  @Test
+  public void score_with_min_score_is_same_as_score_when_greater_than_min_score() {
+    assertThat(underTest.score(asList("a", "b", "c", "d"), asList("a", "b", "e", "f"), 50)).isEqualTo(50);
+    assertThat(underTest.score(asList("a", "b", "c", "d"), asList("a", "b", "e", "f"), 0)).isEqualTo(50);
+    assertThat(underTest.score(asList("a", "b", "c"), asList("a", "b", "c"), 100)).isEqualTo(100);
+  }
+
+  @Test
+  public void score_with_min_score_is_zero_when_lower_than_min_score() {
+    assertThat(underTest.score(asList("a", "b", "c", "d"), asList("a", "b", "e", "f"), 51)).isEqualTo(0);
+    assertThat(underTest.score(asList("a"), asList("a", "b", "c"), 34)).isEqualTo(0);
+    assertThat(underTest.score(asList("a", "b", "c", "d"), asList("b", "c", "d", "a"), 85)).isEqualTo(0);
+  }
+
+  @Test
+  public void score_with_min_score_of_large_lists() {
+    List<Integer> left = new ArrayList<>();
+    List<Integer> right = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      left.add(i);
+      // one line out of 10 modified, one line out of 20 removed
+      if (i % 10 == 0) {
+        right.add(-i);
+      } else if (i % 20 != 5) {
+        right.add(i);
+      }
+    }
+
+    assertThat(underTest.score(left, right, 85)).isEqualTo(underTest.score(left, right)).isEqualTo(85);
+    assertThat(underTest.score(left, right, 86)).isEqualTo(0);
+  }
 }
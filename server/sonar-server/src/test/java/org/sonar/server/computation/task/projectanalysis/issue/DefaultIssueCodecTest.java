@@ -0,0 +1,237 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.issue;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.File;
+import java.util.Date;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.utils.Duration;
+import org.sonar.api.utils.System2;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonar.core.issue.DefaultIssueComment;
+import org.sonar.core.issue.FieldDiffs;
+import org.sonar.core.issue.IssueChangeContext;
+import org.sonar.core.util.CloseableIterator;
+import org.sonar.db.protobuf.DbCommons;
+import org.sonar.db.protobuf.DbIssues;
+import org.sonar.server.util.cache.DiskCache;
+
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class DefaultIssueCodecTest {
+
+  private static final Date DATE_1 = new Date(1_500_000_000_000L);
+  private static final Date DATE_2 = new Date(1_500_000_100_000L);
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void write_and_read_all_fields() throws Exception {
+    DefaultIssue issue = newIssue();
+
+    DefaultIssue read = writeAndRead(issue, true);
+
+    assertThat(read.key()).isEqualTo("ISSUE_KEY");
+    assertThat(read.type()).isEqualTo(RuleType.BUG);
+    assertThat(read.componentUuid()).isEqualTo("FILE_UUID");
+    assertThat(read.componentKey()).isEqualTo("FILE_KEY");
+    assertThat(read.moduleUuid()).isEqualTo("MODULE_UUID");
+    assertThat(read.moduleUuidPath()).isEqualTo(".MODULE_UUID.");
+    assertThat(read.projectUuid()).isEqualTo("PROJECT_UUID");
+    assertThat(read.projectKey()).isEqualTo("PROJECT_KEY");
+    assertThat(read.ruleKey()).isEqualTo(RuleKey.of("java", "S001"));
+    assertThat(read.language()).isEqualTo("java");
+    assertThat(read.severity()).isEqualTo(Severity.BLOCKER);
+    assertThat(read.manualSeverity()).isTrue();
+    assertThat(read.message()).isEqualTo("the message");
+    assertThat(read.line()).isEqualTo(42);
+    assertThat(read.gap()).isEqualTo(2.5);
+    assertThat(read.effort()).isEqualTo(Duration.create(10L));
+    assertThat(read.status()).isEqualTo("RESOLVED");
+    assertThat(read.resolution()).isEqualTo("FIXED");
+    assertThat(read.assignee()).isEqualTo("simon");
+    assertThat(read.checksum()).isEqualTo("CHECKSUM");
+    assertThat(read.authorLogin()).isEqualTo("julien");
+    assertThat(read.creationDate()).isEqualTo(DATE_1);
+    assertThat(read.updateDate()).isEqualTo(DATE_2);
+    assertThat(read.closeDate()).isEqualTo(DATE_2);
+    assertThat(read.selectedAt()).isEqualTo(123L);
+    assertThat(read.isNew()).isFalse();
+    assertThat(read.isCopied()).isTrue();
+    assertThat(read.isBeingClosed()).isTrue();
+    assertThat(read.isOnDisabledRule()).isTrue();
+    assertThat(read.isChanged()).isTrue();
+    assertThat(read.mustSendNotifications()).isTrue();
+    assertThat(read.attributes()).containsOnly(entry("JIRA", "FOO-123"));
+    assertThat(read.tags()).containsExactly("security", "cwe");
+    assertThat(read.<DbIssues.Locations>getLocations()).isEqualTo(issue.getLocations());
+
+    assertThat(read.comments()).hasSize(1);
+    DefaultIssueComment comment = (DefaultIssueComment) read.comments().get(0);
+    assertThat(comment.key()).isEqualTo("COMMENT_KEY");
+    assertThat(comment.issueKey()).isEqualTo("ISSUE_KEY");
+    assertThat(comment.userLogin()).isEqualTo("simon");
+    assertThat(comment.markdownText()).isEqualTo("a *comment*");
+    assertThat(comment.createdAt()).isEqualTo(DATE_1);
+    assertThat(comment.updatedAt()).isEqualTo(DATE_2);
+    assertThat(comment.isNew()).isTrue();
+  }
+
+  @Test
+  public void write_and_read_changelog() throws Exception {
+    DefaultIssue issue = newIssue();
+    FieldDiffs previousChange = new FieldDiffs()
+      .setIssueKey("ISSUE_KEY")
+      .setUserLogin("julien")
+      .setCreationDate(DATE_1)
+      .setDiff("effort", 10L, 20L)
+      .setDiff("type", RuleType.CODE_SMELL, RuleType.BUG);
+    issue.addChange(previousChange);
+    IssueChangeContext context = IssueChangeContext.createUser(DATE_2, "simon");
+    issue.setFieldChange(context, "severity", Severity.MAJOR, Severity.BLOCKER);
+    issue.setFieldChange(context, "assignee", null, "simon");
+
+    DefaultIssue read = writeAndRead(issue, false);
+
+    FieldDiffs currentChange = read.currentChange();
+    assertThat(currentChange.userLogin()).isEqualTo("simon");
+    assertThat(currentChange.creationDate()).isEqualTo(DATE_2);
+    assertThat(currentChange.diffs().keySet()).containsExactly("severity", "assignee");
+    assertThat(currentChange.get("severity").oldValue()).isEqualTo(Severity.MAJOR);
+    assertThat(currentChange.get("assignee").oldValue()).isNull();
+    assertThat(currentChange.get("assignee").newValue()).isEqualTo("simon");
+    // same instances as in the original changelog
+    assertThat(read.changes()).hasSize(3);
+    assertThat(read.changes().get(1)).isSameAs(currentChange);
+    assertThat(read.changes().get(2)).isSameAs(currentChange);
+    FieldDiffs readPreviousChange = read.changes().get(0);
+    assertThat(readPreviousChange.issueKey()).isEqualTo("ISSUE_KEY");
+    assertThat(readPreviousChange.get("effort").newValue()).isEqualTo(20L);
+    assertThat(readPreviousChange.get("type").newValue()).isEqualTo(RuleType.BUG);
+  }
+
+  @Test
+  public void write_and_read_issue_with_only_mandatory_fields() throws Exception {
+    DefaultIssue issue = new DefaultIssue().setKey("ISSUE_KEY").setStatus("OPEN");
+
+    DefaultIssue read = writeAndRead(issue, true);
+
+    assertThat(read.key()).isEqualTo("ISSUE_KEY");
+    assertThat(read.status()).isEqualTo("OPEN");
+    assertThat(read.ruleKey()).isNull();
+    assertThat(read.line()).isNull();
+    assertThat(read.gap()).isNull();
+    assertThat(read.effort()).isNull();
+    assertThat(read.isNew()).isTrue();
+    assertThat(read.attributes()).isEmpty();
+    assertThat(read.tags()).isEmpty();
+    assertThat(read.comments()).isEmpty();
+    assertThat(read.changes()).isEmpty();
+    assertThat(read.currentChange()).isNull();
+    assertThat(read.<Object>getLocations()).isNull();
+  }
+
+  @Test
+  public void binary_format_is_smaller_than_java_serialization() throws Exception {
+    File javaFile = temp.newFile();
+    File binaryFile = temp.newFile();
+    DiskCache<DefaultIssue> javaCache = new DiskCache<>(javaFile, System2.INSTANCE);
+    DiskCache<DefaultIssue> binaryCache = new DiskCache<>(binaryFile, System2.INSTANCE, new DefaultIssueCodec(true));
+
+    try (DiskCache<DefaultIssue>.DiskAppender javaAppender = javaCache.newAppender();
+      DiskCache<DefaultIssue>.DiskAppender binaryAppender = binaryCache.newAppender()) {
+      for (int i = 0; i < 100; i++) {
+        DefaultIssue issue = newIssue().setKey("ISSUE_" + i);
+        javaAppender.append(issue);
+        binaryAppender.append(issue);
+      }
+    }
+
+    assertThat(binaryFile.length()).isLessThan(javaFile.length());
+  }
+
+  private DefaultIssue writeAndRead(DefaultIssue issue, boolean compressed) throws Exception {
+    DiskCache<DefaultIssue> cache = new DiskCache<>(temp.newFile(), System2.INSTANCE, new DefaultIssueCodec(compressed));
+    cache.newAppender().append(issue).close();
+    try (CloseableIterator<DefaultIssue> traverse = cache.traverse()) {
+      DefaultIssue read = traverse.next();
+      assertThat(traverse.hasNext()).isFalse();
+      return read;
+    }
+  }
+
+  private static DefaultIssue newIssue() {
+    DbIssues.Locations locations = DbIssues.Locations.newBuilder()
+      .setTextRange(DbCommons.TextRange.newBuilder().setStartLine(42).setEndLine(43))
+      .build();
+    return new DefaultIssue()
+      .setKey("ISSUE_KEY")
+      .setType(RuleType.BUG)
+      .setComponentUuid("FILE_UUID")
+      .setComponentKey("FILE_KEY")
+      .setModuleUuid("MODULE_UUID")
+      .setModuleUuidPath(".MODULE_UUID.")
+      .setProjectUuid("PROJECT_UUID")
+      .setProjectKey("PROJECT_KEY")
+      .setRuleKey(RuleKey.of("java", "S001"))
+      .setLanguage("java")
+      .setSeverity(Severity.BLOCKER)
+      .setManualSeverity(true)
+      .setMessage("the message")
+      .setLine(42)
+      .setGap(2.5)
+      .setEffort(Duration.create(10L))
+      .setStatus("RESOLVED")
+      .setResolution("FIXED")
+      .setAssignee("simon")
+      .setChecksum("CHECKSUM")
+      .setAuthorLogin("julien")
+      .setCreationDate(DATE_1)
+      .setUpdateDate(DATE_2)
+      .setCloseDate(DATE_2)
+      .setSelectedAt(123L)
+      .setNew(false)
+      .setCopied(true)
+      .setBeingClosed(true)
+      .setOnDisabledRule(true)
+      .setChanged(true)
+      .setSendNotifications(true)
+      .setAttributes(ImmutableMap.of("JIRA", "FOO-123"))
+      .setTags(newArrayList("security", "cwe"))
+      .setLocations(locations)
+      .addComment(new DefaultIssueComment()
+        .setKey("COMMENT_KEY")
+        .setIssueKey("ISSUE_KEY")
+        .setUserLogin("simon")
+        .setMarkdownText("a *comment*")
+        .setCreatedAt(DATE_1)
+        .setUpdatedAt(DATE_2)
+        .setNew(true));
+  }
+}
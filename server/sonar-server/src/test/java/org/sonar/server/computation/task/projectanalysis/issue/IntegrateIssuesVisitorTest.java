@@ -29,6 +29,7 @@ import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.issue.Issue;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rule.Severity;
@@ -54,6 +55,8 @@ import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepo
 import org.sonar.server.computation.task.projectanalysis.issue.commonrule.CommonRuleEngineImpl;
 import org.sonar.server.computation.task.projectanalysis.issue.filter.IssueFilter;
 import org.sonar.server.computation.task.projectanalysis.qualityprofile.ActiveRulesHolderRule;
+import org.sonar.server.computation.task.projectanalysis.qualityprofile.QProfileStatusRepository;
+import org.sonar.server.computation.task.projectanalysis.source.PreviousFileSourcesRepositoryImpl;
 import org.sonar.server.computation.task.projectanalysis.source.SourceLinesRepositoryRule;
 
 import static com.google.common.collect.Lists.newArrayList;
@@ -107,6 +110,8 @@ public class IntegrateIssuesVisitorTest {
   @Mock
   private MovedFilesRepository movedFilesRepository;
   @Mock
+  private QProfileStatusRepository qProfileStatusRepository;
+  @Mock
   private IssueLifecycle issueLifecycle;
   @Mock
   private IssueVisitor issueVisitor;
@@ -135,9 +140,10 @@ public class IntegrateIssuesVisitorTest {
     when(movedFilesRepository.getOriginalFile(any(Component.class))).thenReturn(Optional.<MovedFilesRepository.OriginalFile>absent());
 
     TrackerRawInputFactory rawInputFactory = new TrackerRawInputFactory(treeRootHolder, reportReader, fileSourceRepository, new CommonRuleEngineImpl(), issueFilter);
-    TrackerBaseInputFactory baseInputFactory = new TrackerBaseInputFactory(issuesLoader, dbTester.getDbClient(), movedFilesRepository);
+    TrackerBaseInputFactory baseInputFactory = new TrackerBaseInputFactory(issuesLoader,
+      new PreviousFileSourcesRepositoryImpl(dbTester.getDbClient(), treeRootHolder, new MapSettings().asConfig()), movedFilesRepository);
     TrackerMergeBranchInputFactory mergeInputFactory = new TrackerMergeBranchInputFactory(issuesLoader, mergeBranchComponentsUuids, dbTester.getDbClient());
-    tracker = new TrackerExecution(baseInputFactory, rawInputFactory, new Tracker<>());
+    tracker = new TrackerExecution(baseInputFactory, rawInputFactory, new Tracker<>(), movedFilesRepository, qProfileStatusRepository);
     shortBranchTracker = new ShortBranchTrackerExecution(baseInputFactory, rawInputFactory, mergeInputFactory, new Tracker<>());
     mergeBranchTracker = new MergeBranchTrackerExecution(rawInputFactory, mergeInputFactory, new Tracker<>());
 
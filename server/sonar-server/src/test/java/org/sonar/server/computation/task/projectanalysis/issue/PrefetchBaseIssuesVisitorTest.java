@@ -0,0 +1,96 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.issue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.ComponentVisitor;
+import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
+import org.sonar.server.computation.task.projectanalysis.component.VisitorsCrawler;
+import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepository;
+import org.sonar.server.computation.task.projectanalysis.filemove.MutableMovedFilesRepositoryRule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.DIRECTORY;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.FILE;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.MODULE;
+import static org.sonar.server.computation.task.projectanalysis.component.Component.Type.PROJECT;
+
+public class PrefetchBaseIssuesVisitorTest {
+
+  @Rule
+  public MutableMovedFilesRepositoryRule movedFilesRepository = new MutableMovedFilesRepositoryRule();
+
+  private ComponentIssuesLoader issuesLoader = mock(ComponentIssuesLoader.class);
+  private ComponentsWithUnprocessedIssues componentsWithUnprocessedIssues = new ComponentsWithUnprocessedIssues();
+  private PrefetchBaseIssuesVisitor underTest = new PrefetchBaseIssuesVisitor(issuesLoader, componentsWithUnprocessedIssues, movedFilesRepository);
+
+  @Test
+  public void is_thread_safe() {
+    assertThat(underTest.isThreadSafe()).isTrue();
+  }
+
+  @Test
+  public void prefetch_issues_of_files_having_open_issues_concurrently() {
+    Component[] files = new Component[100];
+    Set<String> uuidsWithIssues = new HashSet<>();
+    for (int i = 0; i < files.length; i++) {
+      files[i] = ReportComponent.builder(FILE, 100 + i).build();
+      if (i % 2 == 0) {
+        uuidsWithIssues.add(files[i].getUuid());
+      }
+    }
+    componentsWithUnprocessedIssues.setUuids(uuidsWithIssues);
+    Component project = ReportComponent.builder(PROJECT, 1)
+      .addChildren(ReportComponent.builder(MODULE, 2)
+        .addChildren(ReportComponent.builder(DIRECTORY, 3).addChildren(files).build())
+        .build())
+      .build();
+
+    new VisitorsCrawler(Arrays.<ComponentVisitor>asList(underTest), false, 4).visit(project);
+
+    for (int i = 0; i < files.length; i++) {
+      if (i % 2 == 0) {
+        verify(issuesLoader).prefetch(files[i].getUuid());
+      } else {
+        verify(issuesLoader, never()).prefetch(files[i].getUuid());
+      }
+    }
+  }
+
+  @Test
+  public void prefetch_issues_of_original_file_when_file_is_moved() {
+    Component file = ReportComponent.builder(FILE, 100).build();
+    movedFilesRepository.setOriginalFile(file, new MovedFilesRepository.OriginalFile(4851, "ORIGINAL_UUID", "original file key"));
+    componentsWithUnprocessedIssues.setUuids(new HashSet<>(Arrays.asList("ORIGINAL_UUID", file.getUuid())));
+
+    new VisitorsCrawler(Arrays.<ComponentVisitor>asList(underTest)).visit(file);
+
+    verify(issuesLoader).prefetch("ORIGINAL_UUID");
+    verify(issuesLoader, never()).prefetch(file.getUuid());
+  }
+}
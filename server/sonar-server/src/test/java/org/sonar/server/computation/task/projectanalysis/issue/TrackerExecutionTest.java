@@ -0,0 +1,125 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.issue;
+
+import com.google.common.base.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.sonar.core.issue.DefaultIssue;
+import org.sonar.core.issue.tracking.Input;
+import org.sonar.core.issue.tracking.Tracker;
+import org.sonar.core.issue.tracking.Tracking;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.FileAttributes;
+import org.sonar.server.computation.task.projectanalysis.filemove.MovedFilesRepository;
+import org.sonar.server.computation.task.projectanalysis.qualityprofile.QProfileStatusRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TrackerExecutionTest {
+  @Mock
+  private TrackerRawInputFactory rawInputFactory;
+  @Mock
+  private TrackerBaseInputFactory baseInputFactory;
+  @Mock
+  private Tracker<DefaultIssue, DefaultIssue> tracker;
+  @Mock
+  private MovedFilesRepository movedFilesRepository;
+  @Mock
+  private QProfileStatusRepository qProfileStatusRepository;
+  @Mock
+  private Component component;
+
+  private Input<DefaultIssue> rawInput = mock(Input.class);
+  private Input<DefaultIssue> baseInput = mock(Input.class);
+  private Tracking<DefaultIssue, DefaultIssue> result = mock(Tracking.class);
+
+  private TrackerExecution underTest;
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+    when(rawInputFactory.create(component)).thenReturn(rawInput);
+    when(baseInputFactory.create(component)).thenReturn(baseInput);
+    when(component.getType()).thenReturn(Component.Type.FILE);
+    when(component.getFileAttributes()).thenReturn(new FileAttributes(false, "java", 1));
+    when(movedFilesRepository.getOriginalFile(component)).thenReturn(Optional.absent());
+    when(qProfileStatusRepository.isUnchanged("java")).thenReturn(true);
+    underTest = new TrackerExecution(baseInputFactory, rawInputFactory, tracker, movedFilesRepository, qProfileStatusRepository);
+  }
+
+  @Test
+  public void track_changed_file() {
+    when(component.getStatus()).thenReturn(Component.Status.CHANGED);
+    when(tracker.track(rawInput, baseInput)).thenReturn(result);
+
+    assertThat(underTest.track(component)).isEqualTo(result);
+    verify(tracker, never()).reuseBase(rawInput, baseInput);
+    assertThat(underTest.getUnchangedFilesCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void reuse_base_issues_of_unchanged_file() {
+    when(component.getStatus()).thenReturn(Component.Status.SAME);
+    when(tracker.reuseBase(rawInput, baseInput)).thenReturn(result);
+
+    assertThat(underTest.track(component)).isEqualTo(result);
+    verify(tracker, never()).track(rawInput, baseInput);
+    assertThat(underTest.getUnchangedFilesCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void track_unchanged_file_when_base_issues_can_not_be_reused() {
+    when(component.getStatus()).thenReturn(Component.Status.SAME);
+    when(tracker.reuseBase(rawInput, baseInput)).thenReturn(null);
+    when(tracker.track(rawInput, baseInput)).thenReturn(result);
+
+    assertThat(underTest.track(component)).isEqualTo(result);
+    assertThat(underTest.getUnchangedFilesCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void track_unchanged_file_when_quality_profile_changed() {
+    when(component.getStatus()).thenReturn(Component.Status.SAME);
+    when(qProfileStatusRepository.isUnchanged("java")).thenReturn(false);
+    when(tracker.track(rawInput, baseInput)).thenReturn(result);
+
+    assertThat(underTest.track(component)).isEqualTo(result);
+    verify(tracker, never()).reuseBase(rawInput, baseInput);
+    assertThat(underTest.getUnchangedFilesCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void track_moved_file() {
+    when(component.getStatus()).thenReturn(Component.Status.SAME);
+    when(movedFilesRepository.getOriginalFile(component)).thenReturn(Optional.of(new MovedFilesRepository.OriginalFile(1, "uuid", "key")));
+    when(tracker.track(rawInput, baseInput)).thenReturn(result);
+
+    assertThat(underTest.track(component)).isEqualTo(result);
+    verify(tracker, never()).reuseBase(rawInput, baseInput);
+    assertThat(underTest.getUnchangedFilesCount()).isEqualTo(0);
+  }
+}
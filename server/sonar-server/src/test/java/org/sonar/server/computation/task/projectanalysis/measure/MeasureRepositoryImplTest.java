@@ -34,6 +34,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -89,14 +91,23 @@ public class MeasureRepositoryImplTest {
 
   private DbClient dbClient = dbTester.getDbClient();
   private MetricRepository metricRepository = mock(MetricRepository.class);
-  private MeasureRepositoryImpl underTest = new MeasureRepositoryImpl(dbClient, reportReader, metricRepository, reportMetricValidator);
+  private MeasureRepositoryImpl underTest = new MeasureRepositoryImpl(dbClient, reportReader, metricRepository, reportMetricValidator, configuration());
 
   private DbClient mockedDbClient = mock(DbClient.class);
   private BatchReportReader mockBatchReportReader = mock(BatchReportReader.class);
-  private MeasureRepositoryImpl underTestWithMock = new MeasureRepositoryImpl(mockedDbClient, mockBatchReportReader, metricRepository, reportMetricValidator);
+  private MeasureRepositoryImpl underTestWithMock = new MeasureRepositoryImpl(mockedDbClient, mockBatchReportReader, metricRepository, reportMetricValidator,
+    configuration());
 
   private DbSession dbSession = dbTester.getSession();
 
+  /**
+   * Overridden by {@link MeasureRepositoryImplWithPrimitiveStorageTest} to run the same tests against the primitive storage
+   * of raw measures.
+   */
+  protected Configuration configuration() {
+    return new MapSettings().asConfig();
+  }
+
   @Before
   public void setUp() {
     when(metric1.getKey()).thenReturn(METRIC_KEY_1);
@@ -272,6 +283,40 @@ public class MeasureRepositoryImplTest {
     }).first().get();
   }
 
+  @Test
+  @UseDataProvider("measures")
+  public void getRawMeasure_returns_measure_with_same_values_as_added_measure(Measure measure) {
+    MetricImpl metric = newMetricOfValueType(measure.getValueType());
+
+    underTest.add(FILE_COMPONENT, metric, measure);
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, metric).get()).isEqualToComparingFieldByField(measure);
+    assertThat(underTest.getRawMeasure(OTHER_COMPONENT, metric)).isAbsent();
+  }
+
+  @Test
+  @UseDataProvider("measures")
+  public void getRawMeasure_returns_measure_with_same_values_as_updated_measure(Measure measure) {
+    MetricImpl metric = newMetricOfValueType(measure.getValueType());
+    Measure updatedMeasure = Measure.updatedMeasureBuilder(measure).setVariation(2d).create();
+
+    underTest.add(FILE_COMPONENT, metric, measure);
+    underTest.update(FILE_COMPONENT, metric, updatedMeasure);
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, metric).get()).isEqualToComparingFieldByField(updatedMeasure);
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT).get(metric.getKey())).hasSize(1);
+  }
+
+  private static MetricImpl newMetricOfValueType(Measure.ValueType valueType) {
+    for (Metric.MetricType metricType : Metric.MetricType.values()) {
+      if (metricType.getValueType() == valueType) {
+        return new MetricImpl(METRIC_ID_1, "key" + metricType, "name" + metricType, metricType);
+      }
+    }
+    // measures without value are accepted by metrics of any type
+    return new MetricImpl(METRIC_ID_1, "key", "name", Metric.MetricType.INT);
+  }
+
   @Test
   public void update_supports_updating_to_the_same_value() {
     underTest.add(FILE_COMPONENT, metric1, SOME_MEASURE);
@@ -0,0 +1,61 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.measure;
+
+import org.junit.Test;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.db.DbClient;
+import org.sonar.server.computation.task.projectanalysis.batch.BatchReportReader;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
+import org.sonar.server.computation.task.projectanalysis.metric.Metric;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricImpl;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricRepository;
+import org.sonar.server.computation.task.projectanalysis.metric.ReportMetricValidator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the tests of {@link MeasureRepositoryImplTest} when raw measures are stored as primitives.
+ */
+public class MeasureRepositoryImplWithPrimitiveStorageTest extends MeasureRepositoryImplTest {
+
+  @Override
+  protected Configuration configuration() {
+    return new MapSettings().setProperty(MeasureRepositoryImpl.PRIMITIVE_STORAGE_PROPERTY, true).asConfig();
+  }
+
+  @Test
+  public void numeric_raw_measures_are_created_when_read() {
+    MeasureRepositoryImpl repository = new MeasureRepositoryImpl(mock(DbClient.class), mock(BatchReportReader.class), mock(MetricRepository.class),
+      mock(ReportMetricValidator.class), configuration());
+    Component file = ReportComponent.builder(Component.Type.FILE, 1).build();
+    Metric intMetric = new MetricImpl(1, "int", "int", Metric.MetricType.INT);
+    Measure measure = Measure.newMeasureBuilder().create(12);
+
+    repository.add(file, intMetric, measure);
+
+    Measure res = repository.getRawMeasure(file, intMetric).get();
+    assertThat(res).isNotSameAs(measure);
+    assertThat(res.getIntValue()).isEqualTo(12);
+  }
+}
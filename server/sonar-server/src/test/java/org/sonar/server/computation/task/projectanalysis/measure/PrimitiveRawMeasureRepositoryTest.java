@@ -0,0 +1,201 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.measure;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.SetMultimap;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.Developer;
+import org.sonar.server.computation.task.projectanalysis.component.DumbDeveloper;
+import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
+import org.sonar.server.computation.task.projectanalysis.metric.Metric;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.guava.api.Assertions.assertThat;
+import static org.sonar.server.computation.task.projectanalysis.measure.Measure.newMeasureBuilder;
+
+public class PrimitiveRawMeasureRepositoryTest {
+  @Rule
+  public ExpectedException expectedException = ExpectedException.none();
+
+  private static final ReportComponent FILE_COMPONENT = ReportComponent.builder(Component.Type.FILE, 1).setKey("file cpt key").build();
+  private static final ReportComponent OTHER_COMPONENT = ReportComponent.builder(Component.Type.FILE, 2).setKey("some other key").build();
+  private static final Developer SOME_DEVELOPER = new DumbDeveloper("DEV1");
+
+  private final Metric intMetric = new MetricImpl(1, "int", "int", Metric.MetricType.INT);
+  private final Metric longMetric = new MetricImpl(2, "long", "long", Metric.MetricType.WORK_DUR);
+  private final Metric doubleMetric = new MetricImpl(3, "double", "double", Metric.MetricType.FLOAT);
+  private final Metric booleanMetric = new MetricImpl(4, "boolean", "boolean", Metric.MetricType.BOOL);
+  private final Metric stringMetric = new MetricImpl(5, "string", "string", Metric.MetricType.STRING);
+
+  private PrimitiveRawMeasureRepository underTest = new PrimitiveRawMeasureRepository(component -> component.getReportAttributes().getRef());
+
+  @Test
+  public void getRawMeasure_returns_numeric_measures_as_added() {
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(12));
+    underTest.add(FILE_COMPONENT, longMetric, newMeasureBuilder().setVariation(-3d).create(Long.MAX_VALUE / 2));
+    underTest.add(FILE_COMPONENT, doubleMetric, newMeasureBuilder().create(1.256d, 2));
+    underTest.add(FILE_COMPONENT, booleanMetric, newMeasureBuilder().create(true));
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get().getIntValue()).isEqualTo(12);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get().hasVariation()).isFalse();
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, longMetric).get().getLongValue()).isEqualTo(newMeasureBuilder().create(Long.MAX_VALUE / 2).getLongValue());
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, longMetric).get().getVariation()).isEqualTo(-3d);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, doubleMetric).get().getDoubleValue()).isEqualTo(1.26d);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, booleanMetric).get().getBooleanValue()).isTrue();
+
+    assertThat(underTest.getRawMeasure(OTHER_COMPONENT, intMetric)).isAbsent();
+  }
+
+  @Test
+  public void getRawMeasure_returns_other_measures_as_added() {
+    Measure stringMeasure = newMeasureBuilder().create("some value");
+    Measure intMeasureWithData = newMeasureBuilder().create(12, "some data");
+    Measure doubleMeasureWithQualityGateStatus = newMeasureBuilder().setQualityGateStatus(new QualityGateStatus(Measure.Level.OK)).create(1d, 1);
+
+    underTest.add(FILE_COMPONENT, stringMetric, stringMeasure);
+    underTest.add(FILE_COMPONENT, intMetric, intMeasureWithData);
+    underTest.add(FILE_COMPONENT, doubleMetric, doubleMeasureWithQualityGateStatus);
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, stringMetric).get()).isSameAs(stringMeasure);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get()).isSameAs(intMeasureWithData);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, doubleMetric).get()).isSameAs(doubleMeasureWithQualityGateStatus);
+  }
+
+  @Test
+  public void getRawMeasure_returns_NO_VALUE_measure() {
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().setVariation(2d).createNoValue());
+
+    Measure measure = underTest.getRawMeasure(FILE_COMPONENT, intMetric).get();
+    assertThat(measure.getValueType()).isEqualTo(Measure.ValueType.NO_VALUE);
+    assertThat(measure.getVariation()).isEqualTo(2d);
+  }
+
+  @Test
+  public void getRawMeasure_ignores_developer_measures() {
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().forDeveloper(SOME_DEVELOPER).create(1));
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric)).isAbsent();
+  }
+
+  @Test
+  public void update_replaces_primitive_measure_by_an_object_measure_and_conversely() {
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(1));
+    Measure withQualityGateStatus = Measure.updatedMeasureBuilder(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get())
+      .setQualityGateStatus(new QualityGateStatus(Measure.Level.ERROR))
+      .create();
+
+    underTest.update(FILE_COMPONENT, intMetric, withQualityGateStatus);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get()).isSameAs(withQualityGateStatus);
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT, intMetric)).hasSize(1);
+
+    underTest.update(FILE_COMPONENT, intMetric, newMeasureBuilder().create(2));
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get().getIntValue()).isEqualTo(2);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get().hasQualityGateStatus()).isFalse();
+    assertThat(underTest.getRawMeasures(FILE_COMPONENT).get(intMetric.getKey())).hasSize(1);
+  }
+
+  @Test
+  public void add_throws_UOE_if_measure_already_exists() {
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(1));
+
+    expectedException.expect(UnsupportedOperationException.class);
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(2));
+  }
+
+  @Test
+  public void update_throws_UOE_if_measure_does_not_exist() {
+    underTest.add(OTHER_COMPONENT, intMetric, newMeasureBuilder().create(1));
+
+    expectedException.expect(UnsupportedOperationException.class);
+    underTest.update(FILE_COMPONENT, intMetric, newMeasureBuilder().create(2));
+  }
+
+  @Test
+  public void update_throws_IAE_if_valueType_of_Measure_is_not_the_same_as_the_Metric_valueType() {
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(1));
+
+    expectedException.expect(IllegalArgumentException.class);
+    expectedException.expectMessage("Measure's ValueType (DOUBLE) is not consistent with the Metric's ValueType (INT)");
+    underTest.update(FILE_COMPONENT, intMetric, newMeasureBuilder().create(2d, 1));
+  }
+
+  @Test
+  public void add_with_DO_NOT_OVERRIDE_policy_keeps_existing_measure() {
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(1));
+
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(2), MapBasedRawMeasureRepository.OverridePolicy.DO_NOT_OVERRIDE);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get().getIntValue()).isEqualTo(1);
+
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(3), MapBasedRawMeasureRepository.OverridePolicy.OVERRIDE);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get().getIntValue()).isEqualTo(3);
+  }
+
+  @Test
+  public void getRawMeasures_returns_measures_of_component_by_metric_key() {
+    Measure devMeasure = newMeasureBuilder().forDeveloper(SOME_DEVELOPER).create(3);
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(1));
+    underTest.add(FILE_COMPONENT, intMetric, devMeasure);
+    underTest.add(FILE_COMPONENT, stringMetric, newMeasureBuilder().create("foo"));
+    underTest.add(OTHER_COMPONENT, doubleMetric, newMeasureBuilder().create(1d, 1));
+
+    SetMultimap<String, Measure> measures = underTest.getRawMeasures(FILE_COMPONENT);
+    assertThat(measures.keySet()).containsOnly(intMetric.getKey(), stringMetric.getKey());
+    assertThat(measures.get(intMetric.getKey())).hasSize(2).contains(devMeasure);
+    assertThat(measures.get(stringMetric.getKey())).extracting(Measure::getStringValue).containsOnly("foo");
+
+    Set<Measure> intMeasures = underTest.getRawMeasures(FILE_COMPONENT, intMetric);
+    assertThat(intMeasures).hasSize(2).contains(devMeasure);
+    assertThat(underTest.getRawMeasures(OTHER_COMPONENT, intMetric)).isEmpty();
+  }
+
+  @Test
+  public void metrics_sharing_the_same_id_do_not_share_measures() {
+    Metric otherIntMetric = new MetricImpl(intMetric.getId(), "other int", "other int", Metric.MetricType.INT);
+    underTest.add(FILE_COMPONENT, intMetric, newMeasureBuilder().create(1));
+    underTest.add(FILE_COMPONENT, otherIntMetric, newMeasureBuilder().create(2));
+
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, intMetric).get().getIntValue()).isEqualTo(1);
+    assertThat(underTest.getRawMeasure(FILE_COMPONENT, otherIntMetric).get().getIntValue()).isEqualTo(2);
+  }
+
+  @Test
+  public void store_measures_of_many_components() {
+    int components = 100_000;
+    for (int ref = 1; ref <= components; ref++) {
+      Component file = ReportComponent.builder(Component.Type.FILE, ref).build();
+      underTest.add(file, intMetric, newMeasureBuilder().create(ref));
+      underTest.add(file, doubleMetric, newMeasureBuilder().setVariation(ref).create(ref / 10d, 1));
+    }
+
+    for (int ref = 1; ref <= components; ref++) {
+      Component file = ReportComponent.builder(Component.Type.FILE, ref).build();
+      Optional<Measure> doubleMeasure = underTest.getRawMeasure(file, doubleMetric);
+      assertThat(underTest.getRawMeasure(file, intMetric).get().getIntValue()).isEqualTo(ref);
+      assertThat(doubleMeasure.get().getDoubleValue()).isEqualTo(ref / 10d);
+      assertThat(doubleMeasure.get().getVariation()).isEqualTo(ref);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.qualityprofile;
+
+import com.google.common.base.Optional;
+import java.util.Arrays;
+import java.util.Date;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.measures.CoreMetrics;
+import org.sonar.server.computation.task.projectanalysis.analysis.AnalysisMetadataHolderRule;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolderRule;
+import org.sonar.server.computation.task.projectanalysis.measure.Measure;
+import org.sonar.server.computation.task.projectanalysis.measure.MeasureRepository;
+import org.sonar.server.computation.task.projectanalysis.metric.Metric;
+import org.sonar.server.computation.task.projectanalysis.metric.MetricRepository;
+import org.sonar.server.qualityprofile.QPMeasureData;
+import org.sonar.server.qualityprofile.QualityProfile;
+
+import static com.google.common.collect.ImmutableMap.of;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.sonar.api.utils.DateUtils.parseDateTime;
+
+public class QProfileStatusRepositoryTest {
+
+  private static final Date BASE_DATE = parseDateTime("2017-01-01T10:00:00+0000");
+
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+  @Rule
+  public AnalysisMetadataHolderRule analysisMetadataHolder = new AnalysisMetadataHolderRule();
+
+  private MetricRepository metricRepository = mock(MetricRepository.class);
+  private MeasureRepository measureRepository = mock(MeasureRepository.class);
+  private Metric qualityProfileMetric = mock(Metric.class);
+
+  private QProfileStatusRepository underTest = new QProfileStatusRepository(treeRootHolder, analysisMetadataHolder, metricRepository, measureRepository);
+
+  @Before
+  public void setUp() {
+    when(metricRepository.getByKey(CoreMetrics.QUALITY_PROFILES_KEY)).thenReturn(qualityProfileMetric);
+    treeRootHolder.setRoot(ReportComponent.builder(Component.Type.PROJECT, 1).setUuid("uuid").setKey("key").build());
+  }
+
+  @Test
+  public void profile_is_unchanged_if_same_profile_and_same_rules() {
+    mockBaseProfiles(new QualityProfile("qp1", "Sonar way", "java", BASE_DATE));
+    analysisMetadataHolder.setQProfilesByLanguage(of("java", new QualityProfile("qp1", "Sonar way", "java", BASE_DATE)));
+
+    assertThat(underTest.isUnchanged("java")).isTrue();
+  }
+
+  @Test
+  public void profile_is_changed_if_rules_have_been_updated() {
+    mockBaseProfiles(new QualityProfile("qp1", "Sonar way", "java", BASE_DATE));
+    analysisMetadataHolder.setQProfilesByLanguage(of("java", new QualityProfile("qp1", "Sonar way", "java", new Date(BASE_DATE.getTime() + 1_000L))));
+
+    assertThat(underTest.isUnchanged("java")).isFalse();
+  }
+
+  @Test
+  public void profile_is_changed_if_another_profile_is_used() {
+    mockBaseProfiles(new QualityProfile("qp1", "Sonar way", "java", BASE_DATE));
+    analysisMetadataHolder.setQProfilesByLanguage(of("java", new QualityProfile("qp2", "Other way", "java", BASE_DATE)));
+
+    assertThat(underTest.isUnchanged("java")).isFalse();
+  }
+
+  @Test
+  public void profile_is_changed_if_no_profile_for_language() {
+    mockBaseProfiles(new QualityProfile("qp1", "Sonar way", "java", BASE_DATE));
+    analysisMetadataHolder.setQProfilesByLanguage(of("java", new QualityProfile("qp1", "Sonar way", "java", BASE_DATE)));
+
+    assertThat(underTest.isUnchanged("js")).isFalse();
+    assertThat(underTest.isUnchanged(null)).isFalse();
+  }
+
+  @Test
+  public void profile_is_changed_on_first_analysis() {
+    when(measureRepository.getBaseMeasure(treeRootHolder.getRoot(), qualityProfileMetric)).thenReturn(Optional.absent());
+    analysisMetadataHolder.setQProfilesByLanguage(of("java", new QualityProfile("qp1", "Sonar way", "java", BASE_DATE)));
+
+    assertThat(underTest.isUnchanged("java")).isFalse();
+  }
+
+  private void mockBaseProfiles(QualityProfile... profiles) {
+    Measure measure = Measure.newMeasureBuilder().create(QPMeasureData.toJson(new QPMeasureData(Arrays.asList(profiles))));
+    when(measureRepository.getBaseMeasure(treeRootHolder.getRoot(), qualityProfileMetric)).thenReturn(Optional.of(measure));
+  }
+}
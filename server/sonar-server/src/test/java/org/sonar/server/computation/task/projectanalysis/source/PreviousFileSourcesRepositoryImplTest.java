@@ -0,0 +1,191 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.computation.task.projectanalysis.source;
+
+import com.google.common.base.Strings;
+import javax.annotation.Nullable;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.System2;
+import org.sonar.db.DbTester;
+import org.sonar.db.protobuf.DbFileSources;
+import org.sonar.db.source.FileSourceDto;
+import org.sonar.server.computation.task.projectanalysis.component.Component;
+import org.sonar.server.computation.task.projectanalysis.component.ReportComponent;
+import org.sonar.server.computation.task.projectanalysis.component.TreeRootHolderRule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.computation.task.projectanalysis.source.PreviousFileSourcesRepositoryImpl.CACHE_SIZE_PROPERTY;
+
+public class PreviousFileSourcesRepositoryImplTest {
+
+  private static final String PROJECT_UUID = "PROJECT_UUID";
+  private static final String FILE_UUID = "FILE_UUID";
+
+  @Rule
+  public DbTester dbTester = DbTester.create(System2.INSTANCE);
+  @Rule
+  public TreeRootHolderRule treeRootHolder = new TreeRootHolderRule();
+
+  private MapSettings settings = new MapSettings();
+
+  @Before
+  public void setUp() {
+    treeRootHolder.setRoot(ReportComponent.builder(Component.Type.PROJECT, 1).setUuid(PROJECT_UUID)
+      .addChildren(ReportComponent.builder(Component.Type.FILE, 2).setUuid(FILE_UUID).build())
+      .build());
+  }
+
+  @Test
+  public void return_null_when_file_has_no_source() {
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    assertThat(underTest.getHashes(FILE_UUID)).isNull();
+    assertThat(underTest.getSource(FILE_UUID)).isNull();
+    assertThat(underTest.getLineHashes(FILE_UUID)).isNull();
+  }
+
+  @Test
+  public void hashes_and_line_hashes_of_project_are_loaded_by_first_call() {
+    insertSource(PROJECT_UUID, FILE_UUID, "LINE1\nLINE2");
+    insertSource(PROJECT_UUID, "FILE2_UUID", null);
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    assertThat(underTest.getHashes(FILE_UUID).getSrcHash()).isEqualTo("SRC_HASH_" + FILE_UUID);
+    deleteAllSources();
+
+    assertThat(underTest.getLineHashes(FILE_UUID)).containsExactly("LINE1", "LINE2");
+    assertThat(underTest.getLineHashes("FILE2_UUID")).isEmpty();
+    assertThat(underTest.getHashes("FILE2_UUID").getDataHash()).isEqualTo("DATA_HASH_FILE2_UUID");
+  }
+
+  @Test
+  public void binary_data_is_read_from_db_on_demand() {
+    insertSource(PROJECT_UUID, FILE_UUID, "LINE1\nLINE2");
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    assertThat(underTest.getHashes(FILE_UUID)).isNotNull();
+    FileSourceDto source = underTest.getSource(FILE_UUID);
+    assertThat(source.getSrcHash()).isEqualTo("SRC_HASH_" + FILE_UUID);
+    assertThat(source.getSourceData().getLines(0).getSource()).isEqualTo("source of " + FILE_UUID);
+    deleteAllSources();
+
+    assertThat(underTest.getSource(FILE_UUID)).isNull();
+    assertThat(underTest.getHashes(FILE_UUID)).isNotNull();
+  }
+
+  @Test
+  public void line_hashes_are_released_once_read() {
+    insertSource(PROJECT_UUID, FILE_UUID, "LINE1\nLINE2");
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    assertThat(underTest.getLineHashes(FILE_UUID)).containsExactly("LINE1", "LINE2");
+    deleteAllSources();
+
+    // read again from db
+    assertThat(underTest.getLineHashes(FILE_UUID)).isNull();
+    assertThat(underTest.getHashes(FILE_UUID)).isNotNull();
+  }
+
+  @Test
+  public void only_hashes_are_kept_in_memory_when_cache_is_disabled() {
+    settings.setProperty(CACHE_SIZE_PROPERTY, 0);
+    insertSource(PROJECT_UUID, FILE_UUID, "LINE1\nLINE2");
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    assertThat(underTest.getSource(FILE_UUID).getSrcHash()).isEqualTo("SRC_HASH_" + FILE_UUID);
+    assertThat(underTest.getLineHashes(FILE_UUID)).containsExactly("LINE1", "LINE2");
+    deleteAllSources();
+
+    assertThat(underTest.getSource(FILE_UUID)).isNull();
+    assertThat(underTest.getLineHashes(FILE_UUID)).isNull();
+    assertThat(underTest.getHashes(FILE_UUID)).isNotNull();
+  }
+
+  @Test
+  public void data_which_does_not_fit_in_cache_is_read_from_db() {
+    settings.setProperty(CACHE_SIZE_PROPERTY, 1);
+    // line hashes are larger than 1MB
+    insertSource(PROJECT_UUID, FILE_UUID, Strings.repeat("a", 600_000));
+    insertSource(PROJECT_UUID, "FILE2_UUID", "LINE1");
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    assertThat(underTest.getHashes(FILE_UUID).getSrcHash()).isEqualTo("SRC_HASH_" + FILE_UUID);
+    deleteAllSources();
+
+    assertThat(underTest.getHashes(FILE_UUID).getDataHash()).isEqualTo("DATA_HASH_" + FILE_UUID);
+    assertThat(underTest.getHashes("FILE2_UUID").getDataHash()).isEqualTo("DATA_HASH_FILE2_UUID");
+    assertThat(underTest.getSource(FILE_UUID)).isNull();
+    assertThat(underTest.getLineHashes(FILE_UUID)).isNull();
+  }
+
+  @Test
+  public void sources_of_other_projects_are_read_from_db() {
+    insertSource("OTHER_PROJECT_UUID", "OTHER_FILE_UUID", "LINE1");
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    assertThat(underTest.getHashes("OTHER_FILE_UUID")).isNull();
+    assertThat(underTest.getSource("OTHER_FILE_UUID").getSrcHash()).isEqualTo("SRC_HASH_OTHER_FILE_UUID");
+    assertThat(underTest.getLineHashes("OTHER_FILE_UUID")).containsExactly("LINE1");
+  }
+
+  @Test
+  public void getHashes_returns_a_new_instance_without_data() {
+    insertSource(PROJECT_UUID, FILE_UUID, "LINE1");
+    PreviousFileSourcesRepositoryImpl underTest = newRepository();
+
+    FileSourceDto hashes = underTest.getHashes(FILE_UUID);
+    assertThat(hashes.getId()).isNotNull();
+    assertThat(hashes.getBinaryData()).isNull();
+    assertThat(hashes.getLineHashes()).isNull();
+    assertThat(hashes.getRevision()).isEqualTo("REVISION");
+
+    hashes.setDataHash("modified");
+    assertThat(underTest.getHashes(FILE_UUID).getDataHash()).isEqualTo("DATA_HASH_" + FILE_UUID);
+  }
+
+  private PreviousFileSourcesRepositoryImpl newRepository() {
+    return new PreviousFileSourcesRepositoryImpl(dbTester.getDbClient(), treeRootHolder, settings.asConfig());
+  }
+
+  private void insertSource(String projectUuid, String fileUuid, @Nullable String lineHashes) {
+    DbFileSources.Data data = DbFileSources.Data.newBuilder()
+      .addLines(DbFileSources.Line.newBuilder().setLine(1).setSource("source of " + fileUuid))
+      .build();
+    dbTester.getDbClient().fileSourceDao().insert(dbTester.getSession(), new FileSourceDto()
+      .setProjectUuid(projectUuid)
+      .setFileUuid(fileUuid)
+      .setSourceData(data)
+      .setLineHashes(lineHashes)
+      .setDataHash("DATA_HASH_" + fileUuid)
+      .setSrcHash("SRC_HASH_" + fileUuid)
+      .setRevision("REVISION")
+      .setCreatedAt(1_500_000_000_000L)
+      .setUpdatedAt(1_500_000_000_000L));
+    dbTester.commit();
+  }
+
+  private void deleteAllSources() {
+    dbTester.executeUpdateSql("delete from file_sources");
+    dbTester.commit();
+  }
+}
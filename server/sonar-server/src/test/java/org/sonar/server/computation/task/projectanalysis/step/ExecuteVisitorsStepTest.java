@@ -20,9 +20,12 @@
 package org.sonar.server.computation.task.projectanalysis.step;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.log.LogTester;
 import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.server.computation.task.ChangeLogLevel;
@@ -121,6 +124,31 @@ public class ExecuteVisitorsStepTest {
     assertThat(measureRepository.getAddedRawMeasure(ROOT_REF, TEST_METRIC_KEY).get().getIntValue()).isEqualTo(2);
   }
 
+  @Test
+  public void execute_visits_files_in_threads_of_pool_when_visitor_is_thread_safe_and_property_is_set() {
+    Set<String> visitedFiles = ConcurrentHashMap.newKeySet();
+    Set<String> visitingThreads = ConcurrentHashMap.newKeySet();
+    ComponentVisitor threadSafeVisitor = new TypeAwareVisitorAdapter(CrawlerDepthLimit.FILE, ComponentVisitor.Order.PRE_ORDER) {
+      @Override
+      public boolean isThreadSafe() {
+        return true;
+      }
+
+      @Override
+      public void visitFile(Component file) {
+        visitedFiles.add(file.getKey());
+        visitingThreads.add(Thread.currentThread().getName());
+      }
+    };
+    ExecuteVisitorsStep underStep = new ExecuteVisitorsStep(treeRootHolder, singletonList(threadSafeVisitor),
+      new MapSettings().setProperty(ExecuteVisitorsStep.THREADS_PROPERTY, "2").asConfig());
+
+    underStep.execute();
+
+    assertThat(visitedFiles).containsOnly("file1", "file2");
+    assertThat(visitingThreads).isNotEmpty().doesNotContain(Thread.currentThread().getName());
+  }
+
   @Test
   public void execute_logs_at_info_level_all_execution_duration_of_all_visitors() {
     try (ChangeLogLevel executor = new ChangeLogLevel(ExecuteVisitorsStep.class, LoggerLevel.DEBUG);
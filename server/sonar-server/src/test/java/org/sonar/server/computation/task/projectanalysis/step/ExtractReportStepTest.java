@@ -26,6 +26,7 @@ import org.apache.commons.io.FileUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.MessageException;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.ZipUtils;
@@ -87,6 +88,24 @@ public class ExtractReportStepTest {
     assertThat(new File(unzippedDir, "metadata.pb")).hasContent("{metadata}");
   }
 
+  @Test
+  public void copy_report_without_extracting_it_when_reading_from_zip() throws Exception {
+    File reportFile = generateReport();
+    try (InputStream input = FileUtils.openInputStream(reportFile)) {
+      dbTester.getDbClient().ceTaskInputDao().insert(dbTester.getSession(), TASK_UUID, input);
+    }
+    dbTester.getSession().commit();
+    dbTester.getSession().close();
+    MapSettings settings = new MapSettings();
+    settings.setProperty(ExtractReportStep.READ_FROM_ZIP_PROPERTY, true);
+    underTest = new ExtractReportStep(dbTester.getDbClient(), ceTask, tempFolder, reportDirectoryHolder, settings.asConfig());
+
+    underTest.execute();
+
+    File zipFile = reportDirectoryHolder.getZipFile().get();
+    assertThat(zipFile).isFile().hasBinaryContent(FileUtils.readFileToByteArray(reportFile));
+  }
+
   private File generateReport() throws IOException {
     File zipDir = tempFolder.newDir();
     File metadataFile = new File(zipDir, "metadata.pb");
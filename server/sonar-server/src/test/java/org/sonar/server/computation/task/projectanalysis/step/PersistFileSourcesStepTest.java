@@ -24,6 +24,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.sonar.api.config.internal.MapSettings;
 import org.sonar.api.utils.System2;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
@@ -46,6 +47,7 @@ import org.sonar.server.computation.task.projectanalysis.duplication.InnerDuplic
 import org.sonar.server.computation.task.projectanalysis.duplication.TextBlock;
 import org.sonar.server.computation.task.projectanalysis.scm.Changeset;
 import org.sonar.server.computation.task.projectanalysis.scm.ScmInfoRepositoryRule;
+import org.sonar.server.computation.task.projectanalysis.source.PreviousFileSourcesRepositoryImpl;
 import org.sonar.server.computation.task.projectanalysis.source.SourceLinesRepositoryRule;
 import org.sonar.server.computation.task.step.ComputationStep;
 
@@ -91,7 +93,7 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
   public void setup() {
     when(system2.now()).thenReturn(NOW);
     underTest = new PersistFileSourcesStep(dbClient, system2, treeRootHolder, reportReader, fileSourceRepository, scmInfoRepository,
-      duplicationRepository);
+      duplicationRepository, new PreviousFileSourcesRepositoryImpl(dbClient, treeRootHolder, new MapSettings().asConfig()), new MapSettings().asConfig());
   }
 
   @Override
@@ -459,6 +461,45 @@ public class PersistFileSourcesStepTest extends BaseStepTest {
     assertThat(fileSourceDto.getRevision()).isNull();
   }
 
+  @Test
+  public void persist_sources_of_many_files_in_tree_order() {
+    persistSourcesOfManyFiles(underTest);
+  }
+
+  @Test
+  public void persist_sources_of_many_files_with_a_single_thread() {
+    underTest = new PersistFileSourcesStep(dbClient, system2, treeRootHolder, reportReader, fileSourceRepository, scmInfoRepository,
+      duplicationRepository, new PreviousFileSourcesRepositoryImpl(dbClient, treeRootHolder, new MapSettings().asConfig()),
+      new MapSettings().setProperty(PersistFileSourcesStep.THREADS_PROPERTY, "1").asConfig());
+
+    persistSourcesOfManyFiles(underTest);
+  }
+
+  private void persistSourcesOfManyFiles(PersistFileSourcesStep step) {
+    ReportComponent.Builder module = ReportComponent.builder(Component.Type.MODULE, 2).setUuid("MODULE").setKey("MODULE_KEY");
+    int files = 50;
+    for (int i = 0; i < files; i++) {
+      int ref = 10 + i;
+      module.addChildren(ReportComponent.builder(Component.Type.FILE, ref).setUuid("FILE_" + i).setKey("MODULE_KEY:src/Foo" + i + ".java")
+        .setFileAttributes(new FileAttributes(false, null, 2)).build());
+      fileSourceRepository.addLine(ref, "line1 of file " + i);
+      fileSourceRepository.addLine(ref, "line2 of file " + i);
+    }
+    treeRootHolder.setRoot(ReportComponent.builder(Component.Type.PROJECT, 1).setUuid(PROJECT_UUID).setKey(PROJECT_KEY).addChildren(module.build()).build());
+
+    step.execute();
+
+    assertThat(dbTester.countRowsOfTable("file_sources")).isEqualTo(files);
+    for (int i = 0; i < files; i++) {
+      FileSourceDto fileSourceDto = dbClient.fileSourceDao().selectSourceByFileUuid(session, "FILE_" + i);
+      assertThat(fileSourceDto.getProjectUuid()).isEqualTo(PROJECT_UUID);
+      DbFileSources.Data data = fileSourceDto.getSourceData();
+      assertThat(data.getLinesCount()).isEqualTo(2);
+      assertThat(data.getLines(0).getSource()).isEqualTo("line1 of file " + i);
+      assertThat(data.getLines(1).getSource()).isEqualTo("line2 of file " + i);
+    }
+  }
+
   private void initBasicReport(int numberOfLines) {
     treeRootHolder.setRoot(ReportComponent.builder(Component.Type.PROJECT, 1).setUuid(PROJECT_UUID).setKey(PROJECT_KEY).addChildren(
       ReportComponent.builder(Component.Type.MODULE, 2).setUuid("MODULE").setKey("MODULE_KEY").addChildren(
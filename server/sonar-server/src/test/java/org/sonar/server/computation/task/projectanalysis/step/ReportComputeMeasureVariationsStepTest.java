@@ -19,10 +19,13 @@
  */
 package org.sonar.server.computation.task.projectanalysis.step;
 
+import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.utils.System2;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
@@ -58,6 +61,8 @@ public class ReportComputeMeasureVariationsStepTest {
   private static final int PROJECT_REF = 1;
   private static final Component PROJECT = ReportComponent.builder(Component.Type.PROJECT, PROJECT_REF).setUuid(PROJECT_UUID).build();
 
+  @Rule
+  public LogTester logTester = new LogTester().setLevel(LoggerLevel.DEBUG);
   @Rule
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
   @Rule
@@ -144,6 +149,24 @@ public class ReportComputeMeasureVariationsStepTest {
     assertThat(measureRepository.getRawMeasure(directory, ISSUES_METRIC).get().getVariation()).isEqualTo(10d);
   }
 
+  @Test
+  public void log_time_spent_to_load_past_measures_and_to_compute_variations() {
+    SnapshotDto period1Snapshot = newAnalysis(project);
+    dbClient.snapshotDao().insert(session, period1Snapshot);
+    dbClient.measureDao().insert(session, newMeasureDto(ISSUES_METRIC.getId(), PROJECT_UUID, period1Snapshot.getUuid(), 60d));
+    dbClient.measureDao().insert(session, newMeasureDto(DEBT_METRIC.getId(), PROJECT_UUID, period1Snapshot.getUuid(), 10d));
+    session.commit();
+    periodsHolder.setPeriod(newPeriod(period1Snapshot));
+    treeRootHolder.setRoot(PROJECT);
+    addRawMeasure(PROJECT, ISSUES_METRIC, newMeasureBuilder().create(80, null));
+
+    underTest.execute();
+
+    List<String> logs = logTester.logs(LoggerLevel.DEBUG);
+    assertThat(logs.stream().anyMatch(log -> log.matches("2 past measures loaded for 1 components \\| time=\\d+ms"))).isTrue();
+    assertThat(logs.stream().anyMatch(log -> log.matches("Variations computed from past measures \\| time=\\d+ms"))).isTrue();
+  }
+
   @Test
   public void set_zero_variation_when_no_change() {
     // Project
@@ -96,6 +96,23 @@ public class BulkIndexerTest {
     assertThat(replicas()).isEqualTo(1);
   }
 
+  @Test
+  public void statistics_are_updated_after_indexing() {
+    EsClient client = esTester.client();
+    IndexingStatisticsMBean statistics = client.getIndexingStatistics().forIndex(INDEX);
+
+    BulkIndexer indexer = new BulkIndexer(client, INDEX_TYPE_FAKE, Size.LARGE);
+    indexer.start();
+    for (int i = 0; i < 10; i++) {
+      indexer.add(newIndexRequest(i));
+    }
+    indexer.stop();
+
+    assertThat(statistics.getDocuments()).isEqualTo(10);
+    assertThat(statistics.getBytes()).isGreaterThan(0L);
+    assertThat(statistics.getLastBulkBytes()).isGreaterThan(0L);
+  }
+
   @Test
   public void bulk_delete() throws Exception {
     int max = 500;
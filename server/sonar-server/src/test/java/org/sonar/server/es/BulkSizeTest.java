@@ -0,0 +1,90 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BulkSizeTest {
+
+  @Test
+  public void fixed_size_does_not_change() {
+    BulkSize underTest = BulkSize.fixed(1_000L);
+
+    underTest.onBulkCompleted(10_000L);
+    underTest.onRejection();
+    underTest.onBulkCompleted(1L);
+
+    assertThat(underTest.getFlushBytes()).isEqualTo(1_000L);
+  }
+
+  @Test
+  public void adaptive_size_decreases_when_requests_are_slow() {
+    BulkSize underTest = BulkSize.adaptive(4 * BulkSize.MIN_BYTES);
+
+    underTest.onBulkCompleted(BulkSize.TARGET_LATENCY_MS + 1);
+
+    assertThat(underTest.getFlushBytes()).isEqualTo(2 * BulkSize.MIN_BYTES);
+  }
+
+  @Test
+  public void adaptive_size_decreases_when_requests_are_rejected() {
+    BulkSize underTest = BulkSize.adaptive(4 * BulkSize.MIN_BYTES);
+
+    underTest.onRejection();
+
+    assertThat(underTest.getFlushBytes()).isEqualTo(2 * BulkSize.MIN_BYTES);
+  }
+
+  @Test
+  public void adaptive_size_increases_when_requests_are_fast() {
+    BulkSize underTest = BulkSize.adaptive(4 * BulkSize.MIN_BYTES);
+
+    underTest.onBulkCompleted(1L);
+
+    assertThat(underTest.getFlushBytes()).isEqualTo(5 * BulkSize.MIN_BYTES);
+  }
+
+  @Test
+  public void adaptive_size_does_not_change_when_latency_is_close_to_target() {
+    BulkSize underTest = BulkSize.adaptive(4 * BulkSize.MIN_BYTES);
+
+    underTest.onBulkCompleted(BulkSize.TARGET_LATENCY_MS);
+
+    assertThat(underTest.getFlushBytes()).isEqualTo(4 * BulkSize.MIN_BYTES);
+  }
+
+  @Test
+  public void adaptive_size_is_bounded() {
+    BulkSize underTest = BulkSize.adaptive(1L);
+    assertThat(underTest.getFlushBytes()).isEqualTo(BulkSize.MIN_BYTES);
+
+    for (int i = 0; i < 10; i++) {
+      underTest.onRejection();
+    }
+    assertThat(underTest.getFlushBytes()).isEqualTo(BulkSize.MIN_BYTES);
+
+    for (int i = 0; i < 100; i++) {
+      underTest.onBulkCompleted(1L);
+    }
+    assertThat(underTest.getFlushBytes()).isEqualTo(BulkSize.MAX_BYTES);
+  }
+}
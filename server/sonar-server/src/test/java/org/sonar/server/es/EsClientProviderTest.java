@@ -48,6 +48,7 @@ public class EsClientProviderTest {
   public LogTester logTester = new LogTester();
 
   private MapSettings settings = new MapSettings();
+  private IndexingStatistics indexingStatistics = new IndexingStatistics();
   private EsClientProvider underTest = new EsClientProvider();
   private String localhost;
 
@@ -65,7 +66,7 @@ public class EsClientProviderTest {
     settings.setProperty(ProcessProperties.SEARCH_HOST, localhost);
     settings.setProperty(ProcessProperties.SEARCH_PORT, 8080);
 
-    EsClient client = underTest.provide(settings.asConfig());
+    EsClient client = underTest.provide(settings.asConfig(), indexingStatistics);
     TransportClient transportClient = (TransportClient) client.nativeClient();
     assertThat(transportClient.transportAddresses()).hasSize(1);
     TransportAddress address = transportClient.transportAddresses().get(0);
@@ -74,7 +75,7 @@ public class EsClientProviderTest {
     assertThat(logTester.logs(LoggerLevel.INFO)).has(new Condition<>(s -> s.contains("Connected to local Elasticsearch: [" + localhost + ":8080]"), ""));
 
     // keep in cache
-    assertThat(underTest.provide(settings.asConfig())).isSameAs(client);
+    assertThat(underTest.provide(settings.asConfig(), indexingStatistics)).isSameAs(client);
   }
 
   @Test
@@ -83,7 +84,7 @@ public class EsClientProviderTest {
     settings.setProperty(CLUSTER_NODE_TYPE, "application");
     settings.setProperty(CLUSTER_SEARCH_HOSTS, format("%s:8080,%s:8081", localhost, localhost));
 
-    EsClient client = underTest.provide(settings.asConfig());
+    EsClient client = underTest.provide(settings.asConfig(), indexingStatistics);
     TransportClient transportClient = (TransportClient) client.nativeClient();
     assertThat(transportClient.transportAddresses()).hasSize(2);
     TransportAddress address = transportClient.transportAddresses().get(0);
@@ -95,7 +96,7 @@ public class EsClientProviderTest {
     assertThat(logTester.logs(LoggerLevel.INFO)).has(new Condition<>(s -> s.contains("Connected to remote Elasticsearch: [" + localhost + ":8080, " + localhost + ":8081]"), ""));
 
     // keep in cache
-    assertThat(underTest.provide(settings.asConfig())).isSameAs(client);
+    assertThat(underTest.provide(settings.asConfig(), indexingStatistics)).isSameAs(client);
   }
 
   @Test
@@ -107,7 +108,7 @@ public class EsClientProviderTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage(format("Port number out of range: %s:100000", localhost));
 
-    underTest.provide(settings.asConfig());
+    underTest.provide(settings.asConfig(), indexingStatistics);
   }
 
   @Test
@@ -120,7 +121,7 @@ public class EsClientProviderTest {
     expectedException.expect(IllegalArgumentException.class);
     expectedException.expectMessage("Port out of range: 100000");
 
-    underTest.provide(settings.asConfig());
+    underTest.provide(settings.asConfig(), indexingStatistics);
   }
 
   @Test
@@ -129,7 +130,7 @@ public class EsClientProviderTest {
     settings.setProperty(CLUSTER_NODE_TYPE, "application");
     settings.setProperty(CLUSTER_SEARCH_HOSTS, format("%s,%s:8081", localhost, localhost));
 
-    EsClient client = underTest.provide(settings.asConfig());
+    EsClient client = underTest.provide(settings.asConfig(), indexingStatistics);
     TransportClient transportClient = (TransportClient) client.nativeClient();
     assertThat(transportClient.transportAddresses()).hasSize(2);
     TransportAddress address = transportClient.transportAddresses().get(0);
@@ -141,6 +142,6 @@ public class EsClientProviderTest {
     assertThat(logTester.logs(LoggerLevel.INFO)).has(new Condition<>(s -> s.contains("Connected to remote Elasticsearch: [" + localhost + ":9001, " + localhost + ":8081]"), ""));
 
     // keep in cache
-    assertThat(underTest.provide(settings.asConfig())).isSameAs(client);
+    assertThat(underTest.provide(settings.asConfig(), indexingStatistics)).isSameAs(client);
   }
 }
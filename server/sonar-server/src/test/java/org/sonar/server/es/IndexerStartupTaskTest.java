@@ -27,9 +27,14 @@ import org.mockito.Mockito;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.server.es.metadata.MetadataIndex;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.sonar.server.es.FakeIndexDefinition.INDEX_TYPE_FAKE;
@@ -68,6 +73,37 @@ public class IndexerStartupTaskTest {
     verify(metadataIndex).setInitialized(eq(INDEX_TYPE_FAKE), eq(true));
   }
 
+  @Test
+  public void index_in_parallel_if_several_threads_are_configured() throws Exception {
+    settings.setProperty(ParallelIndexing.STARTUP_THREADS_PROPERTY, 2);
+    StartupIndexer otherIndexer = mock(StartupIndexer.class);
+    doReturn(ImmutableSet.of(INDEX_TYPE_FAKE)).when(otherIndexer).getIndexTypes();
+    doReturn(false).when(metadataIndex).getInitialized(INDEX_TYPE_FAKE);
+
+    new IndexerStartupTask(es.client(), settings.asConfig(), metadataIndex, indexer, otherIndexer).execute();
+
+    verify(indexer).indexOnStartup(Mockito.eq(ImmutableSet.of(INDEX_TYPE_FAKE)));
+    verify(otherIndexer).indexOnStartup(Mockito.eq(ImmutableSet.of(INDEX_TYPE_FAKE)));
+    verify(metadataIndex, times(2)).setInitialized(eq(INDEX_TYPE_FAKE), eq(true));
+  }
+
+  @Test
+  public void propagate_failure_of_indexer_executed_in_parallel() throws Exception {
+    settings.setProperty(ParallelIndexing.STARTUP_THREADS_PROPERTY, 2);
+    StartupIndexer otherIndexer = mock(StartupIndexer.class);
+    doReturn(ImmutableSet.of(INDEX_TYPE_FAKE)).when(otherIndexer).getIndexTypes();
+    doReturn(false).when(metadataIndex).getInitialized(INDEX_TYPE_FAKE);
+    IllegalStateException failure = new IllegalStateException("failure");
+    doThrow(failure).when(otherIndexer).indexOnStartup(anySetOf(IndexType.class));
+
+    try {
+      new IndexerStartupTask(es.client(), settings.asConfig(), metadataIndex, indexer, otherIndexer).execute();
+      fail("An exception should have been raised");
+    } catch (IllegalStateException e) {
+      assertThat(e).isSameAs(failure);
+    }
+  }
+
   @Test
   public void do_not_index_if_already_initialized() throws Exception {
     doReturn(true).when(metadataIndex).getInitialized(INDEX_TYPE_FAKE);
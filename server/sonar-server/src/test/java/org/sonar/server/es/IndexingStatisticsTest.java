@@ -0,0 +1,64 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.es;
+
+import java.lang.management.ManagementFactory;
+import javax.annotation.CheckForNull;
+import javax.management.InstanceNotFoundException;
+import javax.management.ObjectInstance;
+import javax.management.ObjectName;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexingStatisticsTest {
+
+  private IndexingStatistics underTest = new IndexingStatistics();
+
+  @Test
+  public void statistics_of_an_index_are_shared_by_indexers() {
+    assertThat(underTest.forIndex("foo")).isSameAs(underTest.forIndex("foo"));
+    assertThat(underTest.forIndex("foo")).isNotSameAs(underTest.forIndex("bar"));
+  }
+
+  @Test
+  public void register_mbeans_while_started() throws Exception {
+    underTest.forIndex("statistics_test_1");
+    assertThat(getMBean("statistics_test_1")).isNull();
+
+    underTest.start();
+    underTest.forIndex("statistics_test_2");
+    assertThat(getMBean("statistics_test_1")).isNotNull();
+    assertThat(getMBean("statistics_test_2")).isNotNull();
+
+    underTest.stop();
+    assertThat(getMBean("statistics_test_1")).isNull();
+    assertThat(getMBean("statistics_test_2")).isNull();
+  }
+
+  @CheckForNull
+  private ObjectInstance getMBean(String index) throws Exception {
+    try {
+      return ManagementFactory.getPlatformMBeanServer().getObjectInstance(new ObjectName("SonarQube:name=Indexing,index=" + index));
+    } catch (InstanceNotFoundException e) {
+      return null;
+    }
+  }
+}
@@ -45,6 +45,7 @@ import org.sonar.db.organization.OrganizationDto;
 import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.server.es.EsTester;
 import org.sonar.server.es.IndexingResult;
+import org.sonar.server.es.ParallelIndexing;
 import org.sonar.server.es.ProjectIndexer;
 import org.sonar.server.permission.index.AuthorizationScope;
 import org.sonar.server.permission.index.PermissionIndexerDao;
@@ -105,6 +106,24 @@ public class IssueIndexerTest {
     assertThatIndexHasOnly(issue1, issue2);
   }
 
+  @Test
+  public void indexOnStartup_scrolls_db_by_project_when_several_threads_are_configured() {
+    MapSettings settings = new MapSettings().setProperty(ParallelIndexing.STARTUP_THREADS_PROPERTY, 3);
+    IssueIndexer underTest = new IssueIndexer(es.client(), db.getDbClient(), new IssueIteratorFactory(db.getDbClient()), settings.asConfig());
+    RuleDefinitionDto rule = db.rules().insert();
+    ComponentDto project = db.components().insertMainBranch(organization);
+    ComponentDto branch = db.components().insertProjectBranch(project);
+    ComponentDto otherProject = db.components().insertPrivateProject(organization);
+    IssueDto issue1 = db.issues().insertIssue(IssueTesting.newIssue(rule, project, db.components().insertComponent(newFileDto(project))));
+    IssueDto issue2 = db.issues().insertIssue(IssueTesting.newIssue(rule, project, project));
+    IssueDto issue3 = db.issues().insertIssue(IssueTesting.newIssue(rule, branch, db.components().insertComponent(newFileDto(branch))));
+    IssueDto issue4 = db.issues().insertIssue(IssueTesting.newIssue(rule, otherProject, otherProject));
+
+    underTest.indexOnStartup(emptySet());
+
+    assertThatIndexHasOnly(issue1, issue2, issue3, issue4);
+  }
+
   @Test
   public void verify_indexed_fields() {
     RuleDefinitionDto rule = db.rules().insert();
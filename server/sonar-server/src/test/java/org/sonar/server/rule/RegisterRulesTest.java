@@ -40,6 +40,9 @@ import org.sonar.db.DbClient;
 import org.sonar.db.DbSession;
 import org.sonar.db.DbTester;
 import org.sonar.db.organization.OrganizationDto;
+import org.sonar.db.qualityprofile.ActiveRuleDto;
+import org.sonar.db.qualityprofile.ActiveRuleParamDto;
+import org.sonar.db.qualityprofile.QProfileDto;
 import org.sonar.db.rule.RuleDefinitionDto;
 import org.sonar.db.rule.RuleDto;
 import org.sonar.db.rule.RuleParamDto;
@@ -60,6 +63,7 @@ import static com.google.common.collect.Sets.newHashSet;
 import static java.util.Collections.singletonList;
 import static org.apache.commons.lang.RandomStringUtils.randomAlphanumeric;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
@@ -293,6 +297,39 @@ public class RegisterRulesTest {
     assertThat(dbClient.ruleRepositoryDao().selectAll(dbTester.getSession())).extracting(RuleRepositoryDto::getKey).containsOnly("fake");
   }
 
+  @Test
+  public void propagate_param_changes_to_active_rules() {
+    execute(new FakeRepositoryV1());
+    RuleDefinitionDto rule1 = dbClient.ruleDao().selectOrFailDefinitionByKey(dbTester.getSession(), RULE_KEY1);
+    QProfileDto profile = dbTester.qualityProfiles().insert(defaultOrganization);
+    ActiveRuleDto activeRule = dbTester.qualityProfiles().activateRule(profile, rule1);
+    for (RuleParamDto param : dbClient.ruleDao().selectRuleParamsByRuleKey(dbTester.getSession(), RULE_KEY1)) {
+      dbClient.activeRuleDao().insertParam(dbTester.getSession(), activeRule, ActiveRuleParamDto.createFor(param).setValue("value of " + param.getName()));
+    }
+    dbTester.getSession().commit();
+
+    execute(new RulesDefinition() {
+      @Override
+      public void define(Context context) {
+        NewRepository repo = context.createRepository("fake", "java");
+        NewRule rule = repo.createRule("rule1")
+          .setName("One")
+          .setHtmlDescription("Description of One");
+        // param1 is updated, param2 is dropped and param3 is new
+        rule.createParam("param1").setDescription("parameter one v2").setDefaultValue("default1");
+        rule.createParam("param3").setDescription("parameter three").setDefaultValue("default3");
+        repo.done();
+      }
+    });
+
+    List<RuleParamDto> params = dbClient.ruleDao().selectRuleParamsByRuleKey(dbTester.getSession(), RULE_KEY1);
+    assertThat(params).extracting(RuleParamDto::getName).containsOnly("param1", "param3");
+    assertThat(getParam(params, "param1").getDescription()).isEqualTo("parameter one v2");
+    assertThat(dbClient.activeRuleDao().selectParamsByActiveRuleId(dbTester.getSession(), activeRule.getId()))
+      .extracting(ActiveRuleParamDto::getKey, ActiveRuleParamDto::getValue)
+      .containsOnly(tuple("param1", "value of param1"), tuple("param3", "default3"));
+  }
+
   @Test
   public void add_new_tag() {
     execute(new RulesDefinition() {
@@ -23,6 +23,7 @@ import com.google.common.collect.ImmutableMap;
 import org.junit.Rule;
 import org.junit.Test;
 import org.sonar.api.utils.System2;
+import org.sonar.api.utils.internal.TestSystem2;
 import org.sonar.db.DbTester;
 import org.sonar.db.property.PropertyDto;
 
@@ -36,7 +37,8 @@ public class DatabaseSettingLoaderTest {
   @Rule
   public DbTester dbTester = DbTester.create(System2.INSTANCE);
 
-  private DatabaseSettingLoader underTest = new DatabaseSettingLoader(dbTester.getDbClient());
+  private TestSystem2 system2 = new TestSystem2().setNow(1_000L);
+  private DatabaseSettingLoader underTest = new DatabaseSettingLoader(dbTester.getDbClient(), system2);
 
   @Test
   public void test_load() {
@@ -74,6 +76,54 @@ public class DatabaseSettingLoaderTest {
   assertThat(map.build()).containsOnly(entry("foo", "1"), entry("bar", "2"));
  }
 
+  @Test
+  public void global_settings_are_loaded_once() {
+    insertPropertyIntoDb("foo", "1");
+    insertPropertyIntoDb("bar", "2");
+
+    assertThat(underTest.load("foo")).isEqualTo("1");
+    assertThat(underTest.load("bar")).isEqualTo("2");
+    assertThat(underTest.load("missing")).isNull();
+
+    assertThat(underTest.getReloads()).isEqualTo(1);
+    assertThat(underTest.getHits()).isEqualTo(2);
+    assertThat(underTest.getHitRate()).isEqualTo(2.0 / 3);
+    assertThat(underTest.getSize()).isEqualTo(2);
+  }
+
+  @Test
+  public void global_settings_are_reloaded_when_modified() {
+    insertPropertyIntoDb(A_KEY, "foo");
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+
+    insertPropertyIntoDb(A_KEY, "bar");
+    assertThat(underTest.load(A_KEY)).isEqualTo("bar");
+
+    dbTester.getDbClient().propertiesDao().deleteGlobalProperty(A_KEY);
+    assertThat(underTest.load(A_KEY)).isNull();
+    assertThat(underTest.getReloads()).isEqualTo(3);
+  }
+
+  @Test
+  public void global_settings_are_reloaded_when_too_old() {
+    insertPropertyIntoDb(A_KEY, "foo");
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+
+    // property is changed by another process
+    dbTester.executeUpdateSql("update properties set text_value=? where prop_key=?", "bar", A_KEY);
+    assertThat(underTest.load(A_KEY)).isEqualTo("foo");
+
+    system2.setNow(1_000L + DatabaseSettingLoader.MAX_AGE_MS);
+    assertThat(underTest.load(A_KEY)).isEqualTo("bar");
+    assertThat(underTest.getReloads()).isEqualTo(2);
+  }
+
+  @Test
+  public void hit_rate_is_zero_when_nothing_is_loaded() {
+    assertThat(underTest.getHitRate()).isEqualTo(0.0);
+    assertThat(underTest.getSize()).isEqualTo(0);
+  }
+
   private void insertPropertyIntoDb(String key, String value) {
     dbTester.getDbClient().propertiesDao().saveProperty(new PropertyDto().setKey(key).setValue(value));
   }
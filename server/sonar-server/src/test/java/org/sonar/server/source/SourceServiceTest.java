@@ -91,6 +91,23 @@ public class SourceServiceTest {
     assertThat(lines).containsExactly("HTML_5", "HTML_6", "HTML_7");
   }
 
+  @Test
+  public void get_range_of_lines_of_source_stored_in_chunks() throws Exception {
+    FileSourceDto dto = new FileSourceDto();
+    dto.setFileUuid("BIG_FILE_UUID").setProjectUuid("PROJECT_UUID");
+    dto.setSourceData(FileSourceTesting.newFakeData(2 * FileSourceDto.LINES_PER_CHUNK + 10).build());
+    dbTester.getDbClient().fileSourceDao().insert(dbTester.getSession(), dto);
+    dbTester.commit();
+
+    int from = FileSourceDto.LINES_PER_CHUNK - 1;
+    Optional<Iterable<String>> linesOpt = underTest.getLinesAsRawText(dbTester.getSession(), "BIG_FILE_UUID", from, from + 3);
+    assertThat(linesOpt.isPresent()).isTrue();
+    assertThat(linesOpt.get()).containsExactly("SOURCE_" + from, "SOURCE_" + (from + 1), "SOURCE_" + (from + 2), "SOURCE_" + (from + 3));
+
+    Optional<Iterable<String>> lastLines = underTest.getLinesAsRawText(dbTester.getSession(), "BIG_FILE_UUID", 2 * FileSourceDto.LINES_PER_CHUNK + 9, Integer.MAX_VALUE);
+    assertThat(lastLines.get()).containsExactly("SOURCE_" + (2 * FileSourceDto.LINES_PER_CHUNK + 9), "SOURCE_" + (2 * FileSourceDto.LINES_PER_CHUNK + 10));
+  }
+
   @Test
   public void getLines_fails_if_range_starts_at_zero() {
     expectedException.expect(IllegalArgumentException.class);
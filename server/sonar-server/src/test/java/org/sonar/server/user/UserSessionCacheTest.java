@@ -0,0 +1,205 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.server.user;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.System2;
+import org.sonar.api.utils.internal.TestSystem2;
+import org.sonar.db.DbTester;
+import org.sonar.db.component.ComponentDto;
+import org.sonar.db.permission.OrganizationPermission;
+import org.sonar.db.user.GroupDto;
+import org.sonar.db.user.UserDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.server.user.UserSessionCache.TTL_IN_SECONDS_PROPERTY;
+
+public class UserSessionCacheTest {
+
+  @Rule
+  public DbTester db = DbTester.create(System2.INSTANCE);
+
+  private TestSystem2 system2 = new TestSystem2().setNow(1_000L);
+  private MapSettings settings = new MapSettings();
+  private UserSessionCache underTest = new UserSessionCache(settings.asConfig(), system2, db.getDbClient());
+  private AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  public void values_are_loaded_once() {
+    UserDto user = new UserDto().setLogin("foo");
+
+    assertThat(underTest.getActiveUserByLogin("foo", countLoads(login -> user)).getLogin()).isEqualTo("foo");
+    assertThat(underTest.getActiveUserByLogin("foo", countLoads(login -> user)).getLogin()).isEqualTo("foo");
+    assertThat(underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"))).isEqualTo("foo");
+    assertThat(underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"))).isEqualTo("foo");
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void each_call_returns_a_copy_of_the_cached_user() {
+    UserDto user = new UserDto().setLogin("foo").setName("Foo");
+
+    UserDto first = underTest.getActiveUserByLogin("foo", login -> user);
+    first.setName("Modified by a request");
+    UserDto second = underTest.getActiveUserByLogin("foo", login -> user);
+
+    assertThat(first).isNotSameAs(user);
+    assertThat(second).isNotSameAs(user).isNotSameAs(first);
+    assertThat(second.getName()).isEqualTo("Foo");
+    assertThat(user.getName()).isEqualTo("Foo");
+  }
+
+  @Test
+  public void missing_values_are_not_cached() {
+    assertThat(underTest.getLoginByTokenHash("hash", countLoads(hash -> null))).isNull();
+    assertThat(underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"))).isEqualTo("foo");
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void values_expire_after_ttl() {
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"));
+
+    system2.setNow(1_000L + UserSessionCache.DEFAULT_TTL_IN_SECONDS * 1_000L - 1);
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"));
+    assertThat(loads.get()).isEqualTo(1);
+
+    system2.setNow(1_000L + UserSessionCache.DEFAULT_TTL_IN_SECONDS * 1_000L);
+    assertThat(underTest.getLoginByTokenHash("hash", countLoads(hash -> "bar"))).isEqualTo("bar");
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void invalidate_clears_all_values() {
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"));
+    underTest.getActiveUserByLogin("foo", countLoads(login -> new UserDto()));
+    underTest.getOrganizationPermissions(10, "org1", countLoads(uuid -> ImmutableSet.of(OrganizationPermission.SCAN)));
+    underTest.getProjectPermissions(10, "prj1", countLoads(uuid -> ImmutableSet.of("user")));
+
+    underTest.invalidate();
+
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"));
+    underTest.getActiveUserByLogin("foo", countLoads(login -> new UserDto()));
+    underTest.getOrganizationPermissions(10, "org1", countLoads(uuid -> ImmutableSet.of(OrganizationPermission.SCAN)));
+    underTest.getProjectPermissions(10, "prj1", countLoads(uuid -> ImmutableSet.of("user")));
+    assertThat(loads.get()).isEqualTo(8);
+  }
+
+  @Test
+  public void values_are_reloaded_after_commit_of_user_permissions() {
+    UserDto user = db.users().insertUser();
+    underTest.getOrganizationPermissions(user.getId(), "org1", countLoads(uuid -> ImmutableSet.of()));
+
+    db.users().insertPermissionOnUser(user, OrganizationPermission.SCAN);
+
+    underTest.getOrganizationPermissions(user.getId(), "org1", countLoads(uuid -> ImmutableSet.of(OrganizationPermission.SCAN)));
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void values_are_reloaded_after_commit_of_group_membership() {
+    UserDto user = db.users().insertUser();
+    GroupDto group = db.users().insertGroup();
+    underTest.getProjectPermissions(user.getId(), "prj1", countLoads(uuid -> ImmutableSet.of()));
+
+    db.users().insertMember(group, user);
+
+    underTest.getProjectPermissions(user.getId(), "prj1", countLoads(uuid -> ImmutableSet.of("user")));
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void values_are_reloaded_after_commit_of_project_visibility() {
+    ComponentDto project = db.components().insertPublicProject();
+    underTest.getProjectPermissions(null, project.uuid(), countLoads(uuid -> ImmutableSet.of("user")));
+
+    db.getDbClient().componentDao().setPrivateForRootComponentUuid(db.getSession(), project.uuid(), true);
+    db.commit();
+
+    underTest.getProjectPermissions(null, project.uuid(), countLoads(uuid -> ImmutableSet.of()));
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void values_are_not_reloaded_until_updates_are_committed() {
+    UserDto user = db.users().insertUser();
+    underTest.getOrganizationPermissions(user.getId(), "org1", countLoads(uuid -> ImmutableSet.of()));
+
+    db.getDbClient().userPermissionDao().deleteByUserId(db.getSession(), user.getId());
+    underTest.getOrganizationPermissions(user.getId(), "org1", countLoads(uuid -> ImmutableSet.of()));
+    assertThat(loads.get()).isEqualTo(1);
+
+    db.commit();
+    underTest.getOrganizationPermissions(user.getId(), "org1", countLoads(uuid -> ImmutableSet.of()));
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void value_loaded_during_invalidation_is_not_cached() {
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> {
+      underTest.invalidate();
+      return "foo";
+    }));
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"));
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void permissions_are_cached_by_user_and_by_organization_or_project() {
+    Set<OrganizationPermission> adminPermissions = ImmutableSet.of(OrganizationPermission.ADMINISTER);
+    Set<OrganizationPermission> anonymousPermissions = ImmutableSet.of();
+
+    assertThat(underTest.getOrganizationPermissions(10, "org1", countLoads(uuid -> adminPermissions))).isEqualTo(adminPermissions);
+    assertThat(underTest.getOrganizationPermissions(null, "org1", countLoads(uuid -> anonymousPermissions))).isEqualTo(anonymousPermissions);
+    assertThat(underTest.getOrganizationPermissions(10, "org2", countLoads(uuid -> anonymousPermissions))).isEqualTo(anonymousPermissions);
+    assertThat(underTest.getOrganizationPermissions(10, "org1", countLoads(uuid -> anonymousPermissions))).isEqualTo(adminPermissions);
+
+    assertThat(underTest.getProjectPermissions(10, "org1", countLoads(uuid -> ImmutableSet.of("user")))).containsOnly("user");
+    assertThat(underTest.getProjectPermissions(null, "org1", countLoads(uuid -> ImmutableSet.of("codeviewer")))).containsOnly("codeviewer");
+    assertThat(loads.get()).isEqualTo(5);
+  }
+
+  @Test
+  public void cache_is_disabled_if_ttl_is_zero() {
+    settings.setProperty(TTL_IN_SECONDS_PROPERTY, "0");
+    underTest = new UserSessionCache(settings.asConfig(), system2, db.getDbClient());
+
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"));
+    underTest.getLoginByTokenHash("hash", countLoads(hash -> "foo"));
+
+    assertThat(loads.get()).isEqualTo(2);
+  }
+
+  private <V> Function<String, V> countLoads(Function<String, V> loader) {
+    return key -> {
+      loads.incrementAndGet();
+      return loader.apply(key);
+    };
+  }
+}
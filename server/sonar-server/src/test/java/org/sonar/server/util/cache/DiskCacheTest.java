@@ -25,6 +25,9 @@ import org.junit.rules.TemporaryFolder;
 import org.sonar.api.utils.System2;
 import org.sonar.core.util.CloseableIterator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
@@ -52,6 +55,34 @@ public class DiskCacheTest {
     }
   }
 
+  @Test
+  public void write_and_read_with_binary_codec() throws Exception {
+    verifyMultipleAppenders(new DiskCache<>(temp.newFile(), System2.INSTANCE, new StringCodec(false)));
+  }
+
+  @Test
+  public void write_and_read_with_compressed_binary_codec() throws Exception {
+    verifyMultipleAppenders(new DiskCache<>(temp.newFile(), System2.INSTANCE, new StringCodec(true)));
+  }
+
+  private static void verifyMultipleAppenders(DiskCache<String> cache) {
+    try (CloseableIterator<String> traverse = cache.traverse()) {
+      assertThat(traverse).isEmpty();
+    }
+
+    cache.newAppender()
+      .append("foo")
+      .append("bar")
+      .close();
+    cache.newAppender().close();
+    cache.newAppender()
+      .append("baz")
+      .close();
+    try (CloseableIterator<String> traverse = cache.traverse()) {
+      assertThat(traverse).containsExactly("foo", "bar", "baz");
+    }
+  }
+
   @Test
   public void fail_if_file_is_not_writable() throws Exception {
     try {
@@ -77,4 +108,20 @@ public class DiskCacheTest {
       assertThat(e).hasMessage("expected error");
     }
   }
+
+  private static class StringCodec extends BinaryDiskCacheCodec<String> {
+    StringCodec(boolean compressed) {
+      super(compressed);
+    }
+
+    @Override
+    protected void writeObject(String object, DataOutput output) throws IOException {
+      writeString(output, object);
+    }
+
+    @Override
+    protected String readObject(DataInput input) throws IOException {
+      return readString(input);
+    }
+  }
 }
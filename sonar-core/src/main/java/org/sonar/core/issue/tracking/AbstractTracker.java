@@ -106,6 +106,46 @@ public class AbstractTracker<RAW extends Trackable, BASE extends Trackable> {
     }
   }
 
+  private static class LineLineHashAndMessageKey implements SearchKey {
+    private final RuleKey ruleKey;
+    private final String message;
+    private final String lineHash;
+    private final Integer line;
+
+    LineLineHashAndMessageKey(Trackable trackable) {
+      this.ruleKey = trackable.getRuleKey();
+      this.message = trackable.getMessage();
+      this.lineHash = StringUtils.defaultString(trackable.getLineHash(), "");
+      this.line = trackable.getLine();
+    }
+
+    @Override
+    public boolean equals(@Nonnull Object o) {
+      if (this == o) {
+        return true;
+      }
+      LineLineHashAndMessageKey that = (LineLineHashAndMessageKey) o;
+      // start with most discriminant field
+      return Objects.equals(line, that.line)
+        && lineHash.equals(that.lineHash)
+        && message.equals(that.message)
+        && ruleKey.equals(that.ruleKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ruleKey, message, lineHash, line != null ? line : 0);
+    }
+  }
+
+  protected enum LineLineHashAndMessageKeyFactory implements SearchKeyFactory {
+    INSTANCE;
+    @Override
+    public SearchKey create(Trackable t) {
+      return new LineLineHashAndMessageKey(t);
+    }
+  }
+
   private static class LineHashAndMessageKey implements SearchKey {
     private final RuleKey ruleKey;
     private final String message;
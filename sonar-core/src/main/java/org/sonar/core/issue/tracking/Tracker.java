@@ -19,6 +19,8 @@
  */
 package org.sonar.core.issue.tracking;
 
+import java.util.Collection;
+import javax.annotation.CheckForNull;
 import org.sonar.api.batch.ScannerSide;
 import org.sonar.api.batch.InstantiationStrategy;
 
@@ -48,6 +50,26 @@ public class Tracker<RAW extends Trackable, BASE extends Trackable> extends Abst
     return tracking;
   }
 
+  /**
+   * Reuses base issues when neither source code nor rules changed since the base analysis, so that raw issues
+   * are expected to be the same as base issues. Each raw issue is matched with the base issue having the same rule,
+   * line, line hash and message. Line hashes of base are not loaded and code moves are not detected.
+   *
+   * @return {@code null} if some raw or base issues can't be matched this way, in which case
+   * {@link #track(Input, Input)} must be used instead
+   */
+  @CheckForNull
+  public Tracking<RAW, BASE> reuseBase(Input<RAW> rawInput, Input<BASE> baseInput) {
+    Collection<RAW> raws = rawInput.getIssues();
+    Collection<BASE> bases = baseInput.getIssues();
+    if (raws.size() != bases.size()) {
+      return null;
+    }
+    Tracking<RAW, BASE> tracking = new Tracking<>(raws, bases);
+    match(tracking, LineLineHashAndMessageKeyFactory.INSTANCE);
+    return tracking.isComplete() ? tracking : null;
+  }
+
   private void detectCodeMoves(Input<RAW> rawInput, Input<BASE> baseInput, Tracking<RAW, BASE> tracking) {
     if (!tracking.isComplete()) {
       new BlockRecognizer<RAW, BASE>().match(rawInput, baseInput, tracking);
@@ -130,6 +130,57 @@ public class TrackerTest {
     assertThat(tracking.baseFor(raw)).isSameAs(base);
   }
 
+  @Test
+  public void reuse_base_issues_when_raw_issues_are_the_same() {
+    FakeInput baseInput = new FakeInput("H1", "H2") {
+      @Override
+      public LineHashSequence getLineHashSequence() {
+        throw new IllegalStateException("line hashes of base must not be loaded");
+      }
+    };
+    Issue base1 = baseInput.createIssueOnLine(1, RULE_SYSTEM_PRINT, "msg1");
+    Issue base2 = baseInput.createIssueOnLine(2, RULE_SYSTEM_PRINT, "msg2");
+    Issue base3 = baseInput.createIssueOnLine(2, RULE_UNUSED_LOCAL_VARIABLE, "msg");
+
+    FakeInput rawInput = new FakeInput("H1", "H2");
+    Issue raw1 = rawInput.createIssueOnLine(2, RULE_UNUSED_LOCAL_VARIABLE, "msg");
+    Issue raw2 = rawInput.createIssueOnLine(1, RULE_SYSTEM_PRINT, "msg1");
+    Issue raw3 = rawInput.createIssueOnLine(2, RULE_SYSTEM_PRINT, "msg2");
+
+    Tracking<Issue, Issue> tracking = tracker.reuseBase(rawInput, baseInput);
+    assertThat(tracking.baseFor(raw1)).isSameAs(base3);
+    assertThat(tracking.baseFor(raw2)).isSameAs(base1);
+    assertThat(tracking.baseFor(raw3)).isSameAs(base2);
+    assertThat(tracking.getUnmatchedRaws()).isEmpty();
+    assertThat(tracking.getUnmatchedBases()).isEmpty();
+  }
+
+  @Test
+  public void do_not_reuse_base_issues_when_a_raw_issue_is_different() {
+    FakeInput baseInput = new FakeInput("H1", "H2");
+    baseInput.createIssueOnLine(1, RULE_SYSTEM_PRINT, "msg1");
+    baseInput.createIssueOnLine(2, RULE_SYSTEM_PRINT, "msg2");
+
+    FakeInput rawInput = new FakeInput("H1", "H2");
+    rawInput.createIssueOnLine(1, RULE_SYSTEM_PRINT, "msg1");
+    rawInput.createIssueOnLine(2, RULE_SYSTEM_PRINT, "new message");
+
+    assertThat(tracker.reuseBase(rawInput, baseInput)).isNull();
+  }
+
+  @Test
+  public void do_not_reuse_base_issues_when_an_issue_is_added_or_removed() {
+    FakeInput baseInput = new FakeInput("H1", "H2");
+    baseInput.createIssueOnLine(1, RULE_SYSTEM_PRINT, "msg1");
+
+    FakeInput rawInput = new FakeInput("H1", "H2");
+    rawInput.createIssueOnLine(1, RULE_SYSTEM_PRINT, "msg1");
+    rawInput.createIssueOnLine(2, RULE_SYSTEM_PRINT, "msg2");
+
+    assertThat(tracker.reuseBase(rawInput, baseInput)).isNull();
+    assertThat(tracker.reuseBase(baseInput, rawInput)).isNull();
+  }
+
   @Test
   public void similar_issues_except_line_match() {
     FakeInput baseInput = new FakeInput("H1", "H2");
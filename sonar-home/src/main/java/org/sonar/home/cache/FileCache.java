@@ -73,6 +73,11 @@ public class FileCache {
     void download(String filename, File toFile) throws IOException;
   }
 
+  /**
+   * Look for a file in the cache by its filename and md5 checksum, and download it if it's not present.
+   * Can be called concurrently, even by different processes: files are downloaded to unique temporary
+   * files then verified and moved to the cache.
+   */
   public File get(String filename, String hash, Downloader downloader) {
     // Does not fail if another process tries to create the directory at the same time.
     File hashDir = hashDir(hash);
@@ -19,7 +19,6 @@
  */
 package org.sonar.api.batch.fs.internal;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -47,6 +46,7 @@ import org.sonar.api.batch.fs.internal.charhandler.LineOffsetCounter;
 public class FileMetadata {
   private static final char LINE_FEED = '\n';
   private static final char CARRIAGE_RETURN = '\r';
+  private static final int BUFFER_SIZE = 8192;
 
   /**
    * Compute hash of a file ignoring line ends differences.
@@ -91,7 +91,7 @@ public class FileMetadata {
   }
 
   public static void readFile(InputStream stream, Charset encoding, String filePath, CharHandler[] handlers) {
-    try (Reader reader = new BufferedReader(new InputStreamReader(stream, encoding))) {
+    try (Reader reader = new InputStreamReader(stream, encoding)) {
       read(reader, handlers);
     } catch (IOException e) {
       throw new IllegalStateException(String.format("Fail to read file '%s' with encoding '%s'", filePath, encoding), e);
@@ -99,50 +99,59 @@ public class FileMetadata {
   }
 
   private static void read(Reader reader, CharHandler[] handlers) throws IOException {
-    char c;
-    int i = reader.read();
+    char[] buffer = new char[BUFFER_SIZE];
     boolean afterCR = false;
-    while (i != -1) {
-      c = (char) i;
+    int read;
+    while ((read = reader.read(buffer)) != -1) {
+      for (int i = 0; i < read; i++) {
+        afterCR = handle(buffer[i], afterCR, handlers);
+      }
+    }
+    for (CharHandler handler : handlers) {
       if (afterCR) {
-        for (CharHandler handler : handlers) {
-          if (c == CARRIAGE_RETURN) {
-            handler.newLine();
-            handler.handleAll(c);
-          } else if (c == LINE_FEED) {
-            handler.handleAll(c);
-            handler.newLine();
-          } else {
-            handler.newLine();
-            handler.handleIgnoreEoL(c);
-            handler.handleAll(c);
-          }
-        }
-        afterCR = c == CARRIAGE_RETURN;
-      } else if (c == LINE_FEED) {
-        for (CharHandler handler : handlers) {
-          handler.handleAll(c);
+        handler.newLine();
+      }
+      handler.eof();
+    }
+  }
+
+  /**
+   * Dispatches a single character to the handlers. The state telling whether the previous
+   * character was a carriage return is carried across buffer boundaries by the caller.
+   */
+  private static boolean handle(char c, boolean afterCR, CharHandler[] handlers) {
+    if (afterCR) {
+      for (CharHandler handler : handlers) {
+        if (c == CARRIAGE_RETURN) {
           handler.newLine();
-        }
-      } else if (c == CARRIAGE_RETURN) {
-        afterCR = true;
-        for (CharHandler handler : handlers) {
           handler.handleAll(c);
-        }
-      } else {
-        for (CharHandler handler : handlers) {
+        } else if (c == LINE_FEED) {
+          handler.handleAll(c);
+          handler.newLine();
+        } else {
+          handler.newLine();
           handler.handleIgnoreEoL(c);
           handler.handleAll(c);
         }
       }
-      i = reader.read();
-    }
-    for (CharHandler handler : handlers) {
-      if (afterCR) {
+      return c == CARRIAGE_RETURN;
+    } else if (c == LINE_FEED) {
+      for (CharHandler handler : handlers) {
+        handler.handleAll(c);
         handler.newLine();
       }
-      handler.eof();
+    } else if (c == CARRIAGE_RETURN) {
+      for (CharHandler handler : handlers) {
+        handler.handleAll(c);
+      }
+      return true;
+    } else {
+      for (CharHandler handler : handlers) {
+        handler.handleIgnoreEoL(c);
+        handler.handleAll(c);
+      }
     }
+    return false;
   }
 
   @FunctionalInterface
@@ -101,7 +101,7 @@ public abstract class PathPattern {
   /**
    * Path relative to module basedir
    */
-  private static class RelativePathPattern extends PathPattern {
+  static class RelativePathPattern extends PathPattern {
     private RelativePathPattern(String pattern) {
       super(pattern);
     }
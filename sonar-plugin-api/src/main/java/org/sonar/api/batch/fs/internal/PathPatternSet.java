@@ -0,0 +1,262 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.api.utils.PathUtils;
+
+/**
+ * Set of {@link PathPattern} compiled together, so that a path is matched once against all the patterns
+ * instead of being matched against each of them.
+ * <p>
+ * Relative patterns are split into segments and stored in a trie. Literal segments are looked up in a map,
+ * segments with wildcards {@code *} and {@code ?} are matched without regular expressions, and segments
+ * {@code **} match zero or more directories. The patterns that can't be represented this way, for example
+ * {@code **.java} or absolute patterns, are matched with their regular expressions.
+ * <p>
+ * Results are the same as matching each {@link PathPattern} with {@link PathPattern#match(Path, Path)}.
+ *
+ * @since 6.7
+ */
+@ThreadSafe
+public class PathPatternSet {
+
+  private static final String ANY_DIRECTORIES = "**";
+
+  private final List<PathPattern> patterns;
+  private final Node root = new Node(false);
+  private final List<PathPattern> uncompiledPatterns = new ArrayList<>();
+  private final boolean hasCompiledPatterns;
+
+  private PathPatternSet(PathPattern[] patterns) {
+    this.patterns = Collections.unmodifiableList(Arrays.asList(patterns));
+    boolean compiled = false;
+    for (PathPattern pattern : patterns) {
+      if (pattern instanceof PathPattern.RelativePathPattern && compile(pattern.pattern.toString())) {
+        compiled = true;
+      } else {
+        uncompiledPatterns.add(pattern);
+      }
+    }
+    this.hasCompiledPatterns = compiled;
+  }
+
+  public static PathPatternSet create(String[] patterns) {
+    return create(PathPattern.create(patterns));
+  }
+
+  public static PathPatternSet create(PathPattern[] patterns) {
+    return new PathPatternSet(patterns);
+  }
+
+  public List<PathPattern> getPatterns() {
+    return patterns;
+  }
+
+  public boolean isEmpty() {
+    return patterns.isEmpty();
+  }
+
+  /**
+   * @return true if at least one of the patterns matches
+   */
+  public boolean match(Path absolutePath, Path relativePath) {
+    if (hasCompiledPatterns) {
+      String path = PathUtils.sanitize(relativePath.toString());
+      if (path != null && matchCompiled(path)) {
+        return true;
+      }
+    }
+    for (PathPattern pattern : uncompiledPatterns) {
+      if (pattern.match(absolutePath, relativePath)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Adds the pattern to the trie. Returns false if the pattern can't be represented by segments.
+   */
+  private boolean compile(String pattern) {
+    List<String> segments = splitPattern(pattern);
+    for (String segment : segments) {
+      if (segment.contains(ANY_DIRECTORIES) && !ANY_DIRECTORIES.equals(segment)) {
+        return false;
+      }
+    }
+    Node node = root;
+    for (int i = 0; i < segments.size(); i++) {
+      String segment = segments.get(i);
+      boolean last = i == segments.size() - 1;
+      if (ANY_DIRECTORIES.equals(segment) && last) {
+        // "**" at the end of pattern matches all the remaining characters, including directory separators
+        node.matchesRemainingSegments = true;
+        return true;
+      }
+      node = node.child(segment);
+    }
+    node.terminal = true;
+    return true;
+  }
+
+  /**
+   * Same as {@link org.sonar.api.utils.WildcardPattern}: the first slash is ignored, and both slash and
+   * backslash are directory separators.
+   */
+  private static List<String> splitPattern(String pattern) {
+    List<String> segments = new ArrayList<>();
+    int start = pattern.startsWith("/") || pattern.startsWith("\\") ? 1 : 0;
+    for (int i = start; i < pattern.length(); i++) {
+      char c = pattern.charAt(i);
+      if (c == '/' || c == '\\') {
+        segments.add(pattern.substring(start, i));
+        start = i + 1;
+      }
+    }
+    segments.add(pattern.substring(start));
+    return segments;
+  }
+
+  private boolean matchCompiled(String path) {
+    String value = StringUtils.removeEnd(StringUtils.removeStart(path, "/"), "/");
+    String[] segments = value.isEmpty() ? new String[] {""} : StringUtils.splitPreserveAllTokens(value, '/');
+
+    List<Node> states = new ArrayList<>();
+    root.addTo(states);
+    for (String segment : segments) {
+      List<Node> nextStates = new ArrayList<>();
+      for (Node state : states) {
+        if (state.matchesRemainingSegments) {
+          return true;
+        }
+        state.step(segment, nextStates);
+      }
+      if (nextStates.isEmpty()) {
+        return false;
+      }
+      states = nextStates;
+    }
+    for (Node state : states) {
+      if (state.terminal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Segment-wise glob matching. Segments do not contain directory separators, so "*" matches any sequence
+   * of characters and "?" any character.
+   */
+  static boolean matchGlob(String glob, String segment) {
+    int g = 0;
+    int s = 0;
+    int starGlob = -1;
+    int starSegment = 0;
+    while (s < segment.length()) {
+      if (g < glob.length() && (glob.charAt(g) == '?' || glob.charAt(g) == segment.charAt(s))) {
+        g++;
+        s++;
+      } else if (g < glob.length() && glob.charAt(g) == '*') {
+        starGlob = g;
+        starSegment = s;
+        g++;
+      } else if (starGlob >= 0) {
+        // backtrack: the last star matches one more character
+        g = starGlob + 1;
+        starSegment++;
+        s = starSegment;
+      } else {
+        return false;
+      }
+    }
+    while (g < glob.length() && glob.charAt(g) == '*') {
+      g++;
+    }
+    return g == glob.length();
+  }
+
+  private static boolean isGlob(String segment) {
+    return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+  }
+
+  private static class Node {
+    private final boolean anyDirectories;
+    private final Map<String, Node> literalChildren = new HashMap<>();
+    private final Map<String, Node> globChildren = new LinkedHashMap<>();
+    @CheckForNull
+    private Node anyDirectoriesChild;
+    private boolean terminal = false;
+    private boolean matchesRemainingSegments = false;
+
+    private Node(boolean anyDirectories) {
+      this.anyDirectories = anyDirectories;
+    }
+
+    private Node child(String segment) {
+      if (ANY_DIRECTORIES.equals(segment)) {
+        if (anyDirectoriesChild == null) {
+          anyDirectoriesChild = new Node(true);
+        }
+        return anyDirectoriesChild;
+      }
+      Map<String, Node> children = isGlob(segment) ? globChildren : literalChildren;
+      return children.computeIfAbsent(segment, s -> new Node(false));
+    }
+
+    /**
+     * Adds this node and the nodes that can be reached without consuming segments
+     */
+    private void addTo(List<Node> states) {
+      if (!states.contains(this)) {
+        states.add(this);
+        if (anyDirectoriesChild != null) {
+          anyDirectoriesChild.addTo(states);
+        }
+      }
+    }
+
+    private void step(String segment, List<Node> nextStates) {
+      if (anyDirectories) {
+        addTo(nextStates);
+      }
+      Node literal = literalChildren.get(segment);
+      if (literal != null) {
+        literal.addTo(nextStates);
+      }
+      for (Map.Entry<String, Node> glob : globChildren.entrySet()) {
+        if (matchGlob(glob.getKey(), segment)) {
+          glob.getValue().addTo(nextStates);
+        }
+      }
+    }
+  }
+}
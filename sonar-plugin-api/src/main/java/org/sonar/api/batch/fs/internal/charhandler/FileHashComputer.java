@@ -34,6 +34,11 @@ import org.apache.commons.codec.digest.DigestUtils;
 
 public class FileHashComputer extends CharHandler {
   private static final char LINE_FEED = '\n';
+  /**
+   * Lines are digested by blocks of at least this number of chars rather than one by one.
+   * The hash is the same as long as blocks are split at line boundaries.
+   */
+  private static final int BLOCK_SIZE = 8192;
 
   
   private MessageDigest globalMd5Digest = DigestUtils.getMd5Digest();
@@ -56,8 +61,10 @@ public class FileHashComputer extends CharHandler {
   @Override
   public void newLine() {
     sb.append(LINE_FEED);
-    processBuffer();
-    sb.setLength(0);
+    if (sb.length() >= BLOCK_SIZE) {
+      processBuffer();
+      sb.setLength(0);
+    }
   }
 
   @Override
@@ -25,7 +25,7 @@ import java.util.List;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.TextRange;
-import org.sonar.api.batch.fs.internal.PathPattern;
+import org.sonar.api.batch.fs.internal.PathPatternSet;
 import org.sonar.api.batch.sensor.cpd.NewCpdTokens;
 import org.sonar.api.batch.sensor.internal.DefaultStorable;
 import org.sonar.api.batch.sensor.internal.SensorStorage;
@@ -38,7 +38,7 @@ import static java.util.Objects.requireNonNull;
 
 public class DefaultCpdTokens extends DefaultStorable implements NewCpdTokens {
 
-  private final Configuration config;
+  private final PathPatternSet cpdExclusions;
   private final ArrayList<TokensLine> result = new ArrayList<>();
   private InputFile inputFile;
   private int startLine = Integer.MIN_VALUE;
@@ -49,18 +49,23 @@ public class DefaultCpdTokens extends DefaultStorable implements NewCpdTokens {
   private boolean excluded;
 
   public DefaultCpdTokens(Configuration config, SensorStorage storage) {
+    this(PathPatternSet.create(config.getStringArray(CoreProperties.CPD_EXCLUSIONS)), storage);
+  }
+
+  /**
+   * @param cpdExclusions the patterns of {@link CoreProperties#CPD_EXCLUSIONS}, so that callers creating tokens for
+   * many files build them only once
+   */
+  public DefaultCpdTokens(PathPatternSet cpdExclusions, SensorStorage storage) {
     super(storage);
-    this.config = config;
+    this.cpdExclusions = cpdExclusions;
   }
 
   @Override
   public DefaultCpdTokens onFile(InputFile inputFile) {
     this.inputFile = requireNonNull(inputFile, "file can't be null");
-    String[] cpdExclusions = config.getStringArray(CoreProperties.CPD_EXCLUSIONS);
-    for (PathPattern cpdExclusion : PathPattern.create(cpdExclusions)) {
-      if (cpdExclusion.match(inputFile.path(), Paths.get(inputFile.relativePath()))) {
-        this.excluded = true;
-      }
+    if (!cpdExclusions.isEmpty() && cpdExclusions.match(inputFile.path(), Paths.get(inputFile.relativePath()))) {
+      this.excluded = true;
     }
     return this;
   }
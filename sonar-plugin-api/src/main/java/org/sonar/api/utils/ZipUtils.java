@@ -198,6 +198,19 @@ public final class ZipUtils {
     }
   }
 
+  /**
+   * Zips a directory into a stream. The stream is flushed but not closed, so that it can be the body of an
+   * HTTP request for example.
+   *
+   * @since 6.7
+   */
+  public static void zipDir(File dir, OutputStream out) throws IOException {
+    ZipOutputStream zout = new ZipOutputStream(out);
+    doZipDir(dir, zout);
+    zout.finish();
+    zout.flush();
+  }
+
   private static void doZip(String entryName, InputStream in, ZipOutputStream out) throws IOException {
     ZipEntry entry = new ZipEntry(entryName);
     out.putNextEntry(entry);
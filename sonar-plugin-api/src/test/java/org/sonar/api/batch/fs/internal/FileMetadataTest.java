@@ -23,10 +23,13 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.annotation.Nullable;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -299,4 +302,64 @@ public class FileMetadataTest {
       "glyphicons-halflings-regular.woff at line 1 for encoding UTF-8. Please fix file content or configure the encoding to be used using property 'sonar.sourceEncoding'.");
   }
 
+  @Test
+  public void crlf_split_across_read_buffers() throws Exception {
+    // 8191 chars followed by CRLF, so that CR is the last char of the first read buffer
+    String firstLine = StringUtils.repeat("a", 8191);
+    File tempFile = temp.newFile();
+    FileUtils.write(tempFile, firstLine + "\r\nbar\r\r\nbaz", StandardCharsets.UTF_8, true);
+
+    Metadata metadata = new FileMetadata().readMetadata(new FileInputStream(tempFile), StandardCharsets.UTF_8, tempFile.getName());
+    assertThat(metadata.lines()).isEqualTo(4);
+    assertThat(metadata.nonBlankLines()).isEqualTo(3);
+    assertThat(metadata.hash()).isEqualTo(md5Hex(firstLine + "\nbar\n\nbaz"));
+    assertThat(metadata.originalLineOffsets()).containsOnly(0, 8193, 8197, 8199);
+    assertThat(metadata.lastValidOffset()).isEqualTo(8202);
+  }
+
+  @Test
+  public void big_file_with_mixed_newlines() throws Exception {
+    String[] eols = {"\n", "\r\n", "\r"};
+    StringBuilder content = new StringBuilder();
+    StringBuilder normalized = new StringBuilder();
+    List<Integer> offsets = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      offsets.add(content.length());
+      String line = i % 7 == 0 ? "  " : ("line " + i + " \u00e9\u00e8");
+      content.append(line).append(eols[i % eols.length]);
+      normalized.append(line).append('\n');
+    }
+    offsets.add(content.length());
+    File tempFile = temp.newFile();
+    FileUtils.write(tempFile, content, StandardCharsets.UTF_8, true);
+
+    Metadata metadata = new FileMetadata().readMetadata(new FileInputStream(tempFile), StandardCharsets.UTF_8, tempFile.getName());
+    assertThat(metadata.lines()).isEqualTo(10_001);
+    assertThat(metadata.nonBlankLines()).isEqualTo(10_000 - 1_429);
+    assertThat(metadata.hash()).isEqualTo(md5Hex(normalized.toString()));
+    assertThat(metadata.originalLineOffsets()).containsExactly(offsets.stream().mapToInt(Integer::intValue).toArray());
+    assertThat(metadata.lastValidOffset()).isEqualTo(content.length());
+  }
+
+  @Test
+  public void line_hashes_of_big_file() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < 5_000; i++) {
+      content.append("  line ").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+    }
+    File tempFile = temp.newFile();
+    FileUtils.write(tempFile, content, StandardCharsets.UTF_8, true);
+    DefaultInputFile f = new TestInputFileBuilder("foo", tempFile.getName())
+      .setModuleBaseDir(tempFile.getParentFile().toPath())
+      .setCharset(StandardCharsets.UTF_8)
+      .build();
+
+    List<Integer> lines = new ArrayList<>();
+    FileMetadata.computeLineHashesForIssueTracking(f, (lineIdx, hash) -> {
+      assertThat(Hex.encodeHexString(hash)).isEqualTo(md5Hex("line" + (lineIdx - 1)));
+      lines.add(lineIdx);
+    });
+    assertThat(lines).hasSize(5_000);
+    assertThat(lines.get(4_999)).isEqualTo(5_000);
+  }
 }
@@ -0,0 +1,143 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.api.batch.fs.internal;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PathPatternSetTest {
+
+  private static final Path BASE_DIR = Paths.get("/project");
+
+  @Test
+  public void empty_set_matches_nothing() {
+    PathPatternSet underTest = PathPatternSet.create(new String[0]);
+
+    assertThat(underTest.isEmpty()).isTrue();
+    assertThat(underTest.getPatterns()).isEmpty();
+    assertThat(match(underTest, "src/Foo.java")).isFalse();
+  }
+
+  @Test
+  public void match_literal_segments() {
+    PathPatternSet underTest = PathPatternSet.create(new String[] {"src/main/Foo.java", "/src/test/Foo.java"});
+
+    assertThat(underTest.isEmpty()).isFalse();
+    assertThat(underTest.getPatterns()).extracting(PathPattern::toString).containsExactly("src/main/Foo.java", "/src/test/Foo.java");
+    assertThat(match(underTest, "src/main/Foo.java")).isTrue();
+    assertThat(match(underTest, "src/test/Foo.java")).isTrue();
+    assertThat(match(underTest, "src/main/Bar.java")).isFalse();
+    assertThat(match(underTest, "src/main")).isFalse();
+    assertThat(match(underTest, "src/main/Foo.java/Bar.java")).isFalse();
+  }
+
+  @Test
+  public void match_wildcards_in_segments() {
+    PathPatternSet underTest = PathPatternSet.create(new String[] {"src/*/*Dao.java", "T?st.java"});
+
+    assertThat(match(underTest, "src/main/UserDao.java")).isTrue();
+    assertThat(match(underTest, "src/main/Dao.java")).isTrue();
+    assertThat(match(underTest, "src/main/org/UserDao.java")).isFalse();
+    assertThat(match(underTest, "Test.java")).isTrue();
+    assertThat(match(underTest, "Tst.java")).isFalse();
+  }
+
+  @Test
+  public void match_any_directories() {
+    PathPatternSet underTest = PathPatternSet.create(new String[] {"**/generated/**", "src/**/*Test.java"});
+
+    assertThat(match(underTest, "generated/Foo.java")).isTrue();
+    assertThat(match(underTest, "target/generated/org/Foo.java")).isTrue();
+    assertThat(match(underTest, "target/generated")).isFalse();
+    assertThat(match(underTest, "src/FooTest.java")).isTrue();
+    assertThat(match(underTest, "src/org/foo/FooTest.java")).isTrue();
+    assertThat(match(underTest, "test/org/foo/FooTest.java")).isFalse();
+  }
+
+  @Test
+  public void match_patterns_which_are_not_split_by_segments() {
+    PathPatternSet underTest = PathPatternSet.create(new String[] {"src/**Foo.java", "file:**/absolute/*.js"});
+
+    assertThat(match(underTest, "src/org/MyFoo.java")).isTrue();
+    assertThat(match(underTest, "src/org/MyBar.java")).isFalse();
+    assertThat(match(underTest, "absolute/file.js")).isTrue();
+    assertThat(match(underTest, "relative/file.js")).isFalse();
+  }
+
+  @Test
+  public void match_like_path_patterns() {
+    String[] atoms = {"a", "b", "ab", "*", "?", "**", "a*", "*b", "?b", "*.java", "", "**.java", "a**"};
+    String[] pathAtoms = {"a", "b", "ab", "aab", "a.java", "b.java", ""};
+    Random random = new Random(42);
+    for (int i = 0; i < 2_000; i++) {
+      String[] patterns = new String[1 + random.nextInt(5)];
+      for (int j = 0; j < patterns.length; j++) {
+        patterns[j] = randomPath(random, atoms, 4);
+      }
+      PathPattern[] pathPatterns = PathPattern.create(patterns);
+      PathPatternSet underTest = PathPatternSet.create(pathPatterns);
+
+      for (int j = 0; j < 20; j++) {
+        Path relativePath = Paths.get(randomPath(random, pathAtoms, 5));
+        boolean expected = false;
+        for (PathPattern pathPattern : pathPatterns) {
+          expected |= pathPattern.match(BASE_DIR.resolve(relativePath), relativePath);
+        }
+        assertThat(underTest.match(BASE_DIR.resolve(relativePath), relativePath))
+          .as("%s on %s", String.join(",", patterns), relativePath)
+          .isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  public void match_glob() {
+    assertThat(PathPatternSet.matchGlob("*", "")).isTrue();
+    assertThat(PathPatternSet.matchGlob("*", "Foo.java")).isTrue();
+    assertThat(PathPatternSet.matchGlob("*.java", "Foo.java")).isTrue();
+    assertThat(PathPatternSet.matchGlob("*.java", "Foo.js")).isFalse();
+    assertThat(PathPatternSet.matchGlob("F*o*.java", "Foo.java")).isTrue();
+    assertThat(PathPatternSet.matchGlob("F?o.java", "Foo.java")).isTrue();
+    assertThat(PathPatternSet.matchGlob("F?o.java", "Fo.java")).isFalse();
+    assertThat(PathPatternSet.matchGlob("*a*b", "aaabab")).isTrue();
+    assertThat(PathPatternSet.matchGlob("*a*b", "aaaba")).isFalse();
+  }
+
+  private static boolean match(PathPatternSet set, String relativePath) {
+    Path path = Paths.get(relativePath);
+    return set.match(BASE_DIR.resolve(path), path);
+  }
+
+  private static String randomPath(Random random, String[] atoms, int maxSegments) {
+    StringBuilder sb = new StringBuilder();
+    int segments = 1 + random.nextInt(maxSegments);
+    for (int i = 0; i < segments; i++) {
+      if (i > 0) {
+        sb.append('/');
+      }
+      sb.append(atoms[random.nextInt(atoms.length)]);
+    }
+    return sb.toString();
+  }
+}
@@ -21,6 +21,7 @@ package org.sonar.api.batch.sensor.cpd.internal;
 
 import org.junit.Test;
 import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.PathPatternSet;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.sensor.internal.SensorStorage;
 import org.sonar.api.config.internal.MapSettings;
@@ -30,6 +31,7 @@ import static org.assertj.core.api.Assertions.fail;
 import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
 
 public class DefaultCpdTokensTest {
@@ -83,6 +85,21 @@ public class DefaultCpdTokensTest {
     assertThat(tokens.getTokenLines()).isEmpty();
   }
 
+  @Test
+  public void exclusion_patterns_can_be_shared_by_files() {
+    SensorStorage sensorStorage = mock(SensorStorage.class);
+    PathPatternSet cpdExclusions = PathPatternSet.create(new String[] {"src/Foo.java", "another"});
+    InputFile otherFile = new TestInputFileBuilder("foo", "src/Bar.java").setLines(1).setLastValidOffset(50).build();
+
+    DefaultCpdTokens excludedTokens = new DefaultCpdTokens(cpdExclusions, sensorStorage).onFile(INPUT_FILE);
+    excludedTokens.save();
+    DefaultCpdTokens tokens = new DefaultCpdTokens(cpdExclusions, sensorStorage).onFile(otherFile);
+    tokens.save();
+
+    verify(sensorStorage).store(tokens);
+    verifyNoMoreInteractions(sensorStorage);
+  }
+
   @Test
   public void save_many_tokens() {
     SensorStorage sensorStorage = mock(SensorStorage.class);
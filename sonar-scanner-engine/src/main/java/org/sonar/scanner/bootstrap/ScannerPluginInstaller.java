@@ -20,15 +20,21 @@
 package org.sonar.scanner.bootstrap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.commons.io.FileUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -48,6 +54,11 @@ public class ScannerPluginInstaller implements PluginInstaller {
 
   private static final Logger LOG = Loggers.get(ScannerPluginInstaller.class);
   private static final String PLUGINS_WS_URL = "/api/plugins/installed";
+  /**
+   * Maximum number of plugins downloaded at the same time. Hashes of downloaded files
+   * are verified by the same threads.
+   */
+  private static final int MAX_DOWNLOAD_THREADS = 4;
 
   private final FileCache fileCache;
   private final ScannerPluginPredicate pluginPredicate;
@@ -69,18 +80,69 @@ public class ScannerPluginInstaller implements PluginInstaller {
 
     Profiler profiler = Profiler.create(LOG).startDebug("Load plugins");
 
+    List<InstalledPlugin> pluginsToLoad = new ArrayList<>(remotePlugins.length);
     for (InstalledPlugin installedPlugin : remotePlugins) {
       if (pluginPredicate.apply(installedPlugin.key)) {
-        File jarFile = download(installedPlugin);
-        PluginInfo info = PluginInfo.create(jarFile);
-        infosByKey.put(info.getKey(), new ScannerPlugin(installedPlugin.key, installedPlugin.updatedAt, info));
+        pluginsToLoad.add(installedPlugin);
       }
     }
+    for (ScannerPlugin plugin : downloadPlugins(pluginsToLoad)) {
+      infosByKey.put(plugin.getInfo().getKey(), plugin);
+    }
 
     profiler.stopDebug();
     return infosByKey;
   }
 
+  /**
+   * Downloads the missing plugins concurrently. Plugins are returned in the same order as the given ones.
+   */
+  private List<ScannerPlugin> downloadPlugins(List<InstalledPlugin> installedPlugins) {
+    List<ScannerPlugin> plugins = new ArrayList<>(installedPlugins.size());
+    int threads = Math.min(MAX_DOWNLOAD_THREADS, installedPlugins.size());
+    if (threads <= 1) {
+      for (InstalledPlugin installedPlugin : installedPlugins) {
+        plugins.add(loadPlugin(installedPlugin));
+      }
+      return plugins;
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(threads,
+      new ThreadFactoryBuilder().setNameFormat("PluginDownloader-%d").setDaemon(true).build());
+    try {
+      List<Future<ScannerPlugin>> futures = new ArrayList<>(installedPlugins.size());
+      for (InstalledPlugin installedPlugin : installedPlugins) {
+        futures.add(executorService.submit(() -> loadPlugin(installedPlugin)));
+      }
+      for (Future<ScannerPlugin> future : futures) {
+        plugins.add(getResult(future));
+      }
+      return plugins;
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
+  private static ScannerPlugin getResult(Future<ScannerPlugin> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while downloading plugins", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private ScannerPlugin loadPlugin(InstalledPlugin installedPlugin) {
+    File jarFile = download(installedPlugin);
+    PluginInfo info = PluginInfo.create(jarFile);
+    return new ScannerPlugin(installedPlugin.key, installedPlugin.updatedAt, info);
+  }
+
   /**
    * Returns empty on purpose. This method is used only by medium tests.
    * @see org.sonar.scanner.mediumtest.ScannerMediumTester
@@ -26,6 +26,8 @@ import org.sonar.api.config.Configuration;
 import org.sonar.duplications.block.BlockChunker;
 
 public class CpdSettings {
+  static final String THREADS_PROPERTY = "sonar.cpd.threads";
+
   private final Configuration settings;
   private final String branch;
 
@@ -49,4 +51,12 @@ public class CpdSettings {
   int getMinimumTokens(String languageKey) {
     return settings.getInt("sonar.cpd." + languageKey + ".minimumTokens").orElse(100);
   }
+
+  /**
+   * Number of files for which duplications are detected concurrently. Defaults to the number of cores minus one.
+   */
+  int getThreads() {
+    int threads = settings.getInt(THREADS_PROPERTY).orElse(Runtime.getRuntime().availableProcessors() - 1);
+    return Math.max(1, threads);
+  }
 }
@@ -158,4 +158,11 @@ public class ModuleIssues {
     reportPublisher.getWriter().appendComponentIssue(batchId, rawIssue);
   }
 
+  /**
+   * Issue files are kept open while sensors run. They must be flushed before issues are read from the report.
+   */
+  public void flush() {
+    reportPublisher.getWriter().flushComponentIssues();
+  }
+
 }
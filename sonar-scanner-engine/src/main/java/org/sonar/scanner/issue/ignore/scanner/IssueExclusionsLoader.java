@@ -21,6 +21,8 @@ package org.sonar.scanner.issue.ignore.scanner;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
+import java.util.regex.PatternSyntaxException;
 import javax.annotation.CheckForNull;
 import org.apache.commons.lang.StringUtils;
 import org.sonar.api.batch.fs.internal.charhandler.CharHandler;
@@ -30,8 +32,8 @@ import org.sonar.scanner.issue.ignore.pattern.IssuePattern;
 import org.sonar.scanner.issue.ignore.pattern.PatternMatcher;
 
 public final class IssueExclusionsLoader {
-  private final List<java.util.regex.Pattern> allFilePatterns;
-  private final List<DoubleRegexpMatcher> blockMatchers;
+  private final MultiRegexpMatcher<java.util.regex.Pattern> allFilePatterns;
+  private final MultiRegexpMatcher<DoubleRegexpMatcher> blockMatchers;
   private final PatternMatcher patternMatcher;
   private final IssueExclusionPatternInitializer patternsInitializer;
   private final boolean enableCharHandler;
@@ -39,17 +41,19 @@ public final class IssueExclusionsLoader {
   public IssueExclusionsLoader(IssueExclusionPatternInitializer patternsInitializer, PatternMatcher patternMatcher) {
     this.patternsInitializer = patternsInitializer;
     this.patternMatcher = patternMatcher;
-    this.allFilePatterns = new ArrayList<>();
-    this.blockMatchers = new ArrayList<>();
 
+    List<java.util.regex.Pattern> filePatterns = new ArrayList<>();
     for (String pattern : patternsInitializer.getAllFilePatterns()) {
-      allFilePatterns.add(java.util.regex.Pattern.compile(pattern));
+      filePatterns.add(java.util.regex.Pattern.compile(pattern));
     }
+    List<DoubleRegexpMatcher> doubleRegexpMatchers = new ArrayList<>();
     for (BlockIssuePattern pattern : patternsInitializer.getBlockPatterns()) {
-      blockMatchers.add(new DoubleRegexpMatcher(
+      doubleRegexpMatchers.add(new DoubleRegexpMatcher(
         java.util.regex.Pattern.compile(pattern.getBeginBlockRegexp()),
         java.util.regex.Pattern.compile(pattern.getEndBlockRegexp())));
     }
+    this.allFilePatterns = MultiRegexpMatcher.of(filePatterns);
+    this.blockMatchers = MultiRegexpMatcher.of(doubleRegexpMatchers, DoubleRegexpMatcher::getFirstPattern);
     enableCharHandler = !allFilePatterns.isEmpty() || !blockMatchers.isEmpty();
   }
 
@@ -83,8 +87,8 @@ public final class IssueExclusionsLoader {
       this.secondPattern = secondPattern;
     }
 
-    boolean matchesFirstPattern(String line) {
-      return firstPattern.matcher(line).find();
+    java.util.regex.Pattern getFirstPattern() {
+      return firstPattern;
     }
 
     boolean matchesSecondPattern(String line) {
@@ -96,6 +100,78 @@ public final class IssueExclusionsLoader {
     }
   }
 
+  /**
+   * Finds the first of a list of regular expressions that is found in a line. Lines are first scanned once
+   * with the alternation of all the expressions, so that the expressions are evaluated one by one only
+   * on the few lines that match at least one of them.
+   */
+  public static class MultiRegexpMatcher<T> {
+    /**
+     * Constructs that change meaning when the expression is embedded in an alternation: back references (group
+     * numbers are shifted), unterminated quotes and comments (they would swallow the following alternatives).
+     */
+    private static final java.util.regex.Pattern NOT_COMBINABLE = java.util.regex.Pattern.compile("\\\\(\\d|k<|Q)|\\(\\?[a-zA-Z-]*x");
+
+    private final List<T> items;
+    private final Function<T, java.util.regex.Pattern> toPattern;
+    @CheckForNull
+    private final java.util.regex.Pattern alternation;
+
+    private MultiRegexpMatcher(List<T> items, Function<T, java.util.regex.Pattern> toPattern) {
+      this.items = items;
+      this.toPattern = toPattern;
+      this.alternation = items.size() > 1 ? combine(items, toPattern) : null;
+    }
+
+    static MultiRegexpMatcher<java.util.regex.Pattern> of(List<java.util.regex.Pattern> patterns) {
+      return new MultiRegexpMatcher<>(patterns, Function.identity());
+    }
+
+    static <T> MultiRegexpMatcher<T> of(List<T> items, Function<T, java.util.regex.Pattern> toPattern) {
+      return new MultiRegexpMatcher<>(items, toPattern);
+    }
+
+    boolean isEmpty() {
+      return items.isEmpty();
+    }
+
+    /**
+     * @return the first item, in declaration order, whose expression is found in the line, or {@code null}
+     */
+    @CheckForNull
+    T find(String line) {
+      if (items.isEmpty() || (alternation != null && !alternation.matcher(line).find())) {
+        return null;
+      }
+      for (T item : items) {
+        if (toPattern.apply(item).matcher(line).find()) {
+          return item;
+        }
+      }
+      return null;
+    }
+
+    @CheckForNull
+    private static <T> java.util.regex.Pattern combine(List<T> items, Function<T, java.util.regex.Pattern> toPattern) {
+      StringBuilder sb = new StringBuilder();
+      for (T item : items) {
+        java.util.regex.Pattern pattern = toPattern.apply(item);
+        if (pattern.flags() != 0 || NOT_COMBINABLE.matcher(pattern.pattern()).find()) {
+          return null;
+        }
+        if (sb.length() > 0) {
+          sb.append('|');
+        }
+        sb.append("(?:").append(pattern.pattern()).append(')');
+      }
+      try {
+        return java.util.regex.Pattern.compile(sb.toString());
+      } catch (PatternSyntaxException e) {
+        return null;
+      }
+    }
+  }
+
   @Override
   public String toString() {
     return "Issues Exclusions - Source Scanner";
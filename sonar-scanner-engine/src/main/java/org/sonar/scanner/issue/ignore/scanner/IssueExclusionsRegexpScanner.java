@@ -31,13 +31,14 @@ import org.sonar.api.batch.fs.internal.charhandler.CharHandler;
 import org.sonar.scanner.issue.ignore.pattern.LineRange;
 import org.sonar.scanner.issue.ignore.pattern.PatternMatcher;
 import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader.DoubleRegexpMatcher;
+import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader.MultiRegexpMatcher;
 
 public class IssueExclusionsRegexpScanner extends CharHandler {
   private static final Logger LOG = LoggerFactory.getLogger(IssueExclusionsLoader.class);
 
   private final StringBuilder sb = new StringBuilder();
-  private final List<Pattern> allFilePatterns;
-  private final List<DoubleRegexpMatcher> blockMatchers;
+  private final MultiRegexpMatcher<Pattern> allFilePatterns;
+  private final MultiRegexpMatcher<DoubleRegexpMatcher> blockMatchers;
   private final String componentKey;
   private final PatternMatcher patternMatcher;
 
@@ -47,7 +48,8 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
   private int fileLength = 0;
   private DoubleRegexpMatcher currentMatcher;
 
-  IssueExclusionsRegexpScanner(String componentKey, List<Pattern> allFilePatterns, List<DoubleRegexpMatcher> blockMatchers, PatternMatcher patternMatcher) {
+  IssueExclusionsRegexpScanner(String componentKey, MultiRegexpMatcher<Pattern> allFilePatterns, MultiRegexpMatcher<DoubleRegexpMatcher> blockMatchers,
+    PatternMatcher patternMatcher) {
     this.allFilePatterns = allFilePatterns;
     this.blockMatchers = blockMatchers;
     this.patternMatcher = patternMatcher;
@@ -92,13 +94,12 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
     }
 
     // first check the single regexp patterns that can be used to totally exclude a file
-    for (Pattern pattern : allFilePatterns) {
-      if (pattern.matcher(line).find()) {
-        patternMatcher.addPatternToExcludeResource(componentKey);
-        // nothing more to do on this file
-        LOG.debug("- Exclusion pattern '{}': every issue in this file will be ignored.", pattern);
-        return;
-      }
+    Pattern pattern = allFilePatterns.find(line);
+    if (pattern != null) {
+      patternMatcher.addPatternToExcludeResource(componentKey);
+      // nothing more to do on this file
+      LOG.debug("- Exclusion pattern '{}': every issue in this file will be ignored.", pattern);
+      return;
     }
 
     // then check the double regexps if we're still here
@@ -115,12 +116,10 @@ public class IssueExclusionsRegexpScanner extends CharHandler {
 
   private void checkDoubleRegexps(String line, int lineIndex) {
     if (currentMatcher == null) {
-      for (DoubleRegexpMatcher matcher : blockMatchers) {
-        if (matcher.matchesFirstPattern(line)) {
-          startExclusion(lineIndex);
-          currentMatcher = matcher;
-          break;
-        }
+      DoubleRegexpMatcher matcher = blockMatchers.find(line);
+      if (matcher != null) {
+        startExclusion(lineIndex);
+        currentMatcher = matcher;
       }
     } else {
       if (currentMatcher.matchesSecondPattern(line)) {
@@ -28,6 +28,7 @@ import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.scanner.events.BatchStepEvent;
 import org.sonar.scanner.events.EventBus;
+import org.sonar.scanner.issue.ModuleIssues;
 import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader;
 import org.sonar.scanner.rule.QProfileVerifier;
 import org.sonar.scanner.scan.filesystem.DefaultModuleFileSystem;
@@ -48,10 +49,11 @@ public abstract class AbstractPhaseExecutor {
   private final InputModuleHierarchy hierarchy;
   private final FileIndexer fileIndexer;
   private final CoverageExclusions coverageExclusions;
+  private final ModuleIssues moduleIssues;
 
   public AbstractPhaseExecutor(InitializersExecutor initializersExecutor, PostJobsExecutor postJobsExecutor, SensorsExecutor sensorsExecutor,
     SensorContext sensorContext, InputModuleHierarchy hierarchy, EventBus eventBus, DefaultModuleFileSystem fs, QProfileVerifier profileVerifier,
-    IssueExclusionsLoader issueExclusionsLoader, FileIndexer fileIndexer, CoverageExclusions coverageExclusions) {
+    IssueExclusionsLoader issueExclusionsLoader, FileIndexer fileIndexer, CoverageExclusions coverageExclusions, ModuleIssues moduleIssues) {
     this.postJobsExecutor = postJobsExecutor;
     this.initializersExecutor = initializersExecutor;
     this.sensorsExecutor = sensorsExecutor;
@@ -63,6 +65,7 @@ public abstract class AbstractPhaseExecutor {
     this.hierarchy = hierarchy;
     this.fileIndexer = fileIndexer;
     this.coverageExclusions = coverageExclusions;
+    this.moduleIssues = moduleIssues;
   }
 
   /**
@@ -86,6 +89,7 @@ public abstract class AbstractPhaseExecutor {
     initCoverageExclusions();
 
     sensorsExecutor.execute(sensorContext);
+    moduleIssues.flush();
 
     afterSensors();
 
@@ -19,30 +19,24 @@
  */
 package org.sonar.scanner.phases;
 
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableList.Builder;
-import java.util.Collection;
-import java.util.Iterator;
+import java.nio.file.Paths;
 import javax.annotation.concurrent.Immutable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.CoreProperties;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.PathPattern;
+import org.sonar.api.batch.fs.internal.PathPatternSet;
 import org.sonar.api.config.Configuration;
-import org.sonar.api.utils.WildcardPattern;
 
 @Immutable
 public class CoverageExclusions {
   private static final Logger LOG = LoggerFactory.getLogger(CoverageExclusions.class);
 
-  private Collection<WildcardPattern> exclusionPatterns;
+  private final PathPatternSet exclusionPatterns;
 
   public CoverageExclusions(Configuration settings) {
-    Builder<WildcardPattern> builder = ImmutableList.builder();
-    for (String pattern : settings.getStringArray(CoreProperties.PROJECT_COVERAGE_EXCLUSIONS_PROPERTY)) {
-      builder.add(WildcardPattern.create(pattern));
-    }
-    exclusionPatterns = builder.build();
+    exclusionPatterns = PathPatternSet.create(settings.getStringArray(CoreProperties.PROJECT_COVERAGE_EXCLUSIONS_PROPERTY));
   }
 
   void log() {
@@ -50,18 +44,13 @@ public class CoverageExclusions {
   }
 
   boolean isExcluded(DefaultInputFile file) {
-    boolean found = false;
-    Iterator<WildcardPattern> iterator = exclusionPatterns.iterator();
-    while (!found && iterator.hasNext()) {
-      found = iterator.next().match(file.getModuleRelativePath());
-    }
-    return found;
+    return exclusionPatterns.match(file.path(), Paths.get(file.getModuleRelativePath()));
   }
 
-  private static void log(String title, Collection<WildcardPattern> patterns) {
+  private static void log(String title, PathPatternSet patterns) {
     if (!patterns.isEmpty()) {
       LOG.info(title);
-      for (WildcardPattern pattern : patterns) {
+      for (PathPattern pattern : patterns.getPatterns()) {
         LOG.info("  {}", pattern);
       }
     }
@@ -64,6 +64,10 @@ public class ReportPublisher implements Startable {
   private static final Logger LOG = Loggers.get(ReportPublisher.class);
 
   public static final String KEEP_REPORT_PROP_KEY = "sonar.scanner.keepReport";
+  /**
+   * When enabled, the report is compressed directly into the body of the upload request instead of a temporary zip file.
+   */
+  public static final String STREAM_REPORT_PROP_KEY = "sonar.scanner.streamReport";
   public static final String VERBOSE_KEY = "sonar.verbose";
   public static final String METADATA_DUMP_FILENAME = "report-task.txt";
   private static final String CHARACTERISTIC = "characteristic";
@@ -110,6 +114,7 @@ public class ReportPublisher implements Startable {
 
   @Override
   public void stop() {
+    writer.flushComponentIssues();
     if (!shouldKeepReport()) {
       deleteQuietly(reportDir);
     }
@@ -127,12 +132,16 @@ public class ReportPublisher implements Startable {
     // If this is a issues mode analysis then we should not upload reports
     String taskId = null;
     if (!analysisMode.isIssues()) {
-      File report = generateReportFile();
-      if (shouldKeepReport()) {
-        LOG.info("Analysis report generated in " + reportDir);
-      }
-      if (!analysisMode.isMediumTest()) {
-        taskId = upload(report);
+      if (shouldStreamReport()) {
+        generateReport();
+        logKeptReport();
+        taskId = upload(new PostRequest.Part(MediaTypes.ZIP, "scanner-report.zip", output -> ZipUtils.zipDir(reportDir.toFile(), output)));
+      } else {
+        File report = generateReportFile();
+        logKeptReport();
+        if (!analysisMode.isMediumTest()) {
+          taskId = upload(report);
+        }
       }
     }
     logSuccess(taskId);
@@ -142,19 +151,33 @@ public class ReportPublisher implements Startable {
     return settings.getBoolean(KEEP_REPORT_PROP_KEY).orElse(false) || settings.getBoolean(VERBOSE_KEY).orElse(false);
   }
 
+  private boolean shouldStreamReport() {
+    return settings.getBoolean(STREAM_REPORT_PROP_KEY).orElse(false) && !analysisMode.isMediumTest();
+  }
+
+  private void logKeptReport() {
+    if (shouldKeepReport()) {
+      LOG.info("Analysis report generated in " + reportDir);
+    }
+  }
+
+  private void generateReport() {
+    long startTime = System.currentTimeMillis();
+    writer.flushComponentIssues();
+    for (ReportPublisherStep publisher : publishers) {
+      publisher.publish(writer);
+    }
+    long stopTime = System.currentTimeMillis();
+    LOG.info("Analysis report generated in {}ms, dir size={}", stopTime - startTime, FileUtils.byteCountToDisplaySize(FileUtils.sizeOfDirectory(reportDir.toFile())));
+  }
+
   private File generateReportFile() {
+    generateReport();
     try {
       long startTime = System.currentTimeMillis();
-      for (ReportPublisherStep publisher : publishers) {
-        publisher.publish(writer);
-      }
-      long stopTime = System.currentTimeMillis();
-      LOG.info("Analysis report generated in {}ms, dir size={}", stopTime - startTime, FileUtils.byteCountToDisplaySize(FileUtils.sizeOfDirectory(reportDir.toFile())));
-
-      startTime = System.currentTimeMillis();
       File reportZip = temp.newFile("scanner-report", ".zip");
       ZipUtils.zipDir(reportDir.toFile(), reportZip);
-      stopTime = System.currentTimeMillis();
+      long stopTime = System.currentTimeMillis();
       LOG.info("Analysis reports compressed in {}ms, zip size={}", stopTime - startTime, FileUtils.byteCountToDisplaySize(FileUtils.sizeOf(reportZip)));
       return reportZip;
     } catch (IOException e) {
@@ -167,9 +190,16 @@ public class ReportPublisher implements Startable {
    */
   @VisibleForTesting
   String upload(File report) {
+    return upload(new PostRequest.Part(MediaTypes.ZIP, report));
+  }
+
+  /**
+   * Uploads the report part to server and returns the generated task id
+   */
+  @VisibleForTesting
+  String upload(PostRequest.Part filePart) {
     LOG.debug("Upload report");
     long startTime = System.currentTimeMillis();
-    PostRequest.Part filePart = new PostRequest.Part(MediaTypes.ZIP, report);
     PostRequest post = new PostRequest("api/ce/submit")
       .setMediaType(MediaTypes.PROTOBUF)
       .setParam("organization", settings.get(ORGANIZATION).orElse(null))
@@ -21,12 +21,14 @@ package org.sonar.scanner.sensor;
 
 import java.io.Serializable;
 import javax.annotation.concurrent.ThreadSafe;
+import org.sonar.api.CoreProperties;
 import org.sonar.api.SonarRuntime;
 import org.sonar.api.batch.AnalysisMode;
 import org.sonar.api.batch.fs.FileSystem;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.InputModule;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.fs.internal.PathPatternSet;
 import org.sonar.api.batch.rule.ActiveRules;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.coverage.NewCoverage;
@@ -71,6 +73,7 @@ public class DefaultSensorContext implements SensorContext {
   private final SonarRuntime sonarRuntime;
   private final Configuration config;
   private final BranchConfiguration branchConfiguration;
+  private final PathPatternSet cpdExclusions;
 
   public DefaultSensorContext(InputModule module, Configuration config, Settings mutableSettings, FileSystem fs, ActiveRules activeRules,
     AnalysisMode analysisMode, SensorStorage sensorStorage, SonarRuntime sonarRuntime, BranchConfiguration branchConfiguration) {
@@ -83,6 +86,7 @@ public class DefaultSensorContext implements SensorContext {
     this.sensorStorage = sensorStorage;
     this.sonarRuntime = sonarRuntime;
     this.branchConfiguration = branchConfiguration;
+    this.cpdExclusions = PathPatternSet.create(config.getStringArray(CoreProperties.CPD_EXCLUSIONS));
   }
 
   @Override
@@ -159,7 +163,7 @@ public class DefaultSensorContext implements SensorContext {
     if (analysisMode.isIssues() || branchConfiguration.isShortLivingBranch()) {
       return NO_OP_NEW_CPD_TOKENS;
     }
-    return new DefaultCpdTokens(config, sensorStorage);
+    return new DefaultCpdTokens(cpdExclusions, sensorStorage);
   }
 
   @Override
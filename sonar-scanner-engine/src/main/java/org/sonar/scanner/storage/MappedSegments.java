@@ -0,0 +1,124 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.sonar.core.util.FileUtils.deleteQuietly;
+
+/**
+ * Append-only area of bytes, made of segments of a memory-mapped temporary file. Data therefore lives outside of the
+ * heap and is paged out by the OS when memory is short.
+ * <p>
+ * Each appended array of bytes is addressed by a reference made of the index of its segment and of its offset in the
+ * segment. Appending is synchronized, reading is lock-free and safe as soon as the reference has been published
+ * to the reading thread.
+ * </p>
+ */
+class MappedSegments {
+  static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+  private static final int LENGTH_SIZE = Integer.BYTES;
+
+  private final File file;
+  private final int segmentSize;
+  private final RandomAccessFile randomAccessFile;
+  private final FileChannel channel;
+  private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+  private long mappedSize = 0L;
+  private int writePosition = 0;
+
+  MappedSegments(File file) {
+    this(file, DEFAULT_SEGMENT_SIZE);
+  }
+
+  MappedSegments(File file, int segmentSize) {
+    this.file = file;
+    this.segmentSize = segmentSize;
+    try {
+      this.randomAccessFile = new RandomAccessFile(file, "rw");
+      this.channel = randomAccessFile.getChannel();
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to create storage file " + file, e);
+    }
+  }
+
+  /**
+   * @return the reference to give to {@link #read(long)}
+   */
+  synchronized long append(byte[] bytes, int length) {
+    int required = LENGTH_SIZE + length;
+    if (segments.isEmpty() || segments.get(segments.size() - 1).capacity() - writePosition < required) {
+      mapSegment(Math.max(segmentSize, required));
+    }
+    int segmentIndex = segments.size() - 1;
+    MappedByteBuffer segment = segments.get(segmentIndex);
+    int offset = writePosition;
+    segment.putInt(offset, length);
+    ByteBuffer writer = segment.duplicate();
+    writer.position(offset + LENGTH_SIZE);
+    writer.put(bytes, 0, length);
+    writePosition += required;
+    return ((long) segmentIndex << 32) | offset;
+  }
+
+  byte[] read(long reference) {
+    ByteBuffer reader = segments.get((int) (reference >>> 32)).duplicate();
+    int offset = (int) reference;
+    byte[] bytes = new byte[reader.getInt(offset)];
+    reader.position(offset + LENGTH_SIZE);
+    reader.get(bytes);
+    return bytes;
+  }
+
+  private void mapSegment(int size) {
+    try {
+      segments.add(channel.map(FileChannel.MapMode.READ_WRITE, mappedSize, size));
+      mappedSize += size;
+      writePosition = 0;
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to map " + size + " bytes of storage file " + file, e);
+    }
+  }
+
+  int segmentCount() {
+    return segments.size();
+  }
+
+  /**
+   * Mapped segments are released by the garbage collector, the file is deleted right away when the OS allows it.
+   */
+  synchronized void close() {
+    segments.clear();
+    try {
+      channel.close();
+      randomAccessFile.close();
+    } catch (IOException e) {
+      throw new IllegalStateException("Fail to close storage file " + file, e);
+    }
+    deleteQuietly(file);
+  }
+}
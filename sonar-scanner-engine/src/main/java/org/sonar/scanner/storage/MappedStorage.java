@@ -0,0 +1,192 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.storage;
+
+import com.google.common.collect.Iterators;
+import com.persistit.Key;
+import com.persistit.Persistit;
+import com.persistit.Value;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Storage whose values are kept in {@link MappedSegments}. Keys and values are encoded the same way as in Persistit,
+ * so that keys are ordered the same way and value coders registered in {@link Storages} are used.
+ * <p>
+ * The index maps the encoded keys to the references of the values. As Persistit encodes keys so that their
+ * bytes sort as the keys do, the values of a group of keys are a range of the index.
+ * </p>
+ * <p>
+ * This storage is thread-safe. Space of removed values is not reclaimed before the storage is closed.
+ * </p>
+ */
+class MappedStorage<V> extends Storage<V> {
+
+  private final String name;
+  private final MappedSegments segments;
+  private final ConcurrentSkipListMap<byte[], Long> index = new ConcurrentSkipListMap<>(MappedStorage::compareUnsigned);
+  private final ThreadLocal<Key> keys;
+  private final ThreadLocal<Value> values;
+
+  MappedStorage(String name, Persistit persistit, MappedSegments segments) {
+    this.name = name;
+    this.segments = segments;
+    this.keys = ThreadLocal.withInitial(() -> new Key(persistit));
+    this.values = ThreadLocal.withInitial(() -> {
+      Value value = new Value(persistit);
+      value.setMaximumSize(Value.MAXIMUM_SIZE);
+      return value;
+    });
+  }
+
+  @Override
+  Storage<V> doPut(Object[] key, V value) {
+    try {
+      Value encoded = values.get();
+      encoded.clear();
+      encoded.put(value);
+      index.put(encode(key, null), segments.append(encoded.getEncodedBytes(), encoded.getEncodedSize()));
+      return this;
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to put element in the storage '" + name + "'", e);
+    }
+  }
+
+  @CheckForNull
+  @Override
+  V doGet(Object[] key) {
+    Long reference = index.get(encode(key, null));
+    return reference == null ? null : read(reference);
+  }
+
+  @Override
+  boolean doContainsKey(Object[] key) {
+    return index.containsKey(encode(key, null));
+  }
+
+  @Override
+  boolean doRemove(Object[] key) {
+    return index.remove(encode(key, null)) != null;
+  }
+
+  @Override
+  Storage<V> doClear(Object[] key) {
+    index.subMap(encode(key, null), true, encode(key, Key.AFTER), false).clear();
+    return this;
+  }
+
+  @Override
+  public void clear() {
+    index.clear();
+  }
+
+  @Override
+  Set<Object> doKeySet(Object[] key) {
+    Set<Object> result = new LinkedHashSet<>();
+    byte[] upperBound = encode(key, Key.AFTER);
+    byte[] next = index.higherKey(encode(key, Key.BEFORE));
+    while (next != null && compareUnsigned(next, upperBound) < 0) {
+      Object part = decodePart(next, key.length);
+      result.add(part);
+      // jump over all the sub-keys of this part
+      Object[] subKey = Arrays.copyOf(key, key.length + 1);
+      subKey[key.length] = part;
+      next = index.higherKey(encode(subKey, Key.AFTER));
+    }
+    return result;
+  }
+
+  @Override
+  Iterable<V> doValues(Object[] key) {
+    return () -> Iterators.transform(subKeys(key).values().iterator(), this::read);
+  }
+
+  @Override
+  Iterable<Entry<V>> doEntries(Object[] key) {
+    return () -> Iterators.transform(subKeys(key).entrySet().iterator(), this::toEntry);
+  }
+
+  private NavigableMap<byte[], Long> subKeys(Object[] key) {
+    return index.subMap(encode(key, Key.BEFORE), false, encode(key, Key.AFTER), false);
+  }
+
+  private Entry<V> toEntry(Map.Entry<byte[], Long> indexEntry) {
+    Key key = decode(indexEntry.getKey());
+    Object[] parts = new Object[key.getDepth()];
+    for (int i = 0; i < parts.length; i++) {
+      parts[i] = key.indexTo(i).decode();
+    }
+    return new Entry<>(parts, read(indexEntry.getValue()));
+  }
+
+  @SuppressWarnings("unchecked")
+  private V read(long reference) {
+    try {
+      byte[] bytes = segments.read(reference);
+      Value encoded = values.get();
+      encoded.clear();
+      encoded.putEncodedBytes(bytes, 0, bytes.length);
+      return (V) encoded.get();
+    } catch (Exception e) {
+      throw new IllegalStateException("Fail to get element from cache " + name, e);
+    }
+  }
+
+  private byte[] encode(Object[] parts, @Nullable Key.EdgeValue edge) {
+    Key key = keys.get();
+    key.clear();
+    for (Object part : parts) {
+      key.append(part);
+    }
+    if (edge != null) {
+      key.append(edge);
+    }
+    return Arrays.copyOf(key.getEncodedBytes(), key.getEncodedSize());
+  }
+
+  private Key decode(byte[] encoded) {
+    Key key = keys.get();
+    key.clear();
+    System.arraycopy(encoded, 0, key.getEncodedBytes(), 0, encoded.length);
+    key.setEncodedSize(encoded.length);
+    return key;
+  }
+
+  private Object decodePart(byte[] encoded, int partIndex) {
+    return decode(encoded).indexTo(partIndex).decode();
+  }
+
+  private static int compareUnsigned(byte[] a, byte[] b) {
+    int length = Math.min(a.length, b.length);
+    for (int i = 0; i < length; i++) {
+      int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return a.length - b.length;
+  }
+}
@@ -27,19 +27,47 @@ import com.persistit.Volume;
 import com.persistit.encoding.CoderManager;
 import com.persistit.encoding.ValueCoder;
 import com.persistit.exception.PersistitException;
+import java.io.File;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 import org.picocontainer.Startable;
 import org.sonar.api.batch.ScannerSide;
+import org.sonar.scanner.bootstrap.GlobalConfiguration;
 
+/**
+ * Creates the {@link Storage}s of an analysis. By default they are stored in a temporary Persistit volume. When
+ * {@link #MAPPED_STORAGE_PROPERTY} is enabled, they are stored in memory-mapped segments of a temporary file,
+ * which can be read concurrently. Persistit is still used to encode keys and values in both cases.
+ */
 @ScannerSide
 public class Storages implements Startable {
+  public static final String MAPPED_STORAGE_PROPERTY = "sonar.scanner.storage.mapped";
+
   private final Map<String, Exchange> cacheMap = new HashMap<>();
+  private final Set<String> cacheNames = new HashSet<>();
+  private final boolean mapped;
+  private final File tempDir;
   private Persistit persistit;
   private Volume volume;
+  @CheckForNull
+  private MappedSegments segments;
+
+  public Storages(StoragesManager storagesManager, GlobalConfiguration configuration) {
+    this(storagesManager, configuration.getBoolean(MAPPED_STORAGE_PROPERTY).orElse(false));
+  }
 
   public Storages(StoragesManager storagesManager) {
+    this(storagesManager, false);
+  }
+
+  Storages(StoragesManager storagesManager, boolean mapped) {
+    this.mapped = mapped;
+    this.tempDir = storagesManager.tempDir();
     persistit = storagesManager.persistit();
     doStart();
   }
@@ -50,6 +78,14 @@ public class Storages implements Startable {
   }
 
   private void doStart() {
+    if (mapped) {
+      try {
+        segments = new MappedSegments(File.createTempFile("storages", ".dat", tempDir));
+      } catch (IOException e) {
+        throw new IllegalStateException("Fail to create a storage file", e);
+      }
+      return;
+    }
     try {
       persistit.flush();
       volume = persistit.createTemporaryVolume();
@@ -64,13 +100,18 @@ public class Storages implements Startable {
   }
 
   public <V> Storage<V> createCache(String cacheName) {
-    Preconditions.checkState(volume != null && volume.isOpened(), "Caches are not initialized");
-    Preconditions.checkState(!cacheMap.containsKey(cacheName), "Cache is already created: %s", cacheName);
+    Preconditions.checkState(segments != null || (volume != null && volume.isOpened()), "Caches are not initialized");
+    Preconditions.checkState(!cacheNames.contains(cacheName), "Cache is already created: %s", cacheName);
+    if (segments != null) {
+      cacheNames.add(cacheName);
+      return new MappedStorage<>(cacheName, persistit, segments);
+    }
     try {
       Exchange exchange = persistit.getExchange(volume, cacheName, true);
       exchange.setMaximumValueSize(Value.MAXIMUM_SIZE);
-      Storage<V> cache = new Storage<>(cacheName, exchange);
+      Storage<V> cache = new PersistitStorage<>(cacheName, exchange);
       cacheMap.put(cacheName, exchange);
+      cacheNames.add(cacheName);
       return cache;
     } catch (Exception e) {
       throw new IllegalStateException("Fail to create cache: " + cacheName, e);
@@ -84,6 +125,12 @@ public class Storages implements Startable {
     }
 
     cacheMap.clear();
+    cacheNames.clear();
+
+    if (segments != null) {
+      segments.close();
+      segments = null;
+    }
 
     if (volume != null) {
       try {
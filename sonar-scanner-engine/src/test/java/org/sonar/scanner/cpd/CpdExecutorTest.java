@@ -84,6 +84,7 @@ public class CpdExecutorTest {
 
     branchConfig = mock(BranchConfiguration.class);
     settings = mock(CpdSettings.class);
+    when(settings.getThreads()).thenReturn(2);
     publisher = mock(ReportPublisher.class);
     when(publisher.getWriter()).thenReturn(new ScannerReportWriter(outputDir));
 
@@ -235,6 +236,37 @@ public class CpdExecutorTest {
         "Timeout during detection of duplications for .*Foo2.php");
   }
 
+  @Test
+  public void detect_duplications_of_files_concurrently() {
+    List<DefaultInputFile> components = new ArrayList<>();
+    for (int i = 1; i <= 10; i++) {
+      DefaultInputFile component = createComponent("src/Dup" + i + ".php", 100);
+      List<Block> blocks = new ArrayList<>();
+      for (int j = 1; j <= 10; j++) {
+        blocks.add(Block.builder()
+          .setResourceId(component.key())
+          .setIndexInFile(j)
+          .setLines(j, j + 1)
+          .setUnit(j, j + 1)
+          .setBlockHash(new ByteArray((long) (1000 + j)))
+          .build());
+      }
+      index.insert((InputFile) component, blocks);
+      components.add(component);
+    }
+
+    executor.execute(60_000);
+
+    for (DefaultInputFile component : components) {
+      try (CloseableIterator<Duplication> dups = reader.readComponentDuplications(component.batchId())) {
+        Duplication dup = dups.next();
+        assertThat(dup.getOriginPosition().getStartLine()).isEqualTo(1);
+        assertThat(dup.getDuplicateList()).hasSize(9);
+        assertThat(dups.hasNext()).isFalse();
+      }
+    }
+  }
+
   private Duplication[] readDuplications(int expected) {
     assertThat(reader.readComponentDuplications(batchComponent1.batchId())).hasSize(expected);
     Duplication[] duplications = new Duplication[expected];
@@ -22,6 +22,7 @@ package org.sonar.scanner.issue.ignore.scanner;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.regex.Pattern;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -31,6 +32,7 @@ import org.mockito.MockitoAnnotations;
 import org.sonar.scanner.issue.ignore.pattern.IssueExclusionPatternInitializer;
 import org.sonar.scanner.issue.ignore.pattern.IssuePattern;
 import org.sonar.scanner.issue.ignore.pattern.PatternMatcher;
+import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader.MultiRegexpMatcher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -114,4 +116,41 @@ public class IssueExclusionsLoaderTest {
     when(exclusionPatternInitializer.hasMulticriteriaPatterns()).thenReturn(false);
     assertThat(scanner.shouldExecute()).isFalse();
   }
+
+  @Test
+  public void multiRegexpMatcher_returns_first_matching_pattern_in_declaration_order() {
+    Pattern foo = Pattern.compile("foo");
+    Pattern bar = Pattern.compile("b[a-z]r");
+    Pattern fooBar = Pattern.compile("foo.*bar");
+    MultiRegexpMatcher<Pattern> matcher = MultiRegexpMatcher.of(Arrays.asList(bar, fooBar, foo));
+
+    assertThat(matcher.isEmpty()).isFalse();
+    assertThat(matcher.find("nothing")).isNull();
+    assertThat(matcher.find("a foo")).isSameAs(foo);
+    assertThat(matcher.find("foo and bar")).isSameAs(bar);
+    assertThat(matcher.find("foo and baz")).isSameAs(foo);
+  }
+
+  @Test
+  public void multiRegexpMatcher_supports_patterns_which_can_not_be_combined() {
+    Pattern backReference = Pattern.compile("(a)\\1");
+    Pattern quote = Pattern.compile("\\Q(b)");
+    Pattern comment = Pattern.compile("(?x) c # comment");
+    Pattern caseInsensitive = Pattern.compile("d", Pattern.CASE_INSENSITIVE);
+    MultiRegexpMatcher<Pattern> matcher = MultiRegexpMatcher.of(Arrays.asList(Pattern.compile("(z)"), backReference, quote, comment, caseInsensitive));
+
+    assertThat(matcher.find("aa")).isSameAs(backReference);
+    assertThat(matcher.find("(b)")).isSameAs(quote);
+    assertThat(matcher.find("c")).isSameAs(comment);
+    assertThat(matcher.find("D")).isSameAs(caseInsensitive);
+    assertThat(matcher.find("ab")).isNull();
+  }
+
+  @Test
+  public void multiRegexpMatcher_without_patterns_matches_nothing() {
+    MultiRegexpMatcher<Pattern> matcher = MultiRegexpMatcher.of(Collections.emptyList());
+
+    assertThat(matcher.isEmpty()).isTrue();
+    assertThat(matcher.find("foo")).isNull();
+  }
 }
@@ -40,6 +40,7 @@ import org.sonar.scanner.issue.ignore.pattern.IssueExclusionPatternInitializer;
 import org.sonar.scanner.issue.ignore.pattern.LineRange;
 import org.sonar.scanner.issue.ignore.pattern.PatternMatcher;
 import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader.DoubleRegexpMatcher;
+import org.sonar.scanner.issue.ignore.scanner.IssueExclusionsLoader.MultiRegexpMatcher;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.mockito.Mockito.times;
@@ -70,7 +71,8 @@ public class IssueExclusionsRegexpScannerTest {
     allFilePatterns = Collections.singletonList(Pattern.compile("@SONAR-IGNORE-ALL"));
 
     javaFile = "org.sonar.test.MyFile";
-    regexpScanner = new IssueExclusionsRegexpScanner(javaFile, allFilePatterns, blockPatterns, patternMatcher);
+    regexpScanner = new IssueExclusionsRegexpScanner(javaFile, MultiRegexpMatcher.of(allFilePatterns),
+      MultiRegexpMatcher.of(blockPatterns, DoubleRegexpMatcher::getFirstPattern), patternMatcher);
   }
 
   @Test
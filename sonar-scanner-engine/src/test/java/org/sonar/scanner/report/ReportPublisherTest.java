@@ -19,12 +19,16 @@
  */
 package org.sonar.scanner.report;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.zip.ZipInputStream;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -49,6 +53,7 @@ import org.sonar.scanner.bootstrap.ScannerWsClient;
 import org.sonar.scanner.scan.branch.BranchConfiguration;
 import org.sonarqube.ws.WsCe;
 import org.sonarqube.ws.client.HttpException;
+import org.sonarqube.ws.client.PostRequest;
 import org.sonarqube.ws.client.WsRequest;
 import org.sonarqube.ws.client.WsResponse;
 
@@ -58,6 +63,7 @@ import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.sonar.scanner.scan.branch.BranchType.SHORT;
 
@@ -231,6 +237,40 @@ public class ReportPublisherTest {
       entry("projectKey", "struts"));
   }
 
+  @Test
+  public void stream_report_into_upload_request() throws Exception {
+    TempFolder tempFolder = mock(TempFolder.class);
+    ReportPublisher underTest = new ReportPublisher(settings.asConfig(), wsClient, server, contextPublisher, moduleHierarchy, mode, tempFolder,
+      new ReportPublisherStep[0], branchConfiguration);
+    settings.setProperty(ReportPublisher.STREAM_REPORT_PROP_KEY, true);
+    underTest.start();
+    Files.write(underTest.getReportDir().resolve("metadata.pb"), "{metadata}".getBytes(StandardCharsets.UTF_8));
+
+    WsResponse response = mock(WsResponse.class);
+    PipedOutputStream out = new PipedOutputStream();
+    PipedInputStream in = new PipedInputStream(out);
+    WsCe.SubmitResponse.newBuilder().setTaskId("TASK-1").build().writeTo(out);
+    out.close();
+    when(response.failIfNotSuccessful()).thenReturn(response);
+    when(response.contentStream()).thenReturn(in);
+    when(wsClient.call(any(WsRequest.class))).thenReturn(response);
+
+    underTest.execute();
+
+    // no temporary zip file
+    verifyZeroInteractions(tempFolder);
+    ArgumentCaptor<WsRequest> capture = ArgumentCaptor.forClass(WsRequest.class);
+    verify(wsClient).call(capture.capture());
+    PostRequest.Part part = ((PostRequest) capture.getValue()).getParts().get("report");
+    assertThat(part.getFile()).isNull();
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    part.getContentWriter().writeTo(body);
+    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+      assertThat(zip.getNextEntry().getName()).isEqualTo("metadata.pb");
+      assertThat(zip.getNextEntry()).isNull();
+    }
+  }
+
   @Test
   public void test_send_branches_characteristics() throws Exception {
     ReportPublisher underTest = new ReportPublisher(settings.asConfig(), wsClient, server, contextPublisher, moduleHierarchy, mode, mock(TempFolder.class),
@@ -0,0 +1,72 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.storage;
+
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedSegmentsTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void append_and_read() throws Exception {
+    MappedSegments underTest = new MappedSegments(temp.newFile(), 1024);
+
+    long first = underTest.append(new byte[] {1, 2, 3, 4}, 3);
+    long second = underTest.append(new byte[0], 0);
+    long third = underTest.append(new byte[] {5}, 1);
+
+    assertThat(underTest.read(first)).containsExactly(1, 2, 3);
+    assertThat(underTest.read(second)).isEmpty();
+    assertThat(underTest.read(third)).containsExactly(5);
+    assertThat(underTest.segmentCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void map_new_segment_when_current_one_is_full() throws Exception {
+    MappedSegments underTest = new MappedSegments(temp.newFile(), 16);
+
+    long first = underTest.append(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}, 8);
+    long second = underTest.append(new byte[] {9, 10, 11, 12, 13}, 5);
+    long large = underTest.append(new byte[100], 100);
+
+    assertThat(underTest.segmentCount()).isEqualTo(3);
+    assertThat(underTest.read(first)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+    assertThat(underTest.read(second)).containsExactly(9, 10, 11, 12, 13);
+    assertThat(underTest.read(large)).hasSize(100);
+  }
+
+  @Test
+  public void close_deletes_file() throws Exception {
+    File file = temp.newFile();
+    MappedSegments underTest = new MappedSegments(file, 1024);
+    underTest.append(new byte[] {1}, 1);
+
+    underTest.close();
+
+    assertThat(file).doesNotExist();
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarQube
+ * Copyright (C) 2009-2017 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.scanner.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the tests of {@link StorageTest} on memory-mapped storages.
+ */
+public class MappedStorageTest extends StorageTest {
+
+  @Before
+  @Override
+  public void start() {
+    caches = new Storages(cachesManager, true);
+    caches.start();
+  }
+
+  @Test
+  public void create_mapped_storages() {
+    assertThat(caches.<String>createCache("mapped")).isInstanceOf(MappedStorage.class);
+  }
+
+  @Test
+  public void values_can_be_read_concurrently() throws Exception {
+    Storage<String> cache = caches.createCache("concurrent");
+    for (int i = 0; i < 10_000; i++) {
+      cache.put("module", i, "value" + i);
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Integer>> readers = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        readers.add(executor.submit(() -> {
+          int count = 0;
+          for (int i = 0; i < 10_000; i++) {
+            if (("value" + i).equals(cache.get("module", i))) {
+              count++;
+            }
+          }
+          return count;
+        }));
+      }
+      for (Future<Integer> reader : readers) {
+        assertThat(reader.get()).isEqualTo(10_000);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -22,15 +22,26 @@ package org.sonar.scanner.protocol.output;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
-import javax.annotation.concurrent.Immutable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
 import org.sonar.core.util.ContextException;
 import org.sonar.core.util.Protobuf;
 
-@Immutable
 public class ScannerReportWriter {
 
+  /**
+   * Maximum number of issue files kept open by {@link #appendComponentIssue(int, ScannerReport.Issue)}. The files
+   * which received the least recent issues are closed first.
+   */
+  private static final int MAX_OPEN_ISSUE_STREAMS = 32;
+
   private final FileStructure fileStructure;
+  private final Map<Integer, OutputStream> issueStreamsByComponentRef = new LinkedHashMap<>(16, 0.75F, true);
+  private int openedIssueStreams = 0;
 
   public ScannerReportWriter(File dir) {
     if (!dir.exists() && !dir.mkdirs()) {
@@ -69,19 +80,96 @@ public class ScannerReportWriter {
 
   public File writeComponentIssues(int componentRef, Iterable<ScannerReport.Issue> issues) {
     File file = fileStructure.fileFor(FileStructure.Domain.ISSUES, componentRef);
-    Protobuf.writeStream(issues, file, false);
+    synchronized (issueStreamsByComponentRef) {
+      closeIssueStream(componentRef, issueStreamsByComponentRef.remove(componentRef));
+      Protobuf.writeStream(issues, file, false);
+    }
     return file;
   }
 
+  /**
+   * Appends an issue to the file of the component. The file is kept open for the next issues of the component,
+   * so {@link #flushComponentIssues()} must be called before reading the issues of the report.
+   */
   public void appendComponentIssue(int componentRef, ScannerReport.Issue issue) {
+    synchronized (issueStreamsByComponentRef) {
+      OutputStream out = issueStreamsByComponentRef.get(componentRef);
+      if (out == null) {
+        closeLeastRecentIssueStream();
+        out = openIssueStream(componentRef);
+        issueStreamsByComponentRef.put(componentRef, out);
+      }
+      try {
+        issue.writeDelimitedTo(out);
+      } catch (Exception e) {
+        throw ContextException.of("Unable to write issue", e).addContext("file", fileStructure.fileFor(FileStructure.Domain.ISSUES, componentRef));
+      }
+    }
+  }
+
+  /**
+   * Flushes and closes the issue files opened by {@link #appendComponentIssue(int, ScannerReport.Issue)}
+   */
+  public void flushComponentIssues() {
+    synchronized (issueStreamsByComponentRef) {
+      Iterator<Map.Entry<Integer, OutputStream>> it = issueStreamsByComponentRef.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<Integer, OutputStream> entry = it.next();
+        it.remove();
+        closeIssueStream(entry.getKey(), entry.getValue());
+      }
+    }
+  }
+
+  /**
+   * Number of issue streams currently open. Visible for testing.
+   */
+  int countOpenIssueStreams() {
+    synchronized (issueStreamsByComponentRef) {
+      return issueStreamsByComponentRef.size();
+    }
+  }
+
+  /**
+   * Number of times an issue file was opened by {@link #appendComponentIssue(int, ScannerReport.Issue)}. Visible for testing.
+   */
+  int countOpenedIssueStreams() {
+    synchronized (issueStreamsByComponentRef) {
+      return openedIssueStreams;
+    }
+  }
+
+  private OutputStream openIssueStream(int componentRef) {
     File file = fileStructure.fileFor(FileStructure.Domain.ISSUES, componentRef);
-    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file, true))) {
-      issue.writeDelimitedTo(out);
+    try {
+      OutputStream out = new BufferedOutputStream(new FileOutputStream(file, true));
+      openedIssueStreams++;
+      return out;
     } catch (Exception e) {
       throw ContextException.of("Unable to write issue", e).addContext("file", file);
     }
   }
 
+  private void closeLeastRecentIssueStream() {
+    if (issueStreamsByComponentRef.size() >= MAX_OPEN_ISSUE_STREAMS) {
+      Iterator<Map.Entry<Integer, OutputStream>> it = issueStreamsByComponentRef.entrySet().iterator();
+      Map.Entry<Integer, OutputStream> leastRecent = it.next();
+      it.remove();
+      closeIssueStream(leastRecent.getKey(), leastRecent.getValue());
+    }
+  }
+
+  private void closeIssueStream(int componentRef, @Nullable OutputStream out) {
+    if (out == null) {
+      return;
+    }
+    try {
+      out.close();
+    } catch (IOException e) {
+      throw ContextException.of("Unable to write issue", e).addContext("file", fileStructure.fileFor(FileStructure.Domain.ISSUES, componentRef));
+    }
+  }
+
   public File writeComponentMeasures(int componentRef, Iterable<ScannerReport.Measure> measures) {
     File file = fileStructure.fileFor(FileStructure.Domain.MEASURES, componentRef);
     Protobuf.writeStream(measures, file, false);
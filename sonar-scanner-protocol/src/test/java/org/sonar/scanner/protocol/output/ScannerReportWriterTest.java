@@ -20,6 +20,7 @@
 package org.sonar.scanner.protocol.output;
 
 import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
 import java.io.File;
 import org.apache.commons.io.FileUtils;
 import org.junit.Before;
@@ -116,6 +117,65 @@ public class ScannerReportWriterTest {
     }
   }
 
+  @Test
+  public void append_issues_of_many_components() {
+    int components = 100;
+    for (int i = 0; i < 5; i++) {
+      for (int ref = 1; ref <= components; ref++) {
+        underTest.appendComponentIssue(ref, ScannerReport.Issue.newBuilder().setMsg("issue " + i).build());
+      }
+    }
+    underTest.flushComponentIssues();
+
+    for (int ref = 1; ref <= components; ref++) {
+      File file = underTest.getFileStructure().fileFor(FileStructure.Domain.ISSUES, ref);
+      try (CloseableIterator<ScannerReport.Issue> read = Protobuf.readStream(file, ScannerReport.Issue.parser())) {
+        assertThat(Lists.newArrayList(Iterators.transform(read, ScannerReport.Issue::getMsg))).containsExactly("issue 0", "issue 1", "issue 2", "issue 3", "issue 4");
+      }
+    }
+  }
+
+  @Test
+  public void append_issues_opens_file_of_component_once() {
+    for (int i = 0; i < 100; i++) {
+      underTest.appendComponentIssue(1, ScannerReport.Issue.newBuilder().setMsg("issue " + i).build());
+      underTest.appendComponentIssue(2, ScannerReport.Issue.newBuilder().setMsg("issue " + i).build());
+    }
+
+    assertThat(underTest.countOpenedIssueStreams()).isEqualTo(2);
+    assertThat(underTest.countOpenIssueStreams()).isEqualTo(2);
+
+    underTest.flushComponentIssues();
+    assertThat(underTest.countOpenIssueStreams()).isZero();
+  }
+
+  @Test
+  public void append_issues_closes_least_recently_used_files() {
+    for (int ref = 1; ref <= 40; ref++) {
+      underTest.appendComponentIssue(ref, ScannerReport.Issue.newBuilder().setMsg("issue").build());
+    }
+    assertThat(underTest.countOpenIssueStreams()).isEqualTo(32);
+
+    // file of component 40 is still open, file of component 1 was closed
+    underTest.appendComponentIssue(40, ScannerReport.Issue.newBuilder().setMsg("issue").build());
+    assertThat(underTest.countOpenedIssueStreams()).isEqualTo(40);
+    underTest.appendComponentIssue(1, ScannerReport.Issue.newBuilder().setMsg("issue").build());
+    assertThat(underTest.countOpenedIssueStreams()).isEqualTo(41);
+    assertThat(underTest.countOpenIssueStreams()).isEqualTo(32);
+  }
+
+  @Test
+  public void write_issues_replaces_appended_issues() {
+    underTest.appendComponentIssue(1, ScannerReport.Issue.newBuilder().setMsg("appended").build());
+    underTest.writeComponentIssues(1, asList(ScannerReport.Issue.newBuilder().setMsg("written").build()));
+    underTest.flushComponentIssues();
+
+    File file = underTest.getFileStructure().fileFor(FileStructure.Domain.ISSUES, 1);
+    try (CloseableIterator<ScannerReport.Issue> read = Protobuf.readStream(file, ScannerReport.Issue.parser())) {
+      assertThat(Lists.newArrayList(Iterators.transform(read, ScannerReport.Issue::getMsg))).containsExactly("written");
+    }
+  }
+
   @Test
   public void write_measures() {
     assertThat(underTest.hasComponentData(FileStructure.Domain.MEASURES, 1)).isFalse();
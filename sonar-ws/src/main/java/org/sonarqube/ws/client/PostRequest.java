@@ -20,8 +20,11 @@
 package org.sonarqube.ws.client;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import javax.annotation.CheckForNull;
 
 /**
  * @since 5.3
@@ -51,19 +54,63 @@ public class PostRequest extends BaseRequest<PostRequest> {
   public static class Part {
     private final String mediaType;
     private final File file;
+    private final String fileName;
+    private final ContentWriter contentWriter;
 
     public Part(String mediaType, File file) {
       this.mediaType = mediaType;
       this.file = file;
+      this.fileName = file.getName();
+      this.contentWriter = null;
+    }
+
+    /**
+     * Part whose content is written directly into the request body, without being stored in a file first. As its
+     * length is unknown, the request is sent with a chunked transfer encoding.
+     *
+     * @since 6.7
+     */
+    public Part(String mediaType, String fileName, ContentWriter contentWriter) {
+      this.mediaType = mediaType;
+      this.file = null;
+      this.fileName = fileName;
+      this.contentWriter = contentWriter;
     }
 
     public String getMediaType() {
       return mediaType;
     }
 
+    /**
+     * @return {@code null} if the content of the part is written by {@link #getContentWriter()}
+     */
+    @CheckForNull
     public File getFile() {
       return file;
     }
+
+    public String getFileName() {
+      return fileName;
+    }
+
+    /**
+     * @return {@code null} if the content of the part is {@link #getFile()}
+     */
+    @CheckForNull
+    public ContentWriter getContentWriter() {
+      return contentWriter;
+    }
+  }
+
+  /**
+   * Writes the content of a {@link Part}. It may be called more than once if the request is sent again,
+   * for example when following a redirect.
+   *
+   * @since 6.7
+   */
+  @FunctionalInterface
+  public interface ContentWriter {
+    void writeTo(OutputStream output) throws IOException;
   }
 
 }